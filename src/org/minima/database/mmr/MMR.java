@@ -7,8 +7,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
@@ -25,10 +24,26 @@ public class MMR implements Streamable {
 	 */
 	static int MAXROWS = 256;
 	
+	/**
+	 * How often, in blocks, a snapshot drops the entries from below the base of the chain
+	 */
+	static final int SNAPSHOT_COMPACT_INTERVAL = 256;
+	
+	/**
+	 * Incremented when an MMR that other snapshots were built from changes - all snapshots are then rebuilt
+	 */
+	private static final AtomicLong mSnapshotEpoch = new AtomicLong(0);
+	
+	/**
+	 * Only one thread builds snapshots
+	 */
+	private static final Object mSnapshotLock = new Object();
+	
 	/**
 	 * What Block time does this MMR represent. Each represents 1 block.
 	 */
 	MiniNumber mBlockTime = new MiniNumber(0);
+	long mBlockTimeLong = 0;
 	
 	/**
 	 * The parent MMRData..
@@ -37,6 +52,31 @@ public class MMR implements Streamable {
 	 */
 	MMR mParent = null;
 	
+	/**
+	 * All the entries in this set AND the parents - so a lookup does not walk the parents.
+	 * 
+	 * Built when first needed and shares most of its structure with the parent snapshot.
+	 */
+	volatile MMRSnapshot mSnapshot = null;
+	
+	/**
+	 * Has a child built its snapshot from ours
+	 */
+	boolean mHasDerived = false;
+	
+	/**
+	 * Shared by all the MMRs in a chain. Entries set before the base of the chain are not visible. 
+	 */
+	ChainBase mChainBase = null;
+	
+	static class ChainBase {
+		volatile MMR mBase;
+		
+		ChainBase(MMR zBase) {
+			mBase = zBase;
+		}
+	}
+	
 	/**
 	 * What is the current entry number..
 	 */
@@ -45,7 +85,7 @@ public class MMR implements Streamable {
 	/**
 	 * All the entries in this set 
 	 */
-	protected Hashtable<String, MMREntry> mSetEntries;
+	protected MMREntryIndex mSetEntries;
 	
 	/**
 	 * The maximum row used in this Set
@@ -74,14 +114,16 @@ public class MMR implements Streamable {
 	
 	public MMR(MMR zParent) {
 		//All the Entries in this set
-		mSetEntries       = new Hashtable<>();
+		mSetEntries       = new MMREntryIndex();
 		
 		//The Maximum Rows and entries
 		mMaxEntries = new MMREntry[MAXROWS];
 		mMaxRow     = 0;
 		
 		//Parent MMRSet
-		mParent = zParent;
+		if(zParent != null) {
+			setParent(zParent);
+		}
 	
 		//Not Finalized..
 		mFinalized = false;
@@ -142,9 +184,8 @@ public class MMR implements Streamable {
 		ret.put("entrynumber", mEntryNumber);
 
 		JSONArray jentry = new JSONArray();
-		Enumeration<MMREntry> entries = mSetEntries.elements();
-		while(entries.hasMoreElements()) {
-			MMREntry entry = entries.nextElement();
+		ArrayList<MMREntry> entries = mSetEntries.getAllEntries();
+		for(MMREntry entry : entries) {
 			jentry.add(entry.toJSON());
 		}
 		ret.put("entries", jentry);
@@ -186,23 +227,58 @@ public class MMR implements Streamable {
 	}
 	
 	public void setBlockTime(MiniNumber zTime) {
-		mBlockTime = zTime;
+		mBlockTime 		= zTime;
+		mBlockTimeLong 	= zTime.getAsLongSaturated();
+		mSnapshot 		= null;
 	}
 	
 	public MiniNumber getBlockTime() {
 		return mBlockTime;
 	}
 	
+	public long getBlockTimeLong() {
+		return mBlockTimeLong;
+	}
+	
 	public MMREntryNumber getEntryNumber() {
 		return mEntryNumber;
 	}
 	
 	public void clearParent() {
-		mParent = null;
+		mParent 	= null;
+		mSnapshot 	= null;
+		
+		//We are now the base of the chain
+		setChainBase();
 	}
 	
 	public void setParent(MMR zMMR) {
-		mParent = zMMR;
+		if(zMMR == null) {
+			clearParent();
+			return;
+		}
+		
+		mParent 	= zMMR;
+		mSnapshot 	= null;
+		
+		//Join the parent chain
+		if(zMMR.mChainBase == null) {
+			zMMR.mChainBase = new ChainBase(zMMR);
+		}
+		mChainBase = zMMR.mChainBase;
+	}
+	
+	/**
+	 * This MMR is, or is about to become, the root of the chain. 
+	 * 
+	 * Children no longer see entries set before this block - unless they are copied into this MMR.
+	 */
+	public void setChainBase() {
+		if(mChainBase == null) {
+			mChainBase = new ChainBase(this);
+		}else {
+			mChainBase.mBase = this;
+		}
 	}
 	
 	public MMR getParent() {
@@ -213,15 +289,6 @@ public class MMR implements Streamable {
 		return mSetEntries.size();
 	}
 	
-	private String getHashTableEntry(int zRow, MMREntryNumber zEntry) {
-		return zRow+":"+zEntry.toString();
-	}
-	
-	private void addHashTableEntry(MMREntry zEntry) {
-		String name = getHashTableEntry(zEntry.getRow(), zEntry.getEntryNumber());
-		mSetEntries.put(name, zEntry);
-	}
-	
 	/**
 	 * Sets the Entry value in THIS SET ONLY. Does not affect parents.
 	 * @param zRow
@@ -243,8 +310,13 @@ public class MMR implements Streamable {
 		//Create new entry
 		MMREntry entry = new MMREntry(zRow, zEntry, zData);
 		
-		//Add it to the hashtable - overwrite the old one if exists
-		addHashTableEntry(entry);
+		//Are other snapshots built on this MMR
+		if(mSnapshot != null || mHasDerived) {
+			invalidateSnapshots(entry);
+		}
+		
+		//Add it to the index - overwrite the old one if exists
+		mSetEntries.put(entry);
 		
 		//Is it a MAX
 		if(mMaxEntries[zRow] == null) {
@@ -262,19 +334,86 @@ public class MMR implements Streamable {
 	}
 	
 	public MMREntry getEntry(int zRow, MMREntryNumber zEntry, MiniNumber zMaxBack) {
-		//Cycle down through the MMR sets..
-		MMR current = this;
+		//Block times are whole numbers - so at or after a fraction is at or after the next whole number
+		long maxback;
+		if(zMaxBack.decimalPlaces() > 0) {
+			maxback = zMaxBack.ceil().getAsLongSaturated();
+		}else {
+			maxback = zMaxBack.getAsLongSaturated();
+		}
 		
-		//Now Loop..
-		String entryname = getHashTableEntry(zRow, zEntry);
+		//Check within the designated range
+		if(mBlockTimeLong >= maxback) {
+		
+			//Check if already added..
+			MMREntry entry = mSetEntries.get(zRow, zEntry);
+			if(entry!=null) {
+				return entry;
+			}
+			
+			//Check the parents..
+			if(mParent != null) {
+				long key = MMREntryIndex.getKey(zRow, zEntry);
+				if(key == MMREntryNumber.LONG_INVALID) {
+					entry = mParent.getEntryFromParents(zRow, zEntry, maxback);
+				}else {
+					entry = getEntryFromSnapshot(key, zRow, zEntry, maxback);
+				}
+				
+				if(entry!=null) {
+					return entry;
+				}
+			}
+		}
+		
+		//If you can't find it - return empty entry..
+		MMREntry entry = new MMREntry(zRow, zEntry);
+		
+		return entry;
+	}
+	
+	/**
+	 * Look in the parent snapshot - the same result as asking each parent in turn
+	 */
+	private MMREntry getEntryFromSnapshot(long zKey, int zRow, MMREntryNumber zEntry, long zMaxBack) {
+		MMRSnapshot.Leaf leaf = mParent.getSnapshot().get(zKey);
+		
+		//Are we the base of the chain - with the parents still attached
+		MMR base = mChainBase.mBase;
+		if(base == this) {
+			if(leaf != null && leaf.getTime() >= zMaxBack) {
+				return leaf.getEntry();
+			}
+			return null;
+		}
+		
+		//Entries from below the base are no longer in the chain
+		long basetime = base.mBlockTimeLong;
+		if(leaf != null && leaf.getTime() >= zMaxBack && leaf.getTime() > basetime) {
+			return leaf.getEntry();
+		}
+		
+		//The base may hold entries copied from before it..
+		if(basetime >= zMaxBack) {
+			return base.mSetEntries.get(zRow, zEntry);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Cycle down through the MMR sets.. only used for entry numbers too large for the snapshot
+	 */
+	private MMREntry getEntryFromParents(int zRow, MMREntryNumber zEntry, long zMaxBack) {
+		MMR current = this;
 		while(current != null) {
 			//Check within the designated range
-			if(current.getBlockTime().isLess(zMaxBack)) {
+			if(current.mBlockTimeLong < zMaxBack) {
 				break;
 			}
 			
 			//Check if already added..
-			MMREntry entry   = current.mSetEntries.get(entryname);
+			MMREntry entry = current.mSetEntries.get(zRow, zEntry);
 			if(entry!=null) {
 				return entry;
 			}
@@ -283,10 +422,90 @@ public class MMR implements Streamable {
 			current = current.getParent();	
 		}
 		
-		//If you can't find it - return empty entry..
-		MMREntry entry = new MMREntry(zRow, zEntry);
+		return null;
+	}
+	
+	/**
+	 * Get the snapshot of this MMR and all its parents - rebuild any that are out of date
+	 */
+	MMRSnapshot getSnapshot() {
+		MMRSnapshot snapshot = mSnapshot;
+		if(snapshot != null && snapshot.getEpoch() == mSnapshotEpoch.get()) {
+			return snapshot;
+		}
 		
-		return entry;
+		synchronized (mSnapshotLock) {
+			long epoch = mSnapshotEpoch.get();
+			
+			//Which MMRs need rebuilding - usually just this one
+			ArrayList<MMR> rebuild = new ArrayList<>();
+			MMR current = this;
+			while(current != null) {
+				MMRSnapshot currentsnap = current.mSnapshot;
+				if(currentsnap != null && currentsnap.getEpoch() == epoch) {
+					break;
+				}
+				rebuild.add(current);
+				current = current.getParent();
+			}
+			
+			//Build from the oldest up
+			for(int i=rebuild.size()-1;i>=0;i--) {
+				rebuild.get(i).buildSnapshot(epoch);
+			}
+			
+			return mSnapshot;
+		}
+	}
+	
+	private void buildSnapshot(long zEpoch) {
+		MMRSnapshot snapshot = MMRSnapshot.EMPTY;
+		
+		if(mParent != null) {
+			mParent.mHasDerived = true;
+			snapshot = mParent.mSnapshot;
+			
+			//Every so often drop the entries from below the base - they are never used
+			MMR base = mChainBase.mBase;
+			if(base != this && mBlockTimeLong % SNAPSHOT_COMPACT_INTERVAL == 0) {
+				snapshot = snapshot.compact(base.mBlockTimeLong);
+			}
+		}
+		
+		//Now add our entries
+		ArrayList<MMREntry> entries = mSetEntries.getAllEntries();
+		for(MMREntry entry : entries) {
+			long key = MMREntryIndex.getKey(entry.getRow(), entry.getEntryNumber());
+			if(key != MMREntryNumber.LONG_INVALID) {
+				snapshot = snapshot.put(key, entry, mBlockTimeLong);
+			}
+		}
+		
+		mSnapshot = snapshot.setEpoch(zEpoch);
+	}
+	
+	/**
+	 * An entry is about to be set in this MMR.. 
+	 * 
+	 * If child snapshots were built from ours and this changes what they can see, they must all be rebuilt.
+	 */
+	private void invalidateSnapshots(MMREntry zNewEntry) {
+		synchronized (mSnapshotLock) {
+			mSnapshot = null;
+			
+			if(mHasDerived) {
+				//The base copies entries from before it - children check the base directly
+				boolean isbase = (mChainBase != null && mChainBase.mBase == this);
+				
+				//Does this change the visible value
+				MMREntry current = getEntry(zNewEntry.getRow(), zNewEntry.getEntryNumber());
+				boolean same = !current.isEmpty() && current.getMMRData().isEqual(zNewEntry.getMMRData());
+				
+				if(!isbase || !same) {
+					mSnapshotEpoch.incrementAndGet();
+				}
+			}
+		}
 	}
 	
 	/**
@@ -574,15 +793,22 @@ public class MMR implements Streamable {
 	 * Get a Parent MMR at a certain time..
 	 */
 	public MMR getParentAtTime(MiniNumber zTime) {
+		long time 	= zTime.getAsLongSaturated();
 		MMR current = this;
 		
 		while(current != null) {
-			if(current.getBlockTime().isEqual(zTime)) {
-				return current;
-			}
-			
+			//Only compare the MiniNumbers when the longs are the same
+			if(current.mBlockTimeLong == time) {
+				if(current.getBlockTime().isEqual(zTime)) {
+					return current;
+				}
+				
+				if(current.getBlockTime().isLess(zTime)) {
+					return null;
+				}
+				
 			//Too far.. only goes back in time further..
-			if(current.getBlockTime().isLess(zTime)) {
+			}else if(current.mBlockTimeLong < time) {
 				return null;
 			}
 			
@@ -633,9 +859,8 @@ public class MMR implements Streamable {
 		elen.writeDataStream(zOut);
 		
 		//Now write out each row..
-		Enumeration<MMREntry> entries = mSetEntries.elements();
-		while(entries.hasMoreElements()) {
-			MMREntry entry = entries.nextElement();
+		ArrayList<MMREntry> entries = mSetEntries.getAllEntries();
+		for(MMREntry entry : entries) {
 			entry.writeDataStream(zOut);
 		}
 	}
@@ -673,11 +898,11 @@ public class MMR implements Streamable {
 
 	@Override
 	public void readDataStream(DataInputStream zIn) throws IOException {
-		mBlockTime   = MiniNumber.ReadFromStream(zIn);
+		setBlockTime(MiniNumber.ReadFromStream(zIn));
 		mEntryNumber = MMREntryNumber.ReadFromStream(zIn);
 		
 		//Now the Entries..
-		mSetEntries       = new Hashtable<>();
+		mSetEntries       = new MMREntryIndex();
 		mMaxEntries       = new MMREntry[MAXROWS];
 		mMaxRow = 0;
 		
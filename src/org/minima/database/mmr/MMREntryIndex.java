@@ -0,0 +1,192 @@
+package org.minima.database.mmr;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Hashtable;
+
+/**
+ * All the entries of an MMR set keyed by row and entry number.
+ *
+ * The row and entry number are packed into a single long and stored in an
+ * open addressing table - so no String key is built for every lookup.
+ *
+ * Entry numbers too large to pack fall back to a "row:entry" Hashtable.
+ */
+public class MMREntryIndex {
+
+	/**
+	 * Rows fit in a byte - MMR.MAXROWS is 256
+	 */
+	private static final int ROW_BITS = 8;
+
+	/**
+	 * Must be a power of 2
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Fibonacci hashing multiplier
+	 */
+	private static final long HASH_MULT = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The packed keys and their entries - an empty slot has a null entry
+	 */
+	long[] 		mKeys;
+	MMREntry[] 	mEntries;
+
+	/**
+	 * Number of packed entries and when to grow the table
+	 */
+	int mSize;
+	int mResizeAt;
+	int mShift;
+
+	/**
+	 * Entry numbers that are too large to pack.. only created if needed
+	 */
+	Hashtable<String, MMREntry> mLargeEntries = null;
+
+	public MMREntryIndex() {
+		this(INITIAL_CAPACITY);
+	}
+
+	private MMREntryIndex(int zCapacity) {
+		mKeys 		= new long[zCapacity];
+		mEntries 	= new MMREntry[zCapacity];
+		mSize		= 0;
+		mResizeAt	= zCapacity / 2;
+		mShift		= 64 - Integer.numberOfTrailingZeros(zCapacity);
+	}
+
+	/**
+	 * Pack the row and entry number into a single long
+	 *
+	 * @return the key or MMREntryNumber.LONG_INVALID if the entry number is too large
+	 */
+	public static long getKey(int zRow, MMREntryNumber zEntry) {
+		long entry = zEntry.getAsLongIndex();
+		if(entry == MMREntryNumber.LONG_INVALID) {
+			return MMREntryNumber.LONG_INVALID;
+		}
+
+		return (entry << ROW_BITS) | zRow;
+	}
+
+	private static String getLargeKey(int zRow, MMREntryNumber zEntry) {
+		return zRow+":"+zEntry.toString();
+	}
+
+	private int getSlot(long zKey) {
+		return (int)((zKey * HASH_MULT) >>> mShift);
+	}
+
+	public synchronized MMREntry get(int zRow, MMREntryNumber zEntry) {
+		long key = getKey(zRow, zEntry);
+		if(key == MMREntryNumber.LONG_INVALID) {
+			if(mLargeEntries == null) {
+				return null;
+			}
+			return mLargeEntries.get(getLargeKey(zRow, zEntry));
+		}
+
+		//Linear probe..
+		int mask = mKeys.length - 1;
+		int slot = getSlot(key);
+		while(mEntries[slot] != null) {
+			if(mKeys[slot] == key) {
+				return mEntries[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Add the entry - overwrite the old one if exists
+	 */
+	public synchronized void put(MMREntry zEntry) {
+		long key = getKey(zEntry.getRow(), zEntry.getEntryNumber());
+		if(key == MMREntryNumber.LONG_INVALID) {
+			if(mLargeEntries == null) {
+				mLargeEntries = new Hashtable<>();
+			}
+			mLargeEntries.put(getLargeKey(zEntry.getRow(), zEntry.getEntryNumber()), zEntry);
+			return;
+		}
+
+		if(insert(key, zEntry)) {
+			mSize++;
+			if(mSize > mResizeAt) {
+				resize();
+			}
+		}
+	}
+
+	/**
+	 * @return true if this is a new key
+	 */
+	private boolean insert(long zKey, MMREntry zEntry) {
+		int mask = mKeys.length - 1;
+		int slot = getSlot(zKey);
+		while(mEntries[slot] != null) {
+			if(mKeys[slot] == zKey) {
+				mEntries[slot] = zEntry;
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		mKeys[slot] 	= zKey;
+		mEntries[slot] 	= zEntry;
+
+		return true;
+	}
+
+	private void resize() {
+		long[] oldkeys 		= mKeys;
+		MMREntry[] oldentries 	= mEntries;
+
+		int capacity = oldkeys.length * 2;
+		mKeys 		= new long[capacity];
+		mEntries 	= new MMREntry[capacity];
+		mResizeAt	= capacity / 2;
+		mShift		= 64 - Integer.numberOfTrailingZeros(capacity);
+
+		for(int i=0;i<oldkeys.length;i++) {
+			if(oldentries[i] != null) {
+				insert(oldkeys[i], oldentries[i]);
+			}
+		}
+	}
+
+	public synchronized int size() {
+		int size = mSize;
+		if(mLargeEntries != null) {
+			size += mLargeEntries.size();
+		}
+		return size;
+	}
+
+	/**
+	 * All the entries - in no particular order
+	 */
+	public synchronized ArrayList<MMREntry> getAllEntries(){
+		ArrayList<MMREntry> ret = new ArrayList<>(size());
+		for(MMREntry entry : mEntries) {
+			if(entry != null) {
+				ret.add(entry);
+			}
+		}
+
+		if(mLargeEntries != null) {
+			Enumeration<MMREntry> large = mLargeEntries.elements();
+			while(large.hasMoreElements()) {
+				ret.add(large.nextElement());
+			}
+		}
+
+		return ret;
+	}
+}
@@ -22,11 +22,27 @@ public class MMREntryNumber implements Streamable, Comparable<MMREntryNumber> {
 	public static final MMREntryNumber ZERO 	= new MMREntryNumber(BigDecimal.ZERO);
 	public static final MMREntryNumber TWO 	= new MMREntryNumber(new BigDecimal(2));
 	
+	/**
+	 * Largest entry number that is stored as a primitive in the MMR index
+	 */
+	private static final BigDecimal MAX_LONG_INDEX = new BigDecimal(1L << 54);
+	
+	/**
+	 * Not yet calculated / not a primitive
+	 */
+	private static final long LONG_UNSET 	= -2;
+	public static final long LONG_INVALID 	= -1;
+	
 	/**
 	 * The number representation
 	 */
 	private BigDecimal mNumber;
 	
+	/**
+	 * The primitive version of this number - calculated once when needed
+	 */
+	private long mLongIndex = LONG_UNSET;
+	
 	public MMREntryNumber() {
 		mNumber = BigDecimal.ZERO;
 	}
@@ -47,6 +63,33 @@ public class MMREntryNumber implements Streamable, Comparable<MMREntryNumber> {
 		return mNumber;
 	}
 	
+	/**
+	 * Get this number as a long for the MMR index
+	 * 
+	 * @return the whole number value or LONG_INVALID if it is negative, fractional or too large
+	 */
+	public long getAsLongIndex() {
+		if(mLongIndex == LONG_UNSET) {
+			BigDecimal whole = mNumber;
+			
+			//Numbers read from a stream may carry a scale - same as toString()
+			if(whole.scale() != 0) {
+				whole = whole.stripTrailingZeros();
+				if(whole.scale() < 0) {
+					whole = whole.setScale(0);
+				}
+			}
+			
+			if(whole.scale() == 0 && whole.signum() >= 0 && whole.compareTo(MAX_LONG_INDEX) < 0) {
+				mLongIndex = whole.longValue();
+			}else {
+				mLongIndex = LONG_INVALID;
+			}
+		}
+		
+		return mLongIndex;
+	}
+	
 	public MMREntryNumber modulo(MMREntryNumber zNumber) {
 		return new MMREntryNumber( mNumber.remainder(zNumber.getBigDecimal(),MMR_MATH_CONTEXT) );
 	}
@@ -124,7 +167,8 @@ public class MMREntryNumber implements Streamable, Comparable<MMREntryNumber> {
 		MiniData unscaleddata = MiniData.ReadFromStream(zIn);
 		
 		//Create the number
-		mNumber = new BigDecimal(new BigInteger(unscaleddata.getBytes()), scale, MMR_MATH_CONTEXT);
+		mNumber 	= new BigDecimal(new BigInteger(unscaleddata.getBytes()), scale, MMR_MATH_CONTEXT);
+		mLongIndex 	= LONG_UNSET;
 	}
 	
 	public static MMREntryNumber ReadFromStream(DataInputStream zIn) throws IOException{
@@ -0,0 +1,234 @@
+package org.minima.database.mmr;
+
+import java.util.ArrayList;
+
+/**
+ * A persistent (immutable) hash trie of MMR entries keyed by the packed
+ * row and entry number from MMREntryIndex.
+ *
+ * Adding an entry copies only the path to that entry - the rest is shared with
+ * the previous version. So every MMR in a chain can hold a complete view of all
+ * the entries of its parents at O(log n) cost, instead of asking each parent in turn.
+ *
+ * Each entry also stores the block time of the MMR that set it.
+ */
+public class MMRSnapshot {
+
+	/**
+	 * 32 way branching
+	 */
+	private static final int BITS 	= 5;
+	private static final int MASK 	= (1 << BITS) - 1;
+
+	public static final MMRSnapshot EMPTY = new MMRSnapshot(new Node(0, new Object[0]), 0, 0);
+
+	/**
+	 * A stored entry
+	 */
+	public static class Leaf {
+
+		final long 		mKey;
+		final long 		mHash;
+		final MMREntry 	mEntry;
+		final long 		mTime;
+
+		Leaf(long zKey, long zHash, MMREntry zEntry, long zTime) {
+			mKey	= zKey;
+			mHash	= zHash;
+			mEntry	= zEntry;
+			mTime	= zTime;
+		}
+
+		public MMREntry getEntry() {
+			return mEntry;
+		}
+
+		/**
+		 * The block time of the MMR that set this entry
+		 */
+		public long getTime() {
+			return mTime;
+		}
+	}
+
+	/**
+	 * Bitmap compressed branch - children are a Node or a Leaf
+	 */
+	private static class Node {
+
+		final int 		mBitmap;
+		final Object[] 	mChildren;
+
+		Node(int zBitmap, Object[] zChildren) {
+			mBitmap		= zBitmap;
+			mChildren	= zChildren;
+		}
+	}
+
+	final Node 	mRoot;
+	final int 	mSize;
+
+	/**
+	 * The MMR snapshot epoch this was built in
+	 */
+	final long 	mEpoch;
+
+	private MMRSnapshot(Node zRoot, int zSize, long zEpoch) {
+		mRoot 	= zRoot;
+		mSize 	= zSize;
+		mEpoch	= zEpoch;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public long getEpoch() {
+		return mEpoch;
+	}
+
+	public MMRSnapshot setEpoch(long zEpoch) {
+		return new MMRSnapshot(mRoot, mSize, zEpoch);
+	}
+
+	/**
+	 * Mix the key bits - this is a bijection so different keys never share a hash
+	 */
+	private static long hash(long zKey) {
+		long h = zKey;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static int getBit(long zHash, int zShift) {
+		return 1 << (int)((zHash >>> zShift) & MASK);
+	}
+
+	public Leaf get(long zKey) {
+		long hash = hash(zKey);
+		Node node = mRoot;
+		int shift = 0;
+		while(true) {
+			int bit = getBit(hash, shift);
+			if((node.mBitmap & bit) == 0) {
+				return null;
+			}
+
+			Object child = node.mChildren[Integer.bitCount(node.mBitmap & (bit - 1))];
+			if(child instanceof Leaf) {
+				Leaf leaf = (Leaf)child;
+				if(leaf.mKey == zKey) {
+					return leaf;
+				}
+				return null;
+			}
+
+			node 	= (Node)child;
+			shift  += BITS;
+		}
+	}
+
+	/**
+	 * Return a new snapshot with this entry added - this one is unchanged
+	 */
+	public MMRSnapshot put(long zKey, MMREntry zEntry, long zTime) {
+		Leaf leaf = new Leaf(zKey, hash(zKey), zEntry, zTime);
+
+		boolean[] added = new boolean[1];
+		Node root = put(mRoot, leaf, 0, added);
+
+		return new MMRSnapshot(root, added[0] ? mSize + 1 : mSize, mEpoch);
+	}
+
+	private static Node put(Node zNode, Leaf zLeaf, int zShift, boolean[] zAdded) {
+		int bit = getBit(zLeaf.mHash, zShift);
+		int idx = Integer.bitCount(zNode.mBitmap & (bit - 1));
+		Object[] children = zNode.mChildren;
+
+		//Empty slot - insert it
+		if((zNode.mBitmap & bit) == 0) {
+			Object[] newchildren = new Object[children.length + 1];
+			System.arraycopy(children, 0, newchildren, 0, idx);
+			newchildren[idx] = zLeaf;
+			System.arraycopy(children, idx, newchildren, idx + 1, children.length - idx);
+
+			zAdded[0] = true;
+			return new Node(zNode.mBitmap | bit, newchildren);
+		}
+
+		Object child = children[idx];
+		Object newchild;
+		if(child instanceof Leaf) {
+			Leaf old = (Leaf)child;
+			if(old.mKey == zLeaf.mKey) {
+				//Replace
+				newchild = zLeaf;
+			}else {
+				zAdded[0] = true;
+				newchild  = merge(old, zLeaf, zShift + BITS);
+			}
+		}else {
+			newchild = put((Node)child, zLeaf, zShift + BITS, zAdded);
+		}
+
+		Object[] newchildren = children.clone();
+		newchildren[idx] = newchild;
+
+		return new Node(zNode.mBitmap, newchildren);
+	}
+
+	private static Node merge(Leaf zLeafA, Leaf zLeafB, int zShift) {
+		int bita = getBit(zLeafA.mHash, zShift);
+		int bitb = getBit(zLeafB.mHash, zShift);
+
+		//Same slot at this level - go deeper.. hashes are unique so will split by bit 64
+		if(bita == bitb) {
+			return new Node(bita, new Object[] {merge(zLeafA, zLeafB, zShift + BITS)});
+		}
+
+		if(Integer.compareUnsigned(bita, bitb) < 0) {
+			return new Node(bita | bitb, new Object[] {zLeafA, zLeafB});
+		}
+
+		return new Node(bita | bitb, new Object[] {zLeafB, zLeafA});
+	}
+
+	/**
+	 * All the leaves - in no particular order
+	 */
+	public ArrayList<Leaf> getAllLeaves(){
+		ArrayList<Leaf> ret = new ArrayList<>(mSize);
+		addLeaves(mRoot, ret);
+		return ret;
+	}
+
+	private static void addLeaves(Node zNode, ArrayList<Leaf> zLeaves) {
+		for(Object child : zNode.mChildren) {
+			if(child instanceof Leaf) {
+				zLeaves.add((Leaf)child);
+			}else {
+				addLeaves((Node)child, zLeaves);
+			}
+		}
+	}
+
+	/**
+	 * A new snapshot without the entries set before this time
+	 */
+	public MMRSnapshot compact(long zMinTime) {
+		MMRSnapshot ret = new MMRSnapshot(EMPTY.mRoot, 0, mEpoch);
+
+		ArrayList<Leaf> leaves = getAllLeaves();
+		for(Leaf leaf : leaves) {
+			if(leaf.mTime >= zMinTime) {
+				ret = ret.put(leaf.mKey, leaf.mEntry, leaf.mTime);
+			}
+		}
+
+		return ret;
+	}
+}
@@ -43,8 +43,10 @@ public class TxPoWDB {
 	
 	/**
 	 * Add a TxPoW to the Database - both RAM and SQL
+	 * 
+	 * Returns false if it is not in the RAM DB after - the mempool was full and it was the lowest priority transaction
 	 */
-	public void addTxPoW(TxPoW zTxPoW) {
+	public boolean addTxPoW(TxPoW zTxPoW) {
 		//Get the ID
 		String txpid = zTxPoW.getTxPoWID();
 		
@@ -57,8 +59,10 @@ public class TxPoWDB {
 			}
 			
 			//Add it to the RAM
-			mRamDB.addTxPoW(zTxPoW);
+			return mRamDB.addTxPoW(zTxPoW);
 		}
+		
+		return true;
 	}
 	
 	public void addSQLTxPoW(TxPoW zTxPoW) {
@@ -191,6 +195,14 @@ public class TxPoWDB {
 		return mRamDB.getAllUnusedTxns();
 	}
 	
+	public ArrayList<TxPoW> getTopUnusedTxns(int zMax){
+		return mRamDB.getTopUnusedTxns(zMax);
+	}
+	
+	public long getMemPoolSize() {
+		return mRamDB.getMemPoolSize();
+	}
+	
 	/**
 	 * Remove a TxPoW from the RamDB (Mempool)
 	 */
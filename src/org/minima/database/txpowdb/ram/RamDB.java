@@ -2,7 +2,11 @@ package org.minima.database.txpowdb.ram;
 
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.minima.objects.Coin;
 import org.minima.objects.TxPoW;
@@ -16,12 +20,126 @@ public class RamDB {
 	 */
 	public long MAX_TIME = 1000 * 60 * 60 * GeneralParams.NUMBER_HOURS_RAMTXPOWDB;
 	
+	/**
+	 * Max size of the transactions in bytes - the lowest priority are removed after that.. 0 for no limit
+	 */
+	public long MAX_MEMPOOL_SIZE = GeneralParams.MEMPOOL_MAX_SIZE;
+	
 	ConcurrentHashMap<String, RamData> mTxPoWDB;
 	
+	/**
+	 * The transactions not in the cascade in priority order - and the total size of the ones that count towards the cap
+	 */
+	ConcurrentSkipListSet<RamData> mMemPool;
+	AtomicLong mMemPoolSize;
+	
+	/**
+	 * The input CoinIDs of the transactions not in the cascade - and the TxPoWIDs that spend them
+	 */
+	ConcurrentHashMap<String, Set<String>> mSpentCoins;
+	
 	public RamDB() {
-		mTxPoWDB = new ConcurrentHashMap<>();
+		mTxPoWDB 		= new ConcurrentHashMap<>();
+		mSpentCoins 	= new ConcurrentHashMap<>();
+		mMemPool		= new ConcurrentSkipListSet<>(RamData.PRIORITY_ORDER);
+		mMemPoolSize	= new AtomicLong();
+	}
+	
+	/**
+	 * Blocks and the transactions on the main chain are never removed - so do not count towards the cap
+	 */
+	private static boolean isCapped(RamData zRamData) {
+		return !zRamData.isOnMainChain() && !zRamData.getTxPoW().isBlock();
+	}
+	
+	/**
+	 * The mempool and main chain changes are synchronized - so the size always matches the flags
+	 */
+	private synchronized void addMemPool(RamData zRamData) {
+		if(zRamData.getTxPoW().isTransaction() && mMemPool.add(zRamData) && isCapped(zRamData)) {
+			mMemPoolSize.addAndGet(zRamData.getTxPoW().getSizeinBytes());
+		}
+	}
+	
+	private synchronized void removeMemPool(RamData zRamData) {
+		if(mMemPool.remove(zRamData) && isCapped(zRamData)) {
+			mMemPoolSize.addAndGet(-zRamData.getTxPoW().getSizeinBytes());
+		}
+	}
+	
+	private synchronized void setMainChain(RamData zRamData, boolean zOnChain) {
+		if(zRamData.isOnMainChain() == zOnChain) {
+			return;
+		}
+		
+		zRamData.setOnMainChain(zOnChain);
+		if(!zRamData.getTxPoW().isBlock() && mMemPool.contains(zRamData)) {
+			long size = zRamData.getTxPoW().getSizeinBytes();
+			mMemPoolSize.addAndGet(zOnChain ? -size : size);
+		}
 	}
 	
+	/**
+	 * Remove the lowest priority transactions until under the max size - blocks and the ones on the main chain do not count
+	 */
+	private void checkMemPoolSize() {
+		if(MAX_MEMPOOL_SIZE <= 0) {
+			return;
+		}
+		
+		Iterator<RamData> lowest = mMemPool.descendingIterator();
+		while(mMemPoolSize.get() > MAX_MEMPOOL_SIZE && lowest.hasNext()) {
+			RamData ram = lowest.next();
+			
+			//Keep blocks and the ones in the current chain
+			if(!isCapped(ram)) {
+				continue;
+			}
+			
+			remove(ram.getTxPoW().getTxPoWID());
+		}
+	}
+	
+	private void addSpentCoins(TxPoW zTxPoW) {
+		addSpentCoins(mSpentCoins, zTxPoW);
+	}
+	
+	private static void addSpentCoins(ConcurrentHashMap<String, Set<String>> zSpentCoins, TxPoW zTxPoW) {
+		if(!zTxPoW.isTransaction()) {
+			return;
+		}
+		
+		final String txpid = zTxPoW.getTxPoWID();
+		ArrayList<Coin> inputs = zTxPoW.getTransaction().getAllInputs();
+		for(Coin cc : inputs) {
+			zSpentCoins.compute(cc.getCoinID().to0xString(), (coinid, spenders) -> {
+				if(spenders == null) {
+					spenders = ConcurrentHashMap.newKeySet();
+				}
+				spenders.add(txpid);
+				return spenders;
+			});
+		}
+	}
+	
+	private void removeSpentCoins(TxPoW zTxPoW) {
+		if(!zTxPoW.isTransaction()) {
+			return;
+		}
+		
+		final String txpid = zTxPoW.getTxPoWID();
+		ArrayList<Coin> inputs = zTxPoW.getTransaction().getAllInputs();
+		for(Coin cc : inputs) {
+			mSpentCoins.computeIfPresent(cc.getCoinID().to0xString(), (coinid, spenders) -> {
+				spenders.remove(txpid);
+				return spenders.isEmpty() ? null : spenders;
+			});
+		}
+	}
+	
+	/**
+	 * Returns false if it was already there - or was a transaction with the lowest priority and removed straight away to keep the mempool under the max size
+	 */
 	public boolean addTxPoW(TxPoW zTxPoW) {
 		String txpid = zTxPoW.getTxPoWID();
 		
@@ -32,7 +150,20 @@ public class RamDB {
 			curr.updateLastAccess();
 			return false;
 		}else{
-			mTxPoWDB.put(txpid, new RamData(zTxPoW));
+			RamData ram = new RamData(zTxPoW);
+			mTxPoWDB.put(txpid, ram);
+			
+			//Index the coins it spends
+			addSpentCoins(zTxPoW);
+			
+			//Add to the mempool - may remove others
+			addMemPool(ram);
+			checkMemPoolSize();
+			
+			//Was it the one removed
+			if(!mTxPoWDB.containsKey(txpid)) {
+				return false;
+			}
 		}
 		
 		return true;
@@ -52,7 +183,11 @@ public class RamDB {
 	}
 	
 	public void remove(String zTxPoWID) {
-		mTxPoWDB.remove(zTxPoWID);
+		RamData curr = mTxPoWDB.remove(zTxPoWID);
+		if(curr!=null && !curr.isInCascade()) {
+			removeSpentCoins(curr.getTxPoW());
+			removeMemPool(curr);
+		}
 	}
 	
 	public void cleanDB() {
@@ -68,8 +203,6 @@ public class RamDB {
 			
 			//Do we make it!
 			if(ram.getLastAccess()>timecut) {
-				TxPoW txp = ram.getTxPoW();
-				
 				//Reuse the RamData..
 				newmap.put(ram.getTxPoW().getTxPoWID(), ram);
 			}
@@ -77,6 +210,27 @@ public class RamDB {
 		
 		//Switcheroo..
 		mTxPoWDB = newmap;
+		
+		//And rebuild the coin index and mempool
+		ConcurrentHashMap<String, Set<String>> newspent = new ConcurrentHashMap<>();
+		ConcurrentSkipListSet<RamData> newmempool		= new ConcurrentSkipListSet<>(RamData.PRIORITY_ORDER);
+		long newmempoolsize = 0;
+		alldata = newmap.elements();
+		while(alldata.hasMoreElements()) {
+			RamData ram = alldata.nextElement();
+			if(!ram.isInCascade()) {
+				addSpentCoins(newspent, ram.getTxPoW());
+				
+				if(ram.getTxPoW().isTransaction() && newmempool.add(ram) && isCapped(ram)) {
+					newmempoolsize += ram.getTxPoW().getSizeinBytes();
+				}
+			}
+		}
+		mSpentCoins 	= newspent;
+		synchronized (this) {
+			mMemPool		= newmempool;
+			mMemPoolSize	= new AtomicLong(newmempoolsize);
+		}
 	}
 
 	public int getSize() {
@@ -90,37 +244,57 @@ public class RamDB {
 		Enumeration<RamData> alldata = mTxPoWDB.elements();
 		while(alldata.hasMoreElements()) {
 			RamData ram = alldata.nextElement();
-			ram.setOnMainChain(false);
+			setMainChain(ram, false);
 		}
 	}
 	
 	public void setOnMainChain(String zTxPoWID) {
 		RamData curr = mTxPoWDB.get(zTxPoWID);
 		if(curr!=null) {
-			curr.setOnMainChain(true);
+			setMainChain(curr, true);
 		}
 	}
 	
 	public ArrayList<TxPoW> getAllUnusedTxns(){
+		return getTopUnusedTxns(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * The highest priority unused transactions - highest burn per byte then oldest first
+	 */
+	public ArrayList<TxPoW> getTopUnusedTxns(int zMax){
 		ArrayList<TxPoW> ret = new ArrayList<>();
-		Enumeration<RamData> alldata = mTxPoWDB.elements();
-		while(alldata.hasMoreElements()) {
-			RamData ram = alldata.nextElement();
-			if(!ram.isOnMainChain() && ram.getTxPoW().isTransaction() && !ram.isInCascade()) {
+		for(RamData ram : mMemPool) {
+			if(ret.size() >= zMax) {
+				break;
+			}
+			
+			if(!ram.isOnMainChain() && !ram.isInCascade()) {
 				ret.add(ram.getTxPoW());
 			}
 		}
 		
 		return ret;
 	}
+	
+	/**
+	 * Total size in bytes of the transactions not in the cascade or on the main chain - blocks not included
+	 */
+	public long getMemPoolSize() {
+		return mMemPoolSize.get();
+	}
 
 	/**
 	 * Once a TxPoW goes past the root fo the tree into the cascade - it cannot be added again
 	 */
 	public void setInCascade(String zTxPoWID) {
 		RamData curr = mTxPoWDB.get(zTxPoWID);
-		if(curr!=null) {
+		if(curr!=null && !curr.isInCascade()) {
 			curr.setInCascade(true);
+			
+			//Can no longer be a double spend
+			removeSpentCoins(curr.getTxPoW());
+			removeMemPool(curr);
 		}
 	}
 	
@@ -128,27 +302,17 @@ public class RamDB {
 	 * Look for double spend coins..
 	 */
 	public boolean checkForCoinID(MiniData zCoinID) {
-		
-		Enumeration<RamData> alldata = mTxPoWDB.elements();
-		while(alldata.hasMoreElements()) {
-			RamData ram = alldata.nextElement();
-			if(ram.getTxPoW().isTransaction() && !ram.isInCascade()) {
+		return mSpentCoins.containsKey(zCoinID.to0xString());
+	}
 	
-				//Get the this TxPoW
-				TxPoW txp = ram.getTxPoW();
-				
-				//Get all the input coins..
-				ArrayList<Coin> inputs = txp.getTransaction().getAllInputs();
-				for(Coin cc : inputs) {
-					
-					//Check it..
-					if(cc.getCoinID().isEqual(zCoinID)) {
-						return true;
-					}
-				}
-			}
+	/**
+	 * The TxPoWIDs of the transactions that spend this coin
+	 */
+	public ArrayList<String> getSpendingTxPoW(MiniData zCoinID) {
+		Set<String> spenders = mSpentCoins.get(zCoinID.to0xString());
+		if(spenders == null) {
+			return new ArrayList<>();
 		}
-
-		return false;
+		return new ArrayList<>(spenders);
 	}
 }
@@ -1,13 +1,40 @@
 package org.minima.database.txpowdb.ram;
 
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniNumber;
 
 public class RamData {
 
+	/**
+	 * Mempool order - highest burn per byte first then oldest first
+	 */
+	public static final Comparator<RamData> PRIORITY_ORDER = new Comparator<RamData>() {
+		@Override
+		public int compare(RamData zData1, RamData zData2) {
+			int comp = zData2.mBurnPerByte.compareTo(zData1.mBurnPerByte);
+			if(comp != 0) {
+				return comp;
+			}
+			
+			return Long.compare(zData1.mAddedOrder, zData2.mAddedOrder);
+		}
+	};
+	
+	private static final AtomicLong mOrderCounter = new AtomicLong();
+	
 	TxPoW mTxPoW;
 	
 	long mLastAccess;
 	
+	/**
+	 * Fixed when added - used for the mempool order
+	 */
+	final MiniNumber mBurnPerByte;
+	final long mAddedOrder;
+	
 	boolean mIsOnMainChain = false;
 	
 	boolean mIsInCascade = false;
@@ -15,6 +42,9 @@ public class RamData {
 	public RamData(TxPoW zTxPoW) {
 		mTxPoW = zTxPoW;
 		mLastAccess = System.currentTimeMillis();
+		
+		mBurnPerByte 	= zTxPoW.getBurn().div(new MiniNumber(Math.max(1, zTxPoW.getSizeinBytes())));
+		mAddedOrder 	= mOrderCounter.incrementAndGet();
 	}
 	
 	public TxPoW getTxPoW() {
@@ -29,6 +59,10 @@ public class RamData {
 		return mLastAccess;
 	}
 	
+	public MiniNumber getBurnPerByte() {
+		return mBurnPerByte;
+	}
+	
 	public void setOnMainChain(boolean zOnChain) {
 		mIsOnMainChain = zOnChain;
 	}
@@ -7,11 +7,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.minima.objects.TxPoW;
 import org.minima.objects.base.MiniByte;
 import org.minima.objects.base.MiniData;
 import org.minima.system.params.GeneralParams;
+import org.minima.utils.BloomFilter;
 import org.minima.utils.MinimaLogger;
 import org.minima.utils.SqlDB;
 
@@ -31,10 +35,140 @@ public class TxPoWSqlDB extends SqlDB {
 	PreparedStatement SQL_TOTAL_TXPOW 		= null;
 	PreparedStatement SQL_DELETE_TXPOW 		= null;
 	PreparedStatement SQL_EXISTS 			= null;
+	PreparedStatement SQL_ALL_TXPOWID 		= null;
+	
+	/**
+	 * Bloom filter of all the TxPoWIDs - so unknown TxPoW don't need an SQL query.
+	 * 8M bits and 5 hashes is about 1% false positives at 800,000 TxPoW
+	 */
+	public static final int BLOOM_BITS 		= 1 << 23;
+	public static final int BLOOM_HASHES 	= 5;
+	
+	private volatile BloomFilter mBloom		= new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+	
+	/**
+	 * Filled while the main filter is rebuilt after a clean - then replaces it
+	 */
+	private volatile BloomFilter mNextBloom	= null;
+	
+	/**
+	 * Absent answers from the filter - and ones it said might exist that did not
+	 */
+	private AtomicLong mBloomAbsent 		= new AtomicLong();
+	private AtomicLong mBloomFalsePositive 	= new AtomicLong();
+	
+	/**
+	 * TxPoW are written in batches - when this many are waiting or after this many milliseconds
+	 */
+	public static final int BATCH_MAX_SIZE 		= 256;
+	public static final long BATCH_MAX_DELAY 	= 500;
+	
+	/**
+	 * A TxPoW that fails to write this many times on its own is dropped - it will never work
+	 */
+	public static final int MAX_WRITE_ATTEMPTS 	= 10;
+	
+	/**
+	 * TxPoW waiting to be written - still found by exists and getTxPoW
+	 */
+	private final Object mPendingLock 			= new Object();
+	private LinkedHashMap<String, TxPoW> mPending = new LinkedHashMap<>();
+	
+	/**
+	 * How many times each waiting TxPoW has failed to write on its own - only used in flush()
+	 */
+	private HashMap<String, Integer> mWriteFailures = new HashMap<>();
+	
+	/**
+	 * The thread that writes the batches
+	 */
+	private Thread mWriter 				= null;
+	private volatile boolean mWriting 	= false;
 	
 	public TxPoWSqlDB() {
 		super();
 	}
+	
+	private void startWriter() {
+		if(mWriter != null) {
+			return;
+		}
+		
+		mWriting = true;
+		mWriter  = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				boolean written = true;
+				while(mWriting) {
+					//Wait for a full batch or the max delay - always wait after a failure before trying again
+					synchronized (mPendingLock) {
+						if(mWriting && (!written || mPending.size() < BATCH_MAX_SIZE)) {
+							try {
+								mPendingLock.wait(BATCH_MAX_DELAY);
+							} catch (InterruptedException e) {
+								return;
+							}
+						}
+					}
+					
+					written = flush();
+				}
+			}
+		}, "TxPoWSqlDB");
+		mWriter.setDaemon(true);
+		mWriter.start();
+	}
+	
+	private void stopWriter() {
+		if(mWriter == null) {
+			return;
+		}
+		
+		synchronized (mPendingLock) {
+			mWriting = false;
+			mPendingLock.notifyAll();
+		}
+		
+		try {
+			mWriter.join();
+		} catch (InterruptedException e) {
+			MinimaLogger.log(e);
+		}
+		mWriter = null;
+	}
+	
+	/**
+	 * How many TxPoW are waiting to be written
+	 */
+	public int getPendingSize() {
+		synchronized (mPendingLock) {
+			return mPending.size();
+		}
+	}
+	
+	@Override
+	public void saveDB() {
+		//Write everything first
+		stopWriter();
+		flush();
+		
+		super.saveDB();
+	}
+	
+	@Override
+	public void backupToFile(File zBackupFile) throws SQLException {
+		flush();
+		super.backupToFile(zBackupFile);
+	}
+	
+	@Override
+	public void restoreFromFile(File zRestoreFile) throws SQLException {
+		flush();
+		super.restoreFromFile(zRestoreFile);
+		
+		//All new TxPoW
+		rebuildBloomFilter();
+	}
 		
 	/**
 	 * Perform the Create SQL
@@ -78,44 +212,176 @@ public class TxPoWSqlDB extends SqlDB {
 			SQL_TOTAL_TXPOW		= mSQLCOnnection.prepareStatement("SELECT COUNT(*) AS tot FROM txpow");
 			SQL_DELETE_TXPOW	= mSQLCOnnection.prepareStatement("DELETE FROM txpow WHERE timemilli < ?");
 			SQL_EXISTS			= mSQLCOnnection.prepareStatement("SELECT txpowid FROM txpow WHERE txpowid=?");
+			SQL_ALL_TXPOWID		= mSQLCOnnection.prepareStatement("SELECT txpowid FROM txpow");
+			
+			//Add everything we have to the filter
+			rebuildBloomFilter();
 			
 		} catch (SQLException e) {
 			MinimaLogger.log(e);
 		}
+		
+		//Now start writing
+		startWriter();
 	}
 	
-	
-	public synchronized boolean addTxPoW(TxPoW zTxPoW) {
-		try {
-			//get the MiniData version..
-			MiniData txdata = MiniData.getMiniDataVersion(zTxPoW);
+	/**
+	 * Add to the write queue - written in the next batch
+	 */
+	public boolean addTxPoW(TxPoW zTxPoW) {
+		synchronized (mPendingLock) {
+			mPending.put(zTxPoW.getTxPoWID(), zTxPoW);
 			
-			//Get the Query ready
-			SQL_INSERT_TXPOW.clearParameters();
+			//Add to the filter - and the new one if rebuilding. Same lock as the switch over.
+			mBloom.add(zTxPoW.getTxPoWID());
+			if(mNextBloom != null) {
+				mNextBloom.add(zTxPoW.getTxPoWID());
+			}
+			
+			//Wake the writer..
+			if(mPending.size() >= BATCH_MAX_SIZE) {
+				mPendingLock.notifyAll();
+			}
+		}
+		
+		//No writer - do it now
+		if(mWriter == null) {
+			flush();
+		}
 		
-			//Set main params
-			SQL_INSERT_TXPOW.setString(1, zTxPoW.getTxPoWID());
-			SQL_INSERT_TXPOW.setInt(2, new MiniByte(zTxPoW.isBlock()).getValue());
-			SQL_INSERT_TXPOW.setInt(3, new MiniByte(zTxPoW.isTransaction()).getValue());
-			SQL_INSERT_TXPOW.setString(4, zTxPoW.getParentID().to0xString());
-			SQL_INSERT_TXPOW.setLong(5, System.currentTimeMillis());
+		return true;
+	}
+	
+	/**
+	 * Write all the waiting TxPoW in one transaction. If that fails write them one at a time - 
+	 * any that still fail stay waiting and are tried again in the next flush, until they have
+	 * failed MAX_WRITE_ATTEMPTS times and are dropped.
+	 * 
+	 * @return true if all of them were written
+	 */
+	public synchronized boolean flush() {
+		ArrayList<TxPoW> batch;
+		synchronized (mPendingLock) {
+			if(mPending.isEmpty()) {
+				return true;
+			}
+			batch = new ArrayList<>(mPending.values());
+		}
+		
+		//Not loaded yet
+		if(SQL_INSERT_TXPOW == null) {
+			return false;
+		}
+		
+		ArrayList<TxPoW> written = new ArrayList<>();
+		try {
+			mSQLCOnnection.setAutoCommit(false);
 			
-			//And finally the actual bytes
-			SQL_INSERT_TXPOW.setBytes(6, txdata.getBytes());
+			long timenow = System.currentTimeMillis();
+			for(TxPoW txpow : batch) {
+				setInsertParams(txpow, timenow);
+				SQL_INSERT_TXPOW.addBatch();
+			}
 			
 			//Do it.
-			SQL_INSERT_TXPOW.execute();
+			SQL_INSERT_TXPOW.executeBatch();
+			mSQLCOnnection.commit();
 			
-			return true;
+			written = batch;
 			
 		} catch (SQLException e) {
-			MinimaLogger.log(e);
+			MinimaLogger.log("Batch write of "+batch.size()+" TxPoW failed - writing one at a time : "+e);
+			
+			try {
+				SQL_INSERT_TXPOW.clearBatch();
+				mSQLCOnnection.rollback();
+			} catch (SQLException exc) {
+				MinimaLogger.log(exc);
+			}
+			
+		}finally {
+			try {
+				mSQLCOnnection.setAutoCommit(true);
+			} catch (SQLException e) {
+				MinimaLogger.log(e);
+			}
 		}
 		
-		return false;
+		//Batch failed - one at a time
+		ArrayList<TxPoW> dropped = new ArrayList<>();
+		if(written != batch) {
+			long timenow = System.currentTimeMillis();
+			for(TxPoW txpow : batch) {
+				String txpid = txpow.getTxPoWID();
+				try {
+					setInsertParams(txpow, timenow);
+					SQL_INSERT_TXPOW.executeUpdate();
+					written.add(txpow);
+					mWriteFailures.remove(txpid);
+					
+				} catch (SQLException e) {
+					//Give up on it..
+					int failures = mWriteFailures.merge(txpid, 1, Integer::sum);
+					if(failures >= MAX_WRITE_ATTEMPTS) {
+						MinimaLogger.log("TxPoW write failed "+failures+" times - dropped "+txpid+" "+e);
+						mWriteFailures.remove(txpid);
+						dropped.add(txpow);
+					}
+				}
+			}
+		}
+		
+		//Only the ones that were written or dropped are no longer waiting
+		synchronized (mPendingLock) {
+			for(TxPoW txpow : written) {
+				mPending.remove(txpow.getTxPoWID(), txpow);
+			}
+			for(TxPoW txpow : dropped) {
+				mPending.remove(txpow.getTxPoWID(), txpow);
+			}
+		}
+		
+		return written.size() == batch.size();
 	}
-
-	public synchronized TxPoW getTxPoW(String zTxPoWID) {
+	
+	/**
+	 * Set the insert parameters for this TxPoW
+	 */
+	protected void setInsertParams(TxPoW zTxPoW, long zTimeNow) throws SQLException {
+		//get the MiniData version..
+		MiniData txdata = MiniData.getMiniDataVersion(zTxPoW);
+		
+		//Get the Query ready
+		SQL_INSERT_TXPOW.clearParameters();
+	
+		//Set main params
+		SQL_INSERT_TXPOW.setString(1, zTxPoW.getTxPoWID());
+		SQL_INSERT_TXPOW.setInt(2, new MiniByte(zTxPoW.isBlock()).getValue());
+		SQL_INSERT_TXPOW.setInt(3, new MiniByte(zTxPoW.isTransaction()).getValue());
+		SQL_INSERT_TXPOW.setString(4, zTxPoW.getParentID().to0xString());
+		SQL_INSERT_TXPOW.setLong(5, zTimeNow);
+		
+		//And finally the actual bytes
+		SQL_INSERT_TXPOW.setBytes(6, txdata.getBytes());
+	}
+	
+	private TxPoW getPending(String zTxPoWID) {
+		synchronized (mPendingLock) {
+			return mPending.get(zTxPoWID);
+		}
+	}
+	
+	public TxPoW getTxPoW(String zTxPoWID) {
+		//Not written yet..
+		TxPoW pending = getPending(zTxPoWID);
+		if(pending != null) {
+			return pending;
+		}
+		
+		return getSQLTxPoW(zTxPoWID);
+	}
+	
+	private synchronized TxPoW getSQLTxPoW(String zTxPoWID) {
 		try {
 			//Get the query ready
 			SQL_SELECT_TXPOW.clearParameters();
@@ -149,6 +415,9 @@ public class TxPoWSqlDB extends SqlDB {
 	}
 	
 	public synchronized ArrayList<String> getChildBlocks(String zParentTxPoWID) {
+		//Make sure all written
+		flush();
+		
 		ArrayList<String> txpows = new ArrayList<>();
 
 		try {
@@ -179,6 +448,9 @@ public class TxPoWSqlDB extends SqlDB {
 	}
 
 	public synchronized int getSize() {
+		//Make sure all written
+		flush();
+		
 		try {
 			//Run the query
 			ResultSet rs = SQL_TOTAL_TXPOW.executeQuery();
@@ -197,7 +469,85 @@ public class TxPoWSqlDB extends SqlDB {
 		return -1;
 	}
 
-	public synchronized boolean exists(String zTxPoWID) {
+	public boolean exists(String zTxPoWID) {
+		//Definitely not here..
+		if(!mBloom.mightContain(zTxPoWID)) {
+			mBloomAbsent.incrementAndGet();
+			return false;
+		}
+		
+		//Not written yet..
+		if(getPending(zTxPoWID) != null) {
+			return true;
+		}
+		
+		boolean exists = existsSQL(zTxPoWID);
+		if(!exists) {
+			mBloomFalsePositive.incrementAndGet();
+		}
+		
+		return exists;
+	}
+	
+	/**
+	 * A new filter with all the TxPoWIDs in the DB and waiting to be written
+	 */
+	private synchronized void rebuildBloomFilter() {
+		if(SQL_ALL_TXPOWID == null) {
+			return;
+		}
+		
+		BloomFilter bloom = new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+		
+		//Any added while we do this go in as well
+		synchronized (mPendingLock) {
+			mNextBloom = bloom;
+		}
+		
+		try {
+			ResultSet rs = SQL_ALL_TXPOWID.executeQuery();
+			while(rs.next()) {
+				bloom.add(rs.getString("txpowid"));
+			}
+			rs.close();
+			
+		} catch (SQLException e) {
+			MinimaLogger.log(e);
+		}
+		
+		synchronized (mPendingLock) {
+			for(String txpowid : mPending.keySet()) {
+				bloom.add(txpowid);
+			}
+			
+			//Switch over
+			mBloom 		= bloom;
+			mNextBloom 	= null;
+		}
+	}
+	
+	/**
+	 * How often the filter says a TxPoW might exist when it does not - out of all that do not exist
+	 */
+	public double getBloomFalsePositiveRate() {
+		long falsepos 	= mBloomFalsePositive.get();
+		long total 		= falsepos + mBloomAbsent.get();
+		if(total == 0) {
+			return 0;
+		}
+		
+		return (double)falsepos / (double)total;
+	}
+	
+	public long getBloomAbsent() {
+		return mBloomAbsent.get();
+	}
+	
+	public long getBloomFalsePositive() {
+		return mBloomFalsePositive.get();
+	}
+	
+	private synchronized boolean existsSQL(String zTxPoWID) {
 		try {
 			//Set the params..
 			SQL_EXISTS.clearParameters();
@@ -231,7 +581,14 @@ public class TxPoWSqlDB extends SqlDB {
 			SQL_DELETE_TXPOW.setLong(1, maxtime);
 			
 			//Run the query
-			return SQL_DELETE_TXPOW.executeUpdate();
+			int deleted = SQL_DELETE_TXPOW.executeUpdate();
+			
+			//Rebuild the filter without them
+			if(deleted > 0) {
+				rebuildBloomFilter();
+			}
+			
+			return deleted;
 			
 		} catch (SQLException e) {
 			MinimaLogger.log(e);
@@ -0,0 +1,271 @@
+package org.minima.database.txpowtree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import org.minima.objects.Coin;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.params.GlobalParams;
+import org.minima.utils.Stack;
+
+/**
+ * The unspent relevant coins at a tip of the tree - by CoinID, TokenID and Address.
+ *
+ * Every block added to the index remembers what it changed. When the tip moves the
+ * blocks no longer on the chain are undone and the new ones added - so a new block or
+ * a re-org only costs the coins in the blocks that changed. If no common block is
+ * found - a new tree or a re-org deeper than we remember - it is rebuilt from the root.
+ */
+public class RelevantCoinIndex {
+
+	/**
+	 * How many blocks can be undone - no re-org can go back further than the tree
+	 */
+	public static final int MAX_UNDO_BLOCKS = GlobalParams.MINIMA_CASCADE_START_DEPTH.add(GlobalParams.MINIMA_CASCADE_FREQUENCY).getAsInt();
+
+	/**
+	 * Newest first - the order walking back from the tip finds them
+	 */
+	public static final Comparator<Coin> NEWEST_FIRST = new Comparator<Coin>() {
+		@Override
+		public int compare(Coin zCoin1, Coin zCoin2) {
+			int comp = Long.compare(zCoin2.getBlockCreatedLong(), zCoin1.getBlockCreatedLong());
+			if(comp == 0) {
+				comp = zCoin2.getBlockCreated().compareTo(zCoin1.getBlockCreated());
+			}
+			if(comp != 0) {
+				return comp;
+			}
+			return zCoin1.getMMREntryNumber().compareTo(zCoin2.getMMREntryNumber());
+		}
+	};
+
+	/**
+	 * A change to one coin - and what was there before
+	 */
+	private static class CoinChange {
+		String mCoinID;
+		Coin mPrevious;
+
+		public CoinChange(String zCoinID, Coin zPrevious) {
+			mCoinID 	= zCoinID;
+			mPrevious 	= zPrevious;
+		}
+	}
+
+	/**
+	 * All the changes one block made
+	 */
+	private static class BlockChanges {
+		TxPoWTreeNode mNode;
+		ArrayList<CoinChange> mChanges = new ArrayList<>();
+
+		public BlockChanges(TxPoWTreeNode zNode) {
+			mNode = zNode;
+		}
+	}
+
+	/**
+	 * The unspent coins
+	 */
+	HashMap<String, Coin> mCoins 						= new HashMap<>();
+	HashMap<String, HashMap<String, Coin>> mTokens 		= new HashMap<>();
+	HashMap<String, HashMap<String, Coin>> mAddresses 	= new HashMap<>();
+
+	/**
+	 * The blocks added - oldest first - the last one is the tip of the index
+	 */
+	ArrayDeque<BlockChanges> mBlocks 						= new ArrayDeque<>();
+	IdentityHashMap<TxPoWTreeNode, BlockChanges> mBlockNodes 	= new IdentityHashMap<>();
+
+	public RelevantCoinIndex() {}
+
+	/**
+	 * Empty the index - it is rebuilt the next time it is used
+	 */
+	public synchronized void clear() {
+		mCoins.clear();
+		mTokens.clear();
+		mAddresses.clear();
+		mBlocks.clear();
+		mBlockNodes.clear();
+	}
+
+	/**
+	 * How many blocks the index can undo
+	 */
+	public synchronized int getBlocks() {
+		return mBlocks.size();
+	}
+
+	/**
+	 * Move the index to this tip
+	 */
+	private void setTip(TxPoWTreeNode zTip) {
+		if(zTip == null) {
+			clear();
+			return;
+		}
+
+		//Already there..
+		if(!mBlocks.isEmpty() && mBlocks.getLast().mNode == zTip) {
+			return;
+		}
+
+		//Find the last block we have - and the new blocks after it
+		Stack newblocks 		= new Stack();
+		TxPoWTreeNode current 	= zTip;
+		while(current != null && !mBlockNodes.containsKey(current)) {
+			newblocks.push(current);
+			current = current.getParent();
+		}
+
+		//Nothing in common - start again from the root
+		if(current == null) {
+			clear();
+		}else {
+			//Undo the blocks that are no longer on the chain
+			while(mBlocks.getLast().mNode != current) {
+				undoBlock(mBlocks.removeLast());
+			}
+		}
+
+		//And add the new ones - oldest first
+		while(!newblocks.isEmpty()) {
+			addBlock((TxPoWTreeNode) newblocks.pop());
+		}
+
+		//Forget the oldest blocks
+		while(mBlocks.size() > MAX_UNDO_BLOCKS) {
+			mBlockNodes.remove(mBlocks.removeFirst().mNode);
+		}
+	}
+
+	private void addBlock(TxPoWTreeNode zNode) {
+		BlockChanges block = new BlockChanges(zNode);
+
+		ArrayList<Coin> coins = zNode.getRelevantCoins();
+		for(Coin coin : coins) {
+			String coinid = coin.getCoinID().to0xString();
+			if(coin.getSpent()) {
+				block.mChanges.add(new CoinChange(coinid, removeCoin(coinid)));
+			}else {
+				block.mChanges.add(new CoinChange(coinid, putCoin(coinid, coin)));
+			}
+		}
+
+		mBlocks.addLast(block);
+		mBlockNodes.put(zNode, block);
+	}
+
+	private void undoBlock(BlockChanges zBlock) {
+		mBlockNodes.remove(zBlock.mNode);
+
+		//Put back what was there before - last change first
+		for(int i=zBlock.mChanges.size()-1;i>=0;i--) {
+			CoinChange change = zBlock.mChanges.get(i);
+			if(change.mPrevious == null) {
+				removeCoin(change.mCoinID);
+			}else {
+				putCoin(change.mCoinID, change.mPrevious);
+			}
+		}
+	}
+
+	private Coin putCoin(String zCoinID, Coin zCoin) {
+		Coin previous = removeCoin(zCoinID);
+
+		mCoins.put(zCoinID, zCoin);
+		mTokens.computeIfAbsent(zCoin.getTokenID().to0xString(), (key) -> new HashMap<>()).put(zCoinID, zCoin);
+		mAddresses.computeIfAbsent(zCoin.getAddress().to0xString(), (key) -> new HashMap<>()).put(zCoinID, zCoin);
+
+		return previous;
+	}
+
+	private Coin removeCoin(String zCoinID) {
+		Coin previous = mCoins.remove(zCoinID);
+		if(previous != null) {
+			removeFrom(mTokens, previous.getTokenID().to0xString(), zCoinID);
+			removeFrom(mAddresses, previous.getAddress().to0xString(), zCoinID);
+		}
+		return previous;
+	}
+
+	private static void removeFrom(HashMap<String, HashMap<String, Coin>> zIndex, String zKey, String zCoinID) {
+		HashMap<String, Coin> coins = zIndex.get(zKey);
+		if(coins != null) {
+			coins.remove(zCoinID);
+			if(coins.isEmpty()) {
+				zIndex.remove(zKey);
+			}
+		}
+	}
+
+	/**
+	 * The unspent relevant coins at this tip that match - newest first
+	 */
+	public synchronized ArrayList<Coin> searchCoins(	TxPoWTreeNode zTip,
+														boolean zCheckCoinID, MiniData zCoinID,
+														boolean zCheckAmount, MiniNumber zAmount,
+														boolean zCheckAddress, MiniData zAddress,
+														boolean zCheckTokenID, MiniData zTokenID) {
+		setTip(zTip);
+
+		//Use the smallest index we can
+		Collection<Coin> found;
+		if(zCheckCoinID) {
+			Coin coin = mCoins.get(zCoinID.to0xString());
+			found = coin == null ? Collections.emptyList() : Collections.singletonList(coin);
+
+		}else if(zCheckAddress) {
+			HashMap<String, Coin> coins = mAddresses.get(zAddress.to0xString());
+			found = coins == null ? Collections.emptyList() : coins.values();
+
+		}else if(zCheckTokenID) {
+			HashMap<String, Coin> coins = mTokens.get(zTokenID.to0xString());
+			found = coins == null ? Collections.emptyList() : coins.values();
+
+		}else {
+			found = mCoins.values();
+		}
+
+		ArrayList<Coin> ret = new ArrayList<>();
+		Iterator<Coin> coins = found.iterator();
+		while(coins.hasNext()) {
+			Coin coin = coins.next();
+
+			if(zCheckTokenID && !coin.getTokenID().isEqual(zTokenID)) {
+				continue;
+			}
+
+			if(zCheckAddress && !coin.getAddress().isEqual(zAddress)) {
+				continue;
+			}
+
+			if(zCheckAmount && !coin.getAmount().isEqual(zAmount)) {
+				continue;
+			}
+
+			ret.add(coin.deepCopy());
+		}
+
+		Collections.sort(ret, NEWEST_FIRST);
+
+		return ret;
+	}
+
+	/**
+	 * How many unspent relevant coins at this tip
+	 */
+	public synchronized int getSize(TxPoWTreeNode zTip) {
+		setTip(zTip);
+		return mCoins.size();
+	}
+}
@@ -12,11 +12,9 @@ import org.minima.database.mmr.MMRData;
 import org.minima.database.mmr.MMREntry;
 import org.minima.database.mmr.MMREntryNumber;
 import org.minima.database.mmr.MMRProof;
-import org.minima.database.wallet.KeyRow;
-import org.minima.database.wallet.Wallet;
+import org.minima.database.wallet.RelevantKeys;
 import org.minima.objects.Coin;
 import org.minima.objects.CoinProof;
-import org.minima.objects.StateVariable;
 import org.minima.objects.TxBlock;
 import org.minima.objects.TxPoW;
 import org.minima.objects.base.MiniData;
@@ -82,7 +80,20 @@ public class TxPoWTreeNode implements Streamable {
 		mParent			= null;
 		
 		//Construct the MMR..
-		constructMMR(zFindRelevant);
+		constructMMR(zFindRelevant, zFindRelevant ? MinimaDB.getDB().getWallet().getRelevantKeys() : null);
+	}
+	
+	/**
+	 * Use these relevant keys - so many nodes can be created at once without asking the wallet each time
+	 */
+	public TxPoWTreeNode(TxBlock zTxBlock, RelevantKeys zAllRelevant) {
+		mTxBlock		= zTxBlock;
+		mChildren 	 	= new ArrayList<>();
+		mTotalWeight 	= BigDecimal.ZERO;
+		mParent			= null;
+		
+		//Construct the MMR..
+		constructMMR(true, zAllRelevant);
 	}
 	
 	//Used in tests..
@@ -97,7 +108,7 @@ public class TxPoWTreeNode implements Streamable {
 	/**
 	 * Convert the TxBlock 
 	 */
-	private void constructMMR(boolean zFindRelevant) {
+	private void constructMMR(boolean zFindRelevant, RelevantKeys allrel) {
 		
 		//What Block Time Are we..
 		MiniNumber block = mTxBlock.getTxPoW().getBlockNumber();
@@ -106,15 +117,6 @@ public class TxPoWTreeNode implements Streamable {
 		mMMR = new MMR();
 		mMMR.setBlockTime(block);
 		
-		//Get the Wallet..
-		Wallet wallet = MinimaDB.getDB().getWallet();
-		
-		//Are we checking for relevant data
-		ArrayList<KeyRow> allrel = new ArrayList<>();
-		if(zFindRelevant) {
-			allrel = wallet.getAllRelevant();
-		}
-		
 		//Add all the peaks..
 		ArrayList<MMREntry> peaks = mTxBlock.getPreviousPeaks();
 		for(MMREntry peak : peaks) {
@@ -151,7 +153,7 @@ public class TxPoWTreeNode implements Streamable {
 			mCoins.add(spentcoin);
 			
 			//Is this Relevant to us..
-			if(checkRelevant(spentcoin, allrel)) {
+			if(allrel != null && allrel.isRelevant(spentcoin)) {
 				mRelevantMMRCoins.add(entrynumber);
 				
 				//Message..
@@ -186,7 +188,7 @@ public class TxPoWTreeNode implements Streamable {
 			mCoins.add(newcoin);
 			
 			//Is this Relevant to us..
-			if(checkRelevant(output, allrel)) {
+			if(allrel != null && allrel.isRelevant(output)) {
 				mRelevantMMRCoins.add(entrynumber);
 				
 				//Message..
@@ -209,39 +211,6 @@ public class TxPoWTreeNode implements Streamable {
 		}
 	}
 	
-	/**
-	 * Check if this coin is relevant to this wallet and therefore should be kept
-	 */
-	private boolean checkRelevant(Coin zCoin, ArrayList<KeyRow> zAllRelevant) {
-		
-		//Cycle through ALL the wallet entries..
-		for(KeyRow wk : zAllRelevant) {
-			
-			//Is the address one of ours..
-			if(wk.trackAddress() && zCoin.getAddress().to0xString().equals(wk.getAddress())) {
-				return true;
-			}
-			
-			//Are any of the state variables relevant to us..
-			ArrayList<StateVariable> state = zCoin.getState();
-			for(StateVariable sv : state) {
-				
-				if(sv.getType().isEqual(StateVariable.STATETYPE_HEX)) {
-					String svstr = sv.toString();
-					
-					//Custom scripts have no public key..
-					if(!wk.getPublicKey().equals("") && svstr.equals(wk.getPublicKey())) {
-						return true;
-					}else if(wk.trackAddress() && svstr.equals(wk.getAddress())){
-						return true;
-					}
-				}
-			}
-		}
-		
-		return false;
-	}
-	
 	public void calculateRelevantCoins() {
 		
 		//Clear and start again
@@ -274,6 +243,10 @@ public class TxPoWTreeNode implements Streamable {
 		return getTxPoW().getBlockNumber();
 	}
 	
+	public long getBlockNumberLong() {
+		return getTxPoW().getBlockNumberLong();
+	}
+	
 	public MMR getMMR() {
 		return mMMR;
 	}
@@ -334,9 +307,10 @@ public class TxPoWTreeNode implements Streamable {
 	}
 	
 	public TxPoWTreeNode getPastNode(MiniNumber zBlockNumber) {
+		long block 				= zBlockNumber.getAsLongSaturated();
 		TxPoWTreeNode parent 	= this;
 		while(parent != null) {
-			if(parent.getTxPoW().getBlockNumber().isEqual(zBlockNumber)) {
+			if(parent.getBlockNumberLong() == block && parent.getTxPoW().getBlockNumber().isEqual(zBlockNumber)) {
 				return parent;
 			}
 			
@@ -353,6 +327,9 @@ public class TxPoWTreeNode implements Streamable {
 		//Now copy all the MMR Coins.. 
 		ArrayList<Coin> unspentcoins = TxPoWSearcher.getAllRelevantUnspentCoins(getParent());
 		
+		//This will be the new root of the MMR chain
+		mMMR.setChainBase();
+		
 		//We may be adding..
 		mMMR.setFinalized(false);
 		
@@ -53,6 +53,11 @@ public class TxPowTree implements Streamable {
 	 */
 	ArrayList<MiniData> mPulseList = new ArrayList<>();
 	
+	/**
+	 * The unspent relevant coins at the tip
+	 */
+	RelevantCoinIndex mCoinIndex = new RelevantCoinIndex();
+	
 	/**
 	 * Main Constructor
 	 */
@@ -96,6 +101,10 @@ public class TxPowTree implements Streamable {
 		return mTip;
 	}
 	
+	public RelevantCoinIndex getCoinIndex() {
+		return mCoinIndex;
+	}
+	
 	public int getSize() {
 		return mFastLink.size();
 	}
@@ -104,6 +113,97 @@ public class TxPowTree implements Streamable {
 		mFastLink.put(zNode.getTxPoW().getTxPoWID(), zNode);
 	}
 	
+	/**
+	 * Add a new leaf node to the tree. 
+	 * 
+	 * Only the path back to the root is touched - the weight is added to every parent
+	 * and the tip is only recalculated if a parent's heaviest child changes.
+	 */
+	public void addNode(TxPoWTreeNode zParent, TxPoWTreeNode zNode) {
+		//The weight of this new block
+		BigDecimal weight = zNode.getTxPoW().getWeight();
+		zNode.setTotalWeight(weight);
+		
+		//Add to the tree
+		zParent.addChildNode(zNode);
+		addFastLink(zNode);
+		mTotalNodes = mFastLink.size();
+		
+		//Now add the weight to all the parents
+		boolean heavychange 	= false;
+		TxPoWTreeNode child 	= zNode;
+		TxPoWTreeNode parent 	= zParent;
+		while(parent != null) {
+			
+			//Only need to check until the first change - the tip is recalculated from the root
+			if(!heavychange && getHeaviestChild(parent, null, null) == child) {
+				if(child == zNode) {
+					//New child is the heaviest
+					heavychange = true;
+				}else {
+					//Was it the heaviest before the extra weight
+					BigDecimal oldweight = child.getTotalWeight().subtract(weight);
+					heavychange = (getHeaviestChild(parent, child, oldweight) != child); 
+				}
+			}
+			
+			//Add the weight
+			parent.addToTotalWeight(weight);
+			
+			child 	= parent;
+			parent 	= parent.getParent();
+		}
+		
+		//Has the tip changed..
+		if(heavychange) {
+			calculateTip();
+			calculatePulseList();
+		}
+	}
+	
+	/**
+	 * The heaviest child - the first one wins if the weights are equal
+	 * 
+	 * Can use a different weight for one of the children
+	 */
+	private TxPoWTreeNode getHeaviestChild(TxPoWTreeNode zNode, TxPoWTreeNode zChild, BigDecimal zChildWeight) {
+		TxPoWTreeNode heaviest 	= null;
+		BigDecimal maxweight 	= null;
+		
+		ArrayList<TxPoWTreeNode> children = zNode.getChildren();
+		for(TxPoWTreeNode child : children) {
+			BigDecimal weight = (child == zChild) ? zChildWeight : child.getTotalWeight(); 
+			if(heaviest == null || weight.compareTo(maxweight) > 0) {
+				heaviest 	= child;
+				maxweight 	= weight;
+			}
+		}
+		
+		return heaviest;
+	}
+	
+	/**
+	 * Follow the heaviest children from the root
+	 */
+	private void calculateTip() {
+		mTip 	= getRoot();
+		mLength = 0;
+		
+		//If null return null
+		while(mTip != null ) {
+			//Increase length
+			mLength++;
+			
+			//Get the heaviest child branch
+			TxPoWTreeNode heaviest = getHeaviestChild(mTip, null, null);
+			if(heaviest == null) {
+				break;
+			}
+			
+			mTip = heaviest;
+		}
+	}
+	
 	public void recalculateTree() {
 		//New Fast Link..
 		mFastLink = new Hashtable<>();
@@ -152,31 +252,7 @@ public class TxPowTree implements Streamable {
 		}
 		
 		//And find the heaviest branch tip..
-		mTip 	= getRoot();
-		mLength = 0;
-		
-		//If null return null
-		while(mTip != null ) {
-			//Increase length
-			mLength++;
-			
-			//Get the heaviest child branch
-			ArrayList<TxPoWTreeNode> children = mTip.getChildren();
-			if(children.size() == 0) {
-				break;
-			}
-			
-			//Only keep the heaviest
-			boolean firstchild = true;
-			for(TxPoWTreeNode child : children) {
-				if(firstchild) {
-					firstchild = false;
-					mTip = child;
-				}else if(child.getTotalWeight().compareTo(mTip.getTotalWeight()) > 0) {
-					mTip = child;
-				}
-			}
-		}
+		calculateTip();
 		
 		//Do this once.. used every time you receive a pulse
 		calculatePulseList();
@@ -239,9 +315,31 @@ public class TxPowTree implements Streamable {
 		
 		//Get the parent
 		TxPoWTreeNode cascade = newroot.getParent();
-				
-		//Set the new root.. will make the parent null and recalculate the whole tree..
-		setRoot(newroot);
+		
+		//Remove the pruned path and any side branches from the fast link table
+		TxPoWTreeNode keep 		= newroot;
+		TxPoWTreeNode pruned 	= cascade;
+		while(pruned != null) {
+			mFastLink.remove(pruned.getTxPoW().getTxPoWID());
+			
+			ArrayList<TxPoWTreeNode> children = pruned.getChildren();
+			for(TxPoWTreeNode child : children) {
+				if(child != keep) {
+					removeFastLinks(child);
+				}
+			}
+			
+			keep 	= pruned;
+			pruned 	= pruned.getParent();
+		}
+		
+		//Set the new root.. the weights and tip of the remaining tree do not change
+		mRoot = newroot;
+		mRoot.clearParent();
+		
+		mLength 	= counter;
+		mTotalNodes = mFastLink.size();
+		calculatePulseList();
 		
 		//Invert the list - so starts at root and moves up
 		while(cascade != null) {
@@ -256,6 +354,20 @@ public class TxPowTree implements Streamable {
 		return removed;
 	}
 	
+	/**
+	 * Remove a whole branch from the fast link table
+	 */
+	private void removeFastLinks(TxPoWTreeNode zBranch) {
+		TxPoWTreeNodeAction remover = new TxPoWTreeNodeAction() {
+			@Override
+			public void runAction(TxPoWTreeNode zNode) {
+				mFastLink.remove(zNode.getTxPoW().getTxPoWID());
+			}
+		};
+		
+		traverseTree(remover, zBranch);
+	}
+	
 	public String printTree(int zDepth) {
 		StringBuffer treestr = new StringBuffer();
 		
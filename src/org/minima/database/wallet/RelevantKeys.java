@@ -0,0 +1,99 @@
+package org.minima.database.wallet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.minima.objects.Coin;
+import org.minima.objects.StateVariable;
+
+/**
+ * A snapshot of the wallet keys and scripts - with hash sets so checking if a coin
+ * is relevant does not loop through every key.
+ *
+ * Never changed once made. The Wallet makes a new one with a higher version when
+ * a key or script is added.
+ */
+public class RelevantKeys {
+
+	/**
+	 * Goes up by one every time the keys change
+	 */
+	long mVersion;
+
+	/**
+	 * All the keys and scripts
+	 */
+	ArrayList<KeyRow> mKeys;
+
+	/**
+	 * Addresses that are tracked - a coin at one of these is relevant
+	 */
+	HashSet<String> mTrackedAddresses = new HashSet<>();
+
+	/**
+	 * Public keys and tracked addresses - a coin with one of these in its state is relevant
+	 */
+	HashSet<String> mStateValues = new HashSet<>();
+
+	/**
+	 * Addresses of the simple keys - not custom scripts
+	 */
+	HashSet<String> mSimpleAddresses = new HashSet<>();
+
+	public RelevantKeys(ArrayList<KeyRow> zKeys, long zVersion) {
+		mKeys 		= zKeys;
+		mVersion 	= zVersion;
+
+		for(KeyRow kr : zKeys) {
+			if(kr.trackAddress()) {
+				mTrackedAddresses.add(kr.getAddress());
+				mStateValues.add(kr.getAddress());
+			}
+
+			//Custom scripts have no public key..
+			if(!kr.getPublicKey().equals("")) {
+				mStateValues.add(kr.getPublicKey());
+				mSimpleAddresses.add(kr.getAddress());
+			}
+		}
+	}
+
+	public long getVersion() {
+		return mVersion;
+	}
+
+	public ArrayList<KeyRow> getKeys(){
+		return mKeys;
+	}
+
+	public int getSize() {
+		return mKeys.size();
+	}
+
+	/**
+	 * Is this coin relevant to this wallet and therefore should be kept
+	 */
+	public boolean isRelevant(Coin zCoin) {
+		//Is the address one of ours..
+		if(mTrackedAddresses.contains(zCoin.getAddress().to0xString())) {
+			return true;
+		}
+
+		//Are any of the state variables relevant to us..
+		ArrayList<StateVariable> state = zCoin.getState();
+		for(StateVariable sv : state) {
+			if(sv.getType().isEqual(StateVariable.STATETYPE_HEX) && mStateValues.contains(sv.toString())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Is this the address of one of the simple keys
+	 */
+	public boolean isSimpleAddress(String zAddress) {
+		return mSimpleAddresses.contains(zAddress);
+	}
+}
@@ -39,10 +39,10 @@ public class Wallet extends SqlDB {
 	Hashtable<String, TreeKey> mTreeKeys = new Hashtable<>();
 	
 	/**
-	 * Has there been a change to the Key Rows.. otherwise used cached
+	 * The keys and scripts from the DB - null when they have changed and need loading again
 	 */
-	boolean mKeyRowChange 					= true;
-	ArrayList<KeyRow> mCachedRelevantKeys 	= new ArrayList<>();
+	volatile RelevantKeys mRelevantKeys = null;
+	long mRelevantVersion 				= 0;
 	
 	public Wallet() {
 		super();
@@ -95,7 +95,7 @@ public class Wallet extends SqlDB {
 			SQL_ADD_CUSTOM_SCRIPT	= mSQLCOnnection.prepareStatement("INSERT IGNORE INTO scripts ( script, address, track ) VALUES ( ?, ? , ? )");
 			SQL_LIST_CUSTOM_SCRIPTS	= mSQLCOnnection.prepareStatement("SELECT * FROM scripts");
 			
-			mKeyRowChange = true;
+			mRelevantKeys = null;
 			
 		} catch (SQLException e) {
 			MinimaLogger.log(e);
@@ -156,7 +156,7 @@ public class Wallet extends SqlDB {
 	public synchronized KeyRow createNewKey(MiniData zPrivateSeed) {
 		
 		//Change has occurred
-		mKeyRowChange = true;
+		mRelevantKeys = null;
 		
 		//Make the TreeKey
 		TreeKey treekey 	= TreeKey.createDefault(zPrivateSeed);
@@ -203,11 +203,27 @@ public class Wallet extends SqlDB {
 	/**
 	 * Get all relevant Public Keys and Addresses
 	 */
-	public synchronized ArrayList<KeyRow> getAllRelevant() {
+	public ArrayList<KeyRow> getAllRelevant() {
+		return getRelevantKeys().getKeys();
+	}
+	
+	/**
+	 * The relevant keys - only loaded from the DB when they have changed
+	 */
+	public RelevantKeys getRelevantKeys() {
+		//If no change use the cached version
+		RelevantKeys relkeys = mRelevantKeys;
+		if(relkeys != null) {
+			return relkeys;
+		}
 		
-		//If nop change use the cached version
-		if(!mKeyRowChange) {
-			return mCachedRelevantKeys;
+		return loadRelevantKeys();
+	}
+	
+	private synchronized RelevantKeys loadRelevantKeys() {
+		//May have been loaded while we waited
+		if(mRelevantKeys != null) {
+			return mRelevantKeys;
 		}
 		
 		ArrayList<KeyRow> allkeys = new ArrayList<>();
@@ -239,10 +255,9 @@ public class Wallet extends SqlDB {
 		allkeys.addAll(customscripts);
 		
 		//Store for later
-		mCachedRelevantKeys = allkeys;
-		mKeyRowChange		= false;
+		mRelevantKeys = new RelevantKeys(allkeys, ++mRelevantVersion);
 		
-		return allkeys;
+		return mRelevantKeys;
 	}
 	
 	/**
@@ -389,9 +404,6 @@ public class Wallet extends SqlDB {
 	}
 	
 	private synchronized void updateUses(String zPrivateKey, int zUses) throws SQLException {		
-		//Change has occurred
-		mKeyRowChange = true;
-				
 		//Get the Query ready
 		SQL_UPDATE_USES.clearParameters();
 	
@@ -409,7 +421,7 @@ public class Wallet extends SqlDB {
 	public synchronized KeyRow addScript(String zScript, boolean zTrack) {
 		
 		//Change has occurred
-		mKeyRowChange = true;
+		mRelevantKeys = null;
 		
 		//And create the simple spend
 		Address addr  	= new Address(zScript);
@@ -164,19 +164,25 @@ public class Contract {
 		
 		//Parse the tokens
 		try {
-			//Tokenize the script
-			ScriptTokenizer tokenize = new ScriptTokenizer(zRamScript);
+			if(mTraceON) {
+				//Tokenize the script
+				ScriptTokenizer tokenize = new ScriptTokenizer(zRamScript);
+				
+				//Tokenize the script
+				List<ScriptToken> tokens = tokenize.tokenize();
+				
+				int count=0;
+				for(ScriptToken tok : tokens) {
+					traceLog((count++)+") Token : ["+tok.getTokenTypeString()+"] "+tok.getToken());
+				}
 			
-			//Tokenize the script
-			List<ScriptToken> tokens = tokenize.tokenize();
+				//Convert this list of Tokens into a list of Statements
+				mBlock = StatementParser.parseTokens(tokens);
 			
-			int count=0;
-			for(ScriptToken tok : tokens) {
-				traceLog((count++)+") Token : ["+tok.getTokenTypeString()+"] "+tok.getToken());
+			}else {
+				//Parsed blocks keep no state - so can be shared
+				mBlock = ScriptCache.getStatementBlock(zRamScript);
 			}
-		
-			//Convert this list of Tokens into a list of Statements
-			mBlock = StatementParser.parseTokens(tokens);
 			
 			traceLog("Script token parse OK.");
 			mParseOK = true;
@@ -0,0 +1,159 @@
+package org.minima.kissvm;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.minima.kissvm.statements.StatementBlock;
+import org.minima.kissvm.statements.StatementParser;
+import org.minima.kissvm.tokens.ScriptToken;
+import org.minima.kissvm.tokens.ScriptTokenizer;
+import org.minima.objects.base.MiniString;
+import org.minima.utils.Crypto;
+import org.minima.utils.json.JSONObject;
+
+/**
+ * Remembers the parsed StatementBlock of the scripts that have been run.
+ *
+ * The same few scripts - the standard SIGNEDBY addresses - are run for every input of every
+ * transaction. A parsed StatementBlock keeps nothing from a run - the variables, signatures and
+ * instruction count are all in the Contract - so the same one can be run by any Contract.
+ *
+ * Only scripts that parse are stored - so a bad script is always parsed and fails the same way.
+ */
+public class ScriptCache {
+
+	/**
+	 * How many parsed scripts to remember
+	 */
+	public static final int MAX_SIZE = 1000;
+
+	/**
+	 * A parsed script and how long it took to parse
+	 */
+	private static class ParsedScript {
+		StatementBlock mBlock;
+		long mParseNanos;
+
+		public ParsedScript(StatementBlock zBlock, long zParseNanos) {
+			mBlock 		= zBlock;
+			mParseNanos = zParseNanos;
+		}
+	}
+
+	/**
+	 * Least recently used order - oldest removed when full
+	 */
+	private static final Map<String, ParsedScript> mScripts = new LinkedHashMap<String, ParsedScript>(256, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ParsedScript> zEldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Hits and misses - and the time spent parsing and not parsing
+	 */
+	private static final AtomicLong mHits 			= new AtomicLong();
+	private static final AtomicLong mMisses 		= new AtomicLong();
+	private static final AtomicLong mParseNanos 	= new AtomicLong();
+	private static final AtomicLong mSavedNanos 	= new AtomicLong();
+
+	/**
+	 * The hash of the script - the same as its address
+	 */
+	private static String getKey(String zScript) {
+		return Crypto.getInstance().hashObject(new MiniString(zScript)).to0xString();
+	}
+
+	/**
+	 * Tokenize and parse a script - no cache
+	 */
+	public static StatementBlock parseScript(String zScript) throws Exception {
+		//Tokenize the script
+		ScriptTokenizer tokenize = new ScriptTokenizer(zScript);
+		List<ScriptToken> tokens = tokenize.tokenize();
+
+		//Convert this list of Tokens into a list of Statements
+		return StatementParser.parseTokens(tokens);
+	}
+
+	/**
+	 * The parsed script - from the cache if it has been parsed before
+	 */
+	public static StatementBlock getStatementBlock(String zScript) throws Exception {
+		String key = getKey(zScript);
+
+		synchronized (mScripts) {
+			ParsedScript parsed = mScripts.get(key);
+			if(parsed != null) {
+				mHits.incrementAndGet();
+				mSavedNanos.addAndGet(parsed.mParseNanos);
+				return parsed.mBlock;
+			}
+		}
+
+		mMisses.incrementAndGet();
+
+		//Parse it..
+		long timestart 			= System.nanoTime();
+		StatementBlock block 	= parseScript(zScript);
+		long timediff 			= System.nanoTime() - timestart;
+		mParseNanos.addAndGet(timediff);
+
+		synchronized (mScripts) {
+			mScripts.put(key, new ParsedScript(block, timediff));
+		}
+
+		return block;
+	}
+
+	public static int getSize() {
+		synchronized (mScripts) {
+			return mScripts.size();
+		}
+	}
+
+	public static long getHits() {
+		return mHits.get();
+	}
+
+	public static long getMisses() {
+		return mMisses.get();
+	}
+
+	/**
+	 * Forget all the parsed scripts - but keep the stats
+	 */
+	public static void invalidate() {
+		synchronized (mScripts) {
+			mScripts.clear();
+		}
+	}
+	
+	public static void clear() {
+		invalidate();
+		mHits.set(0);
+		mMisses.set(0);
+		mParseNanos.set(0);
+		mSavedNanos.set(0);
+	}
+
+	/**
+	 * The parse times are in milliseconds - saved is how long the hits took to parse the first time
+	 */
+	public static JSONObject getStatus() {
+		long hits 	= getHits();
+		long total 	= hits + getMisses();
+
+		JSONObject ret = new JSONObject();
+		ret.put("size", getSize());
+		ret.put("hits", hits);
+		ret.put("misses", getMisses());
+		ret.put("hitrate", total == 0 ? 0 : (hits * 100) / total);
+		ret.put("parsetime", mParseNanos.get() / 1000000);
+		ret.put("savedtime", mSavedNanos.get() / 1000000);
+		return ret;
+	}
+}
@@ -4,8 +4,14 @@
 package org.minima.kissvm.functions;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.minima.kissvm.Contract;
+import org.minima.kissvm.ScriptCache;
 import org.minima.kissvm.exceptions.ExecutionException;
 import org.minima.kissvm.exceptions.MinimaParseException;
 import org.minima.kissvm.expressions.Expression;
@@ -54,6 +60,7 @@ import org.minima.kissvm.functions.txn.output.GETOUTADDR;
 import org.minima.kissvm.functions.txn.output.GETOUTAMT;
 import org.minima.kissvm.functions.txn.output.GETOUTTOK;
 import org.minima.kissvm.functions.txn.output.VERIFYOUT;
+import org.minima.kissvm.tokens.ScriptTokenizer;
 import org.minima.kissvm.values.Value;
 
 /**
@@ -206,6 +213,86 @@ public abstract class MinimaFunction {
 		}
 	}
 	
+	/**
+	 * All the functions by name - the built in ones and any registered after
+	 */
+	private static final Map<String, MinimaFunction> mFunctions = new ConcurrentHashMap<>();
+	static {
+		for(MinimaFunction func : ALL_FUNCTIONS) {
+			mFunctions.put(func.getName(), func);
+		}
+	}
+	
+	/**
+	 * Add a new function to the KISS VM - new copies are made with getNewFunction().
+	 * 
+	 * Existing functions cannot be replaced.
+	 */
+	public static void registerFunction(MinimaFunction zFunction) {
+		//Must be a single word to the tokenizer
+		if(!zFunction.getName().matches("[A-Z][A-Z0-9]*")) {
+			throw new IllegalArgumentException("Function names can only use A-Z and 0-9 : "+zFunction.getName());
+		}
+		
+		//Must not change how existing scripts tokenize
+		if(isReservedWord(zFunction.getName())) {
+			throw new IllegalArgumentException("Function name is a reserved word : "+zFunction.getName());
+		}
+		
+		if(mFunctions.putIfAbsent(zFunction.getName(), zFunction) != null) {
+			throw new IllegalArgumentException("Function already exists : "+zFunction.getName());
+		}
+		
+		functionsChanged();
+	}
+	
+	/**
+	 * Commands, boolean operators and TRUE / FALSE
+	 */
+	private static boolean isReservedWord(String zName) {
+		if(zName.equals("TRUE") || zName.equals("FALSE")) {
+			return true;
+		}
+		
+		for(String command : ScriptTokenizer.TOKENS_COMMAND) {
+			if(command.equals(zName)) {
+				return true;
+			}
+		}
+		
+		return ScriptTokenizer.BOOLEAN_TOKENS_LIST.contains(zName);
+	}
+	
+	/**
+	 * Remove a registered function - the built in ones cannot be removed
+	 */
+	public static void unregisterFunction(String zName) {
+		for(MinimaFunction func : ALL_FUNCTIONS) {
+			if(func.getName().equals(zName)) {
+				throw new IllegalArgumentException("Cannot remove a built in function : "+zName);
+			}
+		}
+		
+		if(mFunctions.remove(zName) != null) {
+			functionsChanged();
+		}
+	}
+	
+	private static void functionsChanged() {
+		//The tokenizer needs to know what is a function
+		ScriptTokenizer.resetKeywords();
+		
+		//And scripts parsed before may have used the name as a variable
+		ScriptCache.invalidate();
+	}
+	
+	/**
+	 * The names of all the functions
+	 */
+	public static Set<String> getAllFunctionNames(){
+		return Collections.unmodifiableSet(mFunctions.keySet());
+	}
+	
 	/**
 	 * Get a specific function given it's name
 	 * 
@@ -214,15 +301,17 @@ public abstract class MinimaFunction {
 	 * @throws MinimaParseException
 	 */
 	public static MinimaFunction getFunction(String zFunction) throws MinimaParseException{
-		//Cycle through all the functions - find the right one..
-		for(MinimaFunction func : MinimaFunction.ALL_FUNCTIONS) {
-			//Check it..
-			if(func.getName().equalsIgnoreCase(zFunction)) {
-				return func.getNewFunction();
-			}
+		//Function names are always Uppercase - as the tokenizer makes them
+		MinimaFunction func = mFunctions.get(zFunction);
+		if(func == null) {
+			func = mFunctions.get(zFunction.toUpperCase(Locale.ENGLISH));
+		}
+		
+		if(func == null) {
+			throw new MinimaParseException("Invalid Function : "+zFunction);
 		}
 		
-		throw new MinimaParseException("Invalid Function : "+zFunction);
+		return func.getNewFunction();
 	}
 	
 }
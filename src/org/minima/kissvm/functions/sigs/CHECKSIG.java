@@ -8,7 +8,7 @@ import org.minima.kissvm.values.HexValue;
 import org.minima.kissvm.values.Value;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.keys.Signature;
-import org.minima.objects.keys.TreeKey;
+import org.minima.objects.keys.SignatureCache;
 
 /**
  * @author spartacusrex
@@ -40,10 +40,6 @@ public class CHECKSIG extends MinimaFunction {
 			throw new ExecutionException("Invalid ZERO length params for CHECKSIG");
 		}
 		
-		//Create a TreeKey to check the signature
-		TreeKey checker = new TreeKey();
-		checker.setPublicKey(pubk);
-		
 		//Convert the bytes into a signature Object
 		Signature signature = Signature.convertMiniDataVersion(sig.getMiniData());
 		
@@ -51,7 +47,7 @@ public class CHECKSIG extends MinimaFunction {
 		MiniData sigdata = data.getMiniData();
 				
 		//Check it..
-		boolean ok = checker.verify(sigdata,signature);
+		boolean ok = SignatureCache.verify(pubk, sigdata, signature);
 		
 		return new BooleanValue(ok);
 	}
@@ -1,15 +1,11 @@
 package org.minima.kissvm.statements.commands;
 
-import java.util.List;
-
 import org.minima.kissvm.Contract;
+import org.minima.kissvm.ScriptCache;
 import org.minima.kissvm.exceptions.ExecutionException;
 import org.minima.kissvm.expressions.Expression;
 import org.minima.kissvm.statements.Statement;
 import org.minima.kissvm.statements.StatementBlock;
-import org.minima.kissvm.statements.StatementParser;
-import org.minima.kissvm.tokens.ScriptToken;
-import org.minima.kissvm.tokens.ScriptTokenizer;
 import org.minima.kissvm.values.StringValue;
 
 /**
@@ -32,14 +28,8 @@ public class EXECstatement implements Statement{
 		StringValue script = (StringValue) mScript.getValue(zContract);
 		
 		try {
-			//Tokenize the script
-			ScriptTokenizer tokz = new ScriptTokenizer(script.toString());
-			
-			//Convert the script to KISSVM!
-			List<ScriptToken> tokens = tokz.tokenize();	
-		
-			//And now convert to a statement block..
-			StatementBlock mBlock = StatementParser.parseTokens(tokens);
+			//Parse the script - or use the cached version
+			StatementBlock mBlock = ScriptCache.getStatementBlock(script.toString());
 			
 			//Now run it..
 			mBlock.run(zContract);
@@ -7,12 +7,18 @@ import java.util.List;
 import org.minima.kissvm.exceptions.MinimaParseException;
 import org.minima.kissvm.functions.MinimaFunction;
 
+/**
+ * Splits a script into tokens in one pass over the characters.
+ *
+ * Each character is looked up in a table, and the commands, functions and boolean operators
+ * are found by walking a static trie over the characters of the word - no regular expressions.
+ */
 public class ScriptTokenizer {
 
 	/**
 	 * Main Commands
 	 */
-	public static final String[] TOKENS_COMMAND     = 
+	public static final String[] TOKENS_COMMAND     =
 		{"LET",
 		 "IF","THEN","ELSEIF","ELSE","ENDIF",
 		 "RETURN",
@@ -20,237 +26,435 @@ public class ScriptTokenizer {
 		 "WHILE","DO","ENDWHILE",
 		 "EXEC",
 		 "MAST"};
-	
+
 	/**
 	 * Number operators - << and >> and dealt with separately
 	 */
-	public static final String[] TOKENS_NUMBER_OPERATOR = 
+	public static final String[] TOKENS_NUMBER_OPERATOR =
 		{"+","-","/","*","%","&","|","^","="};
 
 	/**
 	 * Boolean Operators
 	 */
-	public static final String[] TOKENS_BOOLEAN_OPERATOR = 
+	public static final String[] TOKENS_BOOLEAN_OPERATOR =
 		{"LT","LTE","GT","GTE","EQ","NEQ",
 		 "XOR","AND","OR",
 		 "NXOR","NAND","NOR",
 		 "NOT","NEG"};
 	public static final List<String> BOOLEAN_TOKENS_LIST  = Arrays.asList(TOKENS_BOOLEAN_OPERATOR);
-	
+
 	/**
-	 * Words end when they encounter 
+	 * Words end when they encounter
 	 */
-	public static final String[] TOKENS_ENDOFWORD   = 
+	public static final String[] TOKENS_ENDOFWORD   =
 		{"+","-","/","*","%","&","|","^","=","(",")","[","]","<",">","<<",">>"};
 	public static final List<String> mAllEOW  = Arrays.asList(TOKENS_ENDOFWORD);
-	
+
+	/**
+	 * What each ASCII character is - anything else is part of a word
+	 */
+	private static final int CHAR_WORD 			= 0;
+	private static final int CHAR_WHITESPACE 	= 1;
+	private static final int CHAR_OPERATOR 		= 2;
+	private static final int CHAR_LESS 			= 3;
+	private static final int CHAR_MORE 			= 4;
+	private static final int CHAR_OPENBRACKET 	= 5;
+	private static final int CHAR_CLOSEBRACKET 	= 6;
+	private static final int CHAR_OPENSQUARE 	= 7;
+	private static final int CHAR_CLOSESQUARE 	= 8;
+
+	private static final byte[] CHAR_TYPES = new byte[128];
+
+	/**
+	 * The operators as Strings - so no new String is made for them
+	 */
+	private static final String[] CHAR_OPERATORS = new String[128];
+
+	/**
+	 * The commands, functions, boolean operators and TRUE / FALSE - made again if a function is registered
+	 */
+	private static volatile KeywordNode KEYWORDS = createKeywords();
+
+	static {
+		//Same as the \s regex
+		for(char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+			CHAR_TYPES[c] = CHAR_WHITESPACE;
+		}
+
+		for(String op : TOKENS_NUMBER_OPERATOR) {
+			CHAR_TYPES[op.charAt(0)] 		= CHAR_OPERATOR;
+			CHAR_OPERATORS[op.charAt(0)] 	= op;
+		}
+
+		CHAR_TYPES['<'] = CHAR_LESS;
+		CHAR_TYPES['>'] = CHAR_MORE;
+		CHAR_TYPES['('] = CHAR_OPENBRACKET;
+		CHAR_TYPES[')'] = CHAR_CLOSEBRACKET;
+		CHAR_TYPES['['] = CHAR_OPENSQUARE;
+		CHAR_TYPES[']'] = CHAR_CLOSESQUARE;
+	}
+
+	private static KeywordNode createKeywords() {
+		KeywordNode keywords = new KeywordNode();
+
+		//The first one added wins - the same order they are checked in
+		for(String command : TOKENS_COMMAND) {
+			keywords.add(command, ScriptToken.TOKEN_COMMAND);
+		}
+		for(String func : MinimaFunction.getAllFunctionNames()) {
+			keywords.add(func, ScriptToken.TOKEN_FUNCTIION);
+		}
+		for(String boolop : TOKENS_BOOLEAN_OPERATOR) {
+			keywords.add(boolop, ScriptToken.TOKEN_OPERATOR);
+		}
+		keywords.add("TRUE", ScriptToken.TOKEN_TRUE);
+		keywords.add("FALSE", ScriptToken.TOKEN_FALSE);
+
+		return keywords;
+	}
+
+	/**
+	 * The functions have changed
+	 */
+	public static void resetKeywords() {
+		KEYWORDS = createKeywords();
+	}
+
+	/**
+	 * A node of the keyword trie - keywords are only A-Z and 0-9
+	 */
+	private static class KeywordNode {
+		KeywordNode[] mChildren = new KeywordNode[36];
+		String mKeyword 		= null;
+		int mTokenType;
+
+		private static int getIndex(char zChar) {
+			if(zChar >= 'A' && zChar <= 'Z') {
+				return zChar - 'A';
+			}else if(zChar >= '0' && zChar <= '9') {
+				return 26 + zChar - '0';
+			}
+			return -1;
+		}
+
+		public void add(String zKeyword, int zTokenType) {
+			KeywordNode node = this;
+			for(int i=0;i<zKeyword.length();i++) {
+				int index = getIndex(zKeyword.charAt(i));
+				if(node.mChildren[index] == null) {
+					node.mChildren[index] = new KeywordNode();
+				}
+				node = node.mChildren[index];
+			}
+
+			if(node.mKeyword == null) {
+				node.mKeyword 	= zKeyword;
+				node.mTokenType = zTokenType;
+			}
+		}
+
+		public KeywordNode find(CharSequence zWord, int zStart, int zEnd) {
+			KeywordNode node = this;
+			for(int i=zStart;i<zEnd;i++) {
+				int index = getIndex(zWord.charAt(i));
+				if(index == -1) {
+					return null;
+				}
+				node = node.mChildren[index];
+				if(node == null) {
+					return null;
+				}
+			}
+			return node.mKeyword == null ? null : node;
+		}
+	}
+
 	/**
 	 * The script we are tokenizing
 	 */
-	StringBuffer mScript;
-	
+	String mScript;
+
 	/**
 	 * Position and length
 	 */
 	int mPos;
-	int mLength; 
-	
+	int mLength;
+
 	boolean mCaseInsensitive = false;
-	
+
 	public ScriptTokenizer(String zScript) {
 		this(zScript, false);
 	}
-	
+
 	public ScriptTokenizer(String zScript, boolean zCaseInsensitive) {
-		mScript = new StringBuffer(zScript);
+		mScript = zScript;
 		mPos    = 0;
 		mLength = mScript.length();
 		mCaseInsensitive = zCaseInsensitive;
 	}
-	
-	
-	public String getNextWord() {
-		String word = "";
-		
-		//Get all the characters up to the next End Of Word symbol..
-		while(mPos<mLength){
-			//get the next Character
-			String c = Character.toString(mScript.charAt(mPos));
-			
-			//Is it an end of Word..
-			if(mAllEOW.contains(c) || isWhiteSpace(c)) {
-				break;
-			}
-			
-			//Add to the word
-			word += mScript.charAt(mPos);
-			mPos++;
+
+	private static int getCharType(char zChar) {
+		return zChar < 128 ? CHAR_TYPES[zChar] : CHAR_WORD;
+	}
+
+	private static boolean isWhiteSpace(char zChar) {
+		return zChar < 128 && CHAR_TYPES[zChar] == CHAR_WHITESPACE;
+	}
+
+	private static boolean isDigit(char zChar) {
+		return zChar >= '0' && zChar <= '9';
+	}
+
+	private static boolean isHexDigit(char zChar) {
+		return isDigit(zChar) || (zChar >= 'a' && zChar <= 'f') || (zChar >= 'A' && zChar <= 'F');
+	}
+
+	/**
+	 * Move to the end of the word - returns where it ends
+	 */
+	private int findEndOfWord() {
+		int end = mPos;
+		while(end<mLength && getCharType(mScript.charAt(end)) == CHAR_WORD) {
+			end++;
 		}
-		
-		return word;
+		return end;
 	}
-	
+
+	public String getNextWord() {
+		int start 	= mPos;
+		mPos 		= findEndOfWord();
+		return mScript.substring(start, mPos);
+	}
+
+	/**
+	 * A number with an optional decimal part
+	 */
 	public static boolean isNumeric(String zWord){
-		return zWord.matches("^[0-9]+(\\.[0-9]+)?");  //match a number with optional '-' and decimal.
+		int len = zWord.length();
+		int pos = 0;
+		while(pos<len && isDigit(zWord.charAt(pos))) {
+			pos++;
+		}
+
+		//Must start with a digit
+		if(pos == 0) {
+			return false;
+		}else if(pos == len) {
+			return true;
+		}
+
+		//Only a decimal point and more digits left..
+		if(zWord.charAt(pos) != '.') {
+			return false;
+		}
+
+		int decimal = ++pos;
+		while(pos<len && isDigit(zWord.charAt(pos))) {
+			pos++;
+		}
+
+		return pos == len && pos > decimal;
 	}
-	
+
 	public static boolean isHex(String zWord){
-		return zWord.matches("0x[0-9a-fA-F]+");
+		int len = zWord.length();
+		if(len < 3 || zWord.charAt(0) != '0' || zWord.charAt(1) != 'x') {
+			return false;
+		}
+
+		for(int i=2;i<len;i++) {
+			if(!isHexDigit(zWord.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
 	}
-	
+
 	public static boolean isVariable(String zWord){
-		return zWord.matches("[a-z]+");
+		int len = zWord.length();
+		if(len == 0) {
+			return false;
+		}
+
+		for(int i=0;i<len;i++) {
+			char c = zWord.charAt(i);
+			if(c < 'a' || c > 'z') {
+				return false;
+			}
+		}
+
+		return true;
 	}
-	
+
 	public static boolean isGlobal(String zWord){
-		return zWord.matches("@[A-Z]+");
+		int len = zWord.length();
+		if(len < 2 || zWord.charAt(0) != '@') {
+			return false;
+		}
+
+		for(int i=1;i<len;i++) {
+			char c = zWord.charAt(i);
+			if(c < 'A' || c > 'Z') {
+				return false;
+			}
+		}
+
+		return true;
 	}
-	
+
 	public static boolean isWhiteSpace(String zWord) {
-		return zWord.matches("\\s+");
+		int len = zWord.length();
+		if(len == 0) {
+			return false;
+		}
+
+		for(int i=0;i<len;i++) {
+			if(!isWhiteSpace(zWord.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
 	}
-	
+
 	public ArrayList<ScriptToken> tokenize() throws MinimaParseException{
 		ArrayList<ScriptToken> tokens = new ArrayList<ScriptToken>();
-		
-		//Get the defaults..
-		List<String> allcommands  	= Arrays.asList(TOKENS_COMMAND);
-		List<String> allnumops 		= Arrays.asList(TOKENS_NUMBER_OPERATOR);
-		List<String> allboolops 	= Arrays.asList(TOKENS_BOOLEAN_OPERATOR);
-		
-		List<String> allfunctions 	= new ArrayList<>();
-		for(MinimaFunction func : MinimaFunction.ALL_FUNCTIONS) {
-			allfunctions.add(func.getName());
-		}
-		
+
 		//Now run through..
 		mPos = 0;
 		boolean waslastspace = true;
 		while(mPos<mLength) {
 			//Get the next symbol..
-			String nextchar = Character.toString(mScript.charAt(mPos));
-			
+			char nextchar = mScript.charAt(mPos);
+
 			//space check..
 			boolean wasspace = false;
-			if(isWhiteSpace(nextchar)) {
+			switch (getCharType(nextchar)) {
+			case CHAR_WHITESPACE:
 				//ignore and move on..
 				mPos++;
 				wasspace = true;
-				
-				//Is it a one character operator
-			}else if(allnumops.contains(nextchar)) {
-				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPERATOR, nextchar));
+				break;
+
+			case CHAR_OPERATOR:
+				//A one character operator
+				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPERATOR, CHAR_OPERATORS[nextchar]));
 				mPos++;
-			
-				//Is it >> or <<
-			}else if(nextchar.equals("<")) {
-				String testchar = Character.toString(mScript.charAt(mPos+1));
-				if(!testchar.equals("<")) {
-					throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+nextchar+testchar);
+				break;
+
+			case CHAR_LESS:
+				//Must be <<
+				if(mScript.charAt(mPos+1) != '<') {
+					throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+nextchar+mScript.charAt(mPos+1));
 				}
 				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPERATOR, "<<"));
 				mPos+=2;
-			
-			}else if(nextchar.equals(">")) {
-				String testchar = Character.toString(mScript.charAt(mPos+1));
-				if(!testchar.equals(">")) {
-					throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+nextchar+testchar);
+				break;
+
+			case CHAR_MORE:
+				//Must be >>
+				if(mScript.charAt(mPos+1) != '>') {
+					throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+nextchar+mScript.charAt(mPos+1));
 				}
 				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPERATOR, ">>"));
 				mPos+=2;
-			
-				//Is it a bracket
-			}else if(nextchar.equals("(")) {
-				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPENBRACKET, nextchar));
+				break;
+
+			case CHAR_OPENBRACKET:
+				tokens.add(new ScriptToken(ScriptToken.TOKEN_OPENBRACKET, "("));
 				mPos++;
-			}else if(nextchar.equals(")")) {
-				tokens.add(new ScriptToken(ScriptToken.TOKEN_CLOSEBRACKET, nextchar));
+				break;
+
+			case CHAR_CLOSEBRACKET:
+				tokens.add(new ScriptToken(ScriptToken.TOKEN_CLOSEBRACKET, ")"));
 				mPos++;
+				break;
 
-				//Is it a SQUARE bracket
-			}else if(nextchar.equals("[")) {
-				//Ok get to the end of this sequence..
-				String str  = "";
+			case CHAR_OPENSQUARE:
+				//Ok get to the end of this sequence - or the end of the script..
+				int start 	= mPos;
 				int sq		= 0;
 				while(mPos<mLength) {
-					nextchar = Character.toString(mScript.charAt(mPos));
-					str 	+= nextchar;
-					
-					if(nextchar.equals("[")) {
+					char c = mScript.charAt(mPos++);
+					if(c == '[') {
 						sq++;
-					}else if(nextchar.equals("]")) {
+					}else if(c == ']') {
 						sq--;
 						if(sq==0) {
-							mPos++;
 							break;
 						}
 					}
-					mPos++;
 				}
-				
+
 				//It's a String
-				tokens.add(new ScriptToken(ScriptToken.TOKEN_VALUE, str));
-				
-			}else{
-				//get the next word..
-				String word = getNextWord();
-				
-				//Uppercase..Lowercase - for cleanscript..
-				String uppercase = word;
-				String lowercase = word;
-				if(mCaseInsensitive) {
-					uppercase = word.toUpperCase();
-					lowercase = word.toLowerCase();
-				}
-				
-					//What is it..
-				if(allcommands.contains(uppercase)) {
-					//Must have a space before a command word
-					if(!waslastspace) {
-						throw new MinimaParseException("Missing space before Command @ "+mPos+" "+uppercase);
-					}
-					
-					//It's a command
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_COMMAND, uppercase));
-				
-				}else if(allfunctions.contains(uppercase)) {
-					//It's a function
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_FUNCTIION, uppercase));
-				
-				}else if(allboolops.contains(uppercase)) {
-					//It's a function
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_OPERATOR, uppercase));
-				
-				}else if(isNumeric(word) || isHex(word)) {
-					//It's a number
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_VALUE, word));
-				
-				}else if(uppercase.equals("TRUE")) {
-					//It's a number
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_TRUE, uppercase));
-				
-				}else if(uppercase.equals("FALSE")) {
-					//It's a number
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_FALSE, uppercase));
-				
-				}else if(isGlobal(uppercase)) {
-					//It's a global
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_GLOBAL, uppercase));
-					
-				}else if(isVariable(lowercase)) {
-					//It's a number
-					tokens.add(new ScriptToken(ScriptToken.TOKEN_VARIABLE, lowercase));
-				
-				}else {
-					throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+word);
-				}
+				tokens.add(new ScriptToken(ScriptToken.TOKEN_VALUE, mScript.substring(start, mPos)));
+				break;
+
+			default:
+				//A word - a ] on its own is an empty word and an error
+				addWord(tokens, waslastspace);
+				break;
 			}
-			
+
 			//Save this - commands have to have this as true
 			waslastspace = wasspace;
 		}
-		
+
 		return tokens;
 	}
-	
+
+	private void addWord(ArrayList<ScriptToken> zTokens, boolean zWasLastSpace) throws MinimaParseException {
+		int start 	= mPos;
+		int end 	= findEndOfWord();
+		mPos 		= end;
+
+		//Uppercase..Lowercase - for cleanscript..
+		String word 		= null;
+		String uppercase 	= null;
+		String lowercase 	= null;
+		KeywordNode keyword = null;
+		if(mCaseInsensitive) {
+			word 		= mScript.substring(start, end);
+			uppercase 	= word.toUpperCase();
+			lowercase 	= word.toLowerCase();
+			keyword 	= KEYWORDS.find(uppercase, 0, uppercase.length());
+		}else {
+			//No need to make a String for a keyword
+			keyword = KEYWORDS.find(mScript, start, end);
+		}
+
+		//What is it..
+		if(keyword != null) {
+			if(keyword.mTokenType == ScriptToken.TOKEN_COMMAND && !zWasLastSpace) {
+				//Must have a space before a command word
+				throw new MinimaParseException("Missing space before Command @ "+mPos+" "+keyword.mKeyword);
+			}
+
+			zTokens.add(new ScriptToken(keyword.mTokenType, keyword.mKeyword));
+			return;
+		}
+
+		if(word == null) {
+			word 		= mScript.substring(start, end);
+			uppercase 	= word;
+			lowercase 	= word;
+		}
+
+		if(isNumeric(word) || isHex(word)) {
+			//It's a number
+			zTokens.add(new ScriptToken(ScriptToken.TOKEN_VALUE, word));
+
+		}else if(isGlobal(uppercase)) {
+			//It's a global
+			zTokens.add(new ScriptToken(ScriptToken.TOKEN_GLOBAL, uppercase));
+
+		}else if(isVariable(lowercase)) {
+			//It's a variable
+			zTokens.add(new ScriptToken(ScriptToken.TOKEN_VARIABLE, lowercase));
+
+		}else {
+			throw new MinimaParseException("Incorrect Token found @ "+mPos+" "+word);
+		}
+	}
 }
@@ -87,6 +87,7 @@ public class Coin implements Streamable {
 	 * The Block number where this output was created 
 	 */
 	MiniNumber mBlockCreated	= MiniNumber.ZERO;
+	long mBlockCreatedLong		= 0;
 	
 	/**
 	 * Then Token Details 
@@ -160,13 +161,21 @@ public class Coin implements Streamable {
 	}
 	
 	public void setBlockCreated(MiniNumber zBlock) {
-		mBlockCreated = zBlock;
+		mBlockCreated 		= zBlock;
+		mBlockCreatedLong 	= zBlock.getAsLongSaturated();
 	}
 	
 	public MiniNumber getBlockCreated() {
 		return mBlockCreated;
 	}
 	
+	/**
+	 * Saturated like MiniNumber.getAsLongSaturated() - if two are equal compare the MiniNumbers
+	 */
+	public long getBlockCreatedLong() {
+		return mBlockCreatedLong;
+	}
+	
 	public void setFloating(boolean zFloating) {
 		mFloating = zFloating;
 	}
@@ -324,7 +333,7 @@ public class Coin implements Streamable {
 		
 		mMMREntryNumber = MMREntryNumber.ReadFromStream(zIn);
 		mSpent			= MiniByte.ReadFromStream(zIn);
-		mBlockCreated	= MiniNumber.ReadFromStream(zIn);
+		setBlockCreated(MiniNumber.ReadFromStream(zIn));
 		
 		mState		= new ArrayList<>();
 		int len 	= MiniNumber.ReadFromStream(zIn).getAsInt();
@@ -59,6 +59,9 @@ public class Greeting implements Streamable {
 			}
 			getExtraData().put("port",""+GeneralParams.MINIMA_PORT);
 			
+			//We can receive the IBD in pages
+			getExtraData().put("ibdpages", "true");
+			
 			//Add the chain..
 			TxPoWTreeNode tip = MinimaDB.getDB().getTxPoWTree().getTip();
 			if(tip == null) {
@@ -84,6 +87,18 @@ public class Greeting implements Streamable {
 		return this;
 	}
 	
+	/**
+	 * Ask for the page of IBD blocks after this block - before it has been added to the tree
+	 */
+	public Greeting createPageRequest(TxPoW zLastBlock) {
+		getExtraData().put("ibdpages", "true");
+		
+		setTopBlock(zLastBlock.getBlockNumber());
+		mChain.add(zLastBlock.getTxPoWIDData());
+		
+		return this;
+	}
+	
 	public JSONObject getExtraData() {
 		return mExtraData;
 	}
@@ -92,6 +107,13 @@ public class Greeting implements Streamable {
 		return (String) mExtraData.get(zKey);
 	}
 	
+	/**
+	 * Can this user receive the IBD in pages
+	 */
+	public boolean canReceiveIBDPages() {
+		return "true".equals(mExtraData.get("ibdpages"));
+	}
+	
 	public void setTopBlock(MiniNumber zTopBlock) {
 		mTopBlock = zTopBlock;
 	}
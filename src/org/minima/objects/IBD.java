@@ -3,7 +3,10 @@ package org.minima.objects;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 
 import org.minima.database.MinimaDB;
 import org.minima.database.cascade.Cascade;
@@ -17,6 +20,12 @@ import org.minima.utils.Streamable;
 
 public class IBD implements Streamable {
 
+	/**
+	 * Max blocks and bytes of blocks sent in one IBD page
+	 */
+	public static final int IBD_PAGE_MAX_BLOCKS 	= 250;
+	public static final long IBD_PAGE_MAX_BYTES 	= 8 * 1024 * 1024;
+	
 	/**
 	 * The back end Cascade - only sent for a new user - can be null
 	 */
@@ -27,12 +36,35 @@ public class IBD implements Streamable {
 	 */
 	ArrayList<TxBlock> mTxBlocks;
 	
+	/**
+	 * Is this one page of a larger IBD - and are there more blocks after this page
+	 */
+	boolean mIsPage;
+	boolean mMoreBlocks;
+	
 	public IBD() {
 		mCascade	= null;
-		mTxBlocks = new ArrayList<>();
+		mTxBlocks 	= new ArrayList<>();
+		mIsPage		= false;
+		mMoreBlocks	= false;
 	}
 	
 	public void createIBD(Greeting zGreeting) {
+		createIBD(zGreeting, Integer.MAX_VALUE, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Create the first page of blocks the Greeting user needs. 
+	 * 
+	 * They ask for the next page with a new Greeting once this one is added - so it 
+	 * always starts from the last block they have.
+	 */
+	public void createIBDPage(Greeting zGreeting) {
+		mIsPage = true;
+		createIBD(zGreeting, IBD_PAGE_MAX_BLOCKS, IBD_PAGE_MAX_BYTES);
+	}
+	
+	private void createIBD(Greeting zGreeting, int zMaxBlocks, long zMaxBytes) {
 		
 		//The tree..
 		TxPowTree txptree = MinimaDB.getDB().getTxPoWTree();
@@ -60,11 +92,7 @@ public class IBD implements Streamable {
 				mCascade = MinimaDB.getDB().getCascade().deepCopy();
 			
 				//And now add all the blocks.. root will be first
-				TxPoWTreeNode tip = MinimaDB.getDB().getTxPoWTree().getTip();
-				while(tip != null) {
-					mTxBlocks.add(0,tip.getTxBlock());
-					tip = tip.getParent();
-				}
+				addTreeBlocks(MinimaDB.getDB().getTxPoWTree().getTip(), null);
 				
 			}else {
 				MiniNumber myroot 		= txptree.getRoot().getTxBlock().getTxPoW().getBlockNumber();
@@ -87,17 +115,26 @@ public class IBD implements Streamable {
 					//Did we find a block..
 					if(!found.isEqual(MiniNumber.MINUSONE)) {
 						
-						//And the whole tree first
-						while(tip != null) {
-							mTxBlocks.add(0,tip.getTxBlock());
-							tip = tip.getParent();
+						//Only load the archive blocks that fit in the page
+						MiniNumber end = myroot;
+						if(zMaxBlocks < Integer.MAX_VALUE) {
+							MiniNumber pageend = found.add(new MiniNumber(zMaxBlocks + 1));
+							if(pageend.isLess(myroot)) {
+								end = pageend;
+							}
 						}
 						
-						//And NOW - Load the range..
-						ArrayList<TxBlock> blocks = MinimaDB.getDB().getArchive().loadBlockRange(found, myroot);
-						for(TxBlock block : blocks) {
-							mTxBlocks.add(0,block);
+						//And the whole tree first - unless the page ends before it
+						if(end.isEqual(myroot)) {
+							addTreeBlocks(tip, null);
+						}else {
+							mMoreBlocks = true;
 						}
+						
+						//And NOW - Load the range..
+						ArrayList<TxBlock> blocks = MinimaDB.getDB().getArchive().loadBlockRange(found, end);
+						Collections.reverse(blocks);
+						mTxBlocks.addAll(0, blocks);
 					}else {
 						MinimaLogger.log("No Archive blocks found to match New User.. ");
 					}
@@ -116,8 +153,8 @@ public class IBD implements Streamable {
 						greetblocks.add(block.to0xString());
 					}
 					
-					//Create a string array of our blocks..
-					ArrayList<String> myblocks = new ArrayList<>();
+					//Create a string set of our blocks..
+					HashSet<String> myblocks = new HashSet<>();
 					while(tip != null) {
 						myblocks.add(tip.getTxPoW().getTxPoWID());
 						tip = tip.getParent();
@@ -137,26 +174,16 @@ public class IBD implements Streamable {
 					if(found) {
 						
 						//Send from then onwards as SyncBlocks..
-						tip = MinimaDB.getDB().getTxPoWTree().getTip();
-						while(tip != null) {
-							String currentid = tip.getTxPoW().getTxPoWID();
-							
-							if(!currentid.equals(foundblockID)) {
-								mTxBlocks.add(0,tip.getTxBlock());
-							}else {
-								//That's all of them..
-								break;
-							}
-							
-							//Move back..
-							tip = tip.getParent();
-						}
+						addTreeBlocks(MinimaDB.getDB().getTxPoWTree().getTip(), foundblockID);
 					}else {
 						MinimaLogger.log("[!] No Crossover found whilst syncing with new node. They are on a different chain. Please check you are on the correct chain");
 					}
 				}
 			}
 			
+			//Only send one page
+			limitBlocks(zMaxBlocks, zMaxBytes);
+			
 		}catch(Exception exc) {
 			MinimaLogger.log(exc);
 		}
@@ -165,6 +192,82 @@ public class IBD implements Streamable {
 		MinimaDB.getDB().readLock(false);
 	}
 	
+	/**
+	 * Add the blocks from the tip back - stopping at the TxPoWID if not null - oldest first
+	 * before any already added. Added at the front in one go - not one at a time.
+	 */
+	private void addTreeBlocks(TxPoWTreeNode zTip, String zStopTxPoWID) {
+		ArrayList<TxBlock> blocks = new ArrayList<>();
+		
+		TxPoWTreeNode tip = zTip;
+		while(tip != null) {
+			if(zStopTxPoWID != null && tip.getTxPoW().getTxPoWID().equals(zStopTxPoWID)) {
+				//That's all of them..
+				break;
+			}
+			
+			blocks.add(tip.getTxBlock());
+			
+			//Move back..
+			tip = tip.getParent();
+		}
+		
+		Collections.reverse(blocks);
+		mTxBlocks.addAll(0, blocks);
+	}
+	
+	/**
+	 * Keep the first blocks - up to this many and this size - always at least one
+	 */
+	void limitBlocks(int zMaxBlocks, long zMaxBytes) throws IOException {
+		if(zMaxBlocks == Integer.MAX_VALUE && zMaxBytes == Long.MAX_VALUE) {
+			return;
+		}
+		
+		long total 	= 0;
+		int keep 	= 0;
+		for(TxBlock block : mTxBlocks) {
+			if(keep >= zMaxBlocks) {
+				break;
+			}
+			
+			total += getStreamSize(block);
+			if(keep > 0 && total > zMaxBytes) {
+				break;
+			}
+			
+			keep++;
+		}
+		
+		if(keep < mTxBlocks.size()) {
+			mTxBlocks 		= new ArrayList<>(mTxBlocks.subList(0, keep));
+			mMoreBlocks 	= true;
+		}
+	}
+	
+	/**
+	 * How many bytes this object writes
+	 */
+	private static long getStreamSize(Streamable zObject) throws IOException {
+		final long[] count = new long[1];
+		DataOutputStream dos = new DataOutputStream(new OutputStream() {
+			@Override
+			public void write(int zByte) {
+				count[0]++;
+			}
+			
+			@Override
+			public void write(byte[] zData, int zOffset, int zLength) {
+				count[0] += zLength;
+			}
+		});
+		
+		zObject.writeDataStream(dos);
+		dos.flush();
+		
+		return count[0];
+	}
+	
 	/**
 	 * This will be a copy - not the original
 	 */
@@ -184,6 +287,17 @@ public class IBD implements Streamable {
 		return mTxBlocks;
 	}
 	
+	public boolean isPage() {
+		return mIsPage;
+	}
+	
+	/**
+	 * Is there another page after this one
+	 */
+	public boolean hasMoreBlocks() {
+		return mMoreBlocks;
+	}
+	
 	@Override
 	public void writeDataStream(DataOutputStream zOut) throws IOException {
 		//Cascade can be null
@@ -200,6 +314,11 @@ public class IBD implements Streamable {
 		for(TxBlock block : mTxBlocks) {
 			block.writeDataStream(zOut);
 		}
+		
+		//A page says if there are more
+		if(mIsPage) {
+			MiniByte.WriteToStream(zOut, mMoreBlocks);
+		}
 	}
 
 	@Override
@@ -219,6 +338,10 @@ public class IBD implements Streamable {
 		for(int i=0;i<len;i++) {
 			mTxBlocks.add(TxBlock.ReadFromStream(zIn));
 		}
+		
+		if(mIsPage) {
+			mMoreBlocks = MiniByte.ReadFromStream(zIn).isTrue();
+		}
 	}
 	
 	public static IBD ReadFromStream(DataInputStream zIn) throws IOException {
@@ -226,4 +349,11 @@ public class IBD implements Streamable {
 		ibd.readDataStream(zIn);
 		return ibd;
 	}
+	
+	public static IBD ReadPageFromStream(DataInputStream zIn) throws IOException {
+		IBD ibd = new IBD();
+		ibd.mIsPage = true;
+		ibd.readDataStream(zIn);
+		return ibd;
+	}
 }
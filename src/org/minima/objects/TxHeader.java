@@ -24,14 +24,20 @@ public class TxHeader implements Streamable {
 	public MiniNumber mNonce = new MiniNumber(0);
 	
 	/**
-	 * Time Milli - needs to be a MiniNumber as is used in Scripts.. 
+	 * Time Milli - needs to be a MiniNumber as is used in Scripts.. only set with setTimeMilli() so the long matches
 	 */
-	public MiniNumber mTimeMilli = new MiniNumber(System.currentTimeMillis());
+	private MiniNumber mTimeMilli = new MiniNumber(System.currentTimeMillis());
 	
 	/**
-	 * The Block Number - needs to be a MiniNumber as is used in Scripts..
+	 * The Block Number - needs to be a MiniNumber as is used in Scripts.. only set with setBlockNumber() so the long matches
 	 */
-	public MiniNumber  mBlockNumber = new MiniNumber(0);
+	private MiniNumber mBlockNumber = new MiniNumber(0);
+	
+	/**
+	 * The time and block number as longs - so the tree can compare them without the MiniNumber
+	 */
+	private long mTimeMilliLong 	= mTimeMilli.getAsLongSaturated();
+	private long mBlockNumberLong 	= 0;
 	
 	/**
 	 * The BASE Block Difficulty
@@ -76,6 +82,35 @@ public class TxHeader implements Streamable {
 		}
 	}
 	
+	public void setTimeMilli(MiniNumber zMilli) {
+		mTimeMilli 		= zMilli;
+		mTimeMilliLong 	= zMilli.getAsLongSaturated();
+	}
+	
+	public MiniNumber getTimeMilli() {
+		return mTimeMilli;
+	}
+	
+	public long getTimeMilliLong() {
+		return mTimeMilliLong;
+	}
+	
+	public void setBlockNumber(MiniNumber zBlockNumber) {
+		mBlockNumber 		= zBlockNumber;
+		mBlockNumberLong 	= zBlockNumber.getAsLongSaturated();
+	}
+	
+	public MiniNumber getBlockNumber() {
+		return mBlockNumber;
+	}
+	
+	/**
+	 * Saturated like MiniNumber.getAsLongSaturated() - if two are equal compare the MiniNumbers
+	 */
+	public long getBlockNumberLong() {
+		return mBlockNumberLong;
+	}
+	
 	public MiniData getBodyHash() {
 		return mTxBodyHash;
 	}
@@ -195,8 +230,8 @@ public class TxHeader implements Streamable {
 	@Override
 	public void readDataStream(DataInputStream zIn) throws IOException {
 		mNonce           = MiniNumber.ReadFromStream(zIn);
-		mTimeMilli       = MiniNumber.ReadFromStream(zIn);
-		mBlockNumber     = MiniNumber.ReadFromStream(zIn);
+		setTimeMilli(MiniNumber.ReadFromStream(zIn));
+		setBlockNumber(MiniNumber.ReadFromStream(zIn));
 		mBlockDifficulty = MiniData.ReadFromStream(zIn);
 		
 		//How many cascade levels.. will probably NEVER change..
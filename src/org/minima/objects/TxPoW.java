@@ -237,15 +237,19 @@ public class TxPoW implements Streamable {
 	}
 	
 	public void setTimeMilli(MiniNumber zMilli) {
-		mHeader.mTimeMilli = zMilli;
+		mHeader.setTimeMilli(zMilli);
 	}
 	
 	public MiniNumber getTimeMilli() {
-		return mHeader.mTimeMilli;
+		return mHeader.getTimeMilli();
+	}
+	
+	public long getTimeMilliLong() {
+		return mHeader.getTimeMilliLong();
 	}
 	
 	public void setBlockNumber(MiniNumber zBlockNum) {
-		mHeader.mBlockNumber = zBlockNum;
+		mHeader.setBlockNumber(zBlockNum);
 	}
 	
 	public MiniNumber getBlockNumber() {
@@ -253,7 +257,15 @@ public class TxPoW implements Streamable {
 			return _mTestBlockNumber;
 		}
 		
-		return mHeader.mBlockNumber;
+		return mHeader.getBlockNumber();
+	}
+	
+	public long getBlockNumberLong() {
+		if(mIsTesting) {
+			return _mTestBlockNumber.getAsLongSaturated();
+		}
+		
+		return mHeader.getBlockNumberLong();
 	}
 	
 	public MiniData getMMRRoot() {
@@ -450,6 +462,18 @@ public class TxPoW implements Streamable {
 		return _mTxPoWSize;
 	}
 	
+	/**
+	 * The Minima burnt by the main and burn transaction - any Minima input not in the outputs
+	 */
+	public MiniNumber getBurn() {
+		if(!hasBody()) {
+			return MiniNumber.ZERO;
+		}
+		
+		MiniNumber burn = getTransaction().sumInputs(Token.TOKENID_MINIMA).sub(getTransaction().sumOutputs(Token.TOKENID_MINIMA));
+		return burn.add(getBurnTransaction().sumInputs(Token.TOKENID_MINIMA).sub(getBurnTransaction().sumOutputs(Token.TOKENID_MINIMA)));
+	}
+	
 	/**
 	 * This is only done once at creation. TXPOW structures are immutable.
 	 */
@@ -88,25 +88,60 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 	public static final MiniNumber MINUSONE 	= new MiniNumber("-1");
 	
 	/**
-	 * The number representation
+	 * BILLION as a long - BILLION has a negative scale so is always compared as a BigDecimal
+	 */
+	private static final MiniNumber VALID_MAXIMUM = new MiniNumber(1000000000);
+	
+	/**
+	 * Most numbers - block numbers, times and coin amounts - are a long with a small scale.
+	 * These are kept as a long unscaled value and a scale, and the arithmetic is done on the
+	 * longs - giving exactly the same scale and value the BigDecimal would. If it would
+	 * overflow, or the scale is outside 0 to MAX_DECIMAL_PLACES, the BigDecimal is used.
+	 */
+	private boolean mIsLong;
+	private long mUnscaled;
+	private int mScale;
+	
+	/**
+	 * The number representation - made from the long when first needed
 	 */
 	private BigDecimal mNumber;
 	
+	/**
+	 * Powers of 10 that fit in a long
+	 */
+	private static final long[] POWERS_OF_TEN = new long[19];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for(int i=1;i<POWERS_OF_TEN.length;i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i-1] * 10;
+		}
+	}
+	
+	/**
+	 * The range of a long
+	 */
+	private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+	private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+	
 	/**
 	 * Many different COnstructors for all number types
 	 */
 	public MiniNumber(){
-		mNumber = new BigDecimal(0,MATH_CONTEXT);
+		setLong(0, 0);
 	}
 	
 	public MiniNumber(int zNumber){
-		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
-		checkLimits();
+		setLong(zNumber, 0);
 	}
 	
 	public MiniNumber(long zNumber){
-		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
-		checkLimits();
+		if(zNumber == Long.MIN_VALUE) {
+			mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
+			checkLimits();
+		}else {
+			setLong(zNumber, 0);
+		}
 	}
 
 	public MiniNumber(BigInteger zNumber){
@@ -115,13 +150,23 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 	}
 	
 	public MiniNumber(BigDecimal zNumber){
-		mNumber = new BigDecimal(zNumber.toPlainString(),MATH_CONTEXT);
+		//A positive scale and not too many digits is the same after the String round trip
+		if(zNumber.scale() >= 0 && zNumber.precision() <= MAX_DIGITS) {
+			mNumber = zNumber;
+		}else {
+			mNumber = new BigDecimal(zNumber.toPlainString(),MATH_CONTEXT);
+		}
 		checkLimits();
 	}
 	
 	public MiniNumber(MiniNumber zMiniNumber){
-		mNumber = zMiniNumber.getAsBigDecimal();
-		checkLimits();
+		if(zMiniNumber.mIsLong) {
+			setLong(zMiniNumber.mUnscaled, zMiniNumber.mScale);
+			mNumber = zMiniNumber.mNumber;
+		}else {
+			mNumber = zMiniNumber.getAsBigDecimal();
+			checkLimits();
+		}
 	}
 	
 	public MiniNumber(String zNumber){
@@ -129,6 +174,36 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 		checkLimits();
 	}
 	
+	/**
+	 * The result of an operation on the longs
+	 */
+	private MiniNumber(long zUnscaled, int zScale) {
+		setLong(zUnscaled, zScale);
+	}
+	
+	private void setLong(long zUnscaled, int zScale) {
+		mIsLong 	= true;
+		mUnscaled 	= zUnscaled;
+		mScale 		= zScale;
+	}
+	
+	/**
+	 * Can this be held as a long unscaled value and scale
+	 */
+	private static boolean isLongScale(int zScale) {
+		return zScale >= 0 && zScale <= MAX_DECIMAL_PLACES;
+	}
+	
+	/**
+	 * Use the long if the BigDecimal fits in one
+	 */
+	private void checkLong() {
+		int scale = mNumber.scale();
+		if(isLongScale(scale) && mNumber.precision() <= 18) {
+			setLong(mNumber.unscaledValue().longValue(), scale);
+		}
+	}
+	
 	public BigDecimal getNumber() {
 		return getAsBigDecimal();
 	}
@@ -148,6 +223,8 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 		if(mNumber.compareTo(MIN_MININUMBER)<0) {
 			throw new NumberFormatException("MiniNumber too small - outside allowed range -(2^64)");
 		}
+		
+		checkLong();
 	}
 	
 	/**
@@ -155,61 +232,157 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 	 * @return true false..
 	 */
 	public boolean isValidMinimaValue() {
-		return isLessEqual(MiniNumber.BILLION) && isMore(MiniNumber.ZERO);
+		return isLessEqual(VALID_MAXIMUM) && isMore(MiniNumber.ZERO);
 	}
 	
 	/**
 	 * Convert to various normal number types
 	 */
 	public BigDecimal getAsBigDecimal() {
+		if(mNumber == null) {
+			mNumber = BigDecimal.valueOf(mUnscaled, mScale);
+		}
 		return mNumber;
 	}
 	
 	public BigInteger getAsBigInteger() {
-		return mNumber.toBigInteger();
+		return getAsBigDecimal().toBigInteger();
 	}
 	
 	public long getAsLong() {
-		return mNumber.longValue();
+		if(mIsLong && mScale < POWERS_OF_TEN.length) {
+			return mUnscaled / POWERS_OF_TEN[mScale];
+		}
+		return getAsBigDecimal().longValue();
+	}
+	
+	/**
+	 * The whole part as a long - or Long.MAX_VALUE / Long.MIN_VALUE if it does not fit.
+	 * 
+	 * Never out of order - if two of these are different the MiniNumbers are different the same
+	 * way round. If they are the same the MiniNumbers still need to be compared. 
+	 */
+	public long getAsLongSaturated() {
+		if(mIsLong && mScale < POWERS_OF_TEN.length) {
+			return mUnscaled / POWERS_OF_TEN[mScale];
+		}
+		
+		BigDecimal num = getAsBigDecimal();
+		if(num.compareTo(LONG_MAX) >= 0) {
+			return Long.MAX_VALUE;
+		}else if(num.compareTo(LONG_MIN) <= 0) {
+			return Long.MIN_VALUE;
+		}
+		return num.longValue();
 	}
 	
 	public int getAsInt() {
-		return mNumber.intValue();
+		if(mIsLong && mScale < POWERS_OF_TEN.length) {
+			return (int) (mUnscaled / POWERS_OF_TEN[mScale]);
+		}
+		return getAsBigDecimal().intValue();
+	}
+	
+	/**
+	 * The unscaled value at a larger scale - or Long.MIN_VALUE if it does not fit in a long
+	 */
+	private static long rescale(long zUnscaled, int zScale, int zNewScale) {
+		int diff = zNewScale - zScale;
+		if(diff == 0 || zUnscaled == 0) {
+			return zUnscaled;
+		}else if(diff >= POWERS_OF_TEN.length) {
+			return Long.MIN_VALUE;
+		}
+		
+		long power 	= POWERS_OF_TEN[diff];
+		long result = zUnscaled * power;
+		if(result / power != zUnscaled || result == Long.MIN_VALUE) {
+			return Long.MIN_VALUE;
+		}
+		return result;
+	}
+	
+	/**
+	 * Add the longs - null if they overflow
+	 */
+	private MiniNumber addLong(long zUnscaled, int zScale) {
+		int scale 	= Math.max(mScale, zScale);
+		long left 	= rescale(mUnscaled, mScale, scale);
+		long right 	= rescale(zUnscaled, zScale, scale);
+		if(left == Long.MIN_VALUE || right == Long.MIN_VALUE) {
+			return null;
+		}
+		
+		long result = left + right;
+		
+		//Overflow if both have the opposite sign to the result
+		if(((left ^ result) & (right ^ result)) < 0 || result == Long.MIN_VALUE) {
+			return null;
+		}
+		
+		return new MiniNumber(result, scale);
 	}
 	
 	/**
 	 * Basic arithmetic functions 
 	 */
 	public MiniNumber add(MiniNumber zNumber) {
-		return new MiniNumber( mNumber.add(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+		if(mIsLong && zNumber.mIsLong) {
+			MiniNumber result = addLong(zNumber.mUnscaled, zNumber.mScale);
+			if(result != null) {
+				return result;
+			}
+		}
+		return new MiniNumber( getAsBigDecimal().add(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
 	}
 	
 	public MiniNumber sub(MiniNumber zNumber) {
-		return new MiniNumber( mNumber.subtract(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+		if(mIsLong && zNumber.mIsLong) {
+			MiniNumber result = addLong(-zNumber.mUnscaled, zNumber.mScale);
+			if(result != null) {
+				return result;
+			}
+		}
+		return new MiniNumber( getAsBigDecimal().subtract(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
 	}
 	
 	public MiniNumber div(MiniNumber zNumber) {
-		return new MiniNumber( mNumber.divide(zNumber.getAsBigDecimal(), MATH_CONTEXT) );
+		return new MiniNumber( getAsBigDecimal().divide(zNumber.getAsBigDecimal(), MATH_CONTEXT) );
 	}
 	
 	public MiniNumber mult(MiniNumber zNumber) {
-		return new MiniNumber( mNumber.multiply(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+		if(mIsLong && zNumber.mIsLong) {
+			int scale = mScale + zNumber.mScale;
+			if(scale <= MAX_DECIMAL_PLACES) {
+				long left 	= mUnscaled;
+				long right 	= zNumber.mUnscaled;
+				long result = left * right;
+				
+				//Check it did not overflow
+				long absleft 	= Math.abs(left);
+				long absright 	= Math.abs(right);
+				if(((absleft | absright) >>> 31 == 0 || right == 0 || result / right == left) && result != Long.MIN_VALUE) {
+					return new MiniNumber(result, scale);
+				}
+			}
+		}
+		return new MiniNumber( getAsBigDecimal().multiply(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
 	}
 	
 	public MiniNumber pow(int zNumber) {
-		return new MiniNumber( mNumber.pow(zNumber,MATH_CONTEXT) );
+		return new MiniNumber( getAsBigDecimal().pow(zNumber,MATH_CONTEXT) );
 	}
 	
 	public MiniNumber modulo(MiniNumber zNumber) {
-		return new MiniNumber( mNumber.remainder(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+		return new MiniNumber( getAsBigDecimal().remainder(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
 	}
 	
 	public MiniNumber floor() {
-		return new MiniNumber( mNumber.setScale(0, RoundingMode.FLOOR) ) ;
+		return new MiniNumber( getAsBigDecimal().setScale(0, RoundingMode.FLOOR) ) ;
 	}
 	
 	public MiniNumber ceil() {
-		return new MiniNumber( mNumber.setScale(0, RoundingMode.CEILING) ) ;
+		return new MiniNumber( getAsBigDecimal().setScale(0, RoundingMode.CEILING) ) ;
 	}
 	
 	public MiniNumber setSignificantDigits(int zSignificantDigits) {
@@ -221,28 +394,46 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 			throw new NumberFormatException("Cannot specify negative significant digits "+sigdig);
 		}
 		
-		return new MiniNumber( mNumber.round(new MathContext(sigdig, RoundingMode.DOWN))) ;
+		return new MiniNumber( getAsBigDecimal().round(new MathContext(sigdig, RoundingMode.DOWN))) ;
 	}
 	
 	public MiniNumber abs() {
-		return new MiniNumber( mNumber.abs() ) ;
+		if(mIsLong) {
+			return mUnscaled < 0 ? new MiniNumber(-mUnscaled, mScale) : this;
+		}
+		return new MiniNumber( getAsBigDecimal().abs() ) ;
 	}
 		
 	public MiniNumber increment() {
-		return new MiniNumber( mNumber.add(BigDecimal.ONE,MATH_CONTEXT) );
+		return add(ONE);
 	}
 	
 	public MiniNumber decrement() {
-		return new MiniNumber( mNumber.subtract(BigDecimal.ONE,MATH_CONTEXT) );
+		return sub(ONE);
 	}
 
 	public int decimalPlaces() {
+		if(mIsLong) {
+			return mScale;
+		}
 		return mNumber.scale();
 	}
 	
 	@Override
 	public int compareTo(MiniNumber zCompare) {
-		return mNumber.compareTo(zCompare.getAsBigDecimal());
+		if(mIsLong && zCompare.mIsLong) {
+			if(mScale == zCompare.mScale) {
+				return Long.compare(mUnscaled, zCompare.mUnscaled);
+			}
+			
+			int scale 	= Math.max(mScale, zCompare.mScale);
+			long left 	= rescale(mUnscaled, mScale, scale);
+			long right 	= rescale(zCompare.mUnscaled, zCompare.mScale, scale);
+			if(left != Long.MIN_VALUE && right != Long.MIN_VALUE) {
+				return Long.compare(left, right);
+			}
+		}
+		return getAsBigDecimal().compareTo(zCompare.getAsBigDecimal());
 	}
 	
 	public boolean isEqual(MiniNumber zNumber) {
@@ -267,7 +458,40 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 		
 	@Override
 	public String toString(){
-		return mNumber.stripTrailingZeros().toPlainString();
+		if(!mIsLong) {
+			return mNumber.stripTrailingZeros().toPlainString();
+		}
+		
+		//Remove the trailing zeros
+		long unscaled 	= mUnscaled;
+		int scale 		= mScale;
+		while(scale > 0 && unscaled % 10 == 0) {
+			unscaled /= 10;
+			scale--;
+		}
+		
+		if(scale == 0) {
+			return Long.toString(unscaled);
+		}
+		
+		String digits 		= Long.toString(Math.abs(unscaled));
+		StringBuilder str 	= new StringBuilder(digits.length() + scale + 3);
+		if(unscaled < 0) {
+			str.append('-');
+		}
+		
+		int intdigits = digits.length() - scale;
+		if(intdigits > 0) {
+			str.append(digits, 0, intdigits).append('.').append(digits, intdigits, digits.length());
+		}else {
+			str.append("0.");
+			for(int i=intdigits;i<0;i++) {
+				str.append('0');
+			}
+			str.append(digits);
+		}
+		
+		return str.toString();
 	}
 
 	/**
@@ -276,6 +500,23 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 	@Override
 	public void writeDataStream(DataOutputStream zOut) throws IOException {
 		
+		if(mIsLong) {
+			//The same bytes as BigInteger.toByteArray() - the fewest that keep the sign
+			int bits = 64 - Long.numberOfLeadingZeros(mUnscaled < 0 ? ~mUnscaled : mUnscaled);
+			int len  = bits / 8 + 1;
+			
+			//The scale, the length and the unscaled value in one write
+			byte[] data = new byte[len + 2];
+			data[0] = (byte) mScale;
+			data[1] = (byte) len;
+			for(int i=0;i<len;i++) {
+				data[2 + i] = (byte) (mUnscaled >>> ((len - 1 - i) * 8));
+			}
+			zOut.write(data);
+			
+			return;
+		}
+		
 		//Write out the scale.. +/-127 - never more than 1 byte in size though  
 		int scale = mNumber.scale();
 		zOut.writeByte(scale);
@@ -303,6 +544,22 @@ public class MiniNumber implements Streamable, Comparable<MiniNumber> {
 		byte[] data = new byte[len];
 		zIn.readFully(data);
 		
+		mIsLong = false;
+		mNumber = null;
+		
+		//Does it fit in a long..
+		if(len > 0 && len <= 8 && isLongScale(scale)) {
+			long unscaled = data[0];
+			for(int i=1;i<len;i++) {
+				unscaled = (unscaled << 8) | (data[i] & 0xFF);
+			}
+			
+			if(unscaled != Long.MIN_VALUE) {
+				setLong(unscaled, scale);
+				return;
+			}
+		}
+		
 		//And create..
 		BigInteger unscaled = new BigInteger(data);
 		mNumber = new BigDecimal(unscaled,scale,MATH_CONTEXT);
@@ -0,0 +1,107 @@
+package org.minima.objects.keys;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.minima.objects.base.MiniData;
+import org.minima.utils.Crypto;
+import org.minima.utils.json.JSONObject;
+
+/**
+ * Remembers the signatures that have been checked and were valid.
+ *
+ * The same TxPoW is checked when it first arrives and again when its block arrives -
+ * and a full TreeKey check verifies every Winternitz signature in the chain.
+ *
+ * Only valid signatures are stored - so a bad signature is always fully checked.
+ */
+public class SignatureCache {
+
+	/**
+	 * How many valid signatures to remember
+	 */
+	public static final int MAX_SIZE = 10000;
+
+	/**
+	 * Least recently used order - oldest removed when full
+	 */
+	private static final Map<String, Boolean> mValid = new LinkedHashMap<String, Boolean>(1024, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> zEldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Hits and misses
+	 */
+	private static final AtomicLong mHits 	= new AtomicLong();
+	private static final AtomicLong mMisses = new AtomicLong();
+
+	/**
+	 * The public key, the data and the signature hashed together
+	 */
+	private static String getKey(MiniData zPublicKey, MiniData zData, Signature zSignature) {
+		return Crypto.getInstance().hashAllObjects(zPublicKey, zData, zSignature).to0xString();
+	}
+
+	/**
+	 * Check a signature for this root public key - use the cache if it has been checked before
+	 */
+	public static boolean verify(MiniData zPublicKey, MiniData zData, Signature zSignature) {
+		String key = getKey(zPublicKey, zData, zSignature);
+
+		synchronized (mValid) {
+			if(mValid.get(key) != null) {
+				mHits.incrementAndGet();
+				return true;
+			}
+		}
+
+		mMisses.incrementAndGet();
+
+		//Check it..
+		TreeKey tk = new TreeKey();
+		tk.setPublicKey(zPublicKey);
+
+		boolean valid = tk.verify(zData, zSignature);
+		if(valid) {
+			synchronized (mValid) {
+				mValid.put(key, Boolean.TRUE);
+			}
+		}
+
+		return valid;
+	}
+
+	public static int getSize() {
+		synchronized (mValid) {
+			return mValid.size();
+		}
+	}
+
+	public static long getHits() {
+		return mHits.get();
+	}
+
+	public static long getMisses() {
+		return mMisses.get();
+	}
+
+	public static void clear() {
+		synchronized (mValid) {
+			mValid.clear();
+		}
+		mHits.set(0);
+		mMisses.set(0);
+	}
+
+	public static JSONObject getStatus() {
+		JSONObject ret = new JSONObject();
+		ret.put("size", getSize());
+		ret.put("hits", getHits());
+		ret.put("misses", getMisses());
+		return ret;
+	}
+}
@@ -11,6 +11,7 @@ import org.minima.objects.TxBlock;
 import org.minima.objects.TxPoW;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
+import org.minima.system.brains.BalanceCache;
 import org.minima.system.brains.TxPoWMiner;
 import org.minima.system.brains.TxPoWProcessor;
 import org.minima.system.genesis.GenesisMMR;
@@ -435,10 +436,16 @@ public class Main extends MessageProcessor {
 			//And Post it..
 			PostNotifyEvent("NEWBLOCK", data);
 			
+			//Stop mining any pulse on the old tip
+			mTxPoWMiner.newTip();
+			
+			//Coins may have confirmed or a re-org changed them
+			postNewBalance();
+			
 		}else if(zMessage.getMessageType().equals(MAIN_BALANCE)) {
 			
 			//And Post it..
-			PostNotifyEvent("NEWBALANCE", new JSONObject());
+			postNewBalance();
 				
 		}else if(zMessage.getMessageType().equals(MAIN_MINING)) {
 			
@@ -481,6 +488,17 @@ public class Main extends MessageProcessor {
 		}
 	}
 	
+	/**
+	 * Tell the listeners the new balance - if it has changed
+	 */
+	private void postNewBalance() {
+		if(BalanceCache.update()) {
+			JSONObject data = new JSONObject();
+			data.put("balance", BalanceCache.getBalance());
+			PostNotifyEvent("NEWBALANCE", data);
+		}
+	}
+	
 	/**
 	 * Post a network message to the webhook / Android listeners
 	 */
@@ -0,0 +1,182 @@
+package org.minima.system.brains;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import org.minima.database.MinimaDB;
+import org.minima.database.txpowtree.TxPoWTreeNode;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.Coin;
+import org.minima.objects.Token;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.params.GlobalParams;
+import org.minima.utils.json.JSONArray;
+import org.minima.utils.json.JSONObject;
+
+/**
+ * The confirmed, unconfirmed and sendable totals of every token - worked out once
+ * when the tip or the wallet changes, not every time the balance is asked for.
+ *
+ * Coins move from unconfirmed to confirmed as the tip moves - and a re-org is just
+ * a different tip - so a new snapshot is made for every new tip.
+ */
+public class BalanceCache {
+
+	/**
+	 * The balance at one tip with one set of keys
+	 */
+	private static class Snapshot {
+		TxPoWTreeNode mTip;
+		long mKeysVersion;
+		JSONArray mBalance;
+		String mBalanceString;
+
+		public Snapshot(TxPoWTreeNode zTip, long zKeysVersion, JSONArray zBalance) {
+			mTip 			= zTip;
+			mKeysVersion 	= zKeysVersion;
+			mBalance 		= zBalance;
+			mBalanceString 	= zBalance.toString();
+		}
+	}
+
+	/**
+	 * The last balance worked out
+	 */
+	private static Snapshot mSnapshot = null;
+
+	/**
+	 * The totals of one token
+	 */
+	private static class TokenTotal {
+		Token mToken;
+		MiniNumber mConfirmed 	= MiniNumber.ZERO;
+		MiniNumber mUnconfirmed = MiniNumber.ZERO;
+		MiniNumber mSendable 	= MiniNumber.ZERO;
+	}
+
+	/**
+	 * The current balance - only worked out again if the tip or the keys have changed.
+	 * 
+	 * A copy is returned - so callers can change it without changing the cache.
+	 */
+	public static synchronized JSONArray getBalance() {
+		return copyBalance(getSnapshot().mBalance);
+	}
+
+	private static Snapshot getSnapshot() {
+		TxPoWTreeNode tip 	= MinimaDB.getDB().getTxPoWTree().getTip();
+		RelevantKeys keys 	= MinimaDB.getDB().getWallet().getRelevantKeys();
+
+		if(mSnapshot == null || mSnapshot.mTip != tip || mSnapshot.mKeysVersion != keys.getVersion()) {
+			mSnapshot = new Snapshot(tip, keys.getVersion(), calculateBalance(tip, keys));
+		}
+
+		return mSnapshot;
+	}
+
+	/**
+	 * The token balances only hold Strings and numbers - so copying the objects is enough
+	 */
+	static JSONArray copyBalance(JSONArray zBalance) {
+		JSONArray copy = new JSONArray();
+		for(Object tokbal : zBalance) {
+			copy.add(new JSONObject((JSONObject) tokbal));
+		}
+		return copy;
+	}
+
+	/**
+	 * Work out the balance again - returns true if it has changed
+	 */
+	public static synchronized boolean update() {
+		String old = mSnapshot == null ? null : mSnapshot.mBalanceString;
+
+		//Force a new one
+		mSnapshot = null;
+		getSnapshot();
+
+		return !mSnapshot.mBalanceString.equals(old);
+	}
+
+	/**
+	 * The relevant coins have changed without the tip changing
+	 */
+	public static synchronized void clear() {
+		mSnapshot = null;
+	}
+
+	private static JSONArray calculateBalance(TxPoWTreeNode zTip, RelevantKeys zKeys) {
+		if(zTip == null) {
+			return calculateBalance(new ArrayList<>(), MiniNumber.ZERO, zKeys);
+		}
+
+		ArrayList<Coin> coins = TxPoWSearcher.getAllRelevantUnspentCoins(zTip);
+		return calculateBalance(coins, zTip.getBlockNumber(), zKeys);
+	}
+
+	/**
+	 * The balance of these coins at this block
+	 */
+	static JSONArray calculateBalance(ArrayList<Coin> zCoins, MiniNumber zTopBlock, RelevantKeys zKeys) {
+
+		//Always show a Minima Balance - first
+		LinkedHashMap<String, TokenTotal> totals = new LinkedHashMap<>();
+		totals.put(Token.TOKENID_MINIMA.to0xString(), new TokenTotal());
+
+		for(Coin coin : zCoins) {
+
+			//The Value..
+			MiniNumber amount = coin.getAmount();
+
+			//Which Token..
+			String tokenid 		= coin.getTokenID().to0xString();
+			TokenTotal total 	= totals.get(tokenid);
+			if(total == null) {
+				total 			= new TokenTotal();
+				total.mToken 	= coin.getToken();
+				totals.put(tokenid, total);
+			}
+
+			//How deep is this coin
+			MiniNumber depth = zTopBlock.sub(coin.getBlockCreated());
+			if(depth.isLess(GlobalParams.MINIMA_CONFIRM_DEPTH)) {
+				total.mUnconfirmed = total.mUnconfirmed.add(amount);
+			}else {
+				total.mConfirmed = total.mConfirmed.add(amount);
+
+				//Are we adding to the sendable pile..
+				if(zKeys.isSimpleAddress(coin.getAddress().to0xString())) {
+					total.mSendable = total.mSendable.add(amount);
+				}
+			}
+		}
+
+		JSONArray balance = new JSONArray();
+		for(String tokenid : totals.keySet()) {
+			TokenTotal total = totals.get(tokenid);
+
+			JSONObject tokbal = new JSONObject();
+			if(tokenid.equals("0x00")) {
+				//It's Minima
+				tokbal.put("token", "Minima");
+				tokbal.put("tokenid", tokenid);
+				tokbal.put("confirmed", total.mConfirmed.toString());
+				tokbal.put("unconfirmed", total.mUnconfirmed.toString());
+				tokbal.put("sendable", total.mSendable.toString());
+				tokbal.put("total", "1000000000");
+			}else {
+				Token tok = total.mToken;
+				tokbal.put("token", tok.getName());
+				tokbal.put("tokenid", tokenid);
+				tokbal.put("confirmed", tok.getScaledTokenAmount(total.mConfirmed).toString());
+				tokbal.put("unconfirmed", tok.getScaledTokenAmount(total.mUnconfirmed).toString());
+				tokbal.put("sendable", tok.getScaledTokenAmount(total.mSendable).toString());
+				tokbal.put("total", tok.getTotalTokens());
+			}
+
+			balance.add(tokbal);
+		}
+
+		return balance;
+	}
+}
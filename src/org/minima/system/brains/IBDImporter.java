@@ -0,0 +1,313 @@
+package org.minima.system.brains;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.minima.database.MinimaDB;
+import org.minima.database.txpowdb.TxPoWDB;
+import org.minima.database.txpowtree.TxPoWTreeNode;
+import org.minima.database.txpowtree.TxPowTree;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.IBD;
+import org.minima.objects.TxBlock;
+import org.minima.objects.base.MiniByte;
+import org.minima.system.network.minima.NIOMessage;
+import org.minima.system.params.GeneralParams;
+import org.minima.utils.MinimaLogger;
+import org.minima.utils.json.JSONObject;
+
+/**
+ * Adds the blocks of an IBD to the tree.
+ *
+ * Building a TxPoWTreeNode - the MMR, the coin hashes and the wallet relevance check - only
+ * needs its own TxBlock. So the nodes are built on a pool of threads ahead of the single thread
+ * that adds them to the tree in order.
+ */
+public class IBDImporter {
+
+	/**
+	 * How many blocks each build thread can be ahead of the tree
+	 */
+	public static final int BLOCKS_AHEAD_PER_THREAD = 8;
+
+	/**
+	 * The threads that build the nodes - created when first needed
+	 */
+	private static ExecutorService mBuildPool 	= null;
+	private static int mBuildPoolThreads 		= 0;
+
+	/**
+	 * Totals for all the IBDs imported
+	 */
+	private static final AtomicLong mImports 		= new AtomicLong();
+	private static final AtomicLong mBlocks 		= new AtomicLong();
+	private static final AtomicLong mAdded 			= new AtomicLong();
+	private static final AtomicLong mDecodeNanos 	= new AtomicLong();
+	private static final AtomicLong mBuildNanos 	= new AtomicLong();
+	private static final AtomicLong mWaitNanos 		= new AtomicLong();
+	private static final AtomicLong mAttachNanos 	= new AtomicLong();
+	private static final AtomicLong mTotalNanos 	= new AtomicLong();
+
+	private static synchronized ExecutorService getBuildPool(int zThreads) {
+		//Has the number of threads changed
+		if(mBuildPool == null || mBuildPoolThreads != zThreads) {
+			if(mBuildPool != null) {
+				mBuildPool.shutdown();
+			}
+
+			final AtomicInteger counter = new AtomicInteger();
+			mBuildPool = Executors.newFixedThreadPool(zThreads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable zRunnable) {
+					Thread builder = new Thread(zRunnable, "IBDImporter-"+counter.incrementAndGet());
+					builder.setDaemon(true);
+					return builder;
+				}
+			});
+			mBuildPoolThreads = zThreads;
+		}
+
+		return mBuildPool;
+	}
+
+	/**
+	 * Add the blocks to the tree - in order. Returns how many were added.
+	 */
+	public static int importBlocks(ArrayList<TxBlock> zBlocks) throws Exception {
+		//Only ask the wallet once for the whole IBD
+		return importBlocks(zBlocks, MinimaDB.getDB().getWallet().getRelevantKeys(), GeneralParams.IBD_IMPORT_THREADS);
+	}
+
+	/**
+	 * With these relevant keys and build threads
+	 */
+	static int importBlocks(ArrayList<TxBlock> zBlocks, RelevantKeys zAllRelevant, int zThreads) throws Exception {
+		long start = System.nanoTime();
+
+		int added 	= 0;
+		if(zThreads <= 1 || zBlocks.size() < 2) {
+
+			//One at a time..
+			for(TxBlock block : zBlocks) {
+				if(attachNode(buildNode(block, zAllRelevant))) {
+					added++;
+				}
+			}
+
+		}else {
+
+			ExecutorService pool 						= getBuildPool(zThreads);
+			ArrayDeque<Future<TxPoWTreeNode>> building 	= new ArrayDeque<>();
+			int ahead 									= zThreads * BLOCKS_AHEAD_PER_THREAD;
+			int next									= 0;
+			int total 									= zBlocks.size();
+
+			try {
+				while(next < total || !building.isEmpty()) {
+
+					//Keep the build threads busy
+					while(next < total && building.size() < ahead) {
+						final TxBlock block = zBlocks.get(next++);
+						building.add(pool.submit(() -> buildNode(block, zAllRelevant)));
+					}
+
+					//Wait for the next one in order
+					long waitstart 		= System.nanoTime();
+					TxPoWTreeNode node 	= building.poll().get();
+					mWaitNanos.addAndGet(System.nanoTime() - waitstart);
+
+					//And add it to the tree
+					if(attachNode(node)) {
+						added++;
+					}
+				}
+
+			}catch(ExecutionException exc) {
+				//Stop the rest - last first, so an interrupted thread does not pick up one not yet cancelled
+				Iterator<Future<TxPoWTreeNode>> builds = building.descendingIterator();
+				while(builds.hasNext()) {
+					builds.next().cancel(true);
+				}
+
+				if(exc.getCause() instanceof Exception) {
+					throw (Exception)exc.getCause();
+				}
+				throw exc;
+			}
+		}
+
+		//Stats..
+		long time = System.nanoTime() - start;
+		mImports.incrementAndGet();
+		mBlocks.addAndGet(zBlocks.size());
+		mAdded.addAndGet(added);
+		mTotalNanos.addAndGet(time);
+
+		MinimaLogger.log("IBD import blocks:"+zBlocks.size()+" added:"+added+" time:"+(time / 1000000)+"ms"
+						+" blocks/sec:"+getBlocksPerSecond(zBlocks.size(), time)+" threads:"+zThreads);
+
+		return added;
+	}
+
+	private static TxPoWTreeNode buildNode(TxBlock zBlock, RelevantKeys zAllRelevant) {
+		long start 			= System.nanoTime();
+		TxPoWTreeNode node 	= new TxPoWTreeNode(zBlock, zAllRelevant);
+		mBuildNanos.addAndGet(System.nanoTime() - start);
+		return node;
+	}
+
+	/**
+	 * Add a node to the tree - only ever on one thread
+	 */
+	private static boolean attachNode(TxPoWTreeNode zNode) {
+		long start = System.nanoTime();
+
+		try {
+			TxPoWDB txpdb 		= MinimaDB.getDB().getTxPoWDB();
+			TxPowTree txptree 	= MinimaDB.getDB().getTxPoWTree();
+			TxBlock block 		= zNode.getTxBlock();
+
+			//Add the TxPoW to the database - in case we don't have it
+			txpdb.addTxPoW(block.getTxPoW());
+
+			//Do we have ANY TxPoW in the tree at all..
+			if(txptree.getTip() == null) {
+
+				//Set it as root - this recalculates the tree automagically
+				txptree.setRoot(zNode);
+
+				return true;
+			}
+
+			//Check not already added
+			if(txptree.findNode(block.getTxPoW().getTxPoWID()) != null) {
+				return false;
+			}
+
+			//Is there a valid parent block node..
+			TxPoWTreeNode parentnode = txptree.findNode(block.getTxPoW().getParentID().to0xString());
+			if(parentnode == null) {
+				MinimaLogger.log("Invalid SyncBlock as NO PARENT! syncblock:"+block.getTxPoW().getBlockNumber());
+				return false;
+			}
+
+			//Lets add it to the tree - updates the weights and tip
+			txptree.addNode(parentnode, zNode);
+
+			return true;
+
+		}finally {
+			mAttachNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * How long it took to read the IBD from the network message
+	 */
+	public static void addDecodeTime(long zNanos) {
+		mDecodeNanos.addAndGet(zNanos);
+	}
+
+	private static long getBlocksPerSecond(long zBlocks, long zNanos) {
+		if(zNanos <= 0) {
+			return 0;
+		}
+		return (zBlocks * 1000000000L) / zNanos;
+	}
+
+	public static void resetStats() {
+		mImports.set(0);
+		mBlocks.set(0);
+		mAdded.set(0);
+		mDecodeNanos.set(0);
+		mBuildNanos.set(0);
+		mWaitNanos.set(0);
+		mAttachNanos.set(0);
+		mTotalNanos.set(0);
+	}
+
+	/**
+	 * The stage times are in milliseconds - build is the total over all the build threads
+	 */
+	public static JSONObject getStatus() {
+		JSONObject ret = new JSONObject();
+		ret.put("threads", GeneralParams.IBD_IMPORT_THREADS);
+		ret.put("imports", mImports.get());
+		ret.put("blocks", mBlocks.get());
+		ret.put("added", mAdded.get());
+		ret.put("blockspersec", getBlocksPerSecond(mBlocks.get(), mTotalNanos.get()));
+
+		JSONObject stages = new JSONObject();
+		stages.put("decode", mDecodeNanos.get() / 1000000);
+		stages.put("build", mBuildNanos.get() / 1000000);
+		stages.put("wait", mWaitNanos.get() / 1000000);
+		stages.put("attach", mAttachNanos.get() / 1000000);
+		stages.put("total", mTotalNanos.get() / 1000000);
+		ret.put("stages", stages);
+
+		return ret;
+	}
+
+	/**
+	 * Append an IBD network message to the record file - if set
+	 */
+	public static synchronized void recordIBD(byte[] zMessage) {
+		if(GeneralParams.IBD_RECORD_FILE.equals("")) {
+			return;
+		}
+
+		try(DataOutputStream dos = new DataOutputStream(new FileOutputStream(GeneralParams.IBD_RECORD_FILE, true))){
+			dos.writeInt(zMessage.length);
+			dos.write(zMessage);
+		}catch(IOException exc) {
+			MinimaLogger.log("Could not record IBD to "+GeneralParams.IBD_RECORD_FILE+" "+exc);
+		}
+	}
+
+	/**
+	 * Load all the IBDs in a record file - in the order they were received
+	 */
+	public static ArrayList<IBD> loadRecording(File zFile) throws IOException {
+		ArrayList<IBD> ibds = new ArrayList<>();
+
+		try(DataInputStream dis = new DataInputStream(new FileInputStream(zFile))){
+			while(true) {
+				int len;
+				try {
+					len = dis.readInt();
+				}catch(EOFException exc) {
+					break;
+				}
+
+				byte[] message = new byte[len];
+				dis.readFully(message);
+
+				DataInputStream msg = new DataInputStream(new ByteArrayInputStream(message));
+				MiniByte type 		= MiniByte.ReadFromStream(msg);
+				if(type.isEqual(NIOMessage.MSG_IBDPAGE)) {
+					ibds.add(IBD.ReadPageFromStream(msg));
+				}else if(type.isEqual(NIOMessage.MSG_IBD)) {
+					ibds.add(IBD.ReadFromStream(msg));
+				}
+			}
+		}
+
+		return ibds;
+	}
+}
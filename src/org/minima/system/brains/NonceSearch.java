@@ -0,0 +1,371 @@
+package org.minima.system.brains;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.minima.objects.base.MiniData;
+import org.minima.system.params.GeneralParams;
+import org.minima.utils.json.JSONArray;
+import org.minima.utils.json.JSONObject;
+
+/**
+ * Searches for a nonce that makes the TxHeader hash less than the difficulty.
+ *
+ * The nonce space is split between the threads - thread t of n tries t, t+n, t+2n.. Each thread
+ * has its own copy of the header bytes and its own digest, and writes the nonce as a long straight
+ * over the bytes of the large nonce the header was serialised with - so nothing is allocated per hash.
+ */
+public class NonceSearch {
+
+	/**
+	 * Where the nonce is written - the scale and length bytes and the top 2 bytes of the large nonce are left as is
+	 */
+	public static final int NONCE_OFFSET = 4;
+
+	/**
+	 * How many hashes between checking if the search has been cancelled
+	 */
+	public static final int CHECK_CANCEL_HASHES = 4096;
+
+	/**
+	 * The mining threads - created when first needed. Only used by search() while holding the lock,
+	 * so the pool is never shut down under a running search.
+	 */
+	private static final Object mMiningLock 	= new Object();
+	private static ExecutorService mMiningPool 	= null;
+	private static int mMiningPoolThreads 		= 0;
+
+	/**
+	 * The speed of each thread on the last search
+	 */
+	private static long[] mThreadHashes = new long[0];
+	private static long[] mThreadNanos 	= new long[0];
+
+	/**
+	 * Totals for all the searches
+	 */
+	private static long mSearches 	= 0;
+	private static long mFound 		= 0;
+	private static long mCancelled 	= 0;
+	private static long mHashes 	= 0;
+
+	/**
+	 * The nonce found - or -1 - and the speed of each thread
+	 */
+	private static class Result {
+
+		long mNonce;
+		long[] mHashes;
+		long[] mNanos;
+
+		public Result(long zNonce, long[] zHashes, long[] zNanos) {
+			mNonce 	= zNonce;
+			mHashes = zHashes;
+			mNanos 	= zNanos;
+		}
+	}
+
+	/**
+	 * One thread of the search
+	 */
+	private static class Worker implements Callable<Long> {
+
+		byte[] mData;
+		byte[] mTarget;
+		long mStart;
+		long mStep;
+		long mMaxHashes;
+
+		AtomicBoolean mFinished;
+		BooleanSupplier mCancel;
+
+		KeccakDigest mDigest;
+		byte[] mHash;
+
+		long mHashes = 0;
+		long mNanos  = 0;
+
+		public Worker(byte[] zData, byte[] zTarget, long zStart, long zStep, long zMaxHashes, AtomicBoolean zFinished, BooleanSupplier zCancel) {
+			mData 		= zData.clone();
+			mTarget 	= zTarget;
+			mStart 		= zStart;
+			mStep 		= zStep;
+			mMaxHashes 	= zMaxHashes;
+			mFinished 	= zFinished;
+			mCancel 	= zCancel;
+
+			mDigest 	= new KeccakDigest(256);
+			mHash 		= new byte[mDigest.getDigestSize()];
+		}
+
+		@Override
+		public Long call() {
+			long timestart 	= System.nanoTime();
+			long found 		= -1;
+
+			long nonce = mStart;
+			while(mHashes < mMaxHashes) {
+
+				//Has another thread found it - or are we stopping
+				if(mHashes % CHECK_CANCEL_HASHES == 0) {
+					if(mFinished.get() || (mCancel != null && mCancel.getAsBoolean())) {
+						break;
+					}
+				}
+
+				//Write the nonce over the header and hash it
+				writeNonce(mData, nonce);
+				mDigest.update(mData, 0, mData.length);
+				mDigest.doFinal(mHash, 0);
+				mHashes++;
+
+				//Have we found a valid txpow
+				if(isLess(mHash, mTarget)) {
+					mFinished.set(true);
+					found = nonce;
+					break;
+				}
+
+				nonce += mStep;
+			}
+
+			mNanos = System.nanoTime() - timestart;
+
+			return found;
+		}
+	}
+
+	private static ExecutorService getMiningPool(int zThreads) {
+
+		//Has the number of threads changed - no search is running as we hold the lock
+		if(mMiningPool == null || mMiningPoolThreads != zThreads) {
+			if(mMiningPool != null) {
+				mMiningPool.shutdown();
+			}
+
+			mMiningPool 		= createPool(zThreads, "NonceSearch");
+			mMiningPoolThreads 	= zThreads;
+		}
+
+		return mMiningPool;
+	}
+
+	private static ExecutorService createPool(int zThreads, String zName) {
+		final AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool(zThreads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable zRunnable) {
+				Thread miner = new Thread(zRunnable, zName+"-"+counter.incrementAndGet());
+				miner.setDaemon(true);
+				return miner;
+			}
+		});
+	}
+
+	/**
+	 * Write the nonce into the serialised TxHeader
+	 */
+	public static void writeNonce(byte[] zData, long zNonce) {
+		for(int i=7;i>=0;i--) {
+			zData[NONCE_OFFSET + i] = (byte) zNonce;
+			zNonce >>>= 8;
+		}
+	}
+
+	/**
+	 * The difficulty as a 32 byte unsigned number - so the hash can be compared without a BigInteger
+	 */
+	public static byte[] getTarget(MiniData zDifficulty) {
+		BigInteger difficulty = zDifficulty.getDataValue();
+
+		//Any hash is less..
+		if(difficulty.bitLength() > 256) {
+			difficulty = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
+		}
+
+		byte[] bytes 	= difficulty.toByteArray();
+		byte[] target 	= new byte[32];
+		int len 		= Math.min(bytes.length, 32);
+		System.arraycopy(bytes, bytes.length - len, target, 32 - len, len);
+
+		return target;
+	}
+
+	/**
+	 * Unsigned compare of two 32 byte numbers
+	 */
+	public static boolean isLess(byte[] zHash, byte[] zTarget) {
+		for(int i=0;i<32;i++) {
+			int hash 	= zHash[i] & 0xFF;
+			int target 	= zTarget[i] & 0xFF;
+			if(hash != target) {
+				return hash < target;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find a nonce for this serialised TxHeader - returns -1 if cancelled
+	 */
+	public static long search(byte[] zData, MiniData zDifficulty, int zThreads, BooleanSupplier zCancel) throws Exception {
+		int threads = Math.max(1, zThreads);
+
+		synchronized (mMiningLock) {
+			ExecutorService pool = null;
+			if(threads > 1) {
+				pool = getMiningPool(threads);
+			}
+			Result result = run(zData, getTarget(zDifficulty), threads, Long.MAX_VALUE, zCancel, pool);
+
+			//Only the mining searches are in the stats
+			synchronized (NonceSearch.class) {
+				mThreadHashes 	= result.mHashes;
+				mThreadNanos 	= result.mNanos;
+				mSearches++;
+				mHashes += getTotal(result.mHashes);
+				if(result.mNonce != -1) {
+					mFound++;
+				}else {
+					mCancelled++;
+				}
+			}
+
+			return result.mNonce;
+		}
+	}
+
+	private static Result run(byte[] zData, byte[] zTarget, int zThreads, long zMaxHashesPerThread, BooleanSupplier zCancel, ExecutorService zPool) throws Exception {
+		int threads = zThreads;
+
+
+		AtomicBoolean finished 		= new AtomicBoolean(false);
+		ArrayList<Worker> workers 	= new ArrayList<>();
+		for(int i=0;i<threads;i++) {
+			workers.add(new Worker(zData, zTarget, i, threads, zMaxHashesPerThread, finished, zCancel));
+		}
+
+		long found = -1;
+		if(threads == 1) {
+			//No need for another thread
+			found = workers.get(0).call();
+
+		}else {
+			ArrayList<Future<Long>> futures = new ArrayList<>();
+			for(Worker worker : workers) {
+				futures.add(zPool.submit(worker));
+			}
+
+			try {
+				for(Future<Long> future : futures) {
+					long nonce = future.get();
+					if(nonce != -1) {
+						found = nonce;
+					}
+				}
+			}catch(ExecutionException exc) {
+				finished.set(true);
+				throw exc;
+			}
+		}
+
+		//The speed of each thread
+		long[] hashes 	= new long[threads];
+		long[] nanos 	= new long[threads];
+		for(int i=0;i<threads;i++) {
+			hashes[i] 	= workers.get(i).mHashes;
+			nanos[i] 	= workers.get(i).mNanos;
+		}
+
+		return new Result(found, hashes, nanos);
+	}
+
+	/**
+	 * Hash this many times over this many threads - for the hashtest command. Returns the speed of each thread.
+	 *
+	 * Uses its own threads - so it does not wait behind, or shut down, the threads of a running search.
+	 * Not added to the mining stats.
+	 */
+	public static JSONObject hashTest(long zHashes, int zThreads) throws Exception {
+		int threads = Math.max(1, zThreads);
+
+		//A header sized random block of data - and a difficulty no hash can beat
+		byte[] data = MiniData.getRandomData(256).getBytes();
+
+		ExecutorService pool = null;
+		if(threads > 1) {
+			pool = createPool(threads, "HashTest");
+		}
+
+		Result result 	= null;
+		long timestart 	= System.nanoTime();
+		try {
+			result = run(data, new byte[32], threads, Math.max(1, zHashes / threads), null, pool);
+		}finally {
+			if(pool != null) {
+				pool.shutdown();
+			}
+		}
+		long timediff 	= System.nanoTime() - timestart;
+
+		JSONObject ret = getSpeed(result.mHashes, result.mNanos);
+		ret.put("time", timediff / 1000000);
+		ret.put("speed", formatSpeed(getTotal(result.mHashes), timediff));
+
+		return ret;
+	}
+
+	private static long getTotal(long[] zValues) {
+		long total = 0;
+		for(long value : zValues) {
+			total += value;
+		}
+		return total;
+	}
+
+	private static String formatSpeed(long zHashes, long zNanos) {
+		if(zNanos <= 0) {
+			return String.format("%.3f MHash/s", 0f);
+		}
+		double speed = (zHashes * 1000.0) / zNanos;
+		return String.format("%.3f MHash/s", speed);
+	}
+
+	private static JSONObject getSpeed(long[] zHashes, long[] zNanos) {
+		JSONObject ret = new JSONObject();
+		ret.put("threads", zHashes.length);
+		ret.put("hashes", getTotal(zHashes));
+
+		JSONArray threadspeed = new JSONArray();
+		for(int i=0;i<zHashes.length;i++) {
+			threadspeed.add(formatSpeed(zHashes[i], zNanos[i]));
+		}
+		ret.put("threadspeed", threadspeed);
+
+		return ret;
+	}
+
+	/**
+	 * The speed of each thread is from the last search
+	 */
+	public static synchronized JSONObject getStatus() {
+		JSONObject ret = new JSONObject();
+		ret.put("threads", GeneralParams.MINING_THREADS);
+		ret.put("searches", mSearches);
+		ret.put("found", mFound);
+		ret.put("cancelled", mCancelled);
+		ret.put("hashes", mHashes);
+		ret.put("lastsearch", getSpeed(mThreadHashes, mThreadNanos));
+		return ret;
+	}
+}
@@ -5,6 +5,15 @@ import java.math.BigInteger;
 import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.minima.database.MinimaDB;
 import org.minima.database.mmr.MMR;
@@ -23,11 +32,42 @@ import org.minima.objects.Witness;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
 import org.minima.objects.keys.Signature;
-import org.minima.objects.keys.TreeKey;
+import org.minima.objects.keys.SignatureCache;
+import org.minima.system.params.GeneralParams;
 import org.minima.utils.MinimaLogger;
 
 public class TxPoWChecker {
 
+	/**
+	 * The threads that check the transactions of a block - created when first needed
+	 */
+	private static ExecutorService mCheckPool 	= null;
+	private static int mCheckPoolThreads 		= 0;
+	
+	private static synchronized ExecutorService getCheckPool() {
+		int threads = GeneralParams.TXPOW_CHECK_THREADS;
+		
+		//Has the number of threads changed
+		if(mCheckPool == null || mCheckPoolThreads != threads) {
+			if(mCheckPool != null) {
+				mCheckPool.shutdown();
+			}
+			
+			final AtomicInteger counter = new AtomicInteger();
+			mCheckPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable zRunnable) {
+					Thread checker = new Thread(zRunnable, "TxPoWChecker-"+counter.incrementAndGet());
+					checker.setDaemon(true);
+					return checker;
+				}
+			});
+			mCheckPoolThreads = threads;
+		}
+		
+		return mCheckPool;
+	}
+	
 	/**
 	 * Parallel check all the transactions in this block
 	 */
@@ -91,20 +131,16 @@ public class TxPoWChecker {
 			//Get the Parent MMR
 			MMR parentMMR = zParentNode.getMMR();
 			
-			//First check this
+			//This first - then all the internal Transactions
+			ArrayList<TxPoW> allchecks = new ArrayList<>();
 			if(zTxPoW.isTransaction()) {
-				boolean valid = checkTxPoWSimple(parentMMR, zTxPoW, zTxPoW.getBlockNumber());
-				if(!valid) {
-					return false;
-				}
+				allchecks.add(zTxPoW);
 			}
+			allchecks.addAll(zTransactions);
 			
-			//Now check all the internal Transactions
-			for(TxPoW txpow : zTransactions) {
-				boolean valid = checkTxPoWSimple(parentMMR, txpow, zTxPoW.getBlockNumber());
-				if(!valid) {
-					return false;
-				}
+			//Check them all..
+			if(!checkTxPoWSimple(parentMMR, allchecks, zTxPoW.getBlockNumber())) {
+				return false;
 			}
 			
 			//Construct the MMR.. to see if it is correct..
@@ -267,6 +303,82 @@ public class TxPoWChecker {
 		return checkTxPoWScripts(zTipMMR, zTxPoW, zBlock);
 	}
 	
+	/**
+	 * Check the MMR proofs and scripts of all these TxPoW - in parallel if GeneralParams.TXPOW_CHECK_THREADS > 1
+	 * 
+	 * Returns as soon as one fails. Any exception thrown by a check is thrown here.
+	 */
+	public static boolean checkTxPoWSimple(MMR zTipMMR, ArrayList<TxPoW> zTxPoWs, MiniNumber zBlock) throws Exception {
+		
+		//One at a time..
+		if(GeneralParams.TXPOW_CHECK_THREADS <= 1 || zTxPoWs.size() < 2) {
+			for(TxPoW txpow : zTxPoWs) {
+				if(!checkTxPoWSimple(zTipMMR, txpow, zBlock)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		//Set once one fails - so the checks that have not started yet can stop
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		
+		ExecutorCompletionService<Boolean> checker = new ExecutorCompletionService<>(getCheckPool());
+		ArrayList<Future<Boolean>> allchecks = new ArrayList<>();
+		for(final TxPoW txpow : zTxPoWs) {
+			allchecks.add(checker.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					if(failed.get()) {
+						return false;
+					}
+					
+					boolean valid = false;
+					try {
+						valid = checkTxPoWSimple(zTipMMR, txpow, zBlock);
+					}finally {
+						if(!valid) {
+							failed.set(true);
+						}
+					}
+					
+					return valid;
+				}
+			}));
+		}
+		
+		try {
+			//Take them as they finish
+			for(int i=0;i<allchecks.size();i++) {
+				Future<Boolean> done = checker.take();
+				
+				boolean valid;
+				try {
+					valid = done.get();
+				}catch(ExecutionException exc) {
+					Throwable cause = exc.getCause();
+					if(cause instanceof Exception) {
+						throw (Exception)cause;
+					}
+					throw exc;
+				}
+				
+				if(!valid) {
+					return false;
+				}
+			}
+			
+		}finally {
+			//Stop any that are still waiting
+			failed.set(true);
+			for(Future<Boolean> check : allchecks) {
+				check.cancel(false);
+			}
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Make basic checks of this TxPoW
 	 */
@@ -547,12 +659,8 @@ public class TxPoWChecker {
 		ArrayList<Signature> allsigs = zWitness.getAllSignatures();
 		for(Signature sig : allsigs) {
 			
-			//Create a signature scheme checker..
-			TreeKey tk = new TreeKey();
-			tk.setPublicKey(sig.getRootPublicKey());
-
-			//Now check the sig..
-			if(!tk.verify(transid, sig)) {
+			//Now check the sig.. may have already checked it
+			if(!SignatureCache.verify(sig.getRootPublicKey(), transid, sig)) {
 				MinimaLogger.log("SIGNATURE FAIL : "+zTxPoW.getTxPoWID());
 				return false;
 			}
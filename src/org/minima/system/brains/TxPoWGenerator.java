@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 
 import org.minima.database.MinimaDB;
 import org.minima.database.mmr.MMRData;
@@ -39,6 +40,12 @@ public class TxPoWGenerator {
 	public static final BigInteger MIN_TXPOW_VAL 	= Crypto.MAX_VAL.divide(MIN_HASHES);
 	public static final MiniData MIN_TXPOWDIFF 		= new MiniData(MIN_TXPOW_VAL);
 	
+	/**
+	 * Max transactions added to a block - and how many of the best mempool transactions to check
+	 */
+	public static final int MAX_BLOCK_TXNS		= 50;
+	public static final int MAX_MEMPOOL_CHECK	= 256;
+	
 	public static TxPoW generateTxPoW(Transaction zTransaction, Witness zWitness) {
 		//Base
 		TxPoW txpow = new TxPoW();
@@ -115,17 +122,14 @@ public class TxPoWGenerator {
 		}
 		
 		
-		//And add the current mempool txpow..
-		ArrayList<TxPoW> mempool = MinimaDB.getDB().getTxPoWDB().getAllUnusedTxns();
+		//And add the current mempool txpow.. highest burn per byte first
+		ArrayList<TxPoW> mempool = MinimaDB.getDB().getTxPoWDB().getTopUnusedTxns(MAX_MEMPOOL_CHECK);
 		
 		//The final TxPoW transactions put in this TxPoW
 		ArrayList<TxPoW> chosentxns = new ArrayList<>();
 		
-		//Order the mempool by BURN..
-		//..
-		
 		//A list of the added coins
-		ArrayList<String> addedcoins = new ArrayList<>();
+		HashSet<String> addedcoins = new HashSet<>();
 		
 		//Add the main transaction inputs..
 		ArrayList<Coin> inputcoins = txpow.getTransaction().getAllInputs();
@@ -140,14 +144,20 @@ public class TxPoWGenerator {
 			try {
 				
 				//Check CoinIDs not added already..
+				boolean alreadyadded = false;
 				ArrayList<Coin> inputs = memtxp.getTransaction().getAllInputs();
 				for(Coin cc : inputs) {
 					if(addedcoins.contains(cc.getCoinID().to0xString())) {
-						//Coin already added in previous TxPoW
-						continue;
+						alreadyadded = true;
+						break;
 					}
 				}
 				
+				//Coin already added in previous TxPoW
+				if(alreadyadded) {
+					continue;
+				}
+				
 				//Check if Valid!
 				if(TxPoWChecker.checkTxPoWSimple(tip.getMMR(), memtxp, txpow.getBlockNumber())) {
 					//Add to our list
@@ -177,7 +187,7 @@ public class TxPoWGenerator {
 			}
 			
 			//Max allowed.. 1 txn/s - for now..
-			if(totaladded > 50) {
+			if(totaladded > MAX_BLOCK_TXNS) {
 				break;
 			}
 		}
@@ -263,25 +273,29 @@ public class TxPoWGenerator {
 	public static MiniNumber getMedianTime(TxPoWTreeNode zTopBlock) {
 		
 		//Create a list of times..
-		ArrayList<MiniNumber> alltimes = new ArrayList<>();
+		ArrayList<TxPoW> alltimes = new ArrayList<>();
 		
 		TxPoWTreeNode current = zTopBlock;
 		int counter=0;
 		while(counter<128 && current!=null) {
 			
 			//Add to our list
-			alltimes.add(current.getTxPoW().getTimeMilli());
+			alltimes.add(current.getTxPoW());
 			
 			//Move back up the tree
 			current = current.getParent();
 			counter++;
 		}
 		
-		//Now sort them..
-		Collections.sort(alltimes, new Comparator<MiniNumber>() {
+		//Now sort them.. on the long time - only the same longs need the MiniNumber
+		Collections.sort(alltimes, new Comparator<TxPoW>() {
 			@Override
-			public int compare(MiniNumber o1, MiniNumber o2) {
-				return o1.compareTo(o2);
+			public int compare(TxPoW o1, TxPoW o2) {
+				int comp = Long.compare(o1.getTimeMilliLong(), o2.getTimeMilliLong());
+				if(comp != 0) {
+					return comp;
+				}
+				return o1.getTimeMilli().compareTo(o2.getTimeMilli());
 			}
 		});
 		
@@ -289,7 +303,7 @@ public class TxPoWGenerator {
 		int size = alltimes.size();
 		
 		//Middle..
-		MiniNumber median = alltimes.get(size/2);
+		MiniNumber median = alltimes.get(size/2).getTimeMilli();
 		
 //		String timenow 		= new Date(zTopBlock.getTxPoW().getTimeMilli().getAsLong()).toString();
 //		String timemedian 	= new Date(median.getAsLong()).toString();
@@ -1,6 +1,5 @@
 package org.minima.system.brains;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 
 import org.minima.database.MinimaDB;
@@ -12,7 +11,7 @@ import org.minima.objects.Witness;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
 import org.minima.system.Main;
-import org.minima.utils.Crypto;
+import org.minima.system.params.GeneralParams;
 import org.minima.utils.messages.Message;
 import org.minima.utils.messages.MessageProcessor;
 
@@ -24,13 +23,18 @@ public class TxPoWMiner extends MessageProcessor {
 	/**
 	 * The Large Byte MiniNumber to set the Header up for hashing
 	 */
-	private static MiniNumber START_NONCE_BYTES = new MiniNumber("100000000000000000.00000000000000000000000000000000000000001");
+	public static final MiniNumber START_NONCE_BYTES = new MiniNumber("100000000000000000.00000000000000000000000000000000000000001");
 	
 	/**
 	 * A list of coins currently being mined.. to check when creating new transactions 
 	 */
 	ArrayList<String> mMiningCoins;
 	
+	/**
+	 * Changes every time there is a new tip - so a pulse being mined can be stopped
+	 */
+	volatile int mTipVersion = 0;
+	
 	
 	public TxPoWMiner() {
 		super("MINER");
@@ -47,6 +51,13 @@ public class TxPoWMiner extends MessageProcessor {
 		PostMessage(new Message(TXPOWMINER_MINETXPOW).addObject("txpow", zTxPoW));
 	}
 	
+	/**
+	 * There is a new tip - any pulse being mined is out of date
+	 */
+	public void newTip() {
+		mTipVersion++;
+	}
+	
 	@Override
 	protected void processMessage(Message zMessage) throws Exception {
 		
@@ -70,44 +81,43 @@ public class TxPoWMiner extends MessageProcessor {
 			mining.addObject("txpow", txpow);
 			Main.getInstance().PostMessage(mining);
 			
+			//Is this a pulse - no point finishing it once there is a new tip
+			boolean automine 	= zMessage.exists("automine");
+			final int tipversion 	= mTipVersion;
+			
 			//Get the byte data
 			byte[] data = MiniData.getMiniDataVersion(txpow.getTxHeader()).getBytes();
 			
-			//Cycle until done..
-			MiniNumber finalnonce 	= MiniNumber.ZERO;
-			BigInteger newnonce 	= BigInteger.ZERO;
-			while(isRunning()) {
-				
-				//Get a nonce to write over the data
-				byte[] noncebytes = newnonce.toByteArray();
-				newnonce 		  = newnonce.add(BigInteger.ONE);
-				
-				//Copy these into the byte array of the TxHeader 
-				//start 2 numbers in so leading zero is not changed
-				System.arraycopy(noncebytes, 0, data, 4, noncebytes.length);
+			//Search over all the mining threads..
+			long nonce = NonceSearch.search(data, txpow.getTxnDifficulty(), GeneralParams.MINING_THREADS, () -> {
+				return !isRunning() || (automine && mTipVersion != tipversion);
+			});
+			
+			//Did we find one
+			if(nonce == -1) {
 				
-				//Hash the data array
-				byte[] hashedbytes = Crypto.getInstance().hashData(data);
+				//Post a message.. Mining Finished
+				Message miningend = new Message(Main.MAIN_MINING);
+				miningend.addBoolean("starting", false);
+				miningend.addObject("txpow", txpow);
+				Main.getInstance().PostMessage(miningend);
 				
-				//Make into a MiniData structure
-				MiniData hash = new MiniData(hashedbytes);
+				//Remove the coins from our mining list
+				removeMiningCoins(txpow);
 				
-				//Have we found a valid txpow
-				if(hash.isLess(txpow.getTxnDifficulty())) {
-					
-					//Ok read in the final data..
-					MiniData finaldata = new MiniData(data);
-					
-					//Now convert to a TxHeader
-					TxHeader txh = TxHeader.convertMiniDataVersion(finaldata);
-					
-					//What was the nonce..
-					finalnonce = txh.mNonce;
-					
-					break;
-				}
+				return;
 			}
 			
+			//Write it in and read in the final data..
+			NonceSearch.writeNonce(data, nonce);
+			MiniData finaldata = new MiniData(data);
+			
+			//Now convert to a TxHeader
+			TxHeader txh = TxHeader.convertMiniDataVersion(finaldata);
+			
+			//What was the nonce..
+			MiniNumber finalnonce = txh.mNonce;
+			
 			//Now set the final nonce..
 			txpow.setNonce(finalnonce);
 			
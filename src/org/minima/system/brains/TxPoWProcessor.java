@@ -8,11 +8,14 @@ import org.minima.database.cascade.Cascade;
 import org.minima.database.txpowdb.TxPoWDB;
 import org.minima.database.txpowtree.TxPoWTreeNode;
 import org.minima.database.txpowtree.TxPowTree;
+import org.minima.objects.Greeting;
 import org.minima.objects.IBD;
 import org.minima.objects.TxBlock;
 import org.minima.objects.TxPoW;
 import org.minima.objects.base.MiniNumber;
 import org.minima.system.Main;
+import org.minima.system.network.minima.NIOManager;
+import org.minima.system.network.minima.NIOMessage;
 import org.minima.system.params.GlobalParams;
 import org.minima.utils.MinimaLogger;
 import org.minima.utils.Stack;
@@ -30,13 +33,17 @@ public class TxPoWProcessor extends MessageProcessor {
 	
 	/**
 	 * Main entry point for a TxPoW into the system
+	 * 
+	 * Returns false if the mempool was full and it was dropped straight away - never for a block
 	 */
-	public void postProcessTxPoW(TxPoW zTxPoW) {
+	public boolean postProcessTxPoW(TxPoW zTxPoW) {
 		//Add / Update last access to the DB
-		MinimaDB.getDB().getTxPoWDB().addTxPoW(zTxPoW);
+		boolean added = MinimaDB.getDB().getTxPoWDB().addTxPoW(zTxPoW);
 		
 		//Post a message on the single threaded stack
 		PostMessage(new Message(TXPOWPROCESSOR_PROCESSTXPOW).addObject("txpow", zTxPoW));
+		
+		return added;
 	}
 	
 	/**
@@ -62,6 +69,9 @@ public class TxPoWProcessor extends MessageProcessor {
 		TxPowTree txptree 	= MinimaDB.getDB().getTxPoWTree();
 		Cascade	cascdb		= MinimaDB.getDB().getCascade();
 		
+		//The tip before any blocks are added
+		TxPoWTreeNode currenttip = txptree.getTip();
+		
 		//Process a stack of TxPoW if necessary
 		Stack processstack = new Stack();
 		processstack.push(zTxPoW);
@@ -114,11 +124,8 @@ public class TxPoWProcessor extends MessageProcessor {
 								//Create a new node
 								TxPoWTreeNode newblock = new TxPoWTreeNode(txblock);
 								
-								//Lets add it to the tree
-								parentnode.addChildNode(newblock);
-								
-								//Add fast link in tree - otherwise only reset / added when recalculate tree is called
-								txptree.addFastLink(newblock);
+								//Lets add it to the tree - updates the weights and tip
+								txptree.addNode(parentnode, newblock);
 								
 								//we need to recalculate the Tree
 								recalculate = true;
@@ -147,62 +154,23 @@ public class TxPoWProcessor extends MessageProcessor {
 		if(recalculate) {
 			
 			//Recalculate the whole tree
-			recalculateTree();
+			recalculateTree(currenttip);
 		}
 	}
 	
-	private boolean processSyncBlock(TxBlock zTxBlock) {
-		
-		TxPoWDB txpdb 		= MinimaDB.getDB().getTxPoWDB();
-		TxPowTree txptree 	= MinimaDB.getDB().getTxPoWTree();
-		
-		//Add the TxPoW to the database - in case we don't have it
-		txpdb.addTxPoW(zTxBlock.getTxPoW());
-		
-		//Do we have ANY TxPoW in the tree at all..
+	/**
+	 * Does this IBD page start where our tree ends - or on a fresh tree
+	 */
+	private boolean isNextPage(TxBlock zFirstBlock) {
+		TxPowTree txptree = MinimaDB.getDB().getTxPoWTree();
 		if(txptree.getTip() == null) {
-			
-			//Check the cascade ends where this block begins..
-			//TODO
-			
-			//Create a new node
-			TxPoWTreeNode newblock = new TxPoWTreeNode(zTxBlock);
-			
-			//Set it as root - this recalculates the tree automagically
-			txptree.setRoot(newblock);
-			
 			return true;
 		}
 		
-		//Check not already added
-		TxPoWTreeNode oldnode = txptree.findNode(zTxBlock.getTxPoW().getTxPoWID());
-		if(oldnode == null) {
-		
-			//Is there a valid parent block node..
-			TxPoWTreeNode parentnode = txptree.findNode(zTxBlock.getTxPoW().getParentID().to0xString());
-			if(parentnode != null) {
-			
-				//Create a new node
-				TxPoWTreeNode newblock = new TxPoWTreeNode(zTxBlock);
-				
-				//Lets add it to the tree
-				parentnode.addChildNode(newblock);
-				
-				//Add fast link in tree - otherwise only reset / added when recalculate tree is called
-				txptree.addFastLink(newblock);
-				
-				return true;
-			}else {
-				MinimaLogger.log("Invalid SyncBlock as NO PARENT! syncblock:"+zTxBlock.getTxPoW().getBlockNumber());
-				
-			}
-		}
-		
-		return false;
+		return txptree.findNode(zFirstBlock.getTxPoW().getParentID().to0xString()) != null;
 	}
 	
-	
-	private void recalculateTree() {
+	private void recalculateTree(TxPoWTreeNode zCurrentTip) {
 		
 		//Required DBs
 		TxPoWDB txpdb		= MinimaDB.getDB().getTxPoWDB();
@@ -215,11 +183,8 @@ public class TxPoWProcessor extends MessageProcessor {
 		
 		try {
 		
-			//What is the current tip..
-			TxPoWTreeNode currenttip = txptree.getTip();
-			
-			//Recalculate the tree and tip
-			txptree.recalculateTree();
+			//What was the tip.. the weights and tip are already up to date - updated in addNode
+			TxPoWTreeNode currenttip = zCurrentTip;
 			
 			//How big..
 			int maxlen = GlobalParams.MINIMA_CASCADE_START_DEPTH.add(GlobalParams.MINIMA_CASCADE_FREQUENCY).getAsInt();
@@ -344,16 +309,40 @@ public class TxPoWProcessor extends MessageProcessor {
 				}
 			}
 			
+			//The tip before the SyncBlocks are added
+			TxPowTree txptree 			= MinimaDB.getDB().getTxPoWTree();
+			TxPoWTreeNode currenttip 	= txptree.getTip();
+			ArrayList<TxBlock> blocks 	= ibd.getTxBlocks();
+			
+			//Is there another page.. ask for it now if this one follows on from what we have
+			boolean more = ibd.isPage() && ibd.hasMoreBlocks() && !blocks.isEmpty();
+			if(more && isNextPage(blocks.get(0))) {
+				//Ask for the blocks after this page - while it is added
+				TxPoW lastblock = blocks.get(blocks.size()-1).getTxPoW();
+				NIOManager.sendNetworkMessage(uid, NIOMessage.MSG_IBDREQ, new Greeting().createPageRequest(lastblock));
+				more = false;
+			}
+			
 			//Now process the SyncBlocks
-			ArrayList<TxBlock> blocks = ibd.getTxBlocks();
-			for(TxBlock block : blocks) {
-				
-				//Process it..
-				processSyncBlock(block);
+			int added = IBDImporter.importBlocks(blocks);
+			
+			//If the tree was empty the first block is the root
+			if(currenttip == null) {
+				currenttip = txptree.getRoot();
 			}
 			
 			//And now recalculate tree
-			recalculateTree();
+			recalculateTree(currenttip);
+			
+			//Did not ask for the next page yet
+			if(more) {
+				if(added > 0) {
+					//Ask for the blocks after the ones we now have - also how a broken sync resumes
+					NIOManager.sendNetworkMessage(uid, NIOMessage.MSG_IBDREQ, new Greeting().createGreeting());
+				}else {
+					MinimaLogger.log("IBD page from "+uid+" added no blocks - stopping sync");
+				}
+			}
 		}
 	}
 }
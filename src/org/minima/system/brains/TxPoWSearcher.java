@@ -1,11 +1,12 @@
 package org.minima.system.brains;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import org.minima.database.MinimaDB;
 import org.minima.database.txpowtree.TxPoWTreeNode;
-import org.minima.database.wallet.KeyRow;
-import org.minima.database.wallet.Wallet;
+import org.minima.database.txpowtree.TxPowTree;
+import org.minima.database.wallet.RelevantKeys;
 import org.minima.objects.Coin;
 import org.minima.objects.Token;
 import org.minima.objects.base.MiniData;
@@ -78,6 +79,55 @@ public class TxPoWSearcher {
 												boolean zCheckTokenID, MiniData zTokenID,
 												boolean zSimpleOnly) {
 		
+		//The list of Coins
+		ArrayList<Coin> coinentry = null;
+		
+		//Relevant coins at the tip are indexed
+		TxPowTree txptree = MinimaDB.getDB().getTxPoWTree();
+		if(zRelevant && zStartNode != null && zStartNode == txptree.getTip()) {
+			coinentry = txptree.getCoinIndex().searchCoins(zStartNode, 
+												zCheckCoinID, zCoinID, 
+												zCheckAmount, zAmount, 
+												zCheckAddress, zAddress, 
+												zCheckTokenID, zTokenID);
+		}else {
+			coinentry = walkCoins(zStartNode, zRelevant, 
+									zCheckCoinID, zCoinID, 
+									zCheckAmount, zAmount, 
+									zCheckAddress, zAddress, 
+									zCheckTokenID, zTokenID);
+		}
+		
+		//Are we only showing simple Coins..
+		ArrayList<Coin> finalcoins = coinentry;
+		if(zSimpleOnly) {
+			//Fresh List
+			finalcoins = new ArrayList<>();
+			
+			//Get all the keys
+			RelevantKeys keys = MinimaDB.getDB().getWallet().getRelevantKeys();
+			
+			//Now cycle through the coins
+			for(Coin cc : coinentry) {
+				//Is it a simple key
+				if(keys.isSimpleAddress(cc.getAddress().to0xString())) {
+					finalcoins.add(cc);
+				}
+			}
+		}
+		
+		return finalcoins;
+	}
+	
+	/**
+	 * Walk back from this node to the root of the tree
+	 */
+	private static ArrayList<Coin> walkCoins(	TxPoWTreeNode zStartNode, boolean zRelevant, 
+												boolean zCheckCoinID, MiniData zCoinID,
+												boolean zCheckAmount, MiniNumber zAmount,
+												boolean zCheckAddress, MiniData zAddress,
+												boolean zCheckTokenID, MiniData zTokenID) {
+		
 		//The list of Coins
 		ArrayList<Coin> coinentry = new ArrayList<>();
 		
@@ -85,7 +135,7 @@ public class TxPoWSearcher {
 		TxPoWTreeNode tip = zStartNode;
 		
 		//A list of spent CoinID..
-		ArrayList<String> spentcoins = new ArrayList<>();
+		HashSet<String> spentcoins = new HashSet<>();
 		
 		//Now cycle through and get all your coins..
 		while(tip != null) {
@@ -144,32 +194,7 @@ public class TxPoWSearcher {
 			tip = tip.getParent();
 		}
 		
-		//Are we only showing simple Coins..
-		ArrayList<Coin> finalcoins = coinentry;
-		if(zSimpleOnly) {
-			//Fresh List
-			finalcoins = new ArrayList<>();
-			
-			//Get the wallet..
-			Wallet wallet = MinimaDB.getDB().getWallet();
-			
-			//Get all the keys
-			ArrayList<KeyRow> keys = wallet.getAllRelevant();
-			
-			//Now cycle through the coins
-			for(Coin cc : coinentry) {
-				for(KeyRow kr : keys) {
-					//Is it a simple key
-					if(!kr.getPublicKey().equals("")) {
-						if(cc.getAddress().isEqual(new MiniData(kr.getAddress()))) {
-							finalcoins.add(cc);
-						}
-					}
-				}
-			}
-		}
-		
-		return finalcoins;
+		return coinentry;
 	}	
 	
 	public static TxPoWTreeNode getTreeNodeForCoin(MiniData zCoinID) {
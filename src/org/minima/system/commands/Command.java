@@ -1,7 +1,12 @@
 package org.minima.system.commands;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -87,6 +92,54 @@ public abstract class Command {
 			
 			new maxima(),new mmrcreate(), new mmrproof()};
 	
+	/**
+	 * All the commands by name - the built in ones and any registered after
+	 */
+	private static final Map<String, Command> mCommands = new ConcurrentHashMap<>();
+	static {
+		for(Command cmd : ALL_COMMANDS) {
+			mCommands.put(cmd.getname(), cmd);
+		}
+	}
+	
+	/**
+	 * The commands registered after - so help can show them
+	 */
+	private static final List<Command> mRegisteredCommands = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Add a new command - new copies are made with getFunction().
+	 * 
+	 * Existing commands cannot be replaced.
+	 */
+	public static void registerCommand(Command zCommand) {
+		if(mCommands.putIfAbsent(zCommand.getname(), zCommand) != null) {
+			throw new IllegalArgumentException("Command already exists : "+zCommand.getname());
+		}
+		mRegisteredCommands.add(zCommand);
+	}
+	
+	/**
+	 * Remove a registered command - the built in ones cannot be removed
+	 */
+	public static void unregisterCommand(String zName) {
+		for(Command cmd : mRegisteredCommands) {
+			if(cmd.getname().equals(zName)) {
+				mRegisteredCommands.remove(cmd);
+				mCommands.remove(zName, cmd);
+				return;
+			}
+		}
+		
+		if(mCommands.containsKey(zName)) {
+			throw new IllegalArgumentException("Cannot remove a built in command : "+zName);
+		}
+	}
+	
+	public static List<Command> getRegisteredCommands(){
+		return Collections.unmodifiableList(mRegisteredCommands);
+	}
+	
 	String mName;
 	String mHelp;
 	
@@ -269,8 +322,6 @@ public abstract class Command {
 	}
 	
 	public static Command getCommand(String zCommand) {
-		int commandlen = ALL_COMMANDS.length;
-		
 		//Get the first word..
 //		String[] split = splitString(zCommand);
 		String[] split = splitStringJSON(zCommand);
@@ -279,11 +330,9 @@ public abstract class Command {
 		String command = split[0];
 		
 		Command comms = null;
-		for(int i=0;i<commandlen;i++) {
-			if(ALL_COMMANDS[i].getname().equals(command)) {
-				comms = ALL_COMMANDS[i].getFunction();
-				break;
-			}
+		Command found = mCommands.get(command);
+		if(found != null) {
+			comms = found.getFunction();
 		}
 		
 		//If not found return error
@@ -8,6 +8,7 @@ import org.minima.objects.Coin;
 import org.minima.objects.CoinProof;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
+import org.minima.system.brains.BalanceCache;
 import org.minima.system.brains.TxPoWSearcher;
 import org.minima.system.commands.Command;
 import org.minima.system.commands.CommandException;
@@ -56,6 +57,10 @@ public class coinimport extends Command {
 			//Add to relevant coins..
 			node.getRelevantCoinsEntries().add(newcoin.getMMREntryNumber());
 			node.calculateRelevantCoins();
+			
+			//The relevant coins have changed
+			MinimaDB.getDB().getTxPoWTree().getCoinIndex().clear();
+			BalanceCache.clear();
 		
 			//Added
 			ret.put("response", newcoinproof.toJSON());
@@ -98,6 +103,8 @@ public class coinimport extends Command {
 		//And set to relevant..
 		treenode.getRelevantCoins().add(newcoin);
 		treenode.getRelevantCoinsEntries().add(newcoin.getMMREntryNumber());
+		MinimaDB.getDB().getTxPoWTree().getCoinIndex().clear();
+		BalanceCache.clear();
 		
 		//New root..
 		MMRData newroot = treenode.getMMR().getRoot();
@@ -1,8 +1,10 @@
 package org.minima.system.commands.base;
 
+import org.minima.database.MinimaDB;
 import org.minima.database.txpowtree.TxPoWTreeNode;
 import org.minima.objects.Coin;
 import org.minima.objects.base.MiniData;
+import org.minima.system.brains.BalanceCache;
 import org.minima.system.brains.TxPoWSearcher;
 import org.minima.system.commands.Command;
 import org.minima.system.commands.CommandException;
@@ -45,6 +47,10 @@ public class cointrack extends Command {
 				node.getRelevantCoinsEntries().add(coin.getMMREntryNumber());
 				node.calculateRelevantCoins();
 				
+				//The relevant coins have changed
+				MinimaDB.getDB().getTxPoWTree().getCoinIndex().clear();
+				BalanceCache.clear();
+				
 				ret.put("response", "Coin added to track list");
 			}
 		}else {
@@ -52,6 +58,10 @@ public class cointrack extends Command {
 			node.removeRelevantCoin(coin.getMMREntryNumber());
 			node.calculateRelevantCoins();
 			
+			//The relevant coins have changed
+			MinimaDB.getDB().getTxPoWTree().getCoinIndex().clear();
+			BalanceCache.clear();
+			
 			ret.put("response", "Coin removed from track list");
 		}
 		
@@ -12,9 +12,13 @@ import org.minima.database.cascade.Cascade;
 import org.minima.database.txpowdb.TxPoWDB;
 import org.minima.database.txpowtree.TxPowTree;
 import org.minima.database.wallet.Wallet;
+import org.minima.kissvm.ScriptCache;
 import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
+import org.minima.objects.keys.SignatureCache;
 import org.minima.system.Main;
+import org.minima.system.brains.IBDImporter;
+import org.minima.system.brains.NonceSearch;
 import org.minima.system.brains.TxPoWGenerator;
 import org.minima.system.commands.Command;
 import org.minima.system.network.NetworkManager;
@@ -24,6 +28,7 @@ import org.minima.utils.Crypto;
 import org.minima.utils.MiniFile;
 import org.minima.utils.MiniFormat;
 import org.minima.utils.json.JSONObject;
+import org.minima.utils.messages.TimerProcessor;
 
 public class status extends Command {
 
@@ -162,13 +167,36 @@ public class status extends Command {
 		//Add detailsl about the number of TxPoW we are tracking
 		database = new JSONObject();
 		database.put("mempool", txpdb.getAllUnusedTxns().size());
+		database.put("mempoolsize", MiniFormat.formatSize(txpdb.getMemPoolSize()));
 		database.put("ramdb", txpdb.getRamSize());
 		database.put("txpowdb", txpdb.getSqlSize());
+		
+		//The TxPoWDB filter that stops SQL lookups for unknown TxPoW
+		JSONObject bloom = new JSONObject();
+		bloom.put("absent", txpdb.getSQLDB().getBloomAbsent());
+		bloom.put("falsepositive", txpdb.getSQLDB().getBloomFalsePositive());
+		bloom.put("falsepositiverate", txpdb.getSQLDB().getBloomFalsePositiveRate());
+		database.put("bloomfilter", bloom);
 		database.put("archivedb", arch.getSize());
 
 		//Add ther adatabse
 		details.put("txpow", database);
 		
+		//Signature checks that did not need to be done again
+		details.put("sigcache", SignatureCache.getStatus());
+		
+		//Scripts that did not need to be parsed again
+		details.put("scriptcache", ScriptCache.getStatus());
+		
+		//Waiting timers and how late they fire
+		details.put("timers", TimerProcessor.getTimerProcessor().getStatus());
+		
+		//How fast the IBD blocks were added
+		details.put("ibd", IBDImporter.getStatus());
+		
+		//How fast the mining threads hash
+		details.put("mining", NonceSearch.getStatus());
+		
 		//Network..
 		NetworkManager netmanager = Main.getInstance().getNetworkManager();
 		if(netmanager!=null) {
@@ -126,6 +126,11 @@ public class help extends Command {
 		
 		addCommand(details, new quit());
 		
+		//And any added since
+		for(Command cmd : Command.getRegisteredCommands()) {
+			addCommand(details, cmd);
+		}
+		
 		ret.put("response", details);
 		
 		return ret;
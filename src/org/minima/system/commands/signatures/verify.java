@@ -2,7 +2,7 @@ package org.minima.system.commands.signatures;
 
 import org.minima.objects.base.MiniData;
 import org.minima.objects.keys.Signature;
-import org.minima.objects.keys.TreeKey;
+import org.minima.objects.keys.SignatureCache;
 import org.minima.system.commands.Command;
 import org.minima.system.commands.CommandException;
 import org.minima.utils.json.JSONObject;
@@ -30,12 +30,8 @@ public class verify extends Command {
 			throw new CommandException("Signature publickey is different : "+sigpubk.to0xString());
 		}
 		
-		//Create a signature scheme checker..
-		TreeKey tk = new TreeKey();
-		tk.setPublicKey(sig.getRootPublicKey());
-		
 		//And check the data..
-		boolean valid = tk.verify(data, sig);
+		boolean valid = SignatureCache.verify(sig.getRootPublicKey(), data, sig);
 		
 		if(!valid) {
 
@@ -7,6 +7,7 @@ import java.util.Enumeration;
 
 import org.minima.database.MinimaDB;
 import org.minima.database.userprefs.UserDB;
+import org.minima.system.network.minima.NIOBufferPool;
 import org.minima.system.network.minima.NIOManager;
 import org.minima.system.network.p2p.P2PFunctions;
 import org.minima.system.network.p2p.P2PManager;
@@ -146,6 +147,10 @@ public class NetworkManager {
 		
 		stats.put("connecting", mNIOManager.getConnnectingClients());
 		stats.put("connected", mNIOManager.getConnectedClients());
+		stats.put("selectors", mNIOManager.getNIOServer().getSelectorStatus());
+		
+		//Direct buffers used by the connections
+		stats.put("buffers", NIOBufferPool.getPool().getStatus());
 		
 		//RPC Stats
 		stats.put("rpc", MinimaDB.getDB().getUserDB().isRPCEnabled());
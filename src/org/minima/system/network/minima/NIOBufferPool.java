@@ -0,0 +1,153 @@
+package org.minima.system.network.minima;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.minima.utils.json.JSONObject;
+
+/**
+ * Direct ByteBuffers for the NIO clients - kept and reused so that each new
+ * connection does not allocate new native memory.
+ * 
+ * Buffers are in power of 2 size classes. Larger requests are not pooled.
+ */
+public class NIOBufferPool {
+
+	/**
+	 * The smallest and largest pooled sizes
+	 */
+	public static final int MIN_POOLED_SIZE = 4 * 1024;
+	public static final int MAX_POOLED_SIZE = 1024 * 1024;
+	
+	/**
+	 * How many free buffers to keep in each size class
+	 */
+	public static final int MAX_FREE_PER_CLASS = 64;
+	
+	/**
+	 * The main pool shared by all the NIOClients
+	 */
+	private static NIOBufferPool mPool = new NIOBufferPool();
+	public static NIOBufferPool getPool() {
+		return mPool;
+	}
+	
+	/**
+	 * The free buffers in each size class - and how many
+	 */
+	private final ArrayList<ConcurrentLinkedQueue<ByteBuffer>> mFree;
+	private final AtomicInteger[] mFreeCount;
+	
+	/**
+	 * Stats
+	 */
+	private final AtomicLong mAllocated 		= new AtomicLong();
+	private final AtomicLong mAllocatedBytes 	= new AtomicLong();
+	private final AtomicLong mReused 			= new AtomicLong();
+	private final AtomicLong mInUse 			= new AtomicLong();
+	
+	public NIOBufferPool() {
+		int classes = getSizeClass(MAX_POOLED_SIZE) + 1;
+		mFree 		= new ArrayList<>(classes);
+		mFreeCount 	= new AtomicInteger[classes];
+		for(int i=0;i<classes;i++) {
+			mFree.add(new ConcurrentLinkedQueue<>());
+			mFreeCount[i] = new AtomicInteger();
+		}
+	}
+	
+	/**
+	 * The size class index for this size - -1 if not pooled
+	 */
+	private static int getSizeClass(int zSize) {
+		if(zSize > MAX_POOLED_SIZE) {
+			return -1;
+		}
+		
+		int size = Math.max(MIN_POOLED_SIZE, zSize);
+		int bits = 32 - Integer.numberOfLeadingZeros(size - 1);
+		return bits - Integer.numberOfTrailingZeros(MIN_POOLED_SIZE);
+	}
+	
+	/**
+	 * Get a cleared direct buffer with at least this capacity
+	 */
+	public ByteBuffer acquire(int zSize) {
+		mInUse.incrementAndGet();
+		
+		int sizeclass = getSizeClass(zSize);
+		if(sizeclass >= 0) {
+			ByteBuffer buffer = mFree.get(sizeclass).poll();
+			if(buffer != null) {
+				mFreeCount[sizeclass].decrementAndGet();
+				mReused.incrementAndGet();
+				return buffer;
+			}
+			
+			//Allocate the full class size so it can be reused
+			zSize = MIN_POOLED_SIZE << sizeclass;
+		}
+		
+		mAllocated.incrementAndGet();
+		mAllocatedBytes.addAndGet(zSize);
+		
+		return ByteBuffer.allocateDirect(zSize);
+	}
+	
+	/**
+	 * Give a buffer back - it must not be used after this
+	 */
+	public void release(ByteBuffer zBuffer) {
+		mInUse.decrementAndGet();
+		
+		//Only exact class sizes are kept
+		int capacity 	= zBuffer.capacity();
+		int sizeclass 	= getSizeClass(capacity);
+		if(!zBuffer.isDirect() || sizeclass < 0 || capacity != (MIN_POOLED_SIZE << sizeclass)) {
+			return;
+		}
+		
+		//Is there space..
+		if(mFreeCount[sizeclass].incrementAndGet() > MAX_FREE_PER_CLASS) {
+			mFreeCount[sizeclass].decrementAndGet();
+			return;
+		}
+		
+		((Buffer)zBuffer).clear();
+		mFree.get(sizeclass).offer(zBuffer);
+	}
+	
+	public long getAllocated() {
+		return mAllocated.get();
+	}
+	
+	public long getReused() {
+		return mReused.get();
+	}
+	
+	public long getInUse() {
+		return mInUse.get();
+	}
+	
+	public int getFree() {
+		int total = 0;
+		for(AtomicInteger count : mFreeCount) {
+			total += count.get();
+		}
+		return total;
+	}
+	
+	public JSONObject getStatus() {
+		JSONObject ret = new JSONObject();
+		ret.put("inuse", getInUse());
+		ret.put("free", getFree());
+		ret.put("allocated", getAllocated());
+		ret.put("allocatedbytes", mAllocatedBytes.get());
+		ret.put("reused", getReused());
+		return ret;
+	}
+}
@@ -5,8 +5,8 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.minima.objects.base.MiniData;
 import org.minima.system.Main;
@@ -14,6 +14,7 @@ import org.minima.utils.MiniFormat;
 import org.minima.utils.MinimaLogger;
 import org.minima.utils.json.JSONObject;
 import org.minima.utils.messages.Message;
+import org.minima.utils.messages.MessageProcessor;
 
 public class NIOClient {
 
@@ -23,15 +24,27 @@ public class NIOClient {
 	public static boolean mTraceON = false;
 	
 	/**
-	 * 8K buffer for send and receive.. 8KB
+	 * 64K pooled direct buffer for receive
 	 */
-	public static final int MAX_NIO_BUFFERS = 8 * 1024;
+	public static final int MAX_NIO_BUFFERS = 64 * 1024;
+	
+	/**
+	 * Max messages sent in one gathering write - and the largest part of a message given to each write
+	 */
+	public static final int MAX_GATHER 		= 16;
+	public static final int MAX_WRITE_CHUNK = 64 * 1024;
 
 	/**
 	 * The Maximum size of a single message 32MB
 	 */
 	public static final int MAX_MESSAGE 	= 32 * 1024 * 1024;
 	
+	/**
+	 * Max messages and bytes waiting to be sent to one client - a slow client cannot use up all the memory
+	 */
+	public static final int MAX_SEND_QUEUE 			= 4096;
+	public static final long MAX_SEND_QUEUE_BYTES 	= 64 * 1024 * 1024;
+	
 	String mUID;
 	
 	SelectionKey mKey;
@@ -41,12 +54,27 @@ public class NIOClient {
     int mReadCurrentLimit 		= 0;
     byte[] mReadData 			= null;
 	
-	ByteBuffer mBufferOut;
+	/**
+	 * The size prefixes and data being written - the size prefixes are in one direct buffer
+	 */
+	ByteBuffer mHeaders;
+	ByteBuffer[] mGather;
+	int mGatherStart			= 0;
+	int mGatherEnd				= 0;
 	int mWritePosition 			= 0;
 	int mWriteLimit				= 0;
-	boolean mWriteStart			= false;
 	byte[] mWriteData			= null;
 	
+	/**
+	 * Traffic and how much was allocated for the messages read
+	 */
+	volatile long mBytesRead		= 0;
+	volatile long mBytesWritten		= 0;
+	volatile long mMessagesRead		= 0;
+	volatile long mMessagesWritten	= 0;
+	volatile long mBytesAllocated	= 0;
+	volatile long mDropped			= 0;
+	
 	SocketChannel 	mSocket;
 	
 	String 			mHost;
@@ -56,9 +84,16 @@ public class NIOClient {
 	
 	boolean mIncoming;
 	
-	private ArrayList<MiniData> mMessages;
+	private NIOSendQueue mMessages;
+	
+	/**
+	 * Already waiting for the NIOServer to set the write flag
+	 */
+	private AtomicBoolean mWriteRequested = new AtomicBoolean(false);
+	
+	MessageProcessor mNIOMAnager;
 	
-	NIOManager mNIOMAnager;
+	NIOSelector mNIOSelector;
 	
 	String mWelcomeMessage = "";
 	
@@ -89,7 +124,7 @@ public class NIOClient {
 		mNIOMAnager = Main.getInstance().getNetworkManager().getNIOManager();
 	}
 	
-	public NIOClient(boolean zIncoming, String zHost, int zPort, SocketChannel zSocket, SelectionKey zKey) {
+	public NIOClient(boolean zIncoming, String zHost, int zPort, SocketChannel zSocket, SelectionKey zKey, NIOSelector zSelector) {
         mUID 		= MiniFormat.createRandomString(8);
         
         mHost 	= zHost;
@@ -99,17 +134,19 @@ public class NIOClient {
         
         mIncoming	= zIncoming;
         
-        //Max buffer chunks for read and write
-        mBufferIn 	= ByteBuffer.allocate(MAX_NIO_BUFFERS);
-        mBufferOut 	= ByteBuffer.allocate(MAX_NIO_BUFFERS);
+        //Pooled direct buffers for read and the write size prefixes
+        mBufferIn 	= NIOBufferPool.getPool().acquire(MAX_NIO_BUFFERS);
+        mHeaders 	= NIOBufferPool.getPool().acquire(MAX_GATHER * 4);
+        mGather		= new ByteBuffer[MAX_GATHER * 2];
         
         //Writing
-        mMessages 				= new ArrayList<>();
+        mMessages 				= new NIOSendQueue(MAX_SEND_QUEUE, MAX_SEND_QUEUE_BYTES);
+        mNIOSelector			= zSelector;
         
         //Reading
     	mReadData 				= null;
     	
-    	mNIOMAnager = Main.getInstance().getNetworkManager().getNIOManager();
+    	mNIOMAnager = zSelector.mNIOServer.mNIOManager;
     	
     	mTimeConnected 		= System.currentTimeMillis();
     	mLastMessageRead 	= mTimeConnected; 
@@ -140,6 +177,32 @@ public class NIOClient {
 		return ret;
 	}
 	
+	/**
+	 * Bytes and messages sent and received - and how fast memory is allocated for the messages read
+	 */
+	public JSONObject getTrafficJSON() {
+		JSONObject ret = new JSONObject();
+		
+		ret.put("read", MiniFormat.formatSize(mBytesRead));
+		ret.put("written", MiniFormat.formatSize(mBytesWritten));
+		ret.put("messagesread", mMessagesRead);
+		ret.put("messageswritten", mMessagesWritten);
+		ret.put("allocated", MiniFormat.formatSize(mBytesAllocated));
+		
+		//Per second since connected
+		long secs = Math.max(1, (System.currentTimeMillis() - mTimeConnected) / 1000);
+		ret.put("allocatedrate", MiniFormat.formatSize(mBytesAllocated / secs)+"/s");
+		
+		//Waiting to be sent
+		if(mMessages != null) {
+			ret.put("queue", mMessages.size());
+			ret.put("queuebytes", MiniFormat.formatSize(mMessages.getBytes()));
+		}
+		ret.put("dropped", mDropped);
+		
+		return ret;
+	}
+	
 	public void setExtraData(Object zExtraData) {
 		mExtraData = zExtraData;
 	}
@@ -248,32 +311,48 @@ public class NIOClient {
 		mConnectAttempts = zConnectAttempts;
 	}
 	
+	/**
+	 * Send a message to this client - if the send queue is full the client is too slow and is disconnected
+	 */
 	public void sendData(MiniData zData) {
-		synchronized (mMessages) {
-			if(mKey.isValid()) {
-				mMessages.add(zData);
-			
-				//And now say we want to write..
-				mKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
-				mKey.selector().wakeup();
-			}
+		if(!queueData(zData, false)) {
+			MinimaLogger.log("Send queue full for "+getUID()+" "+getFullAddress()+" - disconnecting");
+			mNIOSelector.disconnect(getUID());
 		}
 	}
 	
-	private boolean isNextData() {
-		synchronized (mMessages) {
-			return mMessages.size()>0;
+	/**
+	 * Add a message to the send queue and ask the NIOServer to start writing
+	 * 
+	 * @param zBroadcast a broadcast is dropped if the queue is full
+	 * @return false if the queue was full
+	 */
+	boolean queueData(MiniData zData, boolean zBroadcast) {
+		if(!mKey.isValid()) {
+			return true;
 		}
+		
+		if(!mMessages.offer(zData)) {
+			mDropped++;
+			return zBroadcast;
+		}
+		
+		//Only ask once until the server has set the write flag
+		if(mWriteRequested.compareAndSet(false, true)) {
+			mNIOSelector.requestWrite(this);
+		}
+		
+		return true;
 	}
 	
-	private MiniData getNextData() {
-		synchronized (mMessages) {
-			if(mMessages.size()>0) {
-				return mMessages.remove(0);
-			}
+	/**
+	 * Called from the NIOServer thread - start writing the send queue
+	 */
+	void enableWrite() {
+		mWriteRequested.set(false);
+		if(mKey.isValid()) {
+			mKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
 		}
-		
-		return  null;
 	}
 	
 	public void handleRead() throws IOException {
@@ -293,6 +372,7 @@ public class NIOClient {
  	   	if(readbytes == 0) {
  	   		return;
  	   	}
+ 	   	mBytesRead += readbytes;
  	   	
  	   	//Ready to read
 // 	   	mBufferIn.flip();
@@ -314,7 +394,9 @@ public class NIOClient {
  	   					throw new IOException("Message too big for read! "+mReadCurrentLimit);
  	   				}
  	   				
+ 	   				//The message is parsed on another thread - so needs its own array
  	   				mReadData = new byte[mReadCurrentLimit];
+ 	   				mBytesAllocated += mReadCurrentLimit;
  	   			}else {
  	   				//Not enough for the size..
  	   				break;
@@ -346,6 +428,7 @@ public class NIOClient {
 					
 					//New array required..
 					mReadData = null;
+					mMessagesRead++;
 					
 					//Last message we have received from this client
 					mLastMessageRead = System.currentTimeMillis();
@@ -357,95 +440,102 @@ public class NIOClient {
 		mBufferIn.compact();
 	}
 	
-	public void handleWrite() throws IOException {
+	/**
+	 * Add the next part of the current message to the gather list - at most MAX_WRITE_CHUNK so 
+	 * the socket never needs a large temporary direct buffer
+	 */
+	private void addWriteChunk() {
+		int len = Math.min(mWriteLimit - mWritePosition, MAX_WRITE_CHUNK);
+		if(len > 0) {
+			mGather[mGatherEnd++] = ByteBuffer.wrap(mWriteData, mWritePosition, len);
+			mWritePosition += len;
+		}
+		
+		//Have we finished
+		if(mWritePosition == mWriteLimit) {
+			mWriteData = null;
+			mMessagesWritten++;
+		}
+	}
+	
+	/**
+	 * Fill the gather list with the size prefix and data of the next messages - no copying
+	 */
+	private void fillGather() {
+		mGatherStart 	= 0;
+		mGatherEnd 		= 0;
+		((Buffer) mHeaders).clear();
 		
-		//First fill the buffer if it has the space
-		while(mBufferOut.hasRemaining()) {
+		//Still writing a large message..
+		if(mWriteData != null) {
+			addWriteChunk();
+			return;
+		}
+		
+		MiniData next;
+		while(mGatherEnd + 2 <= mGather.length && (next = mMessages.poll()) != null) {
+			byte[] data = next.getBytes();
 			
-			//Do we have a packet we are working on
-			if(mWriteData == null) {
+			//Check MAX
+			if(data.length > MAX_MESSAGE) {
+				//Error Message too Big!
+				MinimaLogger.log("ERROR : Trying to write a message that is too big! "+data.length);
 				
-				//Get the next packet
-				if(isNextData()) {
-					mWriteData 		= getNextData().getBytes();
-					
-					//Check MAX
-					if(mWriteData.length > MAX_MESSAGE) {
-						//Error Message too Big!
-						MinimaLogger.log("ERROR : Trying to write a message that is too big! "+mWriteData.length);
-					
-						//Hmm.. don't write it..
-						mWriteData = null;
-						break;
-					}
-					
-					mWritePosition 	= 0;
-					mWriteLimit 	= mWriteData.length; 
-					mWriteStart		= false;
-				}else {
-					//Nothing to add
-					break;
-				}
+				//Hmm.. don't write it..
+				continue;
 			}
 			
-			//We have data to write
+			//The size prefix
+			int pos = mHeaders.position();
+			mHeaders.putInt(data.length);
+			ByteBuffer header = mHeaders.duplicate();
+			((Buffer) header).limit(pos + 4);
+			((Buffer) header).position(pos);
+			mGather[mGatherEnd++] = header;
+			
+			//And the data
+			mWriteData 		= data;
+			mWritePosition 	= 0;
+			mWriteLimit 	= data.length;
+			addWriteChunk();
+			
+			//A large message is written on its own
 			if(mWriteData != null) {
-				
-				//Have we written the size yet
-				if(!mWriteStart) {
-					if(mBufferOut.remaining() >= 4) {
-						mBufferOut.putInt(mWriteLimit);
-						mWriteStart = true;
-					}else {
-						//Not enough space to write the size
-						break;
-					}
-				}
-				
-				if(mWriteStart) {
-					//How much left in the buffer
-					int remaining = mBufferOut.remaining();
-					
-					//How much left to write
-					int writeremain = mWriteLimit - mWritePosition;
-					if(writeremain > remaining) {
-						writeremain = remaining; 
-					}
-					   
-					//Copy that to the buffer..   
-					mBufferOut.put(mWriteData, mWritePosition, writeremain);
-					mWritePosition += writeremain;
-					
-					//Have we finished
-					if(mWritePosition == mWriteLimit) {
-						mWriteData = null;
-					}
-				}
+				break;
 			}
 		}
+	}
+	
+	public void handleWrite() throws IOException {
 		
-		//Ready to write
-//		mBufferOut.flip();
-		((Buffer) mBufferOut).flip();
+		//Finished the last lot - get the next
+		if(mGatherStart == mGatherEnd) {
+			fillGather();
+		}
 		
-		//Write
-		int write = mSocket.write(mBufferOut);
-		if(mTraceON) {
-			MinimaLogger.log("[NIOCLIENT] "+mUID+" wrote : "+write);
+		//Gathering write
+		if(mGatherStart < mGatherEnd) {
+			long write = mSocket.write(mGather, mGatherStart, mGatherEnd - mGatherStart);
+			mBytesWritten += write;
+			if(mTraceON) {
+				MinimaLogger.log("[NIOCLIENT] "+mUID+" wrote : "+write);
+			}
+			
+			//Skip the buffers that are done
+			while(mGatherStart < mGatherEnd && !mGather[mGatherStart].hasRemaining()) {
+				mGather[mGatherStart++] = null;
+			}
 		}
 		
 		//Any left
 		synchronized (mMessages) {
-			if(!mBufferOut.hasRemaining() && mMessages.size()==0 && mWriteData == null) {
+			if(mGatherStart == mGatherEnd && mMessages.isEmpty() && mWriteData == null) {
 				if(mKey.isValid()) {
 					//Only interested in READ
 					mKey.interestOps(SelectionKey.OP_READ);
 				}
 			}
 		}
-		
-		//Compact..
-		mBufferOut.compact();
 	}
 	
 	public void disconnect() {
@@ -455,5 +545,18 @@ public class NIOClient {
      	} catch (Exception ioe) {
      		
      	}
+        
+        //Nothing more to send
+        if(mMessages != null) {
+        	mMessages.clear();
+        }
+        
+        //Return the buffers - only called from the NIOServer thread
+        if(mBufferIn != null) {
+        	NIOBufferPool.getPool().release(mBufferIn);
+        	NIOBufferPool.getPool().release(mHeaders);
+        	mBufferIn 	= null;
+        	mHeaders 	= null;
+        }
     }
 }
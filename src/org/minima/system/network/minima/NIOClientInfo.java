@@ -97,6 +97,7 @@ public class NIOClientInfo {
 		ret.put("valid", mValidGreeting);
 		if (mNIOClient != null) {
 			ret.put("connected", new Date(getTimeConnected()).toString());
+			ret.put("traffic", mNIOClient.getTrafficJSON());
 		}
 		
 		return ret;
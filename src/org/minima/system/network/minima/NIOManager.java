@@ -10,8 +10,6 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.minima.database.MinimaDB;
 import org.minima.objects.Greeting;
@@ -24,6 +22,7 @@ import org.minima.system.network.NetworkManager;
 import org.minima.system.network.maxima.Maxima;
 import org.minima.system.network.p2p.P2PFunctions;
 import org.minima.system.params.GeneralParams;
+import org.minima.utils.LaneExecutor;
 import org.minima.utils.MinimaLogger;
 import org.minima.utils.Streamable;
 import org.minima.utils.messages.Message;
@@ -89,9 +88,9 @@ public class NIOManager extends MessageProcessor {
 	HashSet<String> mAwaitingConnect = new HashSet<String>();
 	
 	/**
-	 * Thread pool to manage incoming messages
+	 * Threads to manage incoming messages - each client always uses the same lane so its messages are processed in order
 	 */
-	ExecutorService THREAD_POOL = Executors.newFixedThreadPool(4);
+	LaneExecutor THREAD_POOL = new LaneExecutor("NIOMessage", GeneralParams.NIO_MESSAGE_THREADS);
 	
 	public NIOManager(NetworkManager zNetManager) {
 		super("NIOMANAGER");
@@ -409,8 +408,8 @@ public class NIOManager extends MessageProcessor {
 			NIOMessage niomsg = new NIOMessage(uid, data);
 			niomsg.setTrace(isTrace());
 			
-			//Process it.. in a thread pool..
-			THREAD_POOL.execute(niomsg);
+			//Process it.. in that client's lane
+			THREAD_POOL.execute(uid, niomsg);
 		
 		}else if(zMessage.getMessageType().equals(NIO_TXPOWREQ)) {
 			
@@ -17,6 +17,7 @@ import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
 import org.minima.objects.base.MiniString;
 import org.minima.system.Main;
+import org.minima.system.brains.IBDImporter;
 import org.minima.system.brains.TxPoWChecker;
 import org.minima.system.network.maxima.Maxima;
 import org.minima.system.network.maxima.MaximaPackage;
@@ -46,6 +47,8 @@ public class NIOMessage implements Runnable {
 	public static final MiniByte MSG_P2P 		= new MiniByte(7);
 	public static final MiniByte MSG_PING 		= new MiniByte(8);
 	public static final MiniByte MSG_MAXIMA 	= new MiniByte(9);
+	public static final MiniByte MSG_IBDPAGE 	= new MiniByte(10); // one page of the IBD
+	public static final MiniByte MSG_IBDREQ 	= new MiniByte(11); // request the next IBD page
 	
 	/**
 	 * Helper function that converts to String 
@@ -71,6 +74,10 @@ public class NIOMessage implements Runnable {
 			return "PING";
 		}else if(zType.isEqual(MSG_MAXIMA)) {
 			return "MAXIMA";
+		}else if(zType.isEqual(MSG_IBDPAGE)) {
+			return "IBDPAGE";
+		}else if(zType.isEqual(MSG_IBDREQ)) {
+			return "IBDREQ";
 		}
 		
 		return "UNKNOWN";
@@ -199,14 +206,54 @@ public class NIOMessage implements Runnable {
 				
 				//Create an IBD response to that Greeting..
 				IBD ibd = new IBD();
-				ibd.createIBD(greet);
+				
+				//Can they take it in pages..
+				if(greet.canReceiveIBDPages()) {
+					ibd.createIBDPage(greet);
+					NIOManager.sendNetworkMessage(mClientUID, MSG_IBDPAGE, ibd);
+				}else {
+					ibd.createIBD(greet);
+					NIOManager.sendNetworkMessage(mClientUID, MSG_IBD, ibd);
+				}
+				
+			}else if(type.isEqual(MSG_IBDREQ)) {
+				//They want the next IBD page - the greeting has the chain they have now
+				Greeting greet = Greeting.ReadFromStream(dis);
+				
+				IBD ibd = new IBD();
+				ibd.createIBDPage(greet);
 				
 				//Send it
-				NIOManager.sendNetworkMessage(mClientUID, MSG_IBD, ibd);
+				NIOManager.sendNetworkMessage(mClientUID, MSG_IBDPAGE, ibd);
+				
+			}else if(type.isEqual(MSG_IBDPAGE)) {
+				//IBD Page received..
+				long decodestart 	= System.nanoTime();
+				IBD ibd 			= IBD.ReadPageFromStream(dis);
+				IBDImporter.addDecodeTime(System.nanoTime() - decodestart);
+				IBDImporter.recordIBD(data);
+				
+				MinimaLogger.log("[+] IBD page received. size:"+MiniFormat.formatSize(data.length)+" blocks:"+ibd.getTxBlocks().size()+" more:"+ibd.hasMoreBlocks());
+				
+				//Check the cascade - only in the first page
+				if(ibd.hasCascade() && !ibd.getCascade().checkCascade()) {
+					MinimaLogger.log("ERROR Invalid Cascade sent from "+mClientUID);
+					
+					//Disconnect..Something fishy..
+					Main.getInstance().getNIOManager().disconnect(mClientUID);
+					
+					return;
+				}
+				
+				//Send to the Processor - it asks for the next page once this is added
+				Main.getInstance().getTxPoWProcessor().postProcessIBD(ibd, mClientUID);
 				
 			}else if(type.isEqual(MSG_IBD)) {
 				//IBD received..
-				IBD ibd = IBD.ReadFromStream(dis);
+				long decodestart 	= System.nanoTime();
+				IBD ibd 			= IBD.ReadFromStream(dis);
+				IBDImporter.addDecodeTime(System.nanoTime() - decodestart);
+				IBDImporter.recordIBD(data);
 				
 				//A small message..
 				MinimaLogger.log("[+] Connected to the blockchain Initial Block Download received. size:"+MiniFormat.formatSize(data.length)+" blocks:"+ibd.getTxBlocks().size());
@@ -341,13 +388,15 @@ public class NIOMessage implements Runnable {
 				}
 				
 				//Ok - let's add to our database and process..
-				Main.getInstance().getTxPoWProcessor().postProcessTxPoW(txpow);
+				boolean added = Main.getInstance().getTxPoWProcessor().postProcessTxPoW(txpow);
 				
 				//Since it's OK.. forward the TxPoWID to the rest of the network..
 				if(fullyvalid) {
 					
-					//Forward to the network
-					NIOManager.sendNetworkMessageAll(MSG_TXPOWID, txpow.getTxPoWIDData());
+					//Forward to the network - unless a txn the full mempool dropped straight away
+					if(added || txpow.isBlock()) {
+						NIOManager.sendNetworkMessageAll(MSG_TXPOWID, txpow.getTxPoWIDData());
+					}
 				
 					//Check all the Transactions..
 					ArrayList<MiniData> txns = txpow.getBlockTransactions();
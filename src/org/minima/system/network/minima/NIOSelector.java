@@ -0,0 +1,262 @@
+package org.minima.system.network.minima;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.minima.utils.MinimaLogger;
+import org.minima.utils.messages.Message;
+
+/**
+ * One selector thread of the NIOServer - reads and writes for its share of the clients
+ */
+public class NIOSelector implements Runnable {
+
+	/**
+	 * The main server
+	 */
+	NIOServer mNIOServer;
+	
+	/**
+	 * The thread number
+	 */
+	int mNumber;
+	
+	Selector mSelector;
+	
+	volatile boolean mShutDown = false;
+	
+	/**
+	 * Number of clients on this selector
+	 */
+	AtomicInteger mClientCount = new AtomicInteger();
+	
+	/**
+	 * New sockets to add - and clients to disconnect
+	 */
+	ArrayList<SocketChannel> mRegisterChannels 	= new ArrayList<>();
+	ArrayList<Boolean> mRegisterIncoming 		= new ArrayList<>();
+	ArrayList<String> mDisconnectChannels 		= new ArrayList<>();
+	
+	/**
+	 * Clients that have messages to send - the write flag is set in the selector thread
+	 */
+	ConcurrentLinkedQueue<NIOClient> mPendingWrites = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * Only wake the selector once per loop
+	 */
+	AtomicBoolean mWakeupPending = new AtomicBoolean(false);
+	
+	public NIOSelector(NIOServer zServer, int zNumber) throws IOException {
+		mNIOServer 	= zServer;
+		mNumber		= zNumber;
+		mSelector 	= Selector.open();
+	}
+	
+	public int getNumber() {
+		return mNumber;
+	}
+	
+	public int getClientCount() {
+		return mClientCount.get();
+	}
+	
+	public void shutdown() {
+		mShutDown = true;
+		mSelector.wakeup();
+	}
+	
+	public void registerSocket(SocketChannel zChannel, boolean zIncoming) {
+		synchronized (mRegisterChannels) {
+			mRegisterChannels.add(zChannel);
+			mRegisterIncoming.add(zIncoming);
+		}
+		
+		//Counted now so the next socket goes elsewhere
+		mClientCount.incrementAndGet();
+		
+		mSelector.wakeup();
+	}
+	
+	public void disconnect(String zUID) {
+		synchronized (mDisconnectChannels) {
+			mDisconnectChannels.add(zUID);
+		}
+		
+		mSelector.wakeup();
+	}
+	
+	/**
+	 * A client has data to write - wake the selector unless already woken
+	 */
+	void requestWrite(NIOClient zClient) {
+		mPendingWrites.add(zClient);
+		
+		if(mWakeupPending.compareAndSet(false, true)) {
+			mSelector.wakeup();
+		}
+	}
+	
+	/**
+	 * Close and remove the client - tell the manager
+	 */
+	private void removeClient(NIOClient zClient, boolean zReconnect) {
+		//Close client and invalidate key
+		zClient.disconnect();
+		
+		//Remove from the list..
+		if(mNIOServer.mClients.remove(zClient.getUID()) != null) {
+			mClientCount.decrementAndGet();
+		}
+		
+		//Tell the Network Manager
+		Message newclient = new Message(NIOManager.NIO_DISCONNECTED)
+				.addObject("client", zClient)
+				.addBoolean("reconnect", zReconnect);
+		
+		mNIOServer.mNIOManager.PostMessage(newclient);
+	}
+	
+	@Override
+	public void run() {
+		
+		try {
+			while (!mShutDown) {
+				
+				//Select something.. 
+				mSelector.select(30000);
+				
+				//Set the write flag on all the clients with new data
+				mWakeupPending.set(false);
+				NIOClient writeclient;
+				while((writeclient = mPendingWrites.poll()) != null) {
+					writeclient.enableWrite();
+				}
+				
+				//Are there any Channels to add..
+				synchronized (mRegisterChannels) {
+					for(int i=0;i<mRegisterChannels.size();i++) {
+						try {
+							addChannel(mRegisterIncoming.get(i), mRegisterChannels.get(i));
+						}catch(IOException exc) {
+							mClientCount.decrementAndGet();
+							MinimaLogger.log("[NIOSELECTOR] Error adding channel "+exc);
+						}
+					}
+					
+					//And clear..
+					mRegisterChannels.clear();
+					mRegisterIncoming.clear();
+				}
+				
+				//Are there any Channels to disconnect..
+				synchronized (mDisconnectChannels) {
+					for(String uid: mDisconnectChannels) {
+						NIOClient client = mNIOServer.mClients.get(uid);
+						if(client != null) {
+							removeClient(client, false);
+						}
+					}
+					
+					//And clear..
+					mDisconnectChannels.clear();
+				}
+				
+				//Loop through the current keys
+				Iterator<SelectionKey> iterator = mSelector.selectedKeys().iterator();
+				while (iterator.hasNext()) {
+					
+					//Get  and remove the next key
+					SelectionKey key = iterator.next();
+					iterator.remove();
+					
+					// Get a reference to one of our custom objects
+					NIOClient client = (NIOClient) key.attachment();
+					
+					// skip any invalid / cancelled keys
+					if (!key.isValid()) {
+						continue;
+					}
+					
+					try {
+						if (key.isReadable()) {
+							client.handleRead();
+						}
+						
+						if (key.isWritable()) {
+							client.handleWrite();
+						}
+						
+					} catch (Exception e) {
+						
+						//Small Log..
+						if(NIOServer.mTraceON) {
+							MinimaLogger.log("[NIOSELECTOR] "+mNumber+" NIOClient:"+client.getUID()+" "+e+" total:"+mNIOServer.mClients.size());
+						}
+						
+						// Disconnect the user
+						removeClient(client, !client.isIncoming());
+					}
+				}
+			}
+			
+			//Notify..
+			if(NIOServer.mTraceON) {
+				MinimaLogger.log("[NIOSELECTOR] "+mNumber+" SHUTDOWN");
+			}
+			
+			mSelector.close();
+			
+		}catch(Exception exc) {
+			MinimaLogger.log(exc);
+		}
+	}
+	
+	private void addChannel(boolean zIncoming, SocketChannel zSocketChannel) throws IOException {
+		// You can get the IPV6  Address (if available) of the connected user like so:
+		String ipAddress = zSocketChannel.socket().getInetAddress().getHostAddress();
+		
+		// We also want this socket to be non-blocking so we don't need to follow the thread-per-socket model
+		zSocketChannel.configureBlocking(false);
+		zSocketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		zSocketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+		
+		// Let's also register this socket to our selector:
+		SelectionKey selectionkey = zSocketChannel.register(mSelector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		
+		// Initially - We are only interested in events for reads for our selector.
+		selectionkey.interestOps(SelectionKey.OP_READ);
+		
+		//What Port..
+		InetSocketAddress remote = (InetSocketAddress)zSocketChannel.getRemoteAddress();
+		
+		int port = remote.getPort();
+		
+		//Create a new NIOCLient
+		NIOClient  nioc = new NIOClient(zIncoming, ipAddress, port, zSocketChannel, selectionkey, this);
+		
+		// register with key
+		selectionkey.attach(nioc);
+		
+		//Add to the total list..
+		mNIOServer.mClients.put(nioc.getUID(), nioc);
+		
+		//log..
+		if(NIOServer.mTraceON) {
+			MinimaLogger.log("[NIOSELECTOR] "+mNumber+" NEW NIOClient:"+nioc.getUID()+" total:"+mNIOServer.mClients.size());
+		}
+		
+		//Post about it..
+		Message newclient = new Message(NIOManager.NIO_NEWCONNECTION).addObject("client", nioc);
+		mNIOServer.mNIOManager.PostMessage(newclient);
+	}
+}
@@ -0,0 +1,97 @@
+package org.minima.system.network.minima;
+
+import org.minima.objects.base.MiniData;
+
+/**
+ * The messages waiting to be sent to one NIOClient.
+ * 
+ * A ring buffer that grows up to a maximum number of messages - and also has a 
+ * maximum total size in bytes. Once either is reached nothing more is added.
+ */
+public class NIOSendQueue {
+
+	/**
+	 * Initial capacity
+	 */
+	private static final int INITIAL_SIZE = 64;
+	
+	private MiniData[] mRing;
+	private int mHead 	= 0;
+	private int mSize 	= 0;
+	private long mBytes = 0;
+	
+	private final int mMaxMessages;
+	private final long mMaxBytes;
+	
+	/**
+	 * @param zMaxMessages max messages - rounded up to a power of 2
+	 * @param zMaxBytes max total bytes of all the messages
+	 */
+	public NIOSendQueue(int zMaxMessages, long zMaxBytes) {
+		mMaxMessages 	= Integer.highestOneBit(Math.max(INITIAL_SIZE, zMaxMessages) - 1) << 1;
+		mMaxBytes 		= zMaxBytes;
+		mRing 			= new MiniData[INITIAL_SIZE];
+	}
+	
+	/**
+	 * Add to the end - false if full
+	 */
+	public synchronized boolean offer(MiniData zData) {
+		int len = zData.getLength();
+		if(mSize == mMaxMessages || mBytes + len > mMaxBytes) {
+			return false;
+		}
+		
+		//Grow..
+		if(mSize == mRing.length) {
+			MiniData[] ring = new MiniData[mRing.length * 2];
+			for(int i=0;i<mSize;i++) {
+				ring[i] = mRing[(mHead + i) & (mRing.length - 1)];
+			}
+			mRing = ring;
+			mHead = 0;
+		}
+		
+		mRing[(mHead + mSize) & (mRing.length - 1)] = zData;
+		mSize++;
+		mBytes += len;
+		
+		return true;
+	}
+	
+	/**
+	 * Remove from the front - null if empty
+	 */
+	public synchronized MiniData poll() {
+		if(mSize == 0) {
+			return null;
+		}
+		
+		MiniData data 	= mRing[mHead];
+		mRing[mHead] 	= null;
+		mHead 			= (mHead + 1) & (mRing.length - 1);
+		mSize--;
+		mBytes -= data.getLength();
+		
+		return data;
+	}
+	
+	public synchronized boolean isEmpty() {
+		return mSize == 0;
+	}
+	
+	public synchronized int size() {
+		return mSize;
+	}
+	
+	public synchronized long getBytes() {
+		return mBytes;
+	}
+	
+	public synchronized void clear() {
+		mRing 	= new MiniData[INITIAL_SIZE];
+		mHead 	= 0;
+		mSize 	= 0;
+		mBytes 	= 0;
+	}
+}
@@ -3,7 +3,6 @@ package org.minima.system.network.minima;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.StandardSocketOptions;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
@@ -14,32 +13,45 @@ import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.minima.objects.base.MiniData;
+import org.minima.system.params.GeneralParams;
 import org.minima.utils.MinimaLogger;
-import org.minima.utils.messages.Message;
+import org.minima.utils.json.JSONArray;
+import org.minima.utils.messages.MessageProcessor;
 
+/**
+ * Accepts the incoming connections and shares all the clients between a number of NIOSelector threads
+ */
 public class NIOServer implements Runnable {
 
 	public static boolean mTraceON = false;
 	
-	NIOManager mNIOManager;
+	/**
+	 * Where the network messages are posted - the NIOManager
+	 */
+	MessageProcessor mNIOManager;
 	
 	int mPort;
 	
 	Selector mSelector;
 	
-	boolean mShutDown;
+	volatile boolean mShutDown;
 	
 	ConcurrentHashMap<String, NIOClient> mClients = new ConcurrentHashMap<>();
 	
-	ArrayList<SocketChannel> mRegisterChannels;
+	/**
+	 * The selector threads that do the reading and writing
+	 */
+	int mSelectorThreads;
+	NIOSelector[] mSelectors;
 	
-	ArrayList<String> mDisconnectChannels;
+	public NIOServer(int zPort, MessageProcessor zNIOManager) {
+		this(zPort, zNIOManager, GeneralParams.NIO_SELECTOR_THREADS);
+	}
 	
-	public NIOServer(int zPort, NIOManager zNIOManager) {
+	public NIOServer(int zPort, MessageProcessor zNIOManager, int zSelectorThreads) {
 		mPort 				= zPort;
 		mNIOManager 		= zNIOManager;
-		mRegisterChannels	= new ArrayList<>();
-		mDisconnectChannels	= new ArrayList<>();
+		mSelectorThreads	= Math.max(1, zSelectorThreads);
 	}
 	
 	public void shutdown() {
@@ -64,20 +76,28 @@ public class NIOServer implements Runnable {
 		return allclients;
 	}
 	
-	public void regsiterNewSocket(SocketChannel zChannel) {
-		synchronized (mRegisterChannels) {
-			mRegisterChannels.add(zChannel);
+	/**
+	 * The selector with the fewest clients
+	 */
+	private NIOSelector getNextSelector() {
+		NIOSelector best = mSelectors[0];
+		for(NIOSelector sel : mSelectors) {
+			if(sel.getClientCount() < best.getClientCount()) {
+				best = sel;
+			}
 		}
-		
-		mSelector.wakeup();
+		return best;
+	}
+	
+	public void regsiterNewSocket(SocketChannel zChannel) {
+		getNextSelector().registerSocket(zChannel, false);
 	}
 	
 	public void disconnect(String zUID) {
-		synchronized (mDisconnectChannels) {
-			mDisconnectChannels.add(zUID);
+		NIOClient client = mClients.get(zUID);
+		if(client != null) {
+			client.mNIOSelector.disconnect(zUID);
 		}
-		
-		mSelector.wakeup();
 	}
 	
 	public NIOClient getClient(String zUID) {
@@ -91,14 +111,32 @@ public class NIOServer implements Runnable {
 		}
 	}
 	
+	/**
+	 * Send to all the valid clients - slow clients with a full send queue miss this message
+	 */
 	public void sendMessageAll(MiniData zData) {
 		Enumeration<NIOClient> clients = mClients.elements();
 		while(clients.hasMoreElements()) {
 			NIOClient nioc = clients.nextElement();
 			if(nioc.isValidGreeting()) {
-				nioc.sendData(zData);
+				if(!nioc.queueData(zData, true) && mTraceON) {
+					MinimaLogger.log("[NIOSERVER] Broadcast dropped for slow client "+nioc.getUID());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * How many clients on each selector thread
+	 */
+	public JSONArray getSelectorStatus() {
+		JSONArray ret = new JSONArray();
+		if(mSelectors != null) {
+			for(NIOSelector sel : mSelectors) {
+				ret.add(sel.getClientCount());
 			}
 		}
+		return ret;
 	}
 	
 	@Override
@@ -129,58 +167,24 @@ public class NIOServer implements Runnable {
 	        // Set our key's interest OPs to "Accept"
 	        acceptKey.interestOps(SelectionKey.OP_ACCEPT);
 	
+	        //Start the selector threads
+	        NIOSelector[] selectors = new NIOSelector[mSelectorThreads];
+	        for(int i=0;i<mSelectorThreads;i++) {
+	        	selectors[i] = new NIOSelector(this, i);
+	        	Thread selthread = new Thread(selectors[i], "NIOSelector-"+i);
+	        	selthread.start();
+	        }
+	        mSelectors = selectors;
+	        
 	        //Ok - we are up and running..
 	        mNIOManager.PostMessage(NIOManager.NIO_SERVERSTARTED);
 	        
 	        // This is the main loop
 	        while (!mShutDown) {
 	        	
-//	        	//Logs..
-//	        	if(mTraceON) {
-//	        		MinimaLogger.log("[NIOSERVER] Waiting for selection..");
-//	        	}
-	        	
 	        	//Select something.. 
 	        	mSelector.select(30000);
 	        	
-	        	//Are there any Channels to add..
-	        	synchronized (mRegisterChannels) {
-        			if(mRegisterChannels.size()>0) {
-		        		for(SocketChannel chann : mRegisterChannels) {
-		        			addChannel(false,chann);
-		        		}
-		        		
-	        			//And clear..
-	        			mRegisterChannels.clear();
-        			}
-	        	}
-	        	
-	        	//Are there any Channels to disconnect..
-	        	synchronized (mDisconnectChannels) {
-        			if(mDisconnectChannels.size()>0) {
-		        		for(String uid: mDisconnectChannels) {
-		        			NIOClient client = mClients.get(uid);
-		        			if(client != null) {
-		        				//Close client and invalidate key
-		        				client.disconnect();
-		        				
-		        				//Remove from the list..
-			                    mClients.remove(uid);
-			                    
-			                    //Tell the Network Manager
-			                    Message newclient = new Message(NIOManager.NIO_DISCONNECTED)
-			                    		.addObject("client", client)
-			                    		.addBoolean("reconnect", false);
-			                    
-			                    mNIOManager.PostMessage(newclient);
-		        			}
-		        		}
-		        		
-	        			//And clear..
-		        		mDisconnectChannels.clear();
-        			}
-	        	}
-	        	
 	        	//Loop through the current keys
 	            Iterator<SelectionKey> iterator = mSelector.selectedKeys().iterator();
 	            while (iterator.hasNext()) {
@@ -189,9 +193,6 @@ public class NIOServer implements Runnable {
 	            	SelectionKey key = (SelectionKey) iterator.next();
 	                iterator.remove();
 	
-	                // Get a reference to one of our custom objects
-	                NIOClient client = (NIOClient) key.attachment();
-	                
 	                // skip any invalid / cancelled keys
 	                if (!key.isValid()) {
 	                	continue;
@@ -201,39 +202,13 @@ public class NIOServer implements Runnable {
 	                	if (key.isAcceptable()) {
 	                		// Accept the socket's connection
 	                        SocketChannel socket = serversocket.accept();
-	                		
-	                        //And add to our selector..
-	                        addChannel(true, socket);
-	                    }
-	
-	                    if (key.isReadable()) {
-	                    	client.handleRead();
-	                    }
-	                    
-	                    if (key.isWritable()) {
-	                    	client.handleWrite();
-	                    }
-	                    
-	                } catch (Exception e) {
-	                	
-	                    // Disconnect the user
-	                    client.disconnect();
-	                    
-	                    //Remove from the list..
-	                    mClients.remove(client.getUID());
-	
-	                    //Small Log..
-	                    if(mTraceON) {
-	                    	MinimaLogger.log("[NIOSERVER] NIOClient:"+client.getUID()+" "+e+" total:"+mClients.size());
+	                        if(socket != null) {
+	                        	//And add to the least busy selector..
+	                        	getNextSelector().registerSocket(socket, true);
+	                        }
 	                    }
-	                    
-	                    //Tell the Network Manager
-	                    Message newclient = new Message(NIOManager.NIO_DISCONNECTED)
-	                    		.addObject("client", client)
-	                    		.addBoolean("reconnect", !client.isIncoming());
-	                    
-	                    //Tell the manager
-	                    mNIOManager.PostMessage(newclient);
+	                } catch (IOException e) {
+	                	MinimaLogger.log("[NIOSERVER] Error accepting connection "+e);
 	                }
 	            }
 	        }
@@ -243,6 +218,11 @@ public class NIOServer implements Runnable {
 	        	MinimaLogger.log("[NIOServer] SHUTDOWN");
 	        }
             
+	        //Stop the selectors
+	        for(NIOSelector sel : mSelectors) {
+	        	sel.shutdown();
+	        }
+	        
             //Shut down the socket..
             serversocket.close();
 	        
@@ -250,45 +230,4 @@ public class NIOServer implements Runnable {
 			MinimaLogger.log(exc);
 		}
 	}
-
-	private void addChannel(boolean zIncoming, SocketChannel zSocketChannel) throws IOException {
-		// You can get the IPV6  Address (if available) of the connected user like so:
-        String ipAddress = zSocketChannel.socket().getInetAddress().getHostAddress();
-        
-        // We also want this socket to be non-blocking so we don't need to follow the thread-per-socket model
-        zSocketChannel.configureBlocking(false);
-        zSocketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
-        zSocketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
-
-        // Let's also register this socket to our selector:
-        SelectionKey selectionkey = zSocketChannel.register(mSelector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
-        
-        // Initially - We are only interested in events for reads for our selector.
-        selectionkey.interestOps(SelectionKey.OP_READ);
-
-        //What Port..
-        InetSocketAddress remote = (InetSocketAddress)zSocketChannel.getRemoteAddress();
-//        InetSocketAddress local  = (InetSocketAddress )zSocketChannel.getLocalAddress();
-        
-        int port = remote.getPort();
-        
-        //Create a new NIOCLient
-        NIOClient  nioc = new NIOClient(zIncoming, ipAddress, port, zSocketChannel, selectionkey);
-        
-        // register with key
-        selectionkey.attach(nioc);
-        
-        //Add to the total list..
-        mClients.put(nioc.getUID(), nioc);
-        
-        //log..
-        if(mTraceON) {
-        	MinimaLogger.log("[NIOSERVER] NEW NIOClient:"+nioc.getUID()+" total:"+mClients.size());
-        }
-        
-        //Post about it..
-        Message newclient = new Message(NIOManager.NIO_NEWCONNECTION).addObject("client", nioc);
-        mNIOManager.PostMessage(newclient);
-	}
-	
 }
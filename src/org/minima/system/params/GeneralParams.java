@@ -97,6 +97,11 @@ public class GeneralParams {
 	 */
 	public static long NUMBER_HOURS_RAMTXPOWDB = 1;
 	
+	/**
+	 * Max size of the mempool in bytes - lowest burn per byte removed first.. 0 for no limit
+	 */
+	public static long MEMPOOL_MAX_SIZE = 0;
+	
 	/**
 	 * How many days do you archive the TxBlocks to resync Users
 	 */
@@ -107,6 +112,41 @@ public class GeneralParams {
 	 */
 	public static long USER_PULSE_FREQ   = 1000 * 60 * 10;
 	
+	/**
+	 * How many threads check the transactions in a block - 1 checks them one at a time
+	 */
+	public static int TXPOW_CHECK_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	
+	/**
+	 * Run all the message processors on a shared set of threads instead of one thread each
+	 */
+	public static boolean SHARED_MESSAGE_THREADS = false;
+	
+	/**
+	 * Number of NIO selector threads the network connections are shared between
+	 */
+	public static int NIO_SELECTOR_THREADS = 1;
+	
+	/**
+	 * Number of threads that process the network messages - each connection always uses the same one
+	 */
+	public static int NIO_MESSAGE_THREADS = 4;
+	
+	/**
+	 * Threads that build the IBD blocks before they are added to the tree - 1 builds them one at a time
+	 */
+	public static int IBD_IMPORT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	
+	/**
+	 * Threads that search for the nonce when mining a TxPoW
+	 */
+	public static int MINING_THREADS = 1;
+	
+	/**
+	 * Append every IBD received to this file - so a sync can be replayed by the IBD benchmark. Blank for none.
+	 */
+	public static String IBD_RECORD_FILE = "";
+	
 	/**
 	 * MY Debug Func flag - for testing.. can set with debugfunc
 	 */
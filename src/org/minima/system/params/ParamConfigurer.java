@@ -165,6 +165,34 @@ public class ParamConfigurer {
         p2pnode("p2pnode", "Specify the initial P2P host:port list to connect to", (args, configurer) -> {
             GeneralParams.P2P_ROOTNODE = args;
         }),
+        checkthreads("checkthreads", "Number of threads used to check the transactions in a block (1 for sequential)", (args, configurer) -> {
+            GeneralParams.TXPOW_CHECK_THREADS = Math.max(1, Integer.parseInt(args));
+        }),
+        mempoolmax("mempoolmax", "Maximum size of the mempool in MB - lowest burn per byte removed first (0 for no limit)", (args, configurer) -> {
+            GeneralParams.MEMPOOL_MAX_SIZE = Long.parseLong(args) * 1024 * 1024;
+        }),
+        sharedthreads("sharedthreads", "Run the message processors on a shared thread pool instead of one thread each", (args, configurer) -> {
+            if ("true".equals(args)) {
+                GeneralParams.SHARED_MESSAGE_THREADS = true;
+            }
+        }),
+        selectorthreads("selectorthreads", "Number of NIO selector threads for the network connections (0 for one per core)", (args, configurer) -> {
+            int threads = Integer.parseInt(args);
+            GeneralParams.NIO_SELECTOR_THREADS = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        }),
+        messagethreads("messagethreads", "Number of threads that process the network messages", (args, configurer) -> {
+            GeneralParams.NIO_MESSAGE_THREADS = Math.max(1, Integer.parseInt(args));
+        }),
+        ibdthreads("ibdthreads", "Number of threads used to build the IBD blocks before they are added (1 for sequential)", (args, configurer) -> {
+            GeneralParams.IBD_IMPORT_THREADS = Math.max(1, Integer.parseInt(args));
+        }),
+        recordibd("recordibd", "Record every IBD received to this file so the sync can be benchmarked later", (args, configurer) -> {
+            GeneralParams.IBD_RECORD_FILE = args;
+        }),
+        minethreads("minethreads", "Number of threads that search for the nonce when mining a TxPoW (0 for one per core)", (args, configurer) -> {
+            int threads = Integer.parseInt(args);
+            GeneralParams.MINING_THREADS = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        }),
         automine("automine", "Simulate user traffic to construct the blockchain", (args, configurer) -> {
             if ("true".equals(args)) {
                 GeneralParams.AUTOMINE = true;
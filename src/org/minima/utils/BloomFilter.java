@@ -0,0 +1,91 @@
+package org.minima.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A simple Bloom filter of Strings.
+ *
+ * mightContain never says false for something that was added - but may say true
+ * for something that wasn't. Safe to use from many threads.
+ */
+public class BloomFilter {
+
+	/**
+	 * The bits - a power of 2 in size
+	 */
+	private final AtomicLongArray mBits;
+	private final long mMask;
+
+	/**
+	 * How many bits are set per item
+	 */
+	private final int mHashes;
+
+	/**
+	 * @param zBits number of bits - rounded up to a power of 2
+	 * @param zHashes how many bits to set per item
+	 */
+	public BloomFilter(int zBits, int zHashes) {
+		int bits = Integer.highestOneBit(Math.max(64, zBits) - 1) << 1;
+		mBits 	= new AtomicLongArray(bits / 64);
+		mMask 	= bits - 1;
+		mHashes = zHashes;
+	}
+
+	/**
+	 * FNV-1a 64 bit hash of the String bytes
+	 */
+	private static long hash(String zItem) {
+		byte[] data = zItem.getBytes(StandardCharsets.UTF_8);
+		long hash = 0xcbf29ce484222325L;
+		for(byte bb : data) {
+			hash ^= (bb & 0xff);
+			hash *= 0x100000001b3L;
+		}
+
+		//Final mix so the low bits are good
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	public void add(String zItem) {
+		long hash 	= hash(zItem);
+		long h1 	= hash;
+		long h2 	= (hash >>> 32) | 1;
+		for(int i=0;i<mHashes;i++) {
+			long bit 	= (h1 + i * h2) & mMask;
+			int index 	= (int)(bit >>> 6);
+			long mask 	= 1L << (bit & 63);
+
+			//Set the bit
+			long current = mBits.get(index);
+			while((current & mask) == 0 && !mBits.compareAndSet(index, current, current | mask)) {
+				current = mBits.get(index);
+			}
+		}
+	}
+
+	public boolean mightContain(String zItem) {
+		long hash 	= hash(zItem);
+		long h1 	= hash;
+		long h2 	= (hash >>> 32) | 1;
+		for(int i=0;i<mHashes;i++) {
+			long bit = (h1 + i * h2) & mMask;
+			if((mBits.get((int)(bit >>> 6)) & (1L << (bit & 63))) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * The number of bits in the filter
+	 */
+	public long getSize() {
+		return mMask + 1;
+	}
+}
@@ -0,0 +1,53 @@
+package org.minima.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A set of single thread lanes. Tasks with the same key always run on the same lane,
+ * so they run in the order they were added - different keys run in parallel.
+ */
+public class LaneExecutor {
+
+	private final ExecutorService[] mLanes;
+	
+	public LaneExecutor(final String zName, int zLanes) {
+		mLanes = new ExecutorService[Math.max(1, zLanes)];
+		for(int i=0;i<mLanes.length;i++) {
+			final String name = zName+"-"+i;
+			mLanes[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable zRunnable) {
+					Thread thread = new Thread(zRunnable, name);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+	
+	public int getLanes() {
+		return mLanes.length;
+	}
+	
+	/**
+	 * Which lane this key runs on
+	 */
+	public int getLane(String zKey) {
+		//Spread the bits of the hash
+		int hash = zKey.hashCode();
+		hash ^= (hash >>> 16);
+		return (hash & 0x7fffffff) % mLanes.length;
+	}
+	
+	public void execute(String zKey, Runnable zTask) {
+		mLanes[getLane(zKey)].execute(zTask);
+	}
+	
+	public void shutdownNow() {
+		for(ExecutorService lane : mLanes) {
+			lane.shutdownNow();
+		}
+	}
+}
@@ -3,6 +3,13 @@
  */
 package org.minima.utils.messages;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.minima.system.params.GeneralParams;
 import org.minima.utils.MinimaLogger;
 
 /**
@@ -11,6 +18,29 @@ import org.minima.utils.MinimaLogger;
  */
 public abstract class MessageProcessor extends MessageStack implements Runnable{
 
+	/**
+	 * The threads used by all the processors in shared mode.. created when first needed
+	 */
+	private static ExecutorService mSharedPool = null;
+	
+	private static synchronized ExecutorService getSharedPool() {
+		if(mSharedPool == null) {
+			final AtomicInteger counter = new AtomicInteger();
+			
+			//Cached - so a processor that blocks never stops the others
+			mSharedPool = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable zRunnable) {
+					Thread processor = new Thread(zRunnable, "MessageProcessor-"+counter.incrementAndGet());
+					processor.setDaemon(true);
+					return processor;
+				}
+			});
+		}
+		
+		return mSharedPool;
+	}
+	
 	/**
 	 * Main Thread loop
 	 */
@@ -19,12 +49,18 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
     /**
      * Are we running
      */
-    private boolean mRunning;
+    private volatile boolean mRunning;
     
     /**
      * Have we finbished shutting down
      */
-    private boolean mShutDownComplete;
+    private volatile boolean mShutDownComplete;
+    
+    /**
+     * Run on the shared threads instead of our own - and are we queued to run
+     */
+    private final boolean mShared;
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
     
 	/**
 	 * LOG messages ?
@@ -41,14 +77,24 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
 	 * Constructor
 	 */
     public MessageProcessor(String zName){
+    	this(zName, GeneralParams.SHARED_MESSAGE_THREADS);
+    }
+    
+    /**
+     * Constructor - can choose to run on the shared threads
+     */
+    public MessageProcessor(String zName, boolean zShared){
     	super();
     	
     	mName 				= zName;
     	mRunning 			= true;
     	mShutDownComplete 	= false;
+    	mShared				= zShared;
     	
-    	mMainThread = new Thread(this,zName);
-        mMainThread.start();
+    	if(!mShared) {
+    		mMainThread = new Thread(this,zName);
+    		mMainThread.start();
+    	}
     }
     
     public void setFullLogging(boolean zLogON, String zTraceFilter) {
@@ -72,15 +118,91 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
         mRunning = false;
         
         //Wake it up if is locked..
-        notifyLock();
+        if(mShared) {
+        	schedule();
+        }else {
+        	notifyLock();
+        }
     }
     
-    public void PostTimerMessage(TimerMessage zMessage) {    	
+    public TimerHandle PostTimerMessage(TimerMessage zMessage) {    	
     	//Set this is the processor..
     	zMessage.setProcessor(this);
     	
-    	//Post it on the TimerProcessor
-    	TimerProcessor.getTimerProcessor().PostMessage(zMessage);
+    	//Post it on the TimerProcessor - the handle can cancel it
+    	return TimerProcessor.getTimerProcessor().PostMessage(zMessage);
+    }
+    
+    @Override
+    protected void messagePosted() {
+    	if(mShared) {
+    		schedule();
+    	}else {
+    		super.messagePosted();
+    	}
+    }
+    
+    /**
+     * Queue this processor on the shared threads - if not already
+     */
+    private void schedule() {
+    	if(mScheduled.compareAndSet(false, true)) {
+    		getSharedPool().execute(new Runnable() {
+				@Override
+				public void run() {
+					runShared();
+				}
+			});
+    	}
+    }
+    
+    /**
+     * Process all the waiting messages on a shared thread. Only ever one at a time - so messages are still processed in order
+     */
+    private void runShared() {
+    	while(mRunning) {
+    		Message msg = getNextMessage();
+    		if(msg == null) {
+    			break;
+    		}
+    		
+    		handleMessage(msg);
+    	}
+    	
+    	//All done..
+    	if(!mRunning) {
+    		mShutDownComplete = true;
+    	}
+    	
+    	mScheduled.set(false);
+    	
+    	//More to do - or stopped while we were finishing
+    	if(mRunning ? isNextMessage() : !mShutDownComplete) {
+    		schedule();
+    	}
+    }
+    
+    private void handleMessage(Message zMessage) {
+    	//Process that message
+        try{
+        	//Are we logging  ?
+        	if(mTrace) {
+        		String tracemsg = zMessage.toString();
+        		if(tracemsg.contains(mTraceFilter)) {
+        			MinimaLogger.log("["+mName+"] (stack:"+getSize()+") \t"+zMessage);
+        		}
+        	}
+        
+        	//Process Message
+            processMessage(zMessage);
+        
+        }catch(Error noclass){
+        	MinimaLogger.log("**SERIOUS SETUP ERROR "+zMessage.getMessageType()+" "+noclass.toString());
+        	
+        }catch(Exception exc){
+        	MinimaLogger.log("MESSAGE PROCESSING ERROR @ "+zMessage.getMessageType());
+        	MinimaLogger.log(exc);
+        } 
     }
     
     public void run() {
@@ -93,25 +215,7 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
             //Cycle through available messages
             while(msg != null && mRunning){          
                 //Process that message
-                try{
-                	//Are we logging  ?
-                	if(mTrace) {
-                		String tracemsg = msg.toString();
-                		if(tracemsg.contains(mTraceFilter)) {
-                			MinimaLogger.log("["+mMainThread.getName()+"] (stack:"+getSize()+") \t"+msg);
-                		}
-                	}
-                
-                	//Process Message
-                    processMessage(msg);
-                
-                }catch(Error noclass){
-                	MinimaLogger.log("**SERIOUS SETUP ERROR "+msg.getMessageType()+" "+noclass.toString());
-                	
-                }catch(Exception exc){
-                	MinimaLogger.log("MESSAGE PROCESSING ERROR @ "+msg.getMessageType());
-                	MinimaLogger.log(exc);
-                } 
+            	handleMessage(msg);
                 
                 //Are there more messages..
                 msg = getNextMessage();
@@ -120,13 +224,19 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
             //Wait.. for a notify.. 
             try {
             	synchronized (mLock) {
+            		//Tell posters to notify us
+            		mWaiting = true;
+            		
             		//Last check.. inside the LOCK
             		if(!isNextMessage() && mRunning) {
             			//Wait for a message to be posted on the stack
             			mLock.wait();	
             		}
+            		
+            		mWaiting = false;
 				}
 			} catch (InterruptedException e) {
+				mWaiting = false;
 				MinimaLogger.log("MESSAGE_PROCESSOR "+mName+" INTERRUPTED");
 			}
         }
@@ -142,4 +252,3 @@ public abstract class MessageProcessor extends MessageStack implements Runnable{
      */
     protected abstract void processMessage(Message zMessage) throws Exception;
 }
-
@@ -3,11 +3,14 @@
  */
 package org.minima.utils.messages;
 
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Thread Safe Message Stack
  * 
+ * Many threads can post - one thread takes the messages off. Lock free.
+ * 
  * @author Spartacus Rex
  *
  */
@@ -16,20 +19,30 @@ public class MessageStack{
 	/**
 	 * All messages in this stack
 	 */
-	private LinkedList<Message> mMessages;
+	private ConcurrentLinkedQueue<Message> mMessages;
+	
+	/**
+	 * The queue size is not constant time - so keep count
+	 */
+	private AtomicInteger mSize;
 	
 	/**
 	 * The LOCK Object
 	 */
 	protected Object mLock = new Object();
 	
+	/**
+	 * Is the processing thread waiting on the LOCK - only need to notify if it is
+	 */
+	protected volatile boolean mWaiting = false;
 	
 	/**
 	 * Main Constructor
 	 */
     public MessageStack(){
         //Create the Stack where messages are posted
-        mMessages = new LinkedList<Message>();
+        mMessages 	= new ConcurrentLinkedQueue<Message>();
+        mSize		= new AtomicInteger();
     }
     
     /**
@@ -40,16 +53,24 @@ public class MessageStack{
     }
     
     /**
-     * Synchronized function to add a Message onto the Stack
+     * Thread safe function to add a Message onto the Stack
      */
     public void PostMessage(Message zMessage){
     	//Multiple threads can call this..
-    	synchronized(mMessages) {
-    		mMessages.add(zMessage);	
-    	}
+    	mMessages.offer(zMessage);
+    	mSize.incrementAndGet();
     	
     	//There is something in the stack
-        notifyLock();
+        messagePosted();
+    }
+    
+    /**
+     * Called after every post
+     */
+    protected void messagePosted() {
+    	if(mWaiting) {
+    		notifyLock();
+    	}
     }
     
     protected void notifyLock(){
@@ -59,48 +80,30 @@ public class MessageStack{
 		}
     }
     
-    
     /**
      * Is there a next message!
      * @return
      */
     public boolean isNextMessage(){
-    	boolean avail;
-    	
-    	synchronized (mMessages) {
-			avail = !mMessages.isEmpty();
-		}
-    	
-    	return avail;
+    	return !mMessages.isEmpty();
     }
         
     /**
      * Get the first message on the stack, if there is one
      */
     protected Message getNextMessage(){
-    	Message nxtmsg = null;
-    	
-    	synchronized (mMessages) {
-    		if(!mMessages.isEmpty()){
-                //Get the first message
-                nxtmsg = mMessages.getFirst();
-                
-                //Remove it from the list
-                mMessages.remove(nxtmsg);
-    		}	
-		}
+    	Message nxtmsg = mMessages.poll();
+    	if(nxtmsg != null) {
+    		mSize.decrementAndGet();
+    	}
     	
         return nxtmsg;
     }
     
     /**
-     * Get the first message on the stack, if there is one
+     * How many messages are waiting
      */
     public int getSize(){
-        int len;
-        synchronized (mMessages) {
-			len = mMessages.size();
-		}
-    	return len;
+    	return mSize.get();
     }
 }
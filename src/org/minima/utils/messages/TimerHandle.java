@@ -0,0 +1,52 @@
+package org.minima.utils.messages;
+
+/**
+ * Returned when a TimerMessage is posted - so it can be cancelled before it fires
+ */
+public class TimerHandle {
+
+	/**
+	 * The message and when it is due
+	 */
+	final TimerMessage 	mMessage;
+	final long 			mDeadline;
+	
+	/**
+	 * Position in the timer wheel - a slot list
+	 */
+	int 		mSlot 	= -1;
+	TimerHandle mPrev 	= null;
+	TimerHandle mNext 	= null;
+	
+	/**
+	 * Has it been cancelled or fired
+	 */
+	volatile boolean mCancelled = false;
+	volatile boolean mFired 	= false;
+	
+	TimerHandle(TimerMessage zMessage) {
+		mMessage 	= zMessage;
+		mDeadline 	= zMessage.getTimer();
+	}
+	
+	public TimerMessage getMessage() {
+		return mMessage;
+	}
+	
+	/**
+	 * Stop the message being posted
+	 * 
+	 * @return true if it was cancelled - false if already fired or cancelled
+	 */
+	public boolean cancel() {
+		return TimerProcessor.getTimerProcessor().cancel(this);
+	}
+	
+	public boolean isCancelled() {
+		return mCancelled;
+	}
+	
+	public boolean isFired() {
+		return mFired;
+	}
+}
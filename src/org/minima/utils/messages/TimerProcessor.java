@@ -1,11 +1,31 @@
 package org.minima.utils.messages;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.minima.utils.MinimaLogger;
+import org.minima.utils.json.JSONObject;
 
+/**
+ * Posts TimerMessages to their processor when they are due.
+ * 
+ * A hashed timer wheel with one slot per millisecond - adding and cancelling 
+ * a timer is constant time. The thread sleeps until the next slot that has a timer.
+ */
 public class TimerProcessor implements Runnable {
 
+	/**
+	 * Number of 1 millisecond slots in the wheel - must be a power of 2. 
+	 * Timers further away than this stay in their slot for more turns of the wheel.
+	 */
+	private static final int WHEEL_SIZE = 4096;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	
+	/**
+	 * How late the timers fire - upper bound in milliseconds of each histogram bucket
+	 */
+	public static final long[] LATENCY_BUCKETS = {1, 2, 5, 10, 50, 100, 1000, Long.MAX_VALUE};
+	
 	/**
 	 * Static function for all Timed Messages
 	 */
@@ -20,7 +40,7 @@ public class TimerProcessor implements Runnable {
 	/**
 	 * Are we running
 	 */
-	private boolean mRunning;
+	private volatile boolean mRunning;
 	
 	/**
 	 * The main thread
@@ -28,15 +48,38 @@ public class TimerProcessor implements Runnable {
 	Thread mMainThread;
 	
 	/**
-	 * All the timed messages
+	 * The wheel - each slot a linked list of timers - and how many in each
 	 */
-	private ArrayList<TimerMessage> mTimerMessages;
+	private final TimerHandle[] mWheel;
+	private final int[] mSlotCount;
+	private int mTotalTimers;
+	
+	/**
+	 * The last millisecond processed
+	 */
+	private long mLastTick;
+	
+	/**
+	 * When the thread will next wake
+	 */
+	private long mNextWake;
+	
+	/**
+	 * How late each timer fired
+	 */
+	private final AtomicLongArray mLatency;
 	
 	private TimerProcessor() {
 		mRunning 		= true;
-		mTimerMessages 	= new ArrayList<TimerMessage>();
+		mWheel 			= new TimerHandle[WHEEL_SIZE];
+		mSlotCount		= new int[WHEEL_SIZE];
+		mTotalTimers	= 0;
+		mLastTick		= System.currentTimeMillis();
+		mNextWake		= Long.MAX_VALUE;
+		mLatency		= new AtomicLongArray(LATENCY_BUCKETS.length);
 		
-		mMainThread = new Thread(this);
+		mMainThread = new Thread(this, "TimerProcessor");
+		mMainThread.setDaemon(true);
 		mMainThread.start();
 	}
 	
@@ -46,50 +89,206 @@ public class TimerProcessor implements Runnable {
 		try {mMainThread.interrupt();}catch (Exception e) {}
 	}
 	
-	public void PostMessage(TimerMessage zMessage) {
-		synchronized (mTimerMessages) {
-			mTimerMessages.add(zMessage);
+	/**
+	 * Add a timer - returns a handle that can cancel it
+	 */
+	public TimerHandle PostMessage(TimerMessage zMessage) {
+		TimerHandle handle = new TimerHandle(zMessage);
+		
+		synchronized (this) {
+			//Already due timers go in the next slot
+			long deadline 	= Math.max(handle.mDeadline, mLastTick + 1);
+			int slot 		= (int)(deadline & WHEEL_MASK);
+			
+			//Add to the front of the slot list
+			handle.mSlot = slot;
+			handle.mNext = mWheel[slot];
+			if(handle.mNext != null) {
+				handle.mNext.mPrev = handle;
+			}
+			mWheel[slot] = handle;
+			mSlotCount[slot]++;
+			mTotalTimers++;
+			
+			//Wake the thread if this is sooner than it thinks
+			if(deadline < mNextWake) {
+				notifyAll();
+			}
+		}
+		
+		return handle;
+	}
+	
+	/**
+	 * Remove a timer before it fires
+	 */
+	public synchronized boolean cancel(TimerHandle zHandle) {
+		if(zHandle.mFired || zHandle.mCancelled) {
+			return false;
+		}
+		
+		zHandle.mCancelled = true;
+		removeFromSlot(zHandle);
+		
+		return true;
+	}
+	
+	private void removeFromSlot(TimerHandle zHandle) {
+		int slot = zHandle.mSlot;
+		
+		if(zHandle.mPrev != null) {
+			zHandle.mPrev.mNext = zHandle.mNext;
+		}else {
+			mWheel[slot] = zHandle.mNext;
+		}
+		
+		if(zHandle.mNext != null) {
+			zHandle.mNext.mPrev = zHandle.mPrev;
+		}
+		
+		zHandle.mPrev = null;
+		zHandle.mNext = null;
+		mSlotCount[slot]--;
+		mTotalTimers--;
+	}
+	
+	/**
+	 * Number of timers waiting
+	 */
+	public synchronized int getSize() {
+		return mTotalTimers;
+	}
+	
+	/**
+	 * Remove the due timers from the slots between the last tick and now
+	 */
+	private synchronized ArrayList<TimerHandle> getDueTimers(long zNow){
+		ArrayList<TimerHandle> due = new ArrayList<>();
+		
+		//Check every slot at most once
+		long start = Math.max(mLastTick + 1, zNow - WHEEL_MASK);
+		for(long tick = start; tick <= zNow; tick++) {
+			int slot = (int)(tick & WHEEL_MASK);
+			if(mSlotCount[slot] == 0) {
+				continue;
+			}
+			
+			TimerHandle handle = mWheel[slot];
+			while(handle != null) {
+				TimerHandle next = handle.mNext;
+				if(handle.mDeadline <= zNow) {
+					removeFromSlot(handle);
+					handle.mFired = true;
+					due.add(handle);
+				}
+				handle = next;
+			}
+		}
+		
+		mLastTick = Math.max(mLastTick, zNow);
+		
+		return due;
+	}
+	
+	/**
+	 * Sleep until the next slot with a timer in it - or a sooner one is added
+	 */
+	private synchronized void waitForNextTimer() throws InterruptedException {
+		long now = System.currentTimeMillis();
+		
+		if(mTotalTimers == 0) {
+			mNextWake = Long.MAX_VALUE;
+			wait();
+			
+		}else {
+			//Find the next slot with a timer
+			long next = mLastTick + WHEEL_SIZE;
+			for(long tick = mLastTick + 1; tick < mLastTick + WHEEL_SIZE; tick++) {
+				if(mSlotCount[(int)(tick & WHEEL_MASK)] > 0) {
+					next = tick;
+					break;
+				}
+			}
+			
+			mNextWake = next;
+			if(next > now) {
+				wait(next - now);
+			}
+		}
+		
+		mNextWake = Long.MAX_VALUE;
+	}
+	
+	private void addLatency(long zLate) {
+		for(int i=0;i<LATENCY_BUCKETS.length;i++) {
+			if(zLate < LATENCY_BUCKETS[i]) {
+				mLatency.incrementAndGet(i);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * How many timers fired in each latency bucket
+	 */
+	public long[] getLatencyHistogram() {
+		long[] ret = new long[LATENCY_BUCKETS.length];
+		for(int i=0;i<ret.length;i++) {
+			ret[i] = mLatency.get(i);
 		}
+		return ret;
+	}
+	
+	public JSONObject getStatus() {
+		JSONObject ret = new JSONObject();
+		ret.put("waiting", getSize());
+		
+		JSONObject histogram = new JSONObject();
+		long[] latency = getLatencyHistogram();
+		long last = 0;
+		for(int i=0;i<latency.length;i++) {
+			if(LATENCY_BUCKETS[i] == Long.MAX_VALUE) {
+				histogram.put(last+"ms+", latency[i]);
+			}else {
+				histogram.put(last+"-"+LATENCY_BUCKETS[i]+"ms", latency[i]);
+			}
+			last = LATENCY_BUCKETS[i];
+		}
+		ret.put("latency", histogram);
+		
+		return ret;
 	}
 	
 	@Override
 	public void run() {
 		while(mRunning) {
 			
-			//Check the stack for messages..
-			synchronized (mTimerMessages) {
-				//New list to store the ongoing timers
-				ArrayList<TimerMessage> newlist = new ArrayList<TimerMessage>();
+			//Post all the due timers
+			long now = System.currentTimeMillis();
+			ArrayList<TimerHandle> due = getDueTimers(now);
+			for(TimerHandle handle : due) {
+				TimerMessage tm = handle.getMessage();
 				
-				//Current time
-				long time = System.currentTimeMillis();
+				//How late are we
+				addLatency(now - handle.mDeadline);
 				
-				//Cycle through all the timers
-				for(TimerMessage tm : mTimerMessages) {
-					//Get the time..
-					if(tm.getTimer()<time) {
-						//Who get's it
-						MessageProcessor process = tm.getProcessor();
-						
-						//And Post..
-						if(process.isRunning()) {
-							process.PostMessage(tm);
-						} else {
-							MinimaLogger.log("Timer Message NOT run as processor shutdown.. "+tm.toString());
-						}
-					}else {
-						//Keep for next test
-						newlist.add(tm);
-					}
-				}
+				//Who get's it
+				MessageProcessor process = tm.getProcessor();
 				
-				//Swap lists.
-				mTimerMessages = newlist;
+				//And Post..
+				if(process.isRunning()) {
+					process.PostMessage(tm);
+				} else {
+					MinimaLogger.log("Timer Message NOT run as processor shutdown.. "+tm.toString());
+				}
 			}
 			
-			//Small sleep.. 
-			try {Thread.sleep(1000);} catch (InterruptedException e) {mRunning = false;}
+			//Wait for the next one..
+			try {
+				waitForNextTimer();
+			} catch (InterruptedException e) {
+				mRunning = false;
+			}
 		}
 	}
-
 }
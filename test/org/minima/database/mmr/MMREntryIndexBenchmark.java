@@ -0,0 +1,102 @@
+package org.minima.database.mmr;
+
+import java.math.BigInteger;
+import java.util.Hashtable;
+
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+/**
+ * Compare the insert and lookup throughput of the MMREntryIndex against the 
+ * old "row:entry" String Hashtable.
+ * 
+ * Run the main method directly - not part of the unit tests.
+ */
+public class MMREntryIndexBenchmark {
+
+	static final int ENTRIES 	= 100000;
+	static final int ROUNDS 	= 10;
+	
+	static MMREntry[] mEntries;
+	
+	//Stop the JIT removing the work
+	static long mSink = 0;
+	
+	public static void main(String[] zArgs) {
+		
+		//The entries are created up front - same as in an MMR
+		mEntries = new MMREntry[ENTRIES];
+		MMRData data = new MMRData(new MiniData(new BigInteger("1")), MiniNumber.ONE);
+		for(int i=0;i<ENTRIES;i++) {
+			mEntries[i] = new MMREntry(i % 32, new MMREntryNumber(i), data);
+		}
+		
+		//Warm up..
+		for(int i=0;i<ROUNDS;i++) {
+			runHashtable();
+			runIndex();
+		}
+		
+		long[] hash 	= new long[2];
+		long[] index 	= new long[2];
+		for(int i=0;i<ROUNDS;i++) {
+			long[] res = runHashtable();
+			hash[0] += res[0];
+			hash[1] += res[1];
+			
+			res = runIndex();
+			index[0] += res[0];
+			index[1] += res[1];
+		}
+		
+		System.out.println("Entries per round : "+ENTRIES+" rounds : "+ROUNDS);
+		print("Hashtable insert", hash[0]);
+		print("Index     insert", index[0]);
+		print("Hashtable lookup", hash[1]);
+		print("Index     lookup", index[1]);
+		System.out.println("sink "+mSink);
+	}
+	
+	static void print(String zName, long zNanos) {
+		double opspersec = ((double)ENTRIES * ROUNDS * 1000000000L) / zNanos;
+		System.out.println(String.format("%s : %.0f ops/s", zName, opspersec));
+	}
+	
+	static long[] runHashtable() {
+		Hashtable<String, MMREntry> table = new Hashtable<>();
+		
+		long start = System.nanoTime();
+		for(MMREntry entry : mEntries) {
+			table.put(entry.getRow()+":"+entry.getEntryNumber().toString(), entry);
+		}
+		long insert = System.nanoTime() - start;
+		
+		start = System.nanoTime();
+		for(MMREntry entry : mEntries) {
+			MMREntry found = table.get(entry.getRow()+":"+entry.getEntryNumber().toString());
+			mSink += found.getRow();
+		}
+		long lookup = System.nanoTime() - start;
+		
+		return new long[] {insert, lookup};
+	}
+	
+	static long[] runIndex() {
+		MMREntryIndex table = new MMREntryIndex();
+		
+		long start = System.nanoTime();
+		for(MMREntry entry : mEntries) {
+			table.put(entry);
+		}
+		long insert = System.nanoTime() - start;
+		
+		start = System.nanoTime();
+		for(MMREntry entry : mEntries) {
+			MMREntry found = table.get(entry.getRow(), entry.getEntryNumber());
+			mSink += found.getRow();
+		}
+		long lookup = System.nanoTime() - start;
+		
+		return new long[] {insert, lookup};
+	}
+}
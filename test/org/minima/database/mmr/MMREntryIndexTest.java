@@ -0,0 +1,80 @@
+package org.minima.database.mmr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+public class MMREntryIndexTest {
+
+	private static MMRData getData(int zValue) {
+		return new MMRData(new MiniData(new BigInteger(""+(zValue+1))), new MiniNumber(zValue));
+	}
+	
+	@Test
+	public void testPutGet() {
+		MMREntryIndex index = new MMREntryIndex();
+		
+		//Enough to force a few resizes
+		for(int i=0;i<1000;i++) {
+			index.put(new MMREntry(i % 3, new MMREntryNumber(i), getData(i)));
+		}
+		assertEquals(1000, index.size());
+		assertEquals(1000, index.getAllEntries().size());
+		
+		for(int i=0;i<1000;i++) {
+			MMREntry entry = index.get(i % 3, new MMREntryNumber(i));
+			assertEquals(i, entry.getMMRData().getValue().getAsInt());
+		}
+		
+		//Wrong row
+		assertNull(index.get(5, new MMREntryNumber(1)));
+		assertNull(index.get(0, new MMREntryNumber(1000)));
+	}
+	
+	@Test
+	public void testOverwrite() {
+		MMREntryIndex index = new MMREntryIndex();
+		
+		index.put(new MMREntry(1, new MMREntryNumber(7), getData(1)));
+		MMREntry second = new MMREntry(1, new MMREntryNumber(7), getData(2));
+		index.put(second);
+		
+		assertEquals(1, index.size());
+		assertSame(second, index.get(1, new MMREntryNumber(7)));
+	}
+	
+	@Test
+	public void testScaledEntryNumber() {
+		MMREntryIndex index = new MMREntryIndex();
+		
+		//Same number - different scale.. as can be read from a stream 
+		MMREntry entry = new MMREntry(0, new MMREntryNumber(new BigDecimal("12.00")), getData(1));
+		index.put(entry);
+		
+		assertSame(entry, index.get(0, new MMREntryNumber(12)));
+		assertSame(entry, index.get(0, new MMREntryNumber(new BigDecimal("1.2E+1"))));
+	}
+	
+	@Test
+	public void testLargeEntryNumber() {
+		MMREntryIndex index = new MMREntryIndex();
+		
+		MMREntryNumber large = new MMREntryNumber(new BigInteger("2").pow(100));
+		assertEquals(MMREntryNumber.LONG_INVALID, large.getAsLongIndex());
+		
+		MMREntry entry = new MMREntry(3, large, getData(1));
+		index.put(entry);
+		index.put(new MMREntry(3, new MMREntryNumber(1), getData(2)));
+		
+		assertEquals(2, index.size());
+		assertSame(entry, index.get(3, new MMREntryNumber(new BigInteger("2").pow(100))));
+		assertNull(index.get(2, large));
+	}
+}
@@ -0,0 +1,191 @@
+package org.minima.database.mmr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+public class MMRSnapshotTest {
+
+	private static MMRData getData(int zValue) {
+		return new MMRData(new MiniData(new BigInteger(""+(zValue+1))), new MiniNumber(zValue));
+	}
+	
+	@Test
+	public void testPersistent() {
+		MMRSnapshot snap = MMRSnapshot.EMPTY;
+		
+		ArrayList<MMRSnapshot> versions = new ArrayList<>();
+		for(int i=0;i<2000;i++) {
+			MMREntry entry = new MMREntry(0, new MMREntryNumber(i), getData(i));
+			snap = snap.put(MMREntryIndex.getKey(0, entry.getEntryNumber()), entry, i);
+			versions.add(snap);
+		}
+		assertEquals(2000, snap.size());
+		
+		//Older versions are unchanged
+		for(int i=0;i<2000;i+=97) {
+			MMRSnapshot version = versions.get(i);
+			assertEquals(i+1, version.size());
+			assertEquals(i, version.get(MMREntryIndex.getKey(0, new MMREntryNumber(i))).getEntry().getMMRData().getValue().getAsInt());
+			assertNull(version.get(MMREntryIndex.getKey(0, new MMREntryNumber(i+1))));
+		}
+		
+		//Overwrite
+		MMREntry entry = new MMREntry(0, new MMREntryNumber(5), getData(500));
+		MMRSnapshot over = snap.put(MMREntryIndex.getKey(0, entry.getEntryNumber()), entry, 3000);
+		assertEquals(2000, over.size());
+		assertSame(entry, over.get(MMREntryIndex.getKey(0, new MMREntryNumber(5))).getEntry());
+		assertEquals(5, snap.get(MMREntryIndex.getKey(0, new MMREntryNumber(5))).getEntry().getMMRData().getValue().getAsInt());
+		
+		//Compact
+		MMRSnapshot compact = over.compact(1000);
+		assertEquals(1001, compact.size());
+		assertNull(compact.get(MMREntryIndex.getKey(0, new MMREntryNumber(6))));
+		assertSame(entry, compact.get(MMREntryIndex.getKey(0, new MMREntryNumber(5))).getEntry());
+	}
+	
+	/**
+	 * The old lookup - ask each parent in turn
+	 */
+	private static MMREntry walkParents(MMR zMMR, int zRow, MMREntryNumber zEntry, long zMaxBack) {
+		MMR current = zMMR;
+		while(current != null) {
+			if(current.getBlockTime().getAsLong() < zMaxBack) {
+				break;
+			}
+			
+			MMREntry entry = current.mSetEntries.get(zRow, zEntry);
+			if(entry != null) {
+				return entry;
+			}
+			
+			current = current.getParent();
+		}
+		
+		return new MMREntry(zRow, zEntry);
+	}
+	
+	private static void checkChain(ArrayList<MMR> zChain, int zStart, Random zRand) {
+		for(int i=0;i<3000;i++) {
+			MMR mmr 	= zChain.get(zStart + zRand.nextInt(zChain.size() - zStart));
+			int row 	= zRand.nextInt(6);
+			long max	= mmr.getEntryNumber().getAsLongIndex() >> row;
+			MMREntryNumber entry = new MMREntryNumber(zRand.nextInt((int)max+2));
+			long maxback = zRand.nextBoolean() ? 0 : zRand.nextInt((int)mmr.getBlockTime().getAsLong()+1);
+			
+			MMREntry expected 	= walkParents(mmr, row, entry, maxback);
+			MMREntry actual 	= mmr.getEntry(row, entry, new MiniNumber(maxback));
+			
+			assertEquals(expected.isEmpty(), actual.isEmpty());
+			if(!expected.isEmpty()) {
+				assertTrue(expected.getMMRData().isEqual(actual.getMMRData()));
+			}
+		}
+	}
+	
+	@Test
+	public void testChainLookups() {
+		Random rand = new Random(42);
+		
+		ArrayList<MMR> chain = new ArrayList<>();
+		ArrayList<MMREntryNumber> coins = new ArrayList<>();
+		
+		MMR mmr = new MMR();
+		coins.add(mmr.addEntry(getData(0)).getEntryNumber());
+		mmr.finalizeSet();
+		chain.add(mmr);
+		
+		//Each block adds and spends a few coins - more than a compaction interval
+		int value = 1;
+		for(int block=1;block<600;block++) {
+			MMR parent = mmr;
+			mmr = new MMR(parent);
+			
+			//Spend one
+			if(coins.size() > 4 && rand.nextBoolean()) {
+				MMREntryNumber spend = coins.remove(rand.nextInt(coins.size()));
+				MMRProof proof = parent.getProofToPeak(spend);
+				mmr.updateEntry(spend, proof, getData(0));
+			}
+			
+			int add = rand.nextInt(3);
+			for(int i=0;i<add;i++) {
+				coins.add(mmr.addEntry(getData(value++)).getEntryNumber());
+			}
+			
+			mmr.finalizeSet();
+			chain.add(mmr);
+		}
+		
+		checkChain(chain, 0, rand);
+		
+		//Change an MMR in the middle of the chain - as coinimport does
+		MMR middle = chain.get(400);
+		middle.setFinalized(false);
+		middle.setEntry(0, new MMREntryNumber(1), getData(9999));
+		middle.finalizeSet();
+		checkChain(chain, 0, rand);
+		
+		//Prune the chain
+		chain.get(300).clearParent();
+		checkChain(chain, 300, rand);
+		
+		//Copy entries to the new base before pruning - as copyParentRelevantCoins does
+		MMR base = chain.get(500);
+		base.setChainBase();
+		base.setFinalized(false);
+		for(int i=0;i<10;i++) {
+			MMREntryNumber coin = coins.get(rand.nextInt(coins.size()));
+			MMRData data = base.getEntry(0, coin).getMMRData();
+			if(data == null) {
+				continue;
+			}
+			base.updateEntry(coin, base.getProofToPeak(coin), data);
+		}
+		base.setFinalized(true);
+		base.clearParent();
+		checkChain(chain, 500, rand);
+	}
+	
+	@Test
+	public void testBlockTimes() {
+		MMR mmr = new MMR();
+		MMREntryNumber coin = mmr.addEntry(getData(7)).getEntryNumber();
+		
+		//So the coin is not a peak - peaks are copied to the next block
+		mmr.addEntry(getData(8));
+		mmr.finalizeSet();
+		
+		ArrayList<MMR> chain = new ArrayList<>();
+		chain.add(mmr);
+		for(int block=1;block<5;block++) {
+			mmr = new MMR(mmr);
+			mmr.finalizeSet();
+			chain.add(mmr);
+		}
+		assertEquals(4, mmr.getBlockTimeLong());
+		
+		//The coin was added at block 0 - a fraction after that is too far back
+		assertTrue(!mmr.getEntry(0, coin, MiniNumber.ZERO).isEmpty());
+		assertTrue(mmr.getEntry(0, coin, new MiniNumber("0.5")).isEmpty());
+		assertTrue(!mmr.getEntry(0, coin, new MiniNumber("-0.5")).isEmpty());
+		assertTrue(mmr.getEntry(0, coin, MiniNumber.MAXIMUM).isEmpty());
+		
+		//Only the exact time
+		assertSame(chain.get(2), mmr.getParentAtTime(new MiniNumber(2)));
+		assertSame(chain.get(2), mmr.getParentAtTime(new MiniNumber("2.000")));
+		assertNull(mmr.getParentAtTime(new MiniNumber("2.5")));
+		assertNull(mmr.getParentAtTime(new MiniNumber(9)));
+		assertNull(mmr.getParentAtTime(MiniNumber.MAXIMUM));
+		assertNull(mmr.getParentAtTime(MiniNumber.MINUSONE));
+	}
+}
@@ -1,14 +1,21 @@
 package org.minima.database.txpowdb.ram;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 
 import org.junit.Test;
+import org.minima.objects.Coin;
+import org.minima.objects.Token;
 import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
 import org.minima.objects.base.MiniNumber;
+import org.minima.utils.Crypto;
 import org.minima.utils.TestUtils;
 
 public class RamDBTest {
@@ -67,5 +74,198 @@ public class RamDBTest {
 	public void testCleanDB() {
 		
 	}
-
+	
+	private static TxPoW getSpendTxPoW(int zNonce, MiniData... zCoinIDs) {
+		TxPoW txp = new TxPoW();
+		txp.setNonce(new MiniNumber(zNonce));
+		for(MiniData coinid : zCoinIDs) {
+			txp.getTransaction().addInput(new Coin(coinid, new MiniData("0x01"), MiniNumber.ONE, Token.TOKENID_MINIMA));
+		}
+		txp.calculateTXPOWID();
+		return txp;
+	}
+	
+	@Test
+	public void testSpentCoins() {
+		RamDB txpdb = new RamDB();
+		
+		MiniData coin1 = new MiniData("0x01");
+		MiniData coin2 = new MiniData("0x02");
+		MiniData coin3 = new MiniData("0x03");
+		
+		TxPoW txp1 = getSpendTxPoW(1, coin1, coin2);
+		TxPoW txp2 = getSpendTxPoW(2, coin2);
+		txpdb.addTxPoW(txp1);
+		txpdb.addTxPoW(txp2);
+		
+		assertTrue(txpdb.checkForCoinID(coin1));
+		assertTrue(txpdb.checkForCoinID(coin2));
+		assertFalse(txpdb.checkForCoinID(coin3));
+		assertEquals(2, txpdb.getSpendingTxPoW(coin2).size());
+		
+		//Remove one - coin2 still spent by the other
+		txpdb.remove(txp1.getTxPoWID());
+		assertFalse(txpdb.checkForCoinID(coin1));
+		assertTrue(txpdb.checkForCoinID(coin2));
+		assertEquals(txp2.getTxPoWID(), txpdb.getSpendingTxPoW(coin2).get(0));
+		
+		//In the cascade no longer counts
+		txpdb.setInCascade(txp2.getTxPoWID());
+		assertFalse(txpdb.checkForCoinID(coin2));
+		
+		//Clean keeps recent ones
+		TxPoW txp3 = getSpendTxPoW(3, coin3);
+		txpdb.addTxPoW(txp3);
+		txpdb.cleanDB();
+		assertTrue(txpdb.checkForCoinID(coin3));
+		assertFalse(txpdb.checkForCoinID(coin2));
+		
+		//And removes old ones
+		txpdb.MAX_TIME = -1000;
+		txpdb.cleanDB();
+		assertFalse(txpdb.checkForCoinID(coin3));
+		assertEquals(0, txpdb.getSize());
+	}
+	
+	private static TxPoW getBurnTxPoW(int zNonce, int zBurn) {
+		TxPoW txp = new TxPoW();
+		txp.setNonce(new MiniNumber(zNonce));
+		txp.getTransaction().addInput(new Coin(MiniData.getRandomData(32), new MiniData("0x01"), new MiniNumber(100), Token.TOKENID_MINIMA));
+		txp.getTransaction().addOutput(new Coin(new MiniData("0x01"), new MiniNumber(100 - zBurn), Token.TOKENID_MINIMA));
+		
+		//Not a block
+		txp.setBlockDifficulty(MiniData.ZERO_TXPOWID);
+		txp.calculateTXPOWID();
+		return txp;
+	}
+	
+	@Test
+	public void testMemPoolOrder() {
+		RamDB txpdb = new RamDB();
+		
+		TxPoW low 		= getBurnTxPoW(1, 0);
+		TxPoW high 		= getBurnTxPoW(2, 10);
+		TxPoW middle 	= getBurnTxPoW(3, 5);
+		TxPoW middle2 	= getBurnTxPoW(4, 5);
+		txpdb.addTxPoW(low);
+		txpdb.addTxPoW(high);
+		txpdb.addTxPoW(middle);
+		txpdb.addTxPoW(middle2);
+		
+		//Highest burn first - then oldest
+		ArrayList<TxPoW> all = txpdb.getAllUnusedTxns();
+		assertEquals(4, all.size());
+		assertEquals(high.getTxPoWID(), all.get(0).getTxPoWID());
+		assertEquals(middle.getTxPoWID(), all.get(1).getTxPoWID());
+		assertEquals(middle2.getTxPoWID(), all.get(2).getTxPoWID());
+		assertEquals(low.getTxPoWID(), all.get(3).getTxPoWID());
+		
+		ArrayList<TxPoW> top = txpdb.getTopUnusedTxns(2);
+		assertEquals(2, top.size());
+		assertEquals(high.getTxPoWID(), top.get(0).getTxPoWID());
+		
+		//On the main chain are not unused
+		txpdb.setOnMainChain(high.getTxPoWID());
+		assertEquals(middle.getTxPoWID(), txpdb.getTopUnusedTxns(1).get(0).getTxPoWID());
+		txpdb.clearMainChainTxns();
+		
+		long size = low.getSizeinBytes() + high.getSizeinBytes() + middle.getSizeinBytes() + middle2.getSizeinBytes();
+		assertEquals(size, txpdb.getMemPoolSize());
+		
+		//Cap the size - the lowest priority are removed
+		txpdb.MAX_MEMPOOL_SIZE = size - 1;
+		TxPoW higher = getBurnTxPoW(5, 20);
+		txpdb.addTxPoW(higher);
+		
+		all = txpdb.getAllUnusedTxns();
+		assertTrue(txpdb.getMemPoolSize() <= txpdb.MAX_MEMPOOL_SIZE);
+		assertEquals(higher.getTxPoWID(), all.get(0).getTxPoWID());
+		assertFalse(txpdb.exists(low.getTxPoWID()));
+		assertFalse(txpdb.exists(middle2.getTxPoWID()));
+		assertTrue(txpdb.exists(middle.getTxPoWID()));
+		
+		//Removed from the mempool
+		txpdb.remove(higher.getTxPoWID());
+		assertEquals(high.getTxPoWID(), txpdb.getAllUnusedTxns().get(0).getTxPoWID());
+	}
+	
+	@Test
+	public void testMemPoolMainChain() {
+		RamDB txpdb = new RamDB();
+		
+		TxPoW chain1 = getBurnTxPoW(1, 0);
+		TxPoW chain2 = getBurnTxPoW(2, 0);
+		txpdb.addTxPoW(chain1);
+		txpdb.addTxPoW(chain2);
+		
+		//On the main chain do not count
+		txpdb.setOnMainChain(chain1.getTxPoWID());
+		txpdb.setOnMainChain(chain2.getTxPoWID());
+		assertEquals(0, txpdb.getMemPoolSize());
+		
+		//Main chain bytes alone are over the cap
+		txpdb.MAX_MEMPOOL_SIZE = chain1.getSizeinBytes();
+		
+		//Fits - nothing removed
+		TxPoW high = getBurnTxPoW(3, 10);
+		assertTrue(txpdb.addTxPoW(high));
+		assertEquals(high.getSizeinBytes(), txpdb.getMemPoolSize());
+		assertTrue(txpdb.exists(high.getTxPoWID()));
+		
+		//Lower priority and no room - removed straight away
+		TxPoW low = getBurnTxPoW(4, 5);
+		assertFalse(txpdb.addTxPoW(low));
+		assertFalse(txpdb.exists(low.getTxPoWID()));
+		assertTrue(txpdb.exists(high.getTxPoWID()));
+		assertTrue(txpdb.exists(chain1.getTxPoWID()));
+		assertTrue(txpdb.exists(chain2.getTxPoWID()));
+		assertEquals(high.getSizeinBytes(), txpdb.getMemPoolSize());
+		
+		//Off the main chain they count again
+		txpdb.MAX_MEMPOOL_SIZE = 0;
+		txpdb.clearMainChainTxns();
+		assertEquals(chain1.getSizeinBytes() + chain2.getSizeinBytes() + high.getSizeinBytes(), txpdb.getMemPoolSize());
+		
+		//And clean keeps the same count
+		txpdb.setOnMainChain(chain1.getTxPoWID());
+		txpdb.cleanDB();
+		assertEquals(chain2.getSizeinBytes() + high.getSizeinBytes(), txpdb.getMemPoolSize());
+	}
+	
+	@Test
+	public void testMemPoolBlock() {
+		RamDB txpdb = new RamDB();
+		
+		TxPoW high = getBurnTxPoW(1, 10);
+		txpdb.addTxPoW(high);
+		txpdb.MAX_MEMPOOL_SIZE = high.getSizeinBytes();
+		
+		//A zero burn block - the lowest priority
+		TxPoW block = getBurnTxPoW(2, 0);
+		block.setBlockDifficulty(Crypto.MAX_HASH);
+		block.calculateTXPOWID();
+		assertTrue(block.isBlock());
+		
+		//Full mempool - but kept and not counted
+		assertTrue(txpdb.addTxPoW(block));
+		assertTrue(txpdb.exists(block.getTxPoWID()));
+		assertTrue(txpdb.exists(high.getTxPoWID()));
+		assertEquals(high.getSizeinBytes(), txpdb.getMemPoolSize());
+		
+		//Still an unused txn for the miner
+		assertEquals(2, txpdb.getAllUnusedTxns().size());
+		
+		//A lower priority txn is still removed
+		TxPoW low = getBurnTxPoW(3, 5);
+		assertFalse(txpdb.addTxPoW(low));
+		assertFalse(txpdb.exists(low.getTxPoWID()));
+		assertTrue(txpdb.exists(block.getTxPoWID()));
+		
+		//On and off the main chain does not change the count
+		txpdb.setOnMainChain(block.getTxPoWID());
+		txpdb.clearMainChainTxns();
+		txpdb.cleanDB();
+		assertEquals(high.getSizeinBytes(), txpdb.getMemPoolSize());
+		assertTrue(txpdb.exists(block.getTxPoWID()));
+	}
 }
@@ -0,0 +1,162 @@
+package org.minima.database.txpowdb.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+public class TxPoWSqlDBTest {
+
+	private static TxPoW getTxPoW(int zNonce, MiniData zParent) {
+		TxPoW txp = new TxPoW();
+		txp.setNonce(new MiniNumber(zNonce));
+		txp.setSuperParent(0, zParent);
+		txp.calculateTXPOWID();
+		return txp;
+	}
+	
+	@Test
+	public void testBatchedWrites() throws Exception {
+		File folder = Files.createTempDirectory("txpowsql").toFile();
+		File dbfile = new File(folder, "txpowdb");
+		
+		TxPoWSqlDB db = new TxPoWSqlDB();
+		db.loadDB(dbfile);
+		
+		MiniData parent = new MiniData("0xFFEEFF");
+		
+		ArrayList<String> ids = new ArrayList<>();
+		for(int i=0;i<1000;i++) {
+			TxPoW txp = getTxPoW(i, parent);
+			db.addTxPoW(txp);
+			ids.add(txp.getTxPoWID());
+			
+			//Found straight away - written or not
+			assertTrue(db.exists(txp.getTxPoWID()));
+			assertNotNull(db.getTxPoW(txp.getTxPoWID()));
+		}
+		assertFalse(db.exists("0x00"));
+		assertTrue(db.getBloomAbsent() > 0);
+		
+		//Counts and searches see everything
+		assertEquals(1000, db.getSize());
+		assertEquals(0, db.getPendingSize());
+		
+		//Save and reload
+		db.addTxPoW(getTxPoW(1000, parent));
+		db.saveDB();
+		
+		db = new TxPoWSqlDB();
+		db.loadDB(dbfile);
+		assertEquals(1001, db.getSize());
+		
+		//Filter filled from the DB
+		for(String id : ids) {
+			assertTrue(db.exists(id));
+		}
+		for(String id : ids) {
+			assertEquals(id, db.getTxPoW(id).getTxPoWID());
+		}
+		db.saveDB();
+		
+		for(File ff : folder.listFiles()) {
+			ff.delete();
+		}
+		folder.delete();
+	}
+	
+	/**
+	 * Fails to write one TxPoW until told not to
+	 */
+	private static class FailingSqlDB extends TxPoWSqlDB {
+		volatile String mFailID = null;
+		
+		@Override
+		protected void setInsertParams(TxPoW zTxPoW, long zTimeNow) throws SQLException {
+			if(zTxPoW.getTxPoWID().equals(mFailID)) {
+				throw new SQLException("Test failure");
+			}
+			super.setInsertParams(zTxPoW, zTimeNow);
+		}
+	}
+	
+	@Test
+	public void testFailedWrites() throws Exception {
+		File folder = Files.createTempDirectory("txpowsql").toFile();
+		File dbfile = new File(folder, "txpowdb");
+		
+		FailingSqlDB db = new FailingSqlDB();
+		db.loadDB(dbfile);
+		
+		MiniData parent = new MiniData("0xFFEEFF");
+		TxPoW fail 		= getTxPoW(0, parent);
+		db.mFailID 		= fail.getTxPoWID();
+		
+		db.addTxPoW(fail);
+		for(int i=1;i<10;i++) {
+			db.addTxPoW(getTxPoW(i, parent));
+		}
+		
+		//The rest are written - the failed one is still waiting and still found
+		assertFalse(db.flush());
+		assertEquals(1, db.getPendingSize());
+		assertTrue(db.exists(fail.getTxPoWID()));
+		assertNotNull(db.getTxPoW(fail.getTxPoWID()));
+		
+		//Now it works
+		db.mFailID = null;
+		assertTrue(db.flush());
+		assertEquals(0, db.getPendingSize());
+		assertEquals(10, db.getSize());
+		db.saveDB();
+		
+		for(File ff : folder.listFiles()) {
+			ff.delete();
+		}
+		folder.delete();
+	}
+	
+	@Test
+	public void testDroppedWrites() throws Exception {
+		File folder = Files.createTempDirectory("txpowsql").toFile();
+		File dbfile = new File(folder, "txpowdb");
+		
+		FailingSqlDB db = new FailingSqlDB();
+		db.loadDB(dbfile);
+		
+		MiniData parent = new MiniData("0xFFEEFF");
+		TxPoW fail 		= getTxPoW(0, parent);
+		db.mFailID 		= fail.getTxPoWID();
+		db.addTxPoW(fail);
+		db.addTxPoW(getTxPoW(1, parent));
+		
+		//Never works - tried a few times then dropped
+		int flushes = 0;
+		while(db.getPendingSize() > 0 && flushes < TxPoWSqlDB.MAX_WRITE_ATTEMPTS) {
+			db.flush();
+			flushes++;
+		}
+		assertEquals(0, db.getPendingSize());
+		assertFalse(db.exists(fail.getTxPoWID()));
+		assertEquals(1, db.getSize());
+		
+		//Nothing left to try
+		assertTrue(db.flush());
+		db.saveDB();
+		
+		for(File ff : folder.listFiles()) {
+			ff.delete();
+		}
+		folder.delete();
+	}
+}
@@ -0,0 +1,141 @@
+package org.minima.database.txpowtree;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.minima.database.mmr.MMREntryNumber;
+import org.minima.objects.Coin;
+import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+public class RelevantCoinIndexTest {
+
+	private static final MiniData TOKEN1 	= new MiniData("0x00");
+	private static final MiniData TOKEN2 	= new MiniData("0xFFEE");
+	private static final MiniData ADDRESS1 	= new MiniData("0x01");
+	private static final MiniData ADDRESS2 	= new MiniData("0x02");
+
+	private int mEntry = 0;
+
+	private Coin createCoin(String zCoinID, MiniData zAddress, MiniData zTokenID, int zBlock, boolean zSpent) {
+		Coin coin = new Coin(new MiniData(zCoinID), zAddress, MiniNumber.ONE, zTokenID);
+		coin.setBlockCreated(new MiniNumber(zBlock));
+		coin.setMMREntryNumber(new MMREntryNumber(mEntry++));
+		coin.setSpent(zSpent);
+		return coin;
+	}
+
+	private TxPoWTreeNode createNode(TxPoWTreeNode zParent, String zTxPoWID, int zBlock, Coin... zCoins) {
+		TxPoWTreeNode node = new TxPoWTreeNode(new TxPoW(zTxPoWID, zBlock, 1));
+		for(Coin coin : zCoins) {
+			node.mComputedRelevantCoins.add(coin);
+		}
+		if(zParent != null) {
+			zParent.addChildNode(node);
+		}
+		return node;
+	}
+
+	/**
+	 * What walking back from the tip finds
+	 */
+	private ArrayList<String> walk(TxPoWTreeNode zTip, MiniData zTokenID) {
+		ArrayList<String> ret 	= new ArrayList<>();
+		HashSet<String> spent 	= new HashSet<>();
+		TxPoWTreeNode tip 		= zTip;
+		while(tip != null) {
+			for(Coin coin : tip.getRelevantCoins()) {
+				if(zTokenID != null && !coin.getTokenID().isEqual(zTokenID)) {
+					continue;
+				}
+
+				String coinid = coin.getCoinID().to0xString();
+				if(!spent.contains(coinid)) {
+					if(!coin.getSpent()) {
+						ret.add(coinid);
+					}
+					spent.add(coinid);
+				}
+			}
+			tip = tip.getParent();
+		}
+		return ret;
+	}
+
+	private ArrayList<String> search(RelevantCoinIndex zIndex, TxPoWTreeNode zTip, MiniData zTokenID) {
+		ArrayList<Coin> coins = zIndex.searchCoins(zTip, false, null, false, null, false, null, zTokenID != null, zTokenID);
+		ArrayList<String> ret = new ArrayList<>();
+		for(Coin coin : coins) {
+			ret.add(coin.getCoinID().to0xString());
+		}
+		return ret;
+	}
+
+	private void check(RelevantCoinIndex zIndex, TxPoWTreeNode zTip) {
+		assertEquals(walk(zTip, null), search(zIndex, zTip, null));
+		assertEquals(walk(zTip, TOKEN1), search(zIndex, zTip, TOKEN1));
+		assertEquals(walk(zTip, TOKEN2), search(zIndex, zTip, TOKEN2));
+	}
+
+	@Test
+	public void testChain() {
+		RelevantCoinIndex index = new RelevantCoinIndex();
+
+		TxPoWTreeNode root 	= createNode(null, "0x00", 0, createCoin("0x10", ADDRESS1, TOKEN1, 0, false),
+															createCoin("0x11", ADDRESS2, TOKEN2, 0, false));
+		check(index, root);
+		assertEquals(2, index.getSize(root));
+
+		TxPoWTreeNode b1 	= createNode(root, "0x01", 1, createCoin("0x10", ADDRESS1, TOKEN1, 0, true),
+															createCoin("0x12", ADDRESS1, TOKEN1, 1, false));
+		check(index, b1);
+
+		TxPoWTreeNode b2 	= createNode(b1, "0x02", 2, createCoin("0x13", ADDRESS2, TOKEN1, 2, false));
+		check(index, b2);
+		assertEquals(3, index.getBlocks());
+
+		//Search by address and coinid
+		assertEquals(1, index.searchCoins(b2, false, null, false, null, true, ADDRESS1, false, null).size());
+		assertEquals(1, index.searchCoins(b2, true, new MiniData("0x11"), false, null, false, null, false, null).size());
+		assertEquals(0, index.searchCoins(b2, true, new MiniData("0x10"), false, null, false, null, false, null).size());
+
+		//Newest first
+		assertEquals("0x13", search(index, b2, null).get(0));
+	}
+
+	@Test
+	public void testReorg() {
+		RelevantCoinIndex index = new RelevantCoinIndex();
+
+		TxPoWTreeNode root 	= createNode(null, "0x00", 0, createCoin("0x10", ADDRESS1, TOKEN1, 0, false),
+															createCoin("0x11", ADDRESS1, TOKEN2, 0, false));
+
+		//One branch spends 0x10
+		TxPoWTreeNode a1 	= createNode(root, "0x01", 1, createCoin("0x10", ADDRESS1, TOKEN1, 0, true),
+															createCoin("0x20", ADDRESS1, TOKEN1, 1, false));
+		TxPoWTreeNode a2 	= createNode(a1, "0x02", 2, createCoin("0x20", ADDRESS1, TOKEN1, 1, true));
+		check(index, a2);
+
+		//The other spends 0x11
+		TxPoWTreeNode b1 	= createNode(root, "0x03", 1, createCoin("0x11", ADDRESS1, TOKEN2, 0, true));
+		TxPoWTreeNode b2 	= createNode(b1, "0x04", 2, createCoin("0x30", ADDRESS2, TOKEN2, 2, false));
+		check(index, b2);
+
+		//And back again
+		check(index, a2);
+		check(index, a1);
+		check(index, b2);
+
+		//A tip we have never seen - rebuilt
+		TxPoWTreeNode other = createNode(null, "0x05", 0, createCoin("0x40", ADDRESS1, TOKEN1, 0, false));
+		check(index, other);
+		assertEquals(1, index.getBlocks());
+
+		//Nothing
+		assertEquals(0, search(index, null, null).size());
+	}
+}
@@ -0,0 +1,96 @@
+package org.minima.database.txpowtree;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.minima.objects.TxPoW;
+import org.minima.system.params.GlobalParams;
+
+/**
+ * Replay a few thousand blocks with forks - adding each block incrementally with addNode
+ * against the old way of recalculating the whole tree after every block.
+ * 
+ * Run the main method directly - not part of the unit tests.
+ */
+public class TxPowTreeBenchmark {
+
+	static final int BLOCKS = 5000;
+	
+	/**
+	 * The parent of each block as an index into the block list - and the block weight
+	 */
+	static int[] mParents;
+	static int[] mWeights;
+	
+	public static void main(String[] zArgs) {
+		
+		//Create the block list.. mostly a chain with some short forks
+		Random rand = new Random(1);
+		mParents = new int[BLOCKS];
+		mWeights = new int[BLOCKS];
+		int tip = 0;
+		for(int i=1;i<BLOCKS;i++) {
+			if(rand.nextInt(5) == 0) {
+				//Fork from a recent block
+				mParents[i] = Math.max(0, tip - rand.nextInt(4));
+			}else {
+				mParents[i] = i-1;
+				tip = i;
+			}
+			mWeights[i] = 1 + rand.nextInt(3);
+		}
+		
+		//Warm up
+		replay(false);
+		replay(true);
+		
+		long full 	= replay(false);
+		long incr 	= replay(true);
+		
+		System.out.println("Blocks replayed : "+BLOCKS);
+		System.out.println(String.format("recalculateTree per block : %d ms (%.1f blocks/s)", full / 1000000, BLOCKS * 1000000000.0 / full));
+		System.out.println(String.format("addNode incremental       : %d ms (%.1f blocks/s)", incr / 1000000, BLOCKS * 1000000000.0 / incr));
+	}
+	
+	static long replay(boolean zIncremental) {
+		int maxlen 		= GlobalParams.MINIMA_CASCADE_START_DEPTH.add(GlobalParams.MINIMA_CASCADE_FREQUENCY).getAsInt();
+		int cascadelen 	= GlobalParams.MINIMA_CASCADE_START_DEPTH.getAsInt();
+		
+		//Create all the nodes first
+		ArrayList<TxPoWTreeNode> nodes = new ArrayList<>();
+		nodes.add(new TxPoWTreeNode(new TxPoW("0x00", 0, 1)));
+		for(int i=1;i<BLOCKS;i++) {
+			int blocknumber = nodes.get(mParents[i]).getBlockNumber().getAsInt() + 1;
+			nodes.add(new TxPoWTreeNode(new TxPoW("0x"+Integer.toHexString(i), blocknumber, mWeights[i])));
+		}
+		
+		TxPowTree tree = new TxPowTree();
+		tree.setRoot(nodes.get(0));
+		
+		long start = System.nanoTime();
+		for(int i=1;i<BLOCKS;i++) {
+			TxPoWTreeNode parent 	= nodes.get(mParents[i]);
+			TxPoWTreeNode node 		= nodes.get(i);
+			
+			//Parent may have been pruned
+			if(tree.findNode(parent.getTxPoW().getTxPoWID()) == null) {
+				continue;
+			}
+			
+			if(zIncremental) {
+				tree.addNode(parent, node);
+			}else {
+				parent.addChildNode(node);
+				tree.addFastLink(node);
+				tree.recalculateTree();
+			}
+			
+			//Same as the TxPoWProcessor
+			if(tree.getHeaviestBranchLength() >= maxlen) {
+				tree.setLength(cascadelen);
+			}
+		}
+		
+		return System.nanoTime() - start;
+	}
+}
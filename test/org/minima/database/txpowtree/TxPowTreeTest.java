@@ -4,10 +4,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.Test;
 import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.brains.TxPoWGenerator;
 
 public class TxPowTreeTest {
 	
@@ -246,4 +250,98 @@ public class TxPowTreeTest {
 		
 	}
 
+	@Test
+	public void testAddNodeIncremental() {
+		Random rand = new Random(7);
+		
+		//One tree updated as each node is added - the other fully recalculated
+		TxPowTree tree 		= new TxPowTree();
+		TxPowTree checktree = new TxPowTree();
+		
+		TxPoWTreeNode root = new TxPoWTreeNode(new TxPoW("0x00", 0, 1));
+		tree.setRoot(root);
+		
+		ArrayList<TxPoWTreeNode> nodes = new ArrayList<>();
+		nodes.add(root);
+		for(int i=1;i<500;i++) {
+			//Usually build on the tip - sometimes fork from a recent block
+			TxPoWTreeNode parent = tree.getTip();
+			if(rand.nextInt(4) == 0) {
+				parent = nodes.get(Math.max(0, nodes.size() - 1 - rand.nextInt(10)));
+			}
+			
+			TxPoWTreeNode node = new TxPoWTreeNode(new TxPoW("0x"+Integer.toHexString(i+256), 
+					parent.getBlockNumber().getAsInt()+1, 1+rand.nextInt(3)));
+			tree.addNode(parent, node);
+			nodes.add(node);
+			
+			//Prune now and then
+			if(i % 100 == 0) {
+				tree.setLength(40);
+				nodes.removeIf(n -> tree.findNode(n.getTxPoW().getTxPoWID()) == null);
+			}
+			
+			TxPoWTreeNode tip 		= tree.getTip();
+			BigDecimal rootweight 	= tree.getRoot().getTotalWeight();
+			int length 				= tree.getHeaviestBranchLength();
+			int size 				= tree.getSize();
+			
+			checktree.mRoot = tree.getRoot();
+			checktree.recalculateTree();
+			
+			assertEquals(checktree.getTip(), tip);
+			assertEquals(0, checktree.getRoot().getTotalWeight().compareTo(rootweight));
+			assertEquals(checktree.getHeaviestBranchLength(), length);
+			assertEquals(checktree.getSize(), size);
+		}
+	}
+
+	
+	/**
+	 * A chain of blocks 0 to 9 - returns the tip
+	 */
+	private TxPoWTreeNode createChain(String[] zTimes) {
+		TxPoWTreeNode tip = null;
+		for(int i=0;i<zTimes.length;i++) {
+			TxPoW txpow = new TxPoW("0x0"+i, i, 1);
+			txpow.setTimeMilli(new MiniNumber(zTimes[i]));
+			
+			TxPoWTreeNode node = new TxPoWTreeNode(txpow);
+			if(tip != null) {
+				tip.addChildNode(node);
+			}
+			tip = node;
+		}
+		return tip;
+	}
+	
+	@Test
+	public void testPastNode() {
+		TxPoWTreeNode tip = createChain(new String[] {"0","1","2","3","4","5","6","7","8","9"});
+		
+		assertEquals(9, tip.getBlockNumberLong());
+		assertEquals("0x05", tip.getPastNode(new MiniNumber(5)).getTxPoW().getTxPoWID());
+		assertEquals("0x05", tip.getPastNode(new MiniNumber("5.00")).getTxPoW().getTxPoWID());
+		assertEquals("0x00", tip.getPastNode(MiniNumber.ZERO).getTxPoW().getTxPoWID());
+		assertNull(tip.getPastNode(new MiniNumber("5.5")));
+		assertNull(tip.getPastNode(new MiniNumber(10)));
+		assertNull(tip.getPastNode(MiniNumber.MAXIMUM));
+	}
+	
+	@Test
+	public void testMedianTime() {
+		//Times that only differ after the decimal point - and are out of order
+		String[] times = {"100.9", "100.1", "100.5", "99", "101", "100.5000", "100.3"};
+		TxPoWTreeNode tip = createChain(times);
+		
+		ArrayList<MiniNumber> sorted = new ArrayList<>();
+		for(String time : times) {
+			sorted.add(new MiniNumber(time));
+		}
+		sorted.sort(null);
+		
+		MiniNumber median = TxPoWGenerator.getMedianTime(tip);
+		assertEquals(sorted.get(sorted.size() / 2).toString(), median.toString());
+		assertEquals("100.5", median.toString());
+	}
 }
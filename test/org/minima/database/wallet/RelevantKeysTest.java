@@ -0,0 +1,74 @@
+package org.minima.database.wallet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.minima.objects.Coin;
+import org.minima.objects.StateVariable;
+import org.minima.objects.Token;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+
+public class RelevantKeysTest {
+
+	private static final String SIMPLE_PUBKEY 	= new MiniData("0x1111").to0xString();
+	private static final String SIMPLE_ADDRESS 	= new MiniData("0x2222").to0xString();
+	private static final String SCRIPT_ADDRESS 	= new MiniData("0x3333").to0xString();
+	private static final String UNTRACKED 		= new MiniData("0x4444").to0xString();
+
+	private RelevantKeys createKeys() {
+		ArrayList<KeyRow> keys = new ArrayList<>();
+		keys.add(new KeyRow("0x00", SIMPLE_PUBKEY, SIMPLE_ADDRESS, "RETURN TRUE", true));
+		keys.add(new KeyRow("", "", SCRIPT_ADDRESS, "RETURN FALSE", true));
+		keys.add(new KeyRow("", "", UNTRACKED, "RETURN TRUE", false));
+		return new RelevantKeys(keys, 7);
+	}
+
+	private Coin createCoin(String zAddress, String zState) {
+		Coin coin = new Coin(MiniData.ZERO_TXPOWID, new MiniData(zAddress), MiniNumber.ONE, Token.TOKENID_MINIMA);
+		if(zState != null) {
+			ArrayList<StateVariable> state = new ArrayList<>();
+			state.add(new StateVariable(0, zState));
+			coin.setState(state);
+		}
+		return coin;
+	}
+
+	@Test
+	public void testAddress() {
+		RelevantKeys keys = createKeys();
+		assertEquals(7, keys.getVersion());
+		assertEquals(3, keys.getSize());
+
+		assertTrue(keys.isRelevant(createCoin(SIMPLE_ADDRESS, null)));
+		assertTrue(keys.isRelevant(createCoin(SCRIPT_ADDRESS, null)));
+
+		//Not tracked
+		assertFalse(keys.isRelevant(createCoin(UNTRACKED, null)));
+		assertFalse(keys.isRelevant(createCoin("0x5555", null)));
+	}
+
+	@Test
+	public void testState() {
+		RelevantKeys keys = createKeys();
+
+		//Public key or tracked address in the state
+		assertTrue(keys.isRelevant(createCoin("0x5555", SIMPLE_PUBKEY)));
+		assertTrue(keys.isRelevant(createCoin("0x5555", SCRIPT_ADDRESS)));
+
+		assertFalse(keys.isRelevant(createCoin("0x5555", UNTRACKED)));
+		assertFalse(keys.isRelevant(createCoin("0x5555", "12")));
+	}
+
+	@Test
+	public void testSimpleAddress() {
+		RelevantKeys keys = createKeys();
+		assertTrue(keys.isSimpleAddress(SIMPLE_ADDRESS));
+		assertFalse(keys.isSimpleAddress(SCRIPT_ADDRESS));
+		assertFalse(keys.isSimpleAddress(UNTRACKED));
+	}
+}
@@ -0,0 +1,85 @@
+package org.minima.objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniNumber;
+
+public class IBDTests {
+
+	private IBD createIBD(int zBlocks) {
+		IBD ibd = new IBD();
+		for(int i=0;i<zBlocks;i++) {
+			TxPoW txpow = new TxPoW();
+			txpow.setBlockNumber(new MiniNumber(i));
+			txpow.calculateTXPOWID();
+			ibd.getTxBlocks().add(new TxBlock(txpow));
+		}
+		return ibd;
+	}
+	
+	private byte[] write(IBD zIBD) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(baos);
+		zIBD.writeDataStream(dos);
+		dos.flush();
+		return baos.toByteArray();
+	}
+	
+	@Test
+	public void testLimitBlocks() throws Exception {
+		//By number
+		IBD ibd = createIBD(10);
+		ibd.limitBlocks(4, Long.MAX_VALUE);
+		assertEquals(4, ibd.getTxBlocks().size());
+		assertTrue(ibd.hasMoreBlocks());
+		
+		//The first ones are kept
+		for(int i=0;i<4;i++) {
+			assertEquals(i, ibd.getTxBlocks().get(i).getTxPoW().getBlockNumber().getAsInt());
+		}
+		
+		//All fit
+		ibd = createIBD(3);
+		ibd.limitBlocks(4, Long.MAX_VALUE);
+		assertEquals(3, ibd.getTxBlocks().size());
+		assertFalse(ibd.hasMoreBlocks());
+		
+		//By size - always at least one
+		ibd = createIBD(5);
+		ibd.limitBlocks(100, 1);
+		assertEquals(1, ibd.getTxBlocks().size());
+		assertTrue(ibd.hasMoreBlocks());
+	}
+	
+	@Test
+	public void testPageStream() throws Exception {
+		IBD ibd = createIBD(5);
+		ibd.mIsPage = true;
+		ibd.limitBlocks(3, Long.MAX_VALUE);
+		
+		byte[] data = write(ibd);
+		
+		IBD page = IBD.ReadPageFromStream(new DataInputStream(new ByteArrayInputStream(data)));
+		assertTrue(page.isPage());
+		assertTrue(page.hasMoreBlocks());
+		assertFalse(page.hasCascade());
+		assertEquals(3, page.getTxBlocks().size());
+		assertEquals(ibd.getTxBlocks().get(2).getTxPoW().getTxPoWID(), page.getTxBlocks().get(2).getTxPoW().getTxPoWID());
+		
+		//A normal IBD has no page flag
+		IBD full = createIBD(2);
+		data = write(full);
+		IBD read = IBD.ReadFromStream(new DataInputStream(new ByteArrayInputStream(data)));
+		assertFalse(read.isPage());
+		assertFalse(read.hasMoreBlocks());
+		assertEquals(2, read.getTxBlocks().size());
+	}
+}
@@ -1,5 +1,6 @@
 package org.minima.objects;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -24,8 +25,8 @@ public class TxHeaderTests {
         TxHeader mHeader = new TxHeader();
         mHeader.mTxBodyHash = Crypto.getInstance().hashObject(new MiniData("0x1234"));
         mHeader.mBlockDifficulty = new MiniData("0xffff");
-        mHeader.mTimeMilli = new MiniNumber(99999999);
-        mHeader.mBlockNumber = new MiniNumber(123450);
+        mHeader.setTimeMilli(new MiniNumber(99999999));
+        mHeader.setBlockNumber(new MiniNumber(123450));
         mHeader.mNonce = new MiniNumber(900000);
         assertTrue("tx header should have a body hash", mHeader.getBodyHash() != null);
         assertTrue("body hash should not be empty", mHeader.getBodyHash().isMore(new MiniData("0x0")));
@@ -50,4 +51,25 @@ public class TxHeaderTests {
         }
 
     }
+
+	@Test
+	public void testLongViews() throws IOException {
+		TxHeader header = new TxHeader();
+		header.setTimeMilli(new MiniNumber(99999999));
+		header.setBlockNumber(new MiniNumber(123450));
+		assertEquals(99999999, header.getTimeMilliLong());
+		assertEquals(123450, header.getBlockNumberLong());
+
+		//Read back in..
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		header.writeDataStream(new DataOutputStream(bos));
+		TxHeader read = new TxHeader();
+		read.readDataStream(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+		assertEquals(99999999, read.getTimeMilliLong());
+		assertEquals(123450, read.getBlockNumberLong());
+
+		//Too large for a long
+		header.setBlockNumber(MiniNumber.MAXIMUM);
+		assertEquals(Long.MAX_VALUE, header.getBlockNumberLong());
+	}
 }
@@ -0,0 +1,312 @@
+package org.minima.objects.base;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import org.minima.utils.Streamable;
+
+/**
+ * The LegacyMiniNumber before it used longs - to check the new one gives exactly the same results
+ */
+public class LegacyMiniNumber implements Streamable, Comparable<LegacyMiniNumber> {
+	
+	/**
+	 * The MAX Number of Significant digits for any MiniNUmber
+	 */
+	public static final int MAX_DIGITS = 64;
+	
+	/**
+	 * MAX number is 8 byte unsigned long.. 2^64 -1 .. 20 digits
+	 */
+	public static final int MAX_DECIMAL_PLACES = MAX_DIGITS - 20;
+	
+	/** 
+	 * The base Math Context used for all operations
+	 */
+	public static final MathContext MATH_CONTEXT = new MathContext(MAX_DIGITS, RoundingMode.DOWN);
+	
+	/**
+	 * The MAXIMUM value any LegacyMiniNumber can be..
+	 * 
+	 * 2^64 - 1 or as HEX 0xFFFFFFFFFFFFFFFF
+	 */
+	public static final BigDecimal MAX_MININUMBER = new BigDecimal(2).pow(64).subtract(BigDecimal.ONE);
+	
+	/**
+	 * The Minimum value any LegacyMiniNumber can be..
+	 */
+	public static final BigDecimal MIN_MININUMBER = MAX_MININUMBER.negate();
+	
+	/**
+	 * The smallest unit possible
+	 */
+	public static final LegacyMiniNumber MINI_UNIT = new LegacyMiniNumber("1E-"+MAX_DECIMAL_PLACES);
+
+	/**
+	 * The Maximum possible LegacyMiniNumber
+	 */
+	public static final LegacyMiniNumber MAXIMUM 	 = new LegacyMiniNumber(MAX_MININUMBER);
+	
+	/**
+	 * Useful numbers
+	 */
+	public static final LegacyMiniNumber ZERO 		= new LegacyMiniNumber("0");
+	public static final LegacyMiniNumber ONE 		    = new LegacyMiniNumber("1");
+	public static final LegacyMiniNumber TWO 		    = new LegacyMiniNumber("2");
+	public static final LegacyMiniNumber FOUR 		= new LegacyMiniNumber("4");
+	public static final LegacyMiniNumber EIGHT        = new LegacyMiniNumber("8");
+	public static final LegacyMiniNumber TWELVE       = new LegacyMiniNumber("12");
+	public static final LegacyMiniNumber SIXTEEN      = new LegacyMiniNumber("16");
+	public static final LegacyMiniNumber THIRTYTWO    = new LegacyMiniNumber("32");
+	public static final LegacyMiniNumber FIFTY    	= new LegacyMiniNumber("50");
+	public static final LegacyMiniNumber SIXTYFOUR    = new LegacyMiniNumber("64");
+	public static final LegacyMiniNumber TWOFIVESIX   = new LegacyMiniNumber("256");
+	public static final LegacyMiniNumber FIVEONE12    = new LegacyMiniNumber("512");
+	public static final LegacyMiniNumber THOUSAND24   = new LegacyMiniNumber("1024");
+	
+	public static final LegacyMiniNumber TEN          = new LegacyMiniNumber("1E1");
+	public static final LegacyMiniNumber HUNDRED      = new LegacyMiniNumber("1E2");
+	public static final LegacyMiniNumber THOUSAND     = new LegacyMiniNumber("1E3");
+	public static final LegacyMiniNumber MILLION      = new LegacyMiniNumber("1E6");
+	public static final LegacyMiniNumber HUNDMILLION  = new LegacyMiniNumber("1E8");
+	public static final LegacyMiniNumber BILLION      = new LegacyMiniNumber("1E9");
+	public static final LegacyMiniNumber TRILLION     = new LegacyMiniNumber("1E12");
+	
+	public static final LegacyMiniNumber MINUSONE 	= new LegacyMiniNumber("-1");
+	
+	/**
+	 * The number representation
+	 */
+	private BigDecimal mNumber;
+	
+	/**
+	 * Many different COnstructors for all number types
+	 */
+	public LegacyMiniNumber(){
+		mNumber = new BigDecimal(0,MATH_CONTEXT);
+	}
+	
+	public LegacyMiniNumber(int zNumber){
+		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
+		checkLimits();
+	}
+	
+	public LegacyMiniNumber(long zNumber){
+		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
+		checkLimits();
+	}
+
+	public LegacyMiniNumber(BigInteger zNumber){
+		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
+		checkLimits();
+	}
+	
+	public LegacyMiniNumber(BigDecimal zNumber){
+		mNumber = new BigDecimal(zNumber.toPlainString(),MATH_CONTEXT);
+		checkLimits();
+	}
+	
+	public LegacyMiniNumber(LegacyMiniNumber zMiniNumber){
+		mNumber = zMiniNumber.getAsBigDecimal();
+		checkLimits();
+	}
+	
+	public LegacyMiniNumber(String zNumber){
+		mNumber = new BigDecimal(zNumber,MATH_CONTEXT);
+		checkLimits();
+	}
+	
+	public BigDecimal getNumber() {
+		return getAsBigDecimal();
+	}
+	
+	/**
+	 * Check LegacyMiniNumber is within the acceptable range
+	 */
+	private void checkLimits() {
+		if(mNumber.scale() > MAX_DECIMAL_PLACES) {
+			mNumber = mNumber.setScale(MAX_DECIMAL_PLACES, RoundingMode.DOWN);
+		}
+		
+		if(mNumber.compareTo(MAX_MININUMBER)>0) {
+			throw new NumberFormatException("LegacyMiniNumber too large - outside allowed range 2^64 "+mNumber);
+		}
+		
+		if(mNumber.compareTo(MIN_MININUMBER)<0) {
+			throw new NumberFormatException("LegacyMiniNumber too small - outside allowed range -(2^64)");
+		}
+	}
+	
+	/**
+	 * Is this a valid number for an input or an output in Minima
+	 * @return true false..
+	 */
+	public boolean isValidMinimaValue() {
+		return isLessEqual(LegacyMiniNumber.BILLION) && isMore(LegacyMiniNumber.ZERO);
+	}
+	
+	/**
+	 * Convert to various normal number types
+	 */
+	public BigDecimal getAsBigDecimal() {
+		return mNumber;
+	}
+	
+	public BigInteger getAsBigInteger() {
+		return mNumber.toBigInteger();
+	}
+	
+	public long getAsLong() {
+		return mNumber.longValue();
+	}
+	
+	public int getAsInt() {
+		return mNumber.intValue();
+	}
+	
+	/**
+	 * Basic arithmetic functions 
+	 */
+	public LegacyMiniNumber add(LegacyMiniNumber zNumber) {
+		return new LegacyMiniNumber( mNumber.add(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber sub(LegacyMiniNumber zNumber) {
+		return new LegacyMiniNumber( mNumber.subtract(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber div(LegacyMiniNumber zNumber) {
+		return new LegacyMiniNumber( mNumber.divide(zNumber.getAsBigDecimal(), MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber mult(LegacyMiniNumber zNumber) {
+		return new LegacyMiniNumber( mNumber.multiply(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber pow(int zNumber) {
+		return new LegacyMiniNumber( mNumber.pow(zNumber,MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber modulo(LegacyMiniNumber zNumber) {
+		return new LegacyMiniNumber( mNumber.remainder(zNumber.getAsBigDecimal(),MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber floor() {
+		return new LegacyMiniNumber( mNumber.setScale(0, RoundingMode.FLOOR) ) ;
+	}
+	
+	public LegacyMiniNumber ceil() {
+		return new LegacyMiniNumber( mNumber.setScale(0, RoundingMode.CEILING) ) ;
+	}
+	
+	public LegacyMiniNumber setSignificantDigits(int zSignificantDigits) {
+		//1-max digits..
+		int sigdig = zSignificantDigits;
+		if(sigdig>MAX_DIGITS) {
+			throw new NumberFormatException("Cannot specify this many significant digits "+sigdig);	
+		}else if(sigdig<0) {
+			throw new NumberFormatException("Cannot specify negative significant digits "+sigdig);
+		}
+		
+		return new LegacyMiniNumber( mNumber.round(new MathContext(sigdig, RoundingMode.DOWN))) ;
+	}
+	
+	public LegacyMiniNumber abs() {
+		return new LegacyMiniNumber( mNumber.abs() ) ;
+	}
+		
+	public LegacyMiniNumber increment() {
+		return new LegacyMiniNumber( mNumber.add(BigDecimal.ONE,MATH_CONTEXT) );
+	}
+	
+	public LegacyMiniNumber decrement() {
+		return new LegacyMiniNumber( mNumber.subtract(BigDecimal.ONE,MATH_CONTEXT) );
+	}
+
+	public int decimalPlaces() {
+		return mNumber.scale();
+	}
+	
+	@Override
+	public int compareTo(LegacyMiniNumber zCompare) {
+		return mNumber.compareTo(zCompare.getAsBigDecimal());
+	}
+	
+	public boolean isEqual(LegacyMiniNumber zNumber) {
+		return compareTo(zNumber)==0;
+	}
+	
+	public boolean isLess(LegacyMiniNumber zNumber) {
+		return compareTo(zNumber)<0;
+	}
+	
+	public boolean isLessEqual(LegacyMiniNumber zNumber) {
+		return compareTo(zNumber)<=0;
+	}
+	
+	public boolean isMore(LegacyMiniNumber zNumber) {
+		return compareTo(zNumber)>0;
+	}
+	
+	public boolean isMoreEqual(LegacyMiniNumber zNumber) {
+		return compareTo(zNumber)>=0;
+	}
+		
+	@Override
+	public String toString(){
+		return mNumber.stripTrailingZeros().toPlainString();
+	}
+
+	/**
+	 * Output the scale and unscaled value..
+	 */
+	@Override
+	public void writeDataStream(DataOutputStream zOut) throws IOException {
+		
+		//Write out the scale.. +/-127 - never more than 1 byte in size though  
+		int scale = mNumber.scale();
+		zOut.writeByte(scale);
+		
+		//And now the unscaled value.. never larger than..29
+		byte[] data = mNumber.unscaledValue().toByteArray();
+		zOut.writeByte(data.length);
+		
+		//WRITE THE DATA
+		zOut.write(data);
+	}
+
+	@Override
+	public void readDataStream(DataInputStream zIn) throws IOException {
+		
+		//Read in the scale
+		int scale = (int)zIn.readByte();
+		
+		//Read in the byte array for unscaled BigInteger
+		int len = (int)zIn.readByte();
+		if(len > 32 || len<0) {
+			throw new IOException("ERROR reading LegacyMiniNumber - input too large or negative "+len);
+		}
+			
+		byte[] data = new byte[len];
+		zIn.readFully(data);
+		
+		//And create..
+		BigInteger unscaled = new BigInteger(data);
+		mNumber = new BigDecimal(unscaled,scale,MATH_CONTEXT);
+	}
+	
+	public static LegacyMiniNumber ReadFromStream(DataInputStream zIn) throws IOException{
+		LegacyMiniNumber data = new LegacyMiniNumber();
+		data.readDataStream(zIn);
+		return data;
+	}
+	
+	public static void WriteToStream(DataOutputStream zOut, int zNumber) throws IOException{
+		new LegacyMiniNumber(zNumber).writeDataStream(zOut);
+	}
+}
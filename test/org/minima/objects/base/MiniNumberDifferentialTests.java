@@ -0,0 +1,230 @@
+package org.minima.objects.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+import org.minima.utils.Streamable;
+
+/**
+ * The long backed MiniNumber must give exactly the same values, scales, Strings and bytes as the old BigDecimal one
+ */
+public class MiniNumberDifferentialTests {
+
+	public static final String[] NUMBERS = {
+		"0", "1", "-1", "2", "10", "100", "0.1", "0.5", "1.5", "-1.5", "0.00000001", "1.00000000",
+		"123456789", "1000000000", "999999999.99999999", "0.000000000000000000000000000000000000000000001",
+		"1E-44", "1E1", "1E9", "1E-9", "1.0E2", "12.500", "-0.000", "0.000",
+		"9223372036854775807", "-9223372036854775807", "9223372036854775808", "-9223372036854775808",
+		"18446744073709551615", "-18446744073709551615", "922337203685477580.7", "92233720368547758.08",
+		"0.9223372036854775807", "4294967295", "4294967296", "-2147483648", "2147483647", "3037000499", "3037000500",
+		"1.23456789012345678901234567890123456789", "123456789012345678.9", "0.12345678901234567890123456789012345678901234",
+	};
+
+	private static byte[] getBytes(Streamable zStream) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(baos);
+		zStream.writeDataStream(dos);
+		dos.flush();
+		return baos.toByteArray();
+	}
+
+	private static void checkSame(String zMessage, LegacyMiniNumber zLegacy, MiniNumber zNumber) throws IOException {
+		assertEquals(zMessage, zLegacy.toString(), zNumber.toString());
+		assertEquals(zMessage, zLegacy.decimalPlaces(), zNumber.decimalPlaces());
+		assertEquals(zMessage, zLegacy.getAsBigDecimal(), zNumber.getAsBigDecimal());
+		assertEquals(zMessage, zLegacy.getAsLong(), zNumber.getAsLong());
+		assertEquals(zMessage, zLegacy.getAsInt(), zNumber.getAsInt());
+		assertEquals(zMessage, zLegacy.isValidMinimaValue(), zNumber.isValidMinimaValue());
+		assertArrayEquals(zMessage, getBytes(zLegacy), getBytes(zNumber));
+
+		//And read back in..
+		MiniNumber read = MiniNumber.ReadFromStream(new DataInputStream(new ByteArrayInputStream(getBytes(zNumber))));
+		assertEquals(zMessage, zNumber.getAsBigDecimal(), read.getAsBigDecimal());
+		assertArrayEquals(zMessage, getBytes(zLegacy), getBytes(read));
+	}
+
+	/**
+	 * What the operation gives - or the exception
+	 */
+	private interface Operation<T> {
+		T run() throws Exception;
+	}
+
+	private static <T> Object result(Operation<T> zOperation) {
+		try {
+			return zOperation.run();
+		}catch(Exception exc) {
+			return exc.getClass();
+		}
+	}
+
+	private static void checkOperation(String zMessage, Operation<LegacyMiniNumber> zLegacy, Operation<MiniNumber> zNumber) throws IOException {
+		Object legacy = result(zLegacy);
+		Object number = result(zNumber);
+		if(legacy instanceof LegacyMiniNumber) {
+			checkSame(zMessage, (LegacyMiniNumber) legacy, (MiniNumber) number);
+		}else {
+			assertEquals(zMessage, legacy, number);
+		}
+	}
+
+	private static void checkPair(String zLeft, String zRight) throws IOException {
+		LegacyMiniNumber la = new LegacyMiniNumber(zLeft);
+		LegacyMiniNumber lb = new LegacyMiniNumber(zRight);
+		MiniNumber a = new MiniNumber(zLeft);
+		MiniNumber b = new MiniNumber(zRight);
+		String msg = zLeft+" "+zRight;
+
+		checkOperation(msg+" add", () -> la.add(lb), () -> a.add(b));
+		checkOperation(msg+" sub", () -> la.sub(lb), () -> a.sub(b));
+		checkOperation(msg+" mult", () -> la.mult(lb), () -> a.mult(b));
+		checkOperation(msg+" div", () -> la.div(lb), () -> a.div(b));
+		checkOperation(msg+" modulo", () -> la.modulo(lb), () -> a.modulo(b));
+
+		assertEquals(msg, Integer.signum(la.compareTo(lb)), Integer.signum(a.compareTo(b)));
+		assertEquals(msg, la.isEqual(lb), a.isEqual(b));
+		assertEquals(msg, la.isLess(lb), a.isLess(b));
+		assertEquals(msg, la.isMoreEqual(lb), a.isMoreEqual(b));
+		
+		//Different longs are the same way round as the numbers
+		int comp = Long.compare(a.getAsLongSaturated(), b.getAsLongSaturated());
+		if(comp != 0) {
+			assertEquals(msg, comp, Integer.signum(la.compareTo(lb)));
+		}
+	}
+
+	private static void checkSingle(String zNumber) throws IOException {
+		Object legacy = result(() -> new LegacyMiniNumber(zNumber));
+		Object number = result(() -> new MiniNumber(zNumber));
+		if(!(legacy instanceof LegacyMiniNumber)) {
+			assertEquals(zNumber, legacy, number);
+			return;
+		}
+
+		LegacyMiniNumber la = (LegacyMiniNumber) legacy;
+		MiniNumber a = (MiniNumber) number;
+		checkSame(zNumber, la, a);
+		checkSame(zNumber+" copy", la, new MiniNumber(a));
+		assertEquals(zNumber, la.getAsBigDecimal().max(new BigDecimal(Long.MIN_VALUE)).min(new BigDecimal(Long.MAX_VALUE)).longValue(), a.getAsLongSaturated());
+		checkSame(zNumber+" bigdecimal", new LegacyMiniNumber(la.getAsBigDecimal()), new MiniNumber(a.getAsBigDecimal()));
+
+		checkOperation(zNumber+" increment", () -> la.increment(), () -> a.increment());
+		checkOperation(zNumber+" decrement", () -> la.decrement(), () -> a.decrement());
+		checkOperation(zNumber+" abs", () -> la.abs(), () -> a.abs());
+		checkOperation(zNumber+" floor", () -> la.floor(), () -> a.floor());
+		checkOperation(zNumber+" ceil", () -> la.ceil(), () -> a.ceil());
+		checkOperation(zNumber+" pow", () -> la.pow(3), () -> a.pow(3));
+		checkOperation(zNumber+" sigdig", () -> la.setSignificantDigits(4), () -> a.setSignificantDigits(4));
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		for(String num : NUMBERS) {
+			checkSingle(num);
+			checkSingle("-"+num);
+		}
+
+		for(String left : NUMBERS) {
+			for(String right : NUMBERS) {
+				checkPair(left, right);
+			}
+		}
+	}
+
+	@Test
+	public void testConstructors() throws IOException {
+		long[] longs = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+		for(long num : longs) {
+			checkSame(""+num, new LegacyMiniNumber(num), new MiniNumber(num));
+			checkSame(""+num, new LegacyMiniNumber(BigInteger.valueOf(num)), new MiniNumber(BigInteger.valueOf(num)));
+			checkSame(""+num, new LegacyMiniNumber((int) num), new MiniNumber((int) num));
+		}
+
+		BigDecimal[] decimals = {
+			BigDecimal.valueOf(1, -5), BigDecimal.valueOf(123, 50), BigDecimal.valueOf(-7, 3), new BigDecimal("1.000000000000000000000000000000000000000000000000000000000000000001"),
+			new BigDecimal("0E-10"), new BigDecimal("0E+10"), new BigDecimal("5E+3")
+		};
+		for(BigDecimal num : decimals) {
+			checkSame(num.toString(), new LegacyMiniNumber(num), new MiniNumber(num));
+		}
+	}
+
+	/**
+	 * The bytes an old node could have written - any scale
+	 */
+	@Test
+	public void testReadStream() throws IOException {
+		Random rand = new Random(7);
+		for(int i=0;i<20000;i++) {
+			int scale 	= rand.nextInt(120) - 60;
+			int len 	= 1 + rand.nextInt(12);
+			byte[] data = new byte[len];
+			rand.nextBytes(data);
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(baos);
+			dos.writeByte(scale);
+			dos.writeByte(len);
+			dos.write(data);
+			dos.flush();
+			byte[] bytes = baos.toByteArray();
+
+			LegacyMiniNumber legacy = LegacyMiniNumber.ReadFromStream(new DataInputStream(new ByteArrayInputStream(bytes)));
+			MiniNumber number 		= MiniNumber.ReadFromStream(new DataInputStream(new ByteArrayInputStream(bytes)));
+			checkSame(scale+" "+len, legacy, number);
+		}
+	}
+
+	/**
+	 * Random numbers - mostly the size of block numbers and coin amounts, some near the edges
+	 */
+	public static ArrayList<String> createRandomNumbers(long zSeed, int zNumber) {
+		Random rand 			= new Random(zSeed);
+		ArrayList<String> ret 	= new ArrayList<>();
+		for(int i=0;i<zNumber;i++) {
+			BigInteger unscaled;
+			switch (rand.nextInt(4)) {
+			case 0:
+				unscaled = BigInteger.valueOf(rand.nextInt(1000000));
+				break;
+			case 1:
+				unscaled = BigInteger.valueOf(rand.nextLong());
+				break;
+			case 2:
+				unscaled = new BigInteger(1 + rand.nextInt(70), rand);
+				break;
+			default:
+				unscaled = BigInteger.valueOf(Long.MAX_VALUE - rand.nextInt(100));
+			}
+
+			if(rand.nextBoolean()) {
+				unscaled = unscaled.negate();
+			}
+
+			ret.add(new BigDecimal(unscaled, rand.nextInt(50)).toPlainString());
+		}
+		return ret;
+	}
+
+	@Test
+	public void testRandom() throws IOException {
+		ArrayList<String> numbers = createRandomNumbers(42, 300);
+		for(int i=0;i<numbers.size();i++) {
+			checkSingle(numbers.get(i));
+			for(int j=0;j<30;j++) {
+				checkPair(numbers.get(i), numbers.get((i * 31 + j * 17) % numbers.size()));
+			}
+		}
+	}
+}
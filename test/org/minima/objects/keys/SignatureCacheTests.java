@@ -0,0 +1,41 @@
+package org.minima.objects.keys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniData;
+
+public class SignatureCacheTests {
+
+	@Test
+	public void testCache() {
+		SignatureCache.clear();
+		
+		TreeKey key 	= new TreeKey(MiniData.getRandomData(32), 16, 2);
+		TreeKey other 	= new TreeKey(MiniData.getRandomData(32), 16, 2);
+		MiniData data 	= MiniData.getRandomData(32);
+		Signature sig 	= key.sign(data);
+		
+		//First check is a miss
+		assertTrue(SignatureCache.verify(key.getPublicKey(), data, sig));
+		assertEquals(0, SignatureCache.getHits());
+		assertEquals(1, SignatureCache.getMisses());
+		assertEquals(1, SignatureCache.getSize());
+		
+		//Then a hit
+		assertTrue(SignatureCache.verify(key.getPublicKey(), data, sig));
+		assertEquals(1, SignatureCache.getHits());
+		
+		//Wrong key or data is not found - and not stored
+		assertFalse(SignatureCache.verify(other.getPublicKey(), data, sig));
+		assertFalse(SignatureCache.verify(key.getPublicKey(), MiniData.getRandomData(32), sig));
+		assertEquals(1, SignatureCache.getHits());
+		assertEquals(3, SignatureCache.getMisses());
+		assertEquals(1, SignatureCache.getSize());
+		
+		SignatureCache.clear();
+		assertEquals(0, SignatureCache.getSize());
+	}
+}
@@ -0,0 +1,81 @@
+package org.minima.system.brains;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.minima.database.wallet.KeyRow;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.Coin;
+import org.minima.objects.Token;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.utils.json.JSONArray;
+import org.minima.utils.json.JSONObject;
+
+public class BalanceCacheTest {
+
+	private static final String SIMPLE_ADDRESS = new MiniData("0x01").to0xString();
+	private static final String SCRIPT_ADDRESS = new MiniData("0x02").to0xString();
+
+	private Coin createCoin(String zAddress, String zAmount, int zBlock) {
+		Coin coin = new Coin(MiniData.getRandomData(32), new MiniData(zAddress), new MiniNumber(zAmount), Token.TOKENID_MINIMA);
+		coin.setBlockCreated(new MiniNumber(zBlock));
+		return coin;
+	}
+
+	@Test
+	public void testBalance() {
+		ArrayList<KeyRow> keyrows = new ArrayList<>();
+		keyrows.add(new KeyRow("0x00", "0x11", SIMPLE_ADDRESS, "RETURN TRUE", true));
+		keyrows.add(new KeyRow("", "", SCRIPT_ADDRESS, "RETURN TRUE", true));
+		RelevantKeys keys = new RelevantKeys(keyrows, 1);
+
+		ArrayList<Coin> coins = new ArrayList<>();
+		coins.add(createCoin(SIMPLE_ADDRESS, "10", 1));
+		coins.add(createCoin(SCRIPT_ADDRESS, "5", 2));
+		coins.add(createCoin(SIMPLE_ADDRESS, "1.5", 9));
+
+		JSONArray balance = BalanceCache.calculateBalance(coins, new MiniNumber(10), keys);
+		assertEquals(1, balance.size());
+
+		JSONObject minima = (JSONObject) balance.get(0);
+		assertEquals("0x00", minima.get("tokenid"));
+		assertEquals("15", minima.get("confirmed"));
+		assertEquals("1.5", minima.get("unconfirmed"));
+		assertEquals("10", minima.get("sendable"));
+
+		//A few blocks later it has all confirmed
+		balance = BalanceCache.calculateBalance(coins, new MiniNumber(12), keys);
+		minima 	= (JSONObject) balance.get(0);
+		assertEquals("16.5", minima.get("confirmed"));
+		assertEquals("0", minima.get("unconfirmed"));
+		assertEquals("11.5", minima.get("sendable"));
+	}
+
+	@Test
+	public void testNoCoins() {
+		JSONArray balance = BalanceCache.calculateBalance(new ArrayList<>(), MiniNumber.ZERO, new RelevantKeys(new ArrayList<>(), 0));
+		assertEquals(1, balance.size());
+
+		JSONObject minima = (JSONObject) balance.get(0);
+		assertEquals("Minima", minima.get("token"));
+		assertEquals("0", minima.get("confirmed"));
+	}
+
+	@Test
+	public void testCopy() {
+		ArrayList<Coin> coins = new ArrayList<>();
+		coins.add(createCoin(SIMPLE_ADDRESS, "10", 1));
+		JSONArray balance 	= BalanceCache.calculateBalance(coins, new MiniNumber(10), new RelevantKeys(new ArrayList<>(), 0));
+		String before 		= balance.toString();
+
+		//Changing the copy does not change the cached one
+		JSONArray copy = BalanceCache.copyBalance(balance);
+		assertEquals(before, copy.toString());
+		((JSONObject) copy.get(0)).put("confirmed", "1000");
+		copy.add(new JSONObject());
+		assertEquals(before, balance.toString());
+	}
+}
@@ -0,0 +1,134 @@
+package org.minima.system.brains;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.minima.database.MinimaDB;
+import org.minima.database.mmr.MMR;
+import org.minima.database.txpowtree.TxPoWTreeNode;
+import org.minima.database.txpowtree.TxPowTree;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.Coin;
+import org.minima.objects.IBD;
+import org.minima.objects.TxBlock;
+import org.minima.objects.Token;
+import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.genesis.GenesisMMR;
+import org.minima.system.params.GeneralParams;
+import org.minima.system.params.GlobalParams;
+import org.minima.utils.MiniFile;
+
+/**
+ * Sync speed from a fresh node - replays a recorded IBD ( start a node with -recordibd file )
+ * into an empty database with different numbers of build threads.
+ *
+ * With no file a chain of blocks full of new coins is made up.
+ *
+ * Run as a main - not part of the unit tests.
+ *
+ * args : [recorded IBD file | blocks] [threads..]
+ */
+public class IBDImportBenchmark {
+
+	/**
+	 * A chain of blocks that each create this many coins - in pages like a real IBD
+	 */
+	private static ArrayList<IBD> createChain(int zBlocks, int zCoins) {
+		ArrayList<IBD> ibds 		= new ArrayList<>();
+		RelevantKeys norel 			= new RelevantKeys(new ArrayList<>(), 0);
+
+		IBD page 		= null;
+		MMR mmr 		= new GenesisMMR();
+		MiniData parent = MiniData.ZERO_TXPOWID;
+		for(int i=0;i<zBlocks;i++) {
+			if(i % IBD.IBD_PAGE_MAX_BLOCKS == 0) {
+				page = new IBD();
+				ibds.add(page);
+			}
+
+			TxPoW txpow = new TxPoW();
+			txpow.setBlockNumber(new MiniNumber(i));
+			txpow.setTimeMilli(new MiniNumber(System.currentTimeMillis()));
+			txpow.setSuperParent(0, parent);
+			for(int j=0;j<zCoins;j++) {
+				txpow.getTransaction().addOutput(new Coin(MiniData.getRandomData(32), MiniNumber.ONE, Token.TOKENID_MINIMA));
+			}
+			txpow.calculateTransactionID();
+			txpow.calculateTXPOWID();
+
+			TxBlock block = new TxBlock(mmr, txpow, new ArrayList<>());
+			page.getTxBlocks().add(block);
+
+			//The next block builds on this one
+			mmr 	= new TxPoWTreeNode(block, norel).getMMR();
+			parent 	= txpow.getTxPoWIDData();
+		}
+
+		return ibds;
+	}
+
+	private static void replay(ArrayList<IBD> zIBDs, int zThreads) throws Exception {
+		//A fresh database
+		File folder = Files.createTempDirectory("ibdbench").toFile();
+		GeneralParams.DATA_FOLDER 			= folder.getAbsolutePath();
+		GeneralParams.IBD_IMPORT_THREADS 	= zThreads;
+		MinimaDB.createDB();
+		MinimaDB.getDB().loadAllDB();
+		IBDImporter.resetStats();
+
+		TxPowTree txptree 	= MinimaDB.getDB().getTxPoWTree();
+		int maxlen 			= GlobalParams.MINIMA_CASCADE_START_DEPTH.add(GlobalParams.MINIMA_CASCADE_FREQUENCY).getAsInt();
+
+		long start = System.currentTimeMillis();
+		for(IBD ibd : zIBDs) {
+			IBDImporter.importBlocks(ibd.getTxBlocks());
+
+			//Keep the tree the size a node does
+			if(txptree.getHeaviestBranchLength() >= maxlen) {
+				txptree.setLength(GlobalParams.MINIMA_CASCADE_START_DEPTH.getAsInt());
+			}
+		}
+		long time = System.currentTimeMillis() - start;
+
+		System.out.println("threads:"+zThreads+" time:"+time+"ms "+IBDImporter.getStatus().toString());
+
+		MinimaDB.getDB().saveSQL();
+		MiniFile.deleteFileOrFolder(folder.getAbsolutePath(), folder);
+	}
+
+	public static void main(String[] zArgs) throws Exception {
+		ArrayList<IBD> ibds;
+		if(zArgs.length > 0 && new File(zArgs[0]).exists()) {
+			ibds = IBDImporter.loadRecording(new File(zArgs[0]));
+		}else {
+			int blocks = zArgs.length > 0 ? Integer.parseInt(zArgs[0]) : 2000;
+			ibds = createChain(blocks, 20);
+		}
+
+		int total = 0;
+		for(IBD ibd : ibds) {
+			total += ibd.getTxBlocks().size();
+		}
+		System.out.println("IBD messages:"+ibds.size()+" blocks:"+total);
+
+		//Which thread counts
+		ArrayList<Integer> threads = new ArrayList<>();
+		for(int i=1;i<zArgs.length;i++) {
+			threads.add(Integer.parseInt(zArgs[i]));
+		}
+		if(threads.isEmpty()) {
+			threads.add(1);
+			threads.add(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		}
+
+		//Warm up..
+		replay(ibds, threads.get(0));
+
+		for(int thread : threads) {
+			replay(ibds, thread);
+		}
+	}
+}
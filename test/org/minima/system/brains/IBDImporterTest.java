@@ -0,0 +1,215 @@
+package org.minima.system.brains;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.minima.database.MinimaDB;
+import org.minima.database.mmr.MMR;
+import org.minima.database.txpowtree.TxPoWTreeNode;
+import org.minima.database.txpowtree.TxPowTree;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.Coin;
+import org.minima.objects.Token;
+import org.minima.objects.TxBlock;
+import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.genesis.GenesisMMR;
+import org.minima.system.params.GeneralParams;
+import org.minima.utils.MiniFile;
+
+public class IBDImporterTest {
+
+	private static final RelevantKeys NO_KEYS = new RelevantKeys(new ArrayList<>(), 0);
+
+	File mFolder;
+
+	/**
+	 * The block each coin address was made in
+	 */
+	HashMap<String, Integer> mCoinBlocks = new HashMap<>();
+
+	@Before
+	public void createDB() throws Exception {
+		mFolder = Files.createTempDirectory("ibdtest").toFile();
+		GeneralParams.DATA_FOLDER = mFolder.getAbsolutePath();
+		resetDB();
+	}
+
+	@After
+	public void deleteDB() {
+		MinimaDB.getDB().saveSQL();
+		MiniFile.deleteFileOrFolder(mFolder.getAbsolutePath(), mFolder);
+	}
+
+	private void resetDB() {
+		if(MinimaDB.getDB() != null) {
+			MinimaDB.getDB().saveSQL();
+			MiniFile.deleteFileOrFolder(mFolder.getAbsolutePath(), mFolder);
+			mFolder.mkdirs();
+		}
+		MinimaDB.createDB();
+		MinimaDB.getDB().loadAllDB();
+	}
+
+	private TxBlock createBlock(MMR zParentMMR, MiniData zParent, int zBlock) {
+		TxPoW txpow = new TxPoW();
+		txpow.setBlockNumber(new MiniNumber(zBlock));
+		txpow.setTimeMilli(new MiniNumber(1000 + zBlock));
+		txpow.setSuperParent(0, zParent);
+		for(int j=0;j<3;j++) {
+			MiniData address = MiniData.getRandomData(32);
+			mCoinBlocks.put(address.to0xString(), zBlock);
+			txpow.getTransaction().addOutput(new Coin(address, MiniNumber.ONE, Token.TOKENID_MINIMA));
+		}
+		txpow.calculateTransactionID();
+		txpow.calculateTXPOWID();
+
+		return new TxBlock(zParentMMR, txpow, new ArrayList<>());
+	}
+
+	private ArrayList<TxBlock> createChain(int zBlocks) {
+		ArrayList<TxBlock> blocks = new ArrayList<>();
+
+		MMR mmr 		= new GenesisMMR();
+		MiniData parent = MiniData.ZERO_TXPOWID;
+		for(int i=0;i<zBlocks;i++) {
+			TxBlock block = createBlock(mmr, parent, i);
+			blocks.add(block);
+
+			//The next block builds on this one
+			mmr 	= new TxPoWTreeNode(block, NO_KEYS).getMMR();
+			parent 	= block.getTxPoW().getTxPoWIDData();
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * The TxPoWID and MMR root of every node on the heaviest branch
+	 */
+	private ArrayList<String> getBranch() {
+		ArrayList<String> branch = new ArrayList<>();
+		for(TxPoWTreeNode node : MinimaDB.getDB().getTxPoWTree().getHeaviestBranch()) {
+			branch.add(node.getTxPoW().getTxPoWID()+":"+node.getMMR().getRoot().getData().to0xString());
+		}
+		return branch;
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		ArrayList<TxBlock> blocks = createChain(100);
+
+		int added 				= IBDImporter.importBlocks(blocks, NO_KEYS, 1);
+		TxPowTree txptree 		= MinimaDB.getDB().getTxPoWTree();
+		String tip 				= txptree.getTip().getTxPoW().getTxPoWID();
+		int size 				= txptree.getSize();
+		ArrayList<String> seq 	= getBranch();
+		assertEquals(100, added);
+		assertEquals(99, txptree.getTip().getTxPoW().getBlockNumber().getAsInt());
+
+		for(int threads : new int[] {2, 4}) {
+			resetDB();
+			txptree = MinimaDB.getDB().getTxPoWTree();
+
+			assertEquals(added, IBDImporter.importBlocks(blocks, NO_KEYS, threads));
+			assertEquals(tip, txptree.getTip().getTxPoW().getTxPoWID());
+			assertEquals(size, txptree.getSize());
+			assertEquals(seq, getBranch());
+		}
+	}
+
+	@Test
+	public void testDuplicateAndNoParent() throws Exception {
+		ArrayList<TxBlock> chain = createChain(20);
+
+		//A block whose parent we never see
+		TxBlock orphan = createBlock(new GenesisMMR(), MiniData.getRandomData(32), 21);
+
+		ArrayList<TxBlock> blocks = new ArrayList<>(chain);
+		blocks.add(chain.get(5));
+		blocks.add(orphan);
+		blocks.add(chain.get(19));
+
+		for(int threads : new int[] {1, 4}) {
+			resetDB();
+			TxPowTree txptree = MinimaDB.getDB().getTxPoWTree();
+
+			assertEquals(20, IBDImporter.importBlocks(blocks, NO_KEYS, threads));
+			assertEquals(chain.get(19).getTxPoW().getTxPoWID(), txptree.getTip().getTxPoW().getTxPoWID());
+			assertEquals(null, txptree.findNode(orphan.getTxPoW().getTxPoWID()));
+
+			//All there already
+			assertEquals(0, IBDImporter.importBlocks(chain, NO_KEYS, threads));
+		}
+	}
+
+	@Test
+	public void testBuildFails() throws Exception {
+		final int threads 	= 2;
+		final int failblock = 3;
+		ArrayList<TxBlock> blocks = createChain(100);
+
+		final RuntimeException failure 		= new IllegalStateException("Bad block");
+		final CountDownLatch never 			= new CountDownLatch(1);
+		final AtomicInteger laterstarted 	= new AtomicInteger();
+		final AtomicInteger laterstopped 	= new AtomicInteger();
+		final AtomicInteger laterfinished 	= new AtomicInteger();
+
+		//Fails on one block - the builds after it wait until they are cancelled
+		RelevantKeys keys = new RelevantKeys(new ArrayList<>(), 0) {
+			@Override
+			public boolean isRelevant(Coin zCoin) {
+				int block = mCoinBlocks.get(zCoin.getAddress().to0xString());
+				if(block == failblock) {
+					//Fail once a later block is building
+					long timeout = System.currentTimeMillis() + 5000;
+					while(laterstarted.get() == 0 && System.currentTimeMillis() < timeout) {
+						Thread.yield();
+					}
+					throw failure;
+
+				}else if(block > failblock) {
+					laterstarted.incrementAndGet();
+					try {
+						never.await();
+						laterfinished.incrementAndGet();
+					}catch(InterruptedException exc) {
+						laterstopped.incrementAndGet();
+						throw new RuntimeException(exc);
+					}
+				}
+				return false;
+			}
+		};
+
+		try {
+			IBDImporter.importBlocks(blocks, keys, threads);
+			fail();
+		}catch(IllegalStateException exc) {
+			assertSame(failure, exc);
+		}
+
+		//Only the blocks before it were added
+		assertEquals(failblock - 1, MinimaDB.getDB().getTxPoWTree().getTip().getTxPoW().getBlockNumber().getAsInt());
+
+		//The running builds were interrupted and the rest never started
+		Thread.sleep(500);
+		int started = laterstarted.get();
+		assertTrue(started >= 1 && started <= threads);
+		assertEquals(started, laterstopped.get());
+		assertEquals(0, laterfinished.get());
+	}
+}
@@ -0,0 +1,231 @@
+package org.minima.system.brains;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.minima.database.wallet.KeyRow;
+import org.minima.database.wallet.RelevantKeys;
+import org.minima.objects.Coin;
+import org.minima.objects.Token;
+import org.minima.objects.base.LegacyMiniNumber;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.params.GlobalParams;
+
+/**
+ * The MiniNumber operations TxPoWProcessor, TxPoWSearcher and balance do most - on the long backed
+ * MiniNumber and the old BigDecimal one. And the real balance calculation on a wallet of coins.
+ *
+ * Run as a main - not part of the unit tests.
+ *
+ * args : [rounds] [coins]
+ */
+public class MiniNumberBenchmark {
+
+	private static final String ADDRESS = new MiniData("0x01").to0xString();
+
+	/**
+	 * TxPoWProcessor - is the block in range of the root, and the new root of the cascade
+	 */
+	private static long processorNew(MiniNumber[] zBlocks, MiniNumber zRoot) {
+		long count = 0;
+		for(MiniNumber block : zBlocks) {
+			if(block.isMore(zRoot)) {
+				count++;
+			}
+			count += block.sub(GlobalParams.MINIMA_CASCADE_START_DEPTH).increment().getAsLong();
+		}
+		return count;
+	}
+
+	private static long processorLegacy(LegacyMiniNumber[] zBlocks, LegacyMiniNumber zRoot, LegacyMiniNumber zDepth) {
+		long count = 0;
+		for(LegacyMiniNumber block : zBlocks) {
+			if(block.isMore(zRoot)) {
+				count++;
+			}
+			count += block.sub(zDepth).increment().getAsLong();
+		}
+		return count;
+	}
+
+	/**
+	 * TxPoWSearcher - find the coins with an amount
+	 */
+	private static long searcherNew(MiniNumber[] zAmounts, MiniNumber zAmount) {
+		long count = 0;
+		for(MiniNumber amount : zAmounts) {
+			if(amount.isEqual(zAmount)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static long searcherLegacy(LegacyMiniNumber[] zAmounts, LegacyMiniNumber zAmount) {
+		long count = 0;
+		for(LegacyMiniNumber amount : zAmounts) {
+			if(amount.isEqual(zAmount)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * balance - the depth of each coin and the confirmed and unconfirmed totals
+	 */
+	private static long balanceNew(MiniNumber[] zAmounts, MiniNumber[] zBlocks, MiniNumber zTop) {
+		MiniNumber confirmed 	= MiniNumber.ZERO;
+		MiniNumber unconfirmed 	= MiniNumber.ZERO;
+		for(int i=0;i<zAmounts.length;i++) {
+			if(zTop.sub(zBlocks[i]).isLess(GlobalParams.MINIMA_CONFIRM_DEPTH)) {
+				unconfirmed = unconfirmed.add(zAmounts[i]);
+			}else {
+				confirmed = confirmed.add(zAmounts[i]);
+			}
+		}
+		return confirmed.toString().length() + unconfirmed.toString().length();
+	}
+
+	private static long balanceLegacy(LegacyMiniNumber[] zAmounts, LegacyMiniNumber[] zBlocks, LegacyMiniNumber zTop, LegacyMiniNumber zDepth) {
+		LegacyMiniNumber confirmed 		= LegacyMiniNumber.ZERO;
+		LegacyMiniNumber unconfirmed 	= LegacyMiniNumber.ZERO;
+		for(int i=0;i<zAmounts.length;i++) {
+			if(zTop.sub(zBlocks[i]).isLess(zDepth)) {
+				unconfirmed = unconfirmed.add(zAmounts[i]);
+			}else {
+				confirmed = confirmed.add(zAmounts[i]);
+			}
+		}
+		return confirmed.toString().length() + unconfirmed.toString().length();
+	}
+
+	/**
+	 * Serialise and read back - every TxPoW, TxBlock and Coin does this
+	 */
+	private static long streamNew(MiniNumber[] zNumbers) throws Exception {
+		ByteArrayOutputStream baos 	= new ByteArrayOutputStream();
+		DataOutputStream dos 		= new DataOutputStream(baos);
+		for(MiniNumber num : zNumbers) {
+			num.writeDataStream(dos);
+		}
+		dos.flush();
+
+		long count = 0;
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		for(int i=0;i<zNumbers.length;i++) {
+			count += MiniNumber.ReadFromStream(dis).decimalPlaces();
+		}
+		return count;
+	}
+
+	private static long streamLegacy(LegacyMiniNumber[] zNumbers) throws Exception {
+		ByteArrayOutputStream baos 	= new ByteArrayOutputStream();
+		DataOutputStream dos 		= new DataOutputStream(baos);
+		for(LegacyMiniNumber num : zNumbers) {
+			num.writeDataStream(dos);
+		}
+		dos.flush();
+
+		long count = 0;
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		for(int i=0;i<zNumbers.length;i++) {
+			count += LegacyMiniNumber.ReadFromStream(dis).decimalPlaces();
+		}
+		return count;
+	}
+
+	private interface Operation {
+		long run() throws Exception;
+	}
+
+	private static long time(Operation zOperation, int zRounds) throws Exception {
+		long count 		= 0;
+		long timestart 	= System.nanoTime();
+		for(int i=0;i<zRounds;i++) {
+			count += zOperation.run();
+		}
+		long nanos = System.nanoTime() - timestart;
+
+		if(count == 42) {
+			System.out.println("Unlikely..");
+		}
+
+		return nanos;
+	}
+
+	private static void compare(String zName, int zOps, int zRounds, Operation zLegacy, Operation zNew) throws Exception {
+		//Warm up both..
+		time(zLegacy, Math.max(1, zRounds / 5));
+		time(zNew, Math.max(1, zRounds / 5));
+
+		long legacy = time(zLegacy, zRounds);
+		long fast 	= time(zNew, zRounds);
+
+		long ops = (long) zOps * zRounds;
+		System.out.println(zName+" ops:"+ops
+				+" legacy:"+(legacy / ops)+"ns/op"
+				+" new:"+(fast / ops)+"ns/op"
+				+" speedup:"+String.format("%.1f", (double) legacy / Math.max(1, fast))+"x");
+	}
+
+	public static void main(String[] zArgs) throws Exception {
+		int rounds 	= zArgs.length > 0 ? Integer.parseInt(zArgs[0]) : 200;
+		int coins 	= zArgs.length > 1 ? Integer.parseInt(zArgs[1]) : 10000;
+
+		//Block numbers near the tip and coin amounts with up to 8 decimal places
+		Random rand 					= new Random(42);
+		MiniNumber[] blocks 			= new MiniNumber[coins];
+		MiniNumber[] amounts 			= new MiniNumber[coins];
+		LegacyMiniNumber[] lblocks 		= new LegacyMiniNumber[coins];
+		LegacyMiniNumber[] lamounts 	= new LegacyMiniNumber[coins];
+		ArrayList<Coin> wallet 			= new ArrayList<>();
+		for(int i=0;i<coins;i++) {
+			String block 	= Integer.toString(1000000 + rand.nextInt(5000));
+			String amount 	= rand.nextInt(1000)+"."+rand.nextInt(100000000);
+
+			blocks[i] 	= new MiniNumber(block);
+			amounts[i] 	= new MiniNumber(amount);
+			lblocks[i] 	= new LegacyMiniNumber(block);
+			lamounts[i] = new LegacyMiniNumber(amount);
+
+			Coin coin = new Coin(MiniData.getRandomData(32), new MiniData(ADDRESS), amounts[i], Token.TOKENID_MINIMA);
+			coin.setBlockCreated(blocks[i]);
+			wallet.add(coin);
+		}
+
+		MiniNumber root 		= new MiniNumber(1002500);
+		LegacyMiniNumber lroot 	= new LegacyMiniNumber(1002500);
+		LegacyMiniNumber ldepth = new LegacyMiniNumber(GlobalParams.MINIMA_CASCADE_START_DEPTH.toString());
+		LegacyMiniNumber lconf 	= new LegacyMiniNumber(GlobalParams.MINIMA_CONFIRM_DEPTH.toString());
+		MiniNumber top 			= new MiniNumber(1005000);
+		LegacyMiniNumber ltop 	= new LegacyMiniNumber(1005000);
+		MiniNumber find 		= amounts[coins / 2];
+		LegacyMiniNumber lfind 	= lamounts[coins / 2];
+
+		compare("TxPoWProcessor block range", coins, rounds,
+				() -> processorLegacy(lblocks, lroot, ldepth), () -> processorNew(blocks, root));
+
+		compare("TxPoWSearcher coin amount", coins, rounds,
+				() -> searcherLegacy(lamounts, lfind), () -> searcherNew(amounts, find));
+
+		compare("balance totals", coins, rounds,
+				() -> balanceLegacy(lamounts, lblocks, ltop, lconf), () -> balanceNew(amounts, blocks, top));
+
+		compare("serialise amounts", coins, rounds,
+				() -> streamLegacy(lamounts), () -> streamNew(amounts));
+
+		//And the real balance of a wallet
+		ArrayList<KeyRow> keyrows = new ArrayList<>();
+		keyrows.add(new KeyRow("0x00", "0x11", ADDRESS, "RETURN TRUE", true));
+		RelevantKeys keys = new RelevantKeys(keyrows, 1);
+
+		long nanos = time(() -> BalanceCache.calculateBalance(wallet, top, keys).size(), Math.max(1, rounds / 10));
+		System.out.println("BalanceCache.calculateBalance coins:"+coins+" time:"+(nanos / Math.max(1, rounds / 10) / 1000)+"us");
+	}
+}
@@ -0,0 +1,105 @@
+package org.minima.system.brains;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.minima.objects.TxHeader;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.utils.Crypto;
+import org.minima.utils.json.JSONObject;
+
+public class NonceSearchTest {
+
+	private byte[] createHeader() {
+		TxHeader txh 	= new TxHeader();
+		txh.mNonce 		= TxPoWMiner.START_NONCE_BYTES;
+		txh.setTimeMilli(new MiniNumber(System.currentTimeMillis()));
+		return MiniData.getMiniDataVersion(txh).getBytes();
+	}
+
+	private void checkMined(int zThreads) throws Exception {
+		byte[] data 			= createHeader();
+		MiniData difficulty 	= new MiniData(Crypto.MAX_VAL.divide(BigInteger.valueOf(64)));
+
+		long nonce = NonceSearch.search(data, difficulty, zThreads, null);
+		assertTrue(nonce >= 0);
+
+		//Write it in and check the hash
+		NonceSearch.writeNonce(data, nonce);
+		MiniData hash = new MiniData(Crypto.getInstance().hashData(data));
+		assertTrue(hash.isLess(difficulty));
+
+		//And it is still a valid header with the same hash
+		TxHeader txh = TxHeader.convertMiniDataVersion(new MiniData(data));
+		assertTrue(txh.mNonce.isMore(MiniNumber.ZERO));
+		assertEquals(hash, Crypto.getInstance().hashObject(txh));
+	}
+
+	@Test
+	public void testSearch() throws Exception {
+		checkMined(1);
+		checkMined(3);
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		//Nothing is less than zero
+		long nonce = NonceSearch.search(createHeader(), MiniData.ZERO_TXPOWID, 2, () -> true);
+		assertEquals(-1, nonce);
+	}
+
+	@Test
+	public void testHashTestWhileMining() throws Exception {
+		ExecutorService miner = Executors.newSingleThreadExecutor();
+		AtomicBoolean stop = new AtomicBoolean(false);
+		try {
+			//A search that never finds a nonce - like the miner on a hard block
+			Future<Long> search = miner.submit(() -> {
+				return NonceSearch.search(createHeader(), MiniData.ZERO_TXPOWID, 2, () -> stop.get());
+			});
+			Thread.sleep(100);
+			String status = NonceSearch.getStatus().toString();
+
+			//Same and different number of threads - neither waits for, or breaks, the search
+			assertEquals(10000L, NonceSearch.hashTest(10000, 2).get("hashes"));
+			assertEquals(9999L, NonceSearch.hashTest(10000, 3).get("hashes"));
+			assertTrue(!search.isDone());
+
+			//And not in the mining stats
+			assertEquals(status, NonceSearch.getStatus().toString());
+
+			stop.set(true);
+			assertEquals(-1L, (long) search.get(10, TimeUnit.SECONDS));
+
+			//The last search is the mining one - not the hashtest
+			JSONObject lastsearch = (JSONObject) NonceSearch.getStatus().get("lastsearch");
+			assertEquals(2, lastsearch.get("threads"));
+		}finally {
+			stop.set(true);
+			miner.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testTarget() {
+		byte[] target = NonceSearch.getTarget(new MiniData("0x0100"));
+		assertEquals(32, target.length);
+		assertEquals(1, target[30]);
+
+		byte[] hash = new byte[32];
+		hash[31] = (byte) 0xFF;
+		assertTrue(NonceSearch.isLess(hash, target));
+
+		hash[30] = 1;
+		assertTrue(!NonceSearch.isLess(hash, target));
+	}
+}
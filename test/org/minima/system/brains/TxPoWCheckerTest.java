@@ -0,0 +1,215 @@
+package org.minima.system.brains;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.minima.database.mmr.MMR;
+import org.minima.database.mmr.MMRProof;
+import org.minima.kissvm.Contract;
+import org.minima.kissvm.exceptions.ExecutionException;
+import org.minima.kissvm.functions.MinimaFunction;
+import org.minima.kissvm.values.BooleanValue;
+import org.minima.kissvm.values.Value;
+import org.minima.objects.Address;
+import org.minima.objects.Coin;
+import org.minima.objects.CoinProof;
+import org.minima.objects.ScriptProof;
+import org.minima.objects.Token;
+import org.minima.objects.TxPoW;
+import org.minima.objects.base.MiniData;
+import org.minima.objects.base.MiniNumber;
+import org.minima.system.params.GeneralParams;
+
+public class TxPoWCheckerTest {
+
+	/**
+	 * Counts the scripts that run it - and waits until released
+	 */
+	public static class CHECKCOUNT extends MinimaFunction {
+
+		static final AtomicInteger mCalls 	= new AtomicInteger();
+		static CountDownLatch mRelease 		= new CountDownLatch(0);
+
+		public CHECKCOUNT() {
+			super("CHECKCOUNT");
+		}
+
+		@Override
+		public Value runFunction(Contract zContract) throws ExecutionException {
+			mCalls.incrementAndGet();
+			try {
+				mRelease.await(10, TimeUnit.SECONDS);
+			}catch(InterruptedException exc) {
+				throw new ExecutionException("Interrupted");
+			}
+			return new BooleanValue(true);
+		}
+
+		@Override
+		public MinimaFunction getNewFunction() {
+			return new CHECKCOUNT();
+		}
+
+		@Override
+		public int requiredParams() {
+			return 1;
+		}
+	}
+
+	int mThreads = GeneralParams.TXPOW_CHECK_THREADS;
+
+	@After
+	public void resetThreads() {
+		GeneralParams.TXPOW_CHECK_THREADS = mThreads;
+		MinimaFunction.unregisterFunction("CHECKCOUNT");
+	}
+
+	/**
+	 * A TxPoW with an MMR proof from a block time the MMR does not have - so fails
+	 */
+	private static TxPoW getInvalidTxPoW() {
+		TxPoW txpow = new TxPoW();
+		Coin coin 	= new Coin(MiniData.getRandomData(32), new MiniNumber(1), Token.TOKENID_MINIMA);
+		txpow.getWitness().addCoinProof(new CoinProof(coin, new MMRProof(new MiniNumber(1000))));
+		return txpow;
+	}
+
+	/**
+	 * One TxPoW per script - each spending a coin in the MMR at an address of that script.
+	 *
+	 * Made new each time - a Transaction remembers if it has been checked. Adding more coins
+	 * to the same MMR after can make the proofs invalid.
+	 */
+	private static ArrayList<TxPoW> getScriptTxPoWs(MMR zMMR, List<String> zScripts) {
+		//Add all the coins first - the proofs are from the final MMR
+		ArrayList<Coin> coins = new ArrayList<>();
+		for(String script : zScripts) {
+			Coin coin = new Coin(MiniData.getRandomData(32), new Address(script).getAddressData(), MiniNumber.ONE, Token.TOKENID_MINIMA);
+			coin.setMMREntryNumber(zMMR.getEntryNumber());
+			zMMR.addEntry(new CoinProof(coin, null).getMMRData());
+			coins.add(coin);
+		}
+
+		ArrayList<TxPoW> txpows = new ArrayList<>();
+		for(int i=0;i<coins.size();i++) {
+			Coin coin = coins.get(i);
+
+			TxPoW txpow = new TxPoW();
+			txpow.getTransaction().addInput(coin);
+			txpow.getTransaction().addOutput(new Coin(new MiniData("0x01"), MiniNumber.ONE, Token.TOKENID_MINIMA));
+			txpow.getWitness().addCoinProof(new CoinProof(coin, zMMR.getProof(coin.getMMREntryNumber())));
+			txpow.getWitness().addScript(new ScriptProof(zScripts.get(i)));
+			txpows.add(txpow);
+		}
+
+		return txpows;
+	}
+
+	private static boolean check(MMR zMMR, ArrayList<TxPoW> zTxPoWs, int zThreads) throws Exception {
+		GeneralParams.TXPOW_CHECK_THREADS = zThreads;
+		return TxPoWChecker.checkTxPoWSimple(zMMR, zTxPoWs, MiniNumber.ONE);
+	}
+
+	@Test
+	public void testValidTxPoWs() throws Exception {
+		ArrayList<String> scripts = new ArrayList<>();
+		for(int i=0;i<20;i++) {
+			scripts.add("LET a = "+i+" RETURN a LT 100");
+		}
+
+		for(int threads : new int[] {1, 4}) {
+			MMR mmr = new MMR();
+			assertTrue(check(mmr, getScriptTxPoWs(mmr, scripts), threads));
+		}
+
+		//A script that fails
+		scripts.set(10, "RETURN FALSE");
+		for(int threads : new int[] {1, 4}) {
+			MMR mmr = new MMR();
+			assertFalse(check(mmr, getScriptTxPoWs(mmr, scripts), threads));
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		Random rand = new Random(42);
+
+		for(int test=0;test<50;test++) {
+			ArrayList<String> scripts 	= new ArrayList<>();
+			int badmmr 					= -1;
+			int size 					= rand.nextInt(20);
+			for(int i=0;i<size;i++) {
+				int type = rand.nextInt(20);
+				if(type == 0) {
+					scripts.add("RETURN FALSE");
+				}else if(type == 1) {
+					badmmr = i;
+					scripts.add("RETURN TRUE");
+				}else {
+					scripts.add("LET a = "+i+" RETURN a EQ "+i);
+				}
+			}
+
+			MMR seqmmr 					= new MMR();
+			MMR parmmr 					= new MMR();
+			ArrayList<TxPoW> sequential = getScriptTxPoWs(seqmmr, scripts);
+			ArrayList<TxPoW> parallel 	= getScriptTxPoWs(parmmr, scripts);
+			if(badmmr != -1) {
+				sequential.set(badmmr, getInvalidTxPoW());
+				parallel.set(badmmr, getInvalidTxPoW());
+			}
+
+			assertEquals(check(seqmmr, sequential, 1), check(parmmr, parallel, 4));
+		}
+	}
+
+	@Test
+	public void testFailFast() throws Exception {
+		MinimaFunction.registerFunction(new CHECKCOUNT());
+		CHECKCOUNT.mCalls.set(0);
+		CHECKCOUNT.mRelease = new CountDownLatch(1);
+
+		int threads = 4;
+
+		//The first fails - the rest count and wait
+		ArrayList<String> scripts = new ArrayList<>();
+		scripts.add("RETURN FALSE");
+		for(int i=0;i<100;i++) {
+			scripts.add("RETURN CHECKCOUNT("+i+")");
+		}
+
+		MMR mmr = new MMR();
+		ArrayList<TxPoW> txpows = getScriptTxPoWs(mmr, scripts);
+
+		//Returns while the others are still waiting
+		long start = System.currentTimeMillis();
+		assertFalse(check(mmr, txpows, threads));
+		assertTrue(System.currentTimeMillis() - start < 5000);
+
+		//Let the running ones finish
+		CHECKCOUNT.mRelease.countDown();
+		Thread.sleep(500);
+
+		//Only the ones that started before the fail were checked - nothing left queued
+		int checked = CHECKCOUNT.mCalls.get();
+		assertTrue(checked < threads);
+		Thread.sleep(500);
+		assertEquals(checked, CHECKCOUNT.mCalls.get());
+
+		//And the pool is free for the next check
+		CHECKCOUNT.mCalls.set(0);
+		mmr = new MMR();
+		assertTrue(check(mmr, getScriptTxPoWs(mmr, scripts.subList(1, 11)), threads));
+		assertEquals(10, CHECKCOUNT.mCalls.get());
+	}
+}
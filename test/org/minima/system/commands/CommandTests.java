@@ -0,0 +1,102 @@
+package org.minima.system.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.minima.system.commands.base.missingcmd;
+import org.minima.utils.json.JSONObject;
+
+public class CommandTests {
+
+	public static class registered extends Command {
+
+		public registered() {
+			super("registered", "A command added after the built in ones");
+		}
+
+		@Override
+		public JSONObject runCommand() throws Exception {
+			JSONObject ret = getJSONReply();
+			ret.put("response", getParam("value", ""));
+			return ret;
+		}
+
+		@Override
+		public Command getFunction() {
+			return new registered();
+		}
+	}
+
+	/**
+	 * The registry is global - leave it as it was
+	 */
+	@After
+	public void cleanUp() {
+		Command.unregisterCommand("registered");
+	}
+
+	private static boolean isRegistered(String zName) {
+		for(Command cmd : Command.getRegisteredCommands()) {
+			if(cmd.getname().equals(zName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void testBuiltIn() {
+		for(Command cmd : Command.ALL_COMMANDS) {
+			Command found = Command.getCommand(cmd.getname());
+			assertEquals(cmd.getClass(), found.getClass());
+			assertTrue(found != cmd);
+		}
+
+		assertTrue(Command.getCommand("notacommand") instanceof missingcmd);
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		Command.registerCommand(new registered());
+		assertTrue(isRegistered("registered"));
+
+		//New one with the parameters
+		Command cmd = Command.getCommand("registered value:hello");
+		assertTrue(cmd instanceof registered);
+		assertEquals("hello", cmd.runCommand().get("response"));
+
+		//Cannot add it twice
+		assertThrows(IllegalArgumentException.class, () -> {
+			Command.registerCommand(new registered());
+		});
+
+		//And gone again
+		Command.unregisterCommand("registered");
+		assertFalse(isRegistered("registered"));
+		assertTrue(Command.getCommand("registered") instanceof missingcmd);
+	}
+
+	@Test
+	public void testNoReplace() {
+		//A built in command cannot be replaced or removed
+		Command builtin = Command.ALL_COMMANDS[0];
+		assertThrows(IllegalArgumentException.class, () -> {
+			Command.registerCommand(new registered() {
+				@Override
+				public String getname() {
+					return builtin.getname();
+				}
+			});
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Command.unregisterCommand(builtin.getname());
+		});
+
+		assertEquals(builtin.getClass(), Command.getCommand(builtin.getname()).getClass());
+		assertFalse(isRegistered(builtin.getname()));
+	}
+}
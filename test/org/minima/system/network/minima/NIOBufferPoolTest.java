@@ -0,0 +1,74 @@
+package org.minima.system.network.minima;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class NIOBufferPoolTest {
+
+	@Test
+	public void testSizeClasses() {
+		NIOBufferPool pool = new NIOBufferPool();
+		
+		//Rounded up to a class size
+		assertEquals(NIOBufferPool.MIN_POOLED_SIZE, pool.acquire(4).capacity());
+		assertEquals(8 * 1024, pool.acquire(4 * 1024 + 1).capacity());
+		assertEquals(64 * 1024, pool.acquire(64 * 1024).capacity());
+		assertEquals(NIOBufferPool.MAX_POOLED_SIZE, pool.acquire(NIOBufferPool.MAX_POOLED_SIZE).capacity());
+		
+		//Too big - exact size
+		assertEquals(NIOBufferPool.MAX_POOLED_SIZE + 1, pool.acquire(NIOBufferPool.MAX_POOLED_SIZE + 1).capacity());
+		
+		assertTrue(pool.acquire(100).isDirect());
+		assertEquals(6, pool.getInUse());
+	}
+	
+	@Test
+	public void testReuse() {
+		NIOBufferPool pool = new NIOBufferPool();
+		
+		ByteBuffer buffer = pool.acquire(1000);
+		buffer.putInt(12345);
+		pool.release(buffer);
+		
+		//Same buffer - cleared
+		ByteBuffer again = pool.acquire(2000);
+		assertSame(buffer, again);
+		assertEquals(0, again.position());
+		assertEquals(again.capacity(), again.limit());
+		assertEquals(1, pool.getReused());
+		assertEquals(1, pool.getAllocated());
+		
+		//Different class
+		assertNotSame(buffer, pool.acquire(10000));
+		
+		//Heap and unpooled sizes are not kept
+		pool.release(ByteBuffer.allocate(NIOBufferPool.MIN_POOLED_SIZE));
+		pool.release(pool.acquire(NIOBufferPool.MAX_POOLED_SIZE * 2));
+		assertEquals(0, pool.getFree());
+	}
+	
+	@Test
+	public void testMaxFree() {
+		NIOBufferPool pool = new NIOBufferPool();
+		
+		int total = NIOBufferPool.MAX_FREE_PER_CLASS + 10;
+		ByteBuffer[] buffers = new ByteBuffer[total];
+		for(int i=0;i<total;i++) {
+			buffers[i] = pool.acquire(1);
+		}
+		for(int i=0;i<total;i++) {
+			pool.release(buffers[i]);
+		}
+		
+		assertEquals(NIOBufferPool.MAX_FREE_PER_CLASS, pool.getFree());
+		assertEquals(0, pool.getInUse());
+		assertFalse(pool.getFree() > NIOBufferPool.MAX_FREE_PER_CLASS);
+	}
+}
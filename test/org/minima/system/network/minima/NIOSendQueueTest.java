@@ -0,0 +1,65 @@
+package org.minima.system.network.minima;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniData;
+
+public class NIOSendQueueTest {
+
+	@Test
+	public void testOrder() {
+		NIOSendQueue queue = new NIOSendQueue(1024, Long.MAX_VALUE);
+		
+		//More than the initial size - and wrap around
+		for(int loop=0;loop<3;loop++) {
+			for(int i=0;i<500;i++) {
+				assertTrue(queue.offer(new MiniData(new byte[] {(byte)i, (byte)(i>>8)})));
+			}
+			assertEquals(500, queue.size());
+			assertEquals(1000, queue.getBytes());
+			
+			for(int i=0;i<500;i++) {
+				byte[] data = queue.poll().getBytes();
+				assertEquals(i, (data[0] & 0xff) | ((data[1] & 0xff) << 8));
+			}
+		}
+		
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.getBytes());
+		assertNull(queue.poll());
+	}
+	
+	@Test
+	public void testMaxMessages() {
+		NIOSendQueue queue = new NIOSendQueue(100, Long.MAX_VALUE);
+		
+		//Rounded up to 128
+		for(int i=0;i<128;i++) {
+			assertTrue(queue.offer(new MiniData("0x01")));
+		}
+		assertFalse(queue.offer(new MiniData("0x01")));
+		
+		//Space again
+		queue.poll();
+		assertTrue(queue.offer(new MiniData("0x01")));
+	}
+	
+	@Test
+	public void testMaxBytes() {
+		NIOSendQueue queue = new NIOSendQueue(1024, 100);
+		
+		assertTrue(queue.offer(new MiniData(new byte[60])));
+		assertFalse(queue.offer(new MiniData(new byte[60])));
+		assertTrue(queue.offer(new MiniData(new byte[40])));
+		assertEquals(100, queue.getBytes());
+		
+		queue.clear();
+		assertEquals(0, queue.size());
+		assertEquals(0, queue.getBytes());
+		assertTrue(queue.offer(new MiniData(new byte[100])));
+	}
+}
@@ -0,0 +1,206 @@
+package org.minima.system.network.minima;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.minima.objects.base.MiniData;
+import org.minima.utils.LaneExecutor;
+import org.minima.utils.messages.Message;
+import org.minima.utils.messages.MessageProcessor;
+
+/**
+ * Load test for the NIOServer - opens hundreds of loopback peers that all send
+ * messages, then prints messages per second and the latency from send to processed.
+ * 
+ * Run as a main - not part of the unit tests.
+ * 
+ * args : [peers] [messages per peer] [selector threads..]
+ */
+public class NIOServerLoadBenchmark {
+
+	/**
+	 * Gets the messages from the NIOServer and processes them in lanes - like the NIOManager
+	 */
+	static class LoadProcessor extends MessageProcessor {
+		
+		CountDownLatch mStarted = new CountDownLatch(1);
+		AtomicInteger mConnected = new AtomicInteger();
+		
+		LaneExecutor mLanes;
+		
+		long[] mLatency;
+		AtomicInteger mReceived = new AtomicInteger();
+		
+		ConcurrentHashMap<String, Integer> mLastSeq = new ConcurrentHashMap<>();
+		AtomicInteger mOutOfOrder = new AtomicInteger();
+		
+		public LoadProcessor(int zTotal, int zLanes) {
+			super("NIOLOADTEST");
+			mLatency 	= new long[zTotal];
+			mLanes 		= new LaneExecutor("NIOLoadLane", zLanes);
+		}
+		
+		@Override
+		protected void processMessage(Message zMessage) throws Exception {
+			if(zMessage.isMessageType(NIOManager.NIO_SERVERSTARTED)) {
+				mStarted.countDown();
+				
+			}else if(zMessage.isMessageType(NIOManager.NIO_NEWCONNECTION)) {
+				mConnected.incrementAndGet();
+				
+			}else if(zMessage.isMessageType(NIOManager.NIO_INCOMINGMSG)) {
+				final String uid 	= zMessage.getString("uid");
+				final MiniData data = (MiniData) zMessage.getObject("data");
+				
+				mLanes.execute(uid, new Runnable() {
+					@Override
+					public void run() {
+						ByteBuffer buff = ByteBuffer.wrap(data.getBytes());
+						long sent 	= buff.getLong();
+						int seq 	= buff.getInt();
+						
+						//Each peer must arrive in order
+						Integer last = mLastSeq.put(uid, seq);
+						if(last != null && last + 1 != seq) {
+							mOutOfOrder.incrementAndGet();
+						}
+						
+						int num = mReceived.getAndIncrement();
+						if(num < mLatency.length) {
+							mLatency[num] = System.nanoTime() - sent;
+						}
+					}
+				});
+			}
+		}
+	}
+	
+	private static int getFreePort() throws Exception {
+		ServerSocket ss = new ServerSocket(0);
+		int port = ss.getLocalPort();
+		ss.close();
+		return port;
+	}
+	
+	private static void runTest(int zPeers, int zMessages, int zSelectors) throws Exception {
+		final int total = zPeers * zMessages;
+		
+		LoadProcessor proc 	= new LoadProcessor(total, 4);
+		int port 			= getFreePort();
+		NIOServer server 	= new NIOServer(port, proc, zSelectors);
+		new Thread(server, "NIOServer").start();
+		proc.mStarted.await(10, TimeUnit.SECONDS);
+		
+		//Open all the peers
+		final ArrayList<SocketChannel> peers = new ArrayList<>();
+		for(int i=0;i<zPeers;i++) {
+			SocketChannel sc = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+			sc.socket().setTcpNoDelay(true);
+			peers.add(sc);
+		}
+		while(proc.mConnected.get() < zPeers) {
+			Thread.sleep(10);
+		}
+		
+		//Several threads share the sending
+		final int senders = 4;
+		ArrayList<Thread> threads = new ArrayList<>();
+		long start = System.nanoTime();
+		for(int t=0;t<senders;t++) {
+			final int thread = t;
+			Thread sender = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						ByteBuffer frame = ByteBuffer.allocate(4 + 64);
+						for(int seq=0;seq<zMessages;seq++) {
+							for(int p=thread;p<peers.size();p+=senders) {
+								frame.clear();
+								frame.putInt(64);
+								frame.putLong(System.nanoTime());
+								frame.putInt(seq);
+								frame.position(frame.limit());
+								frame.flip();
+								while(frame.hasRemaining()) {
+									peers.get(p).write(frame);
+								}
+							}
+						}
+					}catch(Exception exc) {
+						exc.printStackTrace();
+					}
+				}
+			});
+			sender.start();
+			threads.add(sender);
+		}
+		
+		for(Thread sender : threads) {
+			sender.join();
+		}
+		
+		//Wait for them all to be processed
+		long timeout = System.currentTimeMillis() + 60000;
+		while(proc.mReceived.get() < total && System.currentTimeMillis() < timeout) {
+			Thread.sleep(1);
+		}
+		long time = System.nanoTime() - start;
+		
+		int received = Math.min(total, proc.mReceived.get());
+		long[] latency = Arrays.copyOf(proc.mLatency, received);
+		Arrays.sort(latency);
+		
+		System.out.println("selectors:"+zSelectors
+				+" peers:"+zPeers
+				+" messages:"+received+"/"+total
+				+" msg/s:"+(long)(received / (time / 1000000000.0))
+				+" p50:"+percentile(latency, 0.5)
+				+"ms p99:"+percentile(latency, 0.99)
+				+"ms p99.9:"+percentile(latency, 0.999)
+				+"ms max:"+percentile(latency, 1.0)
+				+"ms outoforder:"+proc.mOutOfOrder.get());
+		
+		//Clean up
+		for(SocketChannel sc : peers) {
+			sc.close();
+		}
+		server.shutdown();
+		proc.mLanes.shutdownNow();
+		proc.stopMessageProcessor();
+		Thread.sleep(500);
+	}
+	
+	private static String percentile(long[] zSorted, double zPercent) {
+		if(zSorted.length == 0) {
+			return "-";
+		}
+		int index = (int)Math.min(zSorted.length - 1, Math.ceil(zPercent * zSorted.length) - 1);
+		return String.format("%.2f", zSorted[Math.max(0, index)] / 1000000.0);
+	}
+	
+	public static void main(String[] zArgs) throws Exception {
+		int peers 		= zArgs.length > 0 ? Integer.parseInt(zArgs[0]) : 200;
+		int messages 	= zArgs.length > 1 ? Integer.parseInt(zArgs[1]) : 500;
+		
+		ArrayList<Integer> selectors = new ArrayList<>();
+		for(int i=2;i<zArgs.length;i++) {
+			selectors.add(Integer.parseInt(zArgs[i]));
+		}
+		if(selectors.isEmpty()) {
+			selectors.add(1);
+			selectors.add(Runtime.getRuntime().availableProcessors());
+		}
+		
+		for(int sel : selectors) {
+			runTest(peers, messages, sel);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package org.minima.tests.kissvm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.minima.kissvm.Contract;
+import org.minima.kissvm.ScriptCache;
+import org.minima.kissvm.statements.StatementBlock;
+import org.minima.objects.Transaction;
+import org.minima.objects.Witness;
+
+public class ScriptCacheTests {
+
+	@Test
+	public void testCache() throws Exception {
+		ScriptCache.clear();
+
+		//First is a miss - then the same block every time
+		StatementBlock block = ScriptCache.getStatementBlock("LET a = 1 RETURN a EQ 1");
+		assertEquals(0, ScriptCache.getHits());
+		assertEquals(1, ScriptCache.getMisses());
+
+		assertSame(block, ScriptCache.getStatementBlock("LET a = 1 RETURN a EQ 1"));
+		assertEquals(1, ScriptCache.getHits());
+		assertEquals(1, ScriptCache.getSize());
+
+		//Bad scripts are not stored
+		try {
+			ScriptCache.getStatementBlock("LET a = ");
+		}catch(Exception exc) {}
+		assertEquals(1, ScriptCache.getSize());
+		assertEquals(2, ScriptCache.getMisses());
+
+		ScriptCache.clear();
+		assertEquals(0, ScriptCache.getSize());
+	}
+
+	@Test
+	public void testSharedBlock() {
+		ScriptCache.clear();
+
+		String script = "LET a = 1 LET a = a + 1 RETURN a EQ 2";
+
+		//Each Contract keeps its own variables when running the same parsed block
+		int instructions = -1;
+		for(int i=0;i<3;i++) {
+			Contract ctr = new Contract(script, "", new Witness(), new Transaction(), null);
+			ctr.run();
+			assertTrue(ctr.isParseOK());
+			assertTrue(ctr.isSuccess());
+			if(instructions == -1) {
+				instructions = ctr.getNumberOfInstructions();
+			}
+			assertEquals(instructions, ctr.getNumberOfInstructions());
+		}
+		assertEquals(2, ScriptCache.getHits());
+
+		//A bad script still fails to parse every time
+		Contract bad = new Contract("LET a = ", "", new Witness(), new Transaction(), null);
+		assertFalse(bad.isParseOK());
+		assertTrue(bad.isException());
+
+		ScriptCache.clear();
+	}
+}
@@ -0,0 +1,82 @@
+package org.minima.tests.kissvm;
+
+import org.minima.kissvm.ScriptCache;
+import org.minima.kissvm.exceptions.MinimaParseException;
+import org.minima.kissvm.functions.MinimaFunction;
+
+/**
+ * Parse time of scripts with many function calls - and the function lookup on its own
+ * against the old scan through ALL_FUNCTIONS.
+ *
+ * Run as a main - not part of the unit tests.
+ *
+ * args : [rounds] [function calls]
+ */
+public class ScriptParseBenchmark {
+
+	/**
+	 * How the functions used to be found
+	 */
+	private static MinimaFunction scanFunction(String zFunction) throws MinimaParseException {
+		for(MinimaFunction func : MinimaFunction.ALL_FUNCTIONS) {
+			if(func.getName().equalsIgnoreCase(zFunction)) {
+				return func.getNewFunction();
+			}
+		}
+		throw new MinimaParseException("Invalid Function : "+zFunction);
+	}
+
+	private static String createScript(int zCalls) {
+		StringBuilder script = new StringBuilder();
+		for(int i=0;i<zCalls;i++) {
+			script.append("LET a = GETOUTAMT(").append(i % 4).append(") + LEN(CONCAT(0x01 0x02)) ");
+			script.append("LET b = STATE(1) EQ PREVSTATE(1) AND VERIFYOUT(0 0xFF 1 0x00) ");
+		}
+		script.append("RETURN SIGNEDBY(0xFF)");
+		return script.toString();
+	}
+
+	public static void main(String[] zArgs) throws Exception {
+		int rounds 	= zArgs.length > 0 ? Integer.parseInt(zArgs[0]) : 200;
+		int calls 	= zArgs.length > 1 ? Integer.parseInt(zArgs[1]) : 100;
+
+		//The names in the order a script uses them - the later ones are the slowest to scan for
+		String[] names = new String[MinimaFunction.ALL_FUNCTIONS.length];
+		for(int i=0;i<names.length;i++) {
+			names[i] = MinimaFunction.ALL_FUNCTIONS[i].getName();
+		}
+
+		int lookups = rounds * 1000;
+		for(int warm=0;warm<2;warm++) {
+			long timestart = System.nanoTime();
+			for(int i=0;i<lookups;i++) {
+				scanFunction(names[i % names.length]);
+			}
+			long scan = System.nanoTime() - timestart;
+
+			timestart = System.nanoTime();
+			for(int i=0;i<lookups;i++) {
+				MinimaFunction.getFunction(names[i % names.length]);
+			}
+			long map = System.nanoTime() - timestart;
+
+			if(warm == 1) {
+				System.out.println("lookups:"+lookups+" scan:"+(scan / lookups)+"ns map:"+(map / lookups)+"ns");
+			}
+		}
+
+		String script = createScript(calls);
+		for(int warm=0;warm<2;warm++) {
+			long timestart = System.nanoTime();
+			for(int i=0;i<rounds;i++) {
+				ScriptCache.parseScript(script);
+			}
+			long parse = System.nanoTime() - timestart;
+
+			if(warm == 1) {
+				System.out.println("script chars:"+script.length()+" functions:"+(calls * 7 + 1)
+						+" parse:"+(parse / rounds / 1000)+"us");
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package org.minima.tests.kissvm.functions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Test;
+import org.minima.kissvm.Contract;
+import org.minima.kissvm.ScriptCache;
+import org.minima.kissvm.exceptions.ExecutionException;
+import org.minima.kissvm.exceptions.MinimaParseException;
+import org.minima.kissvm.functions.MinimaFunction;
+import org.minima.kissvm.functions.sigs.SIGNEDBY;
+import org.minima.kissvm.tokens.ScriptToken;
+import org.minima.kissvm.values.BooleanValue;
+import org.minima.kissvm.values.Value;
+import org.minima.objects.Transaction;
+import org.minima.objects.Witness;
+
+public class FunctionRegistryTests {
+
+	public static class REGISTERED extends MinimaFunction {
+
+		public REGISTERED() {
+			super("REGISTERED");
+		}
+
+		@Override
+		public Value runFunction(Contract zContract) throws ExecutionException {
+			return new BooleanValue(true);
+		}
+
+		@Override
+		public MinimaFunction getNewFunction() {
+			return new REGISTERED();
+		}
+
+		@Override
+		public int requiredParams() {
+			return 1;
+		}
+	}
+
+	/**
+	 * The registry is global - leave it as it was
+	 */
+	@After
+	public void cleanUp() {
+		MinimaFunction.unregisterFunction("REGISTERED");
+	}
+
+	@Test
+	public void testBuiltIn() throws MinimaParseException {
+		for(MinimaFunction func : MinimaFunction.ALL_FUNCTIONS) {
+			assertTrue(MinimaFunction.getAllFunctionNames().contains(func.getName()));
+			assertEquals(func.getName(), MinimaFunction.getFunction(func.getName()).getName());
+			assertEquals(func.getName(), MinimaFunction.getFunction(func.getName().toLowerCase()).getName());
+		}
+
+		assertThrows(MinimaParseException.class, () -> {
+			MinimaFunction.getFunction("NOTAFUNCTION");
+		});
+	}
+
+	@Test
+	public void testLocale() throws MinimaParseException {
+		//Upper case i is not I in Turkish
+		Locale def = Locale.getDefault();
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			assertTrue(MinimaFunction.getFunction("signedby") instanceof SIGNEDBY);
+		}finally {
+			Locale.setDefault(def);
+		}
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		//Before it is a function the name is a variable - and that parse is cached
+		ScriptCache.getStatementBlock("LET registered = 1 RETURN TRUE");
+		assertTrue(ScriptCache.getSize() > 0);
+
+		MinimaFunction.registerFunction(new REGISTERED());
+		assertEquals(0, ScriptCache.getSize());
+
+		//A new one each time
+		MinimaFunction func = MinimaFunction.getFunction("REGISTERED");
+		assertTrue(func instanceof REGISTERED);
+		assertTrue(func != MinimaFunction.getFunction("REGISTERED"));
+
+		//The tokenizer knows it is a function
+		List<ScriptToken> tokens = ScriptToken.tokenize("RETURN REGISTERED(1)");
+		assertEquals(ScriptToken.TOKEN_FUNCTIION, tokens.get(1).getTokenType());
+
+		//And it can be run
+		Contract ctr = new Contract("RETURN REGISTERED(1)", "", new Witness(), new Transaction(), null);
+		ctr.run();
+		assertTrue(ctr.isSuccess());
+
+		assertThrows(IllegalArgumentException.class, () -> {
+			MinimaFunction.registerFunction(new DUMMYFUNCTION() {
+				@Override
+				public String getName() {
+					return "NOT_VALID";
+				}
+			});
+		});
+
+		//Cannot add it twice
+		assertThrows(IllegalArgumentException.class, () -> {
+			MinimaFunction.registerFunction(new REGISTERED());
+		});
+
+		//And gone again
+		MinimaFunction.unregisterFunction("REGISTERED");
+		assertFalse(MinimaFunction.getAllFunctionNames().contains("REGISTERED"));
+		assertThrows(MinimaParseException.class, () -> {
+			MinimaFunction.getFunction("REGISTERED");
+		});
+	}
+
+	@Test
+	public void testNoReplace() throws MinimaParseException {
+		//A built in function cannot be replaced or removed
+		assertThrows(IllegalArgumentException.class, () -> {
+			MinimaFunction.registerFunction(new REGISTERED() {
+				@Override
+				public String getName() {
+					return "SIGNEDBY";
+				}
+			});
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			MinimaFunction.unregisterFunction("SIGNEDBY");
+		});
+
+		assertTrue(MinimaFunction.getFunction("SIGNEDBY") instanceof SIGNEDBY);
+	}
+
+	@Test
+	public void testReservedWords() throws MinimaParseException {
+		String script = "IF TRUE AND NOT FALSE THEN LET a = 1 ENDIF RETURN a LT 2";
+		String before = ScriptToken.tokenize(script).toString();
+
+		//Commands, boolean operators and TRUE / FALSE cannot be functions
+		for(String name : new String[] {"TRUE","FALSE","AND","NOT","LT","EQ","RETURN","LET","IF"}) {
+			assertThrows(IllegalArgumentException.class, () -> {
+				MinimaFunction.registerFunction(new REGISTERED() {
+					@Override
+					public String getName() {
+						return name;
+					}
+				});
+			});
+			assertFalse(MinimaFunction.getAllFunctionNames().contains(name));
+		}
+
+		//Scripts tokenize the same
+		assertEquals(before, ScriptToken.tokenize(script).toString());
+		assertEquals(ScriptToken.TOKEN_TRUE, ScriptToken.tokenize("RETURN TRUE").get(1).getTokenType());
+	}
+}
@@ -0,0 +1,88 @@
+package org.minima.tests.kissvm.tokens;
+
+import java.util.ArrayList;
+
+import org.minima.kissvm.tokens.ScriptTokenizer;
+
+/**
+ * Speed of the ScriptTokenizer against the old regex one - on the test corpus and on large scripts.
+ *
+ * Run as a main - not part of the unit tests.
+ *
+ * args : [rounds] [large script statements]
+ */
+public class ScriptTokenizerBenchmark {
+
+	/**
+	 * A long valid script - like a big MAST branch or EXEC
+	 */
+	private static String createLargeScript(int zStatements) {
+		StringBuilder script = new StringBuilder();
+		for(int i=0;i<zStatements;i++) {
+			script.append("LET a = ").append(i).append(" + 0xFF * ( b - 1.5 ) ");
+			script.append("IF a GT @BLOCK AND SIGNEDBY(0x3D6B3D6E37D4D1B6A1D9F1C4E5D6F7A8) THEN LET s = [text [nested] ").append(i).append("] ENDIF\n");
+		}
+		script.append("RETURN TRUE");
+		return script.toString();
+	}
+
+	private static long run(ArrayList<String> zScripts, int zRounds, boolean zLegacy) throws Exception {
+		long tokens 	= 0;
+		long timestart 	= System.nanoTime();
+		for(int r=0;r<zRounds;r++) {
+			for(String script : zScripts) {
+				if(zLegacy) {
+					tokens += new LegacyScriptTokenizer(script).tokenize().size();
+				}else {
+					tokens += new ScriptTokenizer(script).tokenize().size();
+				}
+			}
+		}
+		long nanos = System.nanoTime() - timestart;
+
+		if(tokens == 0) {
+			System.out.println("No tokens made");
+		}
+
+		return nanos;
+	}
+
+	private static void compare(String zName, ArrayList<String> zScripts, int zRounds) throws Exception {
+		//Warm up both..
+		run(zScripts, Math.max(1, zRounds / 10), true);
+		run(zScripts, Math.max(1, zRounds / 10), false);
+
+		long legacy = run(zScripts, zRounds, true);
+		long lexer 	= run(zScripts, zRounds, false);
+
+		long chars = 0;
+		for(String script : zScripts) {
+			chars += script.length();
+		}
+		chars *= zRounds;
+
+		System.out.println(zName+" chars:"+chars
+				+" legacy:"+(legacy / 1000000)+"ms "+(chars * 1000 / Math.max(1, legacy))+" MChar/s"
+				+" new:"+(lexer / 1000000)+"ms "+(chars * 1000 / Math.max(1, lexer))+" MChar/s"
+				+" speedup:"+String.format("%.1f", (double) legacy / Math.max(1, lexer))+"x");
+	}
+
+	public static void main(String[] zArgs) throws Exception {
+		int rounds 		= zArgs.length > 0 ? Integer.parseInt(zArgs[0]) : 200;
+		int statements 	= zArgs.length > 1 ? Integer.parseInt(zArgs[1]) : 2000;
+
+		//The corpus - only the ones that tokenize
+		ArrayList<String> corpus = new ArrayList<>();
+		for(String script : ScriptTokenizerDifferentialTests.CORPUS) {
+			try {
+				new LegacyScriptTokenizer(script).tokenize();
+				corpus.add(script);
+			}catch(Exception exc) {}
+		}
+		compare("corpus", corpus, rounds * 10);
+
+		ArrayList<String> large = new ArrayList<>();
+		large.add(createLargeScript(statements));
+		compare("large", large, Math.max(1, rounds / 10));
+	}
+}
@@ -0,0 +1,170 @@
+package org.minima.tests.kissvm.tokens;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.minima.kissvm.exceptions.MinimaParseException;
+import org.minima.kissvm.functions.MinimaFunction;
+import org.minima.kissvm.tokens.ScriptToken;
+import org.minima.kissvm.tokens.ScriptTokenizer;
+
+/**
+ * The ScriptTokenizer must make exactly the same tokens - and the same errors - as the old regex one
+ */
+public class ScriptTokenizerDifferentialTests {
+
+	public static final String[] CORPUS = {
+		"",
+		"   ",
+		"RETURN TRUE",
+		"RETURN FALSE",
+		"RETURN SIGNEDBY(0x3D6B3D6E37D4D1B6A1D9F1C4E5D6F7A8B9C0D1E2F3A4B5C6D7E8F9A0B1C2D3E4)",
+		"RETURN MULTISIG(2 0xAA 0xBB 0xCC)",
+		"LET a = 1 LET b = a + 2 * 3 / 4 - 5 % 6 RETURN b EQ 1",
+		"LET x = 0xFF & 0x0F | 0xF0 ^ 0x00 LET y = x << 2 LET z = y >> 1",
+		"IF @BLOCK GT 100 THEN RETURN TRUE ELSEIF @BLOCK LT 10 THEN RETURN FALSE ELSE ASSERT TRUE ENDIF",
+		"LET i = 0 WHILE i LT 10 DO LET i = INC(i) ENDWHILE RETURN i EQ 10",
+		"LET s = [hello world] LET t = [nested [brackets] here] RETURN LEN(s) GTE 5",
+		"EXEC [RETURN TRUE]",
+		"MAST 0x1234",
+		"LET ( a ) = 5 LET arr ( 1 2 ) = [x]",
+		"RETURN STATE(1) EQ PREVSTATE(1) AND SAMESTATE(1 4)",
+		"RETURN VERIFYOUT(@INPUT 0xAA 1.5 @TOKENID TRUE) NAND NOT FALSE",
+		"RETURN GETOUTAMT(0) GTE 1.000001 XOR NXOR NOR NEG OR NEQ LTE",
+		"RETURN SHA2(0x00) EQ SHA3(0x00) OR KECCAK(0x00) EQ PROOF(0x00 0x00 0x00)",
+		"LET a=1LET b=2",
+		"LET a = 1RETURN a",
+		"return true",
+		"Return True",
+		"let a = 1 if a eq 1 then return true endif",
+		"@block @BLOCK @Block @ @1",
+		"1.5 1. .5 1.2.3 0x 0xZZ 0X12 00 007.700",
+		"a1 A1 _a a_b a-b",
+		"]",
+		"[unclosed [bracket",
+		"a < b",
+		"a > b",
+		"a <",
+		"a >",
+		"a <> b",
+		"LET a = 1 <<2 >>3",
+		"\tLET\na\r=\f1\u000BRETURN\ta",
+		"LET é = 1",
+		"LET a = ü",
+		"RETURN TRUE",
+		"ELSEIFX IFTHEN ENDWHILE1 LETa",
+		"CONCAT(0x01 0x02) SUBSET(0 1 0xFF) OVERWRITE(0x00 0 0x11 0 1) BITSET(0x00 1 TRUE)",
+		"ASSERT SIGNEDBY(0x00) AND CHECKSIG(0x00 0x00 0x00)",
+		"ıf a eq 1 then return true endif",
+		"aßert TRUE",
+		"LET straße = 1",
+	};
+
+	/**
+	 * What the tokenizer made - or the error it threw
+	 */
+	private String tokenize(String zScript, boolean zCaseInsensitive, boolean zLegacy) {
+		try {
+			List<ScriptToken> tokens;
+			if(zLegacy) {
+				tokens = new LegacyScriptTokenizer(zScript, zCaseInsensitive).tokenize();
+			}else {
+				tokens = new ScriptTokenizer(zScript, zCaseInsensitive).tokenize();
+			}
+
+			StringBuilder ret = new StringBuilder();
+			for(ScriptToken tok : tokens) {
+				ret.append(tok.getTokenType()).append(':').append(tok.getToken()).append('\n');
+			}
+			return ret.toString();
+
+		}catch(MinimaParseException exc) {
+			return "PARSE ERROR "+exc.getMessage();
+		}catch(Exception exc) {
+			return "ERROR "+exc.getClass().getSimpleName();
+		}
+	}
+
+	private void check(String zScript) {
+		assertEquals(zScript, tokenize(zScript, false, true), tokenize(zScript, false, false));
+		assertEquals(zScript, tokenize(zScript, true, true), tokenize(zScript, true, false));
+	}
+
+	@Test
+	public void testCorpus() {
+		for(String script : CORPUS) {
+			check(script);
+		}
+	}
+
+	@Test
+	public void testAllKeywords() {
+		StringBuilder script = new StringBuilder();
+		for(String command : ScriptTokenizer.TOKENS_COMMAND) {
+			script.append(' ').append(command).append(' ').append(command.toLowerCase());
+		}
+		for(MinimaFunction func : MinimaFunction.ALL_FUNCTIONS) {
+			script.append(' ').append(func.getName()).append("(a)");
+		}
+		for(String boolop : ScriptTokenizer.TOKENS_BOOLEAN_OPERATOR) {
+			script.append(' ').append(boolop).append(' ').append(boolop.toLowerCase());
+		}
+		check(script.toString());
+	}
+
+	/**
+	 * Random scripts made from bits of real ones - and random characters
+	 */
+	public static ArrayList<String> createRandomScripts(long zSeed, int zNumber, int zMaxParts) {
+		String[] parts = {
+			" ", " ", " ", "\n", "\t", "LET", "IF", "THEN", "ELSE", "ELSEIF", "ENDIF", "RETURN", "ASSERT",
+			"WHILE", "DO", "ENDWHILE", "EXEC", "MAST", "SIGNEDBY", "MULTISIG", "STATE", "GETOUTAMT",
+			"TRUE", "FALSE", "true", "false", "EQ", "NEQ", "AND", "OR", "NOT", "lt", "gte",
+			"a", "b", "abc", "A", "Ab", "@BLOCK", "@INPUT", "@", "@x",
+			"0", "1", "12.5", "1.", "0x", "0xFF", "0xfg", "(", ")", "[", "]", "[x y]",
+			"+", "-", "*", "/", "%", "&", "|", "^", "=", "<<", ">>", "<", ">", "é", "ß", " ", "_", ".", ","
+		};
+
+		Random rand 			= new Random(zSeed);
+		ArrayList<String> ret 	= new ArrayList<>();
+		for(int i=0;i<zNumber;i++) {
+			StringBuilder script = new StringBuilder();
+			int len = rand.nextInt(zMaxParts);
+			for(int j=0;j<len;j++) {
+				if(rand.nextInt(10) == 0) {
+					script.append((char) (32 + rand.nextInt(96)));
+				}else {
+					script.append(parts[rand.nextInt(parts.length)]);
+				}
+			}
+			ret.add(script.toString());
+		}
+
+		return ret;
+	}
+
+	@Test
+	public void testRandom() {
+		for(String script : createRandomScripts(42, 5000, 30)) {
+			check(script);
+		}
+	}
+
+	@Test
+	public void testStaticChecks() {
+		String[] words = {"", "a", "abc", "aB", "A", "@A", "@", "@AB1", "0", "12", "1.5", "1.", ".5", "1.2.3",
+							"0x", "0x0", "0xaF", "0xg", "0X1", " ", " \t\n", "a b", " ", "-1", "١٢"};
+
+		for(String word : words) {
+			assertEquals(word, LegacyScriptTokenizer.isNumeric(word), ScriptTokenizer.isNumeric(word));
+			assertEquals(word, LegacyScriptTokenizer.isHex(word), ScriptTokenizer.isHex(word));
+			assertEquals(word, LegacyScriptTokenizer.isVariable(word), ScriptTokenizer.isVariable(word));
+			assertEquals(word, LegacyScriptTokenizer.isGlobal(word), ScriptTokenizer.isGlobal(word));
+			assertEquals(word, LegacyScriptTokenizer.isWhiteSpace(word), ScriptTokenizer.isWhiteSpace(word));
+		}
+	}
+}
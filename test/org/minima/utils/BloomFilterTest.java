@@ -0,0 +1,36 @@
+package org.minima.utils;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.minima.objects.base.MiniData;
+
+public class BloomFilterTest {
+
+	@Test
+	public void testBloomFilter() {
+		BloomFilter bloom = new BloomFilter(1 << 16, 5);
+		assertTrue(bloom.getSize() == 1 << 16);
+		
+		//Add some..
+		String[] added = new String[5000];
+		for(int i=0;i<added.length;i++) {
+			added[i] = MiniData.getRandomData(32).to0xString();
+			bloom.add(added[i]);
+		}
+		
+		//Never a false negative
+		for(String item : added) {
+			assertTrue(bloom.mightContain(item));
+		}
+		
+		//Few false positives - about 1% expected at this load
+		int falsepos = 0;
+		for(int i=0;i<10000;i++) {
+			if(bloom.mightContain(MiniData.getRandomData(32).to0xString())) {
+				falsepos++;
+			}
+		}
+		assertTrue("False positives "+falsepos, falsepos < 500);
+	}
+}
@@ -0,0 +1,62 @@
+package org.minima.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class LaneExecutorTest {
+
+	@Test
+	public void testSameKeySameLane() {
+		LaneExecutor lanes = new LaneExecutor("LANETEST", 4);
+		
+		assertEquals(4, lanes.getLanes());
+		for(int i=0;i<100;i++) {
+			String key = "key"+i;
+			int lane = lanes.getLane(key);
+			assertTrue(lane >= 0 && lane < 4);
+			assertEquals(lane, lanes.getLane(key));
+		}
+		
+		lanes.shutdownNow();
+	}
+	
+	@Test
+	public void testOrderPerKey() throws Exception {
+		LaneExecutor lanes = new LaneExecutor("LANETEST", 4);
+		
+		final int keys 		= 50;
+		final int tasks 	= 200;
+		final CountDownLatch done = new CountDownLatch(keys * tasks);
+		final ConcurrentHashMap<String, Integer> last = new ConcurrentHashMap<>();
+		final AtomicInteger errors = new AtomicInteger();
+		
+		for(int i=0;i<tasks;i++) {
+			for(int k=0;k<keys;k++) {
+				final String key 	= "client"+k;
+				final int num 		= i;
+				lanes.execute(key, new Runnable() {
+					@Override
+					public void run() {
+						Integer prev = last.put(key, num);
+						if(prev != null && prev + 1 != num) {
+							errors.incrementAndGet();
+						}
+						done.countDown();
+					}
+				});
+			}
+		}
+		
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(0, errors.get());
+		
+		lanes.shutdownNow();
+	}
+}
@@ -0,0 +1,104 @@
+package org.minima.utils.messages;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post messages from several threads at once and measure how long until each is processed -
+ * for processors on their own thread and on the shared threads.
+ * 
+ * Run the main method directly - not part of the unit tests.
+ */
+public class MessageProcessorBenchmark {
+
+	static final int PRODUCERS 		= 4;
+	static final int MESSAGES 		= 250000;
+	static final int PROCESSORS 	= 8;
+	
+	static class LatencyProcessor extends MessageProcessor {
+		
+		AtomicLong mTotalLatency 	= new AtomicLong();
+		AtomicLong mMaxLatency 		= new AtomicLong();
+		AtomicLong mProcessed 		= new AtomicLong();
+		
+		public LatencyProcessor(boolean zShared) {
+			super("BENCHMARK", zShared);
+		}
+		
+		@Override
+		protected void processMessage(Message zMessage) throws Exception {
+			long latency = System.nanoTime() - (Long)zMessage.getObject("posted");
+			mTotalLatency.addAndGet(latency);
+			if(latency > mMaxLatency.get()) {
+				mMaxLatency.set(latency);
+			}
+			mProcessed.incrementAndGet();
+		}
+	}
+	
+	public static void main(String[] zArgs) throws Exception {
+		//Warm up
+		run(false);
+		run(true);
+		
+		System.out.println("Producers:"+PRODUCERS+" Processors:"+PROCESSORS+" Messages:"+(PRODUCERS * MESSAGES));
+		run(false);
+		run(true);
+	}
+	
+	static void run(boolean zShared) throws Exception {
+		final ArrayList<LatencyProcessor> procs = new ArrayList<>();
+		for(int i=0;i<PROCESSORS;i++) {
+			procs.add(new LatencyProcessor(zShared));
+		}
+		
+		long start = System.nanoTime();
+		
+		ArrayList<Thread> threads = new ArrayList<>();
+		for(int i=0;i<PRODUCERS;i++) {
+			Thread poster = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int num=0;num<MESSAGES;num++) {
+						procs.get(num % PROCESSORS).PostMessage(new Message("BENCH").addObject("posted", System.nanoTime()));
+					}
+				}
+			});
+			threads.add(poster);
+			poster.start();
+		}
+		
+		for(Thread poster : threads) {
+			poster.join();
+		}
+		
+		//Wait for all processed
+		long total = (long)PRODUCERS * MESSAGES;
+		while(true) {
+			long processed = 0;
+			for(LatencyProcessor proc : procs) {
+				processed += proc.mProcessed.get();
+			}
+			if(processed >= total) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		
+		long time = System.nanoTime() - start;
+		
+		long latency 	= 0;
+		long max 		= 0;
+		for(LatencyProcessor proc : procs) {
+			latency += proc.mTotalLatency.get();
+			max		 = Math.max(max, proc.mMaxLatency.get());
+			proc.stopMessageProcessor();
+		}
+		
+		System.out.println(String.format("%-12s throughput %,.0f msg/s  avg latency %,.1f us  max latency %,.1f ms", 
+				zShared ? "shared" : "own thread",
+				total * 1000000000.0 / time,
+				latency / 1000.0 / total,
+				max / 1000000.0));
+	}
+}
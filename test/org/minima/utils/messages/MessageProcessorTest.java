@@ -0,0 +1,100 @@
+package org.minima.utils.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class MessageProcessorTest {
+
+	/**
+	 * Records the order messages from each producer arrive in
+	 */
+	static class OrderProcessor extends MessageProcessor {
+		
+		int[] mLastSeen;
+		int mErrors 	= 0;
+		int mProcessed 	= 0;
+		
+		public OrderProcessor(int zProducers, boolean zShared) {
+			super("ORDERTEST", zShared);
+			mLastSeen = new int[zProducers];
+		}
+		
+		@Override
+		protected void processMessage(Message zMessage) throws Exception {
+			int producer 	= zMessage.getInteger("producer");
+			int number 		= zMessage.getInteger("number");
+			
+			//Must be in the order posted
+			if(number != mLastSeen[producer] + 1) {
+				mErrors++;
+			}
+			mLastSeen[producer] = number;
+			
+			synchronized (this) {
+				mProcessed++;
+			}
+		}
+		
+		public synchronized int getProcessed() {
+			return mProcessed;
+		}
+	}
+	
+	private void checkOrder(boolean zShared) throws Exception {
+		final int producers = 4;
+		final int messages 	= 20000;
+		
+		final OrderProcessor proc = new OrderProcessor(producers, zShared);
+		
+		ArrayList<Thread> threads = new ArrayList<>();
+		for(int i=0;i<producers;i++) {
+			final int producer = i;
+			Thread poster = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for(int num=1;num<=messages;num++) {
+						proc.PostMessage(new Message("TEST").addInteger("producer", producer).addInteger("number", num));
+					}
+				}
+			});
+			threads.add(poster);
+			poster.start();
+		}
+		
+		for(Thread poster : threads) {
+			poster.join();
+		}
+		
+		//Wait for them all..
+		long timeout = System.currentTimeMillis() + 20000;
+		while(proc.getProcessed() < producers * messages && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		
+		assertEquals(producers * messages, proc.getProcessed());
+		assertEquals(0, proc.mErrors);
+		assertEquals(0, proc.getSize());
+		
+		//And shut down
+		proc.stopMessageProcessor();
+		timeout = System.currentTimeMillis() + 5000;
+		while(!proc.isShutdownComplete() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		assertTrue(proc.isShutdownComplete());
+	}
+	
+	@Test
+	public void testOwnThread() throws Exception {
+		checkOrder(false);
+	}
+	
+	@Test
+	public void testSharedThreads() throws Exception {
+		checkOrder(true);
+	}
+}
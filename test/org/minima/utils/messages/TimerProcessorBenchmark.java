@@ -0,0 +1,61 @@
+package org.minima.utils.messages;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedule and cancel many timers - then print how late they fired.
+ * 
+ * Run as a main - not part of the unit tests.
+ */
+public class TimerProcessorBenchmark {
+
+	static class CountProcessor extends MessageProcessor {
+		
+		AtomicInteger mCount = new AtomicInteger();
+		
+		public CountProcessor() {
+			super("TIMERBENCH");
+		}
+		
+		@Override
+		protected void processMessage(Message zMessage) throws Exception {
+			mCount.incrementAndGet();
+		}
+	}
+	
+	public static void main(String[] zArgs) throws Exception {
+		int timers = 200000;
+		
+		CountProcessor proc = new CountProcessor();
+		TimerProcessor tp 	= TimerProcessor.getTimerProcessor();
+		
+		//Schedule them over the next 2 seconds
+		ArrayList<TimerHandle> handles = new ArrayList<>();
+		long start = System.nanoTime();
+		for(int i=0;i<timers;i++) {
+			handles.add(proc.PostTimerMessage(new TimerMessage(i % 2000, "BENCH")));
+		}
+		long scheduled = System.nanoTime() - start;
+		
+		//Cancel half
+		start = System.nanoTime();
+		for(int i=0;i<timers;i+=2) {
+			handles.get(i).cancel();
+		}
+		long cancelled = System.nanoTime() - start;
+		
+		System.out.println("Schedule : "+(scheduled / timers)+" ns/timer");
+		System.out.println("Cancel   : "+(cancelled / (timers / 2))+" ns/timer");
+		
+		//Wait for them to fire
+		while(proc.mCount.get() < timers / 2) {
+			Thread.sleep(100);
+		}
+		
+		System.out.println("Fired    : "+proc.mCount.get());
+		System.out.println("Latency  : "+tp.getStatus().toString());
+		
+		proc.stopMessageProcessor();
+	}
+}
@@ -0,0 +1,150 @@
+package org.minima.utils.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class TimerProcessorTest {
+
+	/**
+	 * Records the timer messages it receives and when
+	 */
+	static class TimedProcessor extends MessageProcessor {
+		
+		ArrayList<String> mReceived = new ArrayList<>();
+		ArrayList<Long> mLate 		= new ArrayList<>();
+		
+		public TimedProcessor() {
+			super("TIMERTEST");
+		}
+		
+		@Override
+		protected void processMessage(Message zMessage) throws Exception {
+			long late = System.currentTimeMillis() - ((TimerMessage)zMessage).getTimer();
+			synchronized (this) {
+				mReceived.add(zMessage.getMessageType());
+				mLate.add(late);
+				notifyAll();
+			}
+		}
+		
+		public synchronized boolean waitFor(int zCount, long zMaxWait) throws InterruptedException {
+			long end = System.currentTimeMillis() + zMaxWait;
+			while(mReceived.size() < zCount) {
+				long left = end - System.currentTimeMillis();
+				if(left <= 0) {
+					return false;
+				}
+				wait(left);
+			}
+			return true;
+		}
+	}
+	
+	@Test
+	public void testFireOrder() throws Exception {
+		TimedProcessor proc = new TimedProcessor();
+		
+		//Posted out of order
+		proc.PostTimerMessage(new TimerMessage(300, "THIRD"));
+		proc.PostTimerMessage(new TimerMessage(50, "FIRST"));
+		proc.PostTimerMessage(new TimerMessage(150, "SECOND"));
+		proc.PostTimerMessage(new TimerMessage(0, "NOW"));
+		
+		assertTrue(proc.waitFor(4, 5000));
+		
+		synchronized (proc) {
+			assertEquals("NOW", proc.mReceived.get(0));
+			assertEquals("FIRST", proc.mReceived.get(1));
+			assertEquals("SECOND", proc.mReceived.get(2));
+			assertEquals("THIRD", proc.mReceived.get(3));
+			
+			//Nothing is early
+			for(long late : proc.mLate) {
+				assertTrue(late >= 0);
+			}
+		}
+		
+		proc.stopMessageProcessor();
+	}
+	
+	@Test
+	public void testCancel() throws Exception {
+		TimedProcessor proc = new TimedProcessor();
+		
+		TimerHandle cancelled 	= proc.PostTimerMessage(new TimerMessage(100, "CANCELLED"));
+		TimerHandle fired 		= proc.PostTimerMessage(new TimerMessage(200, "FIRED"));
+		
+		assertTrue(cancelled.cancel());
+		assertTrue(cancelled.isCancelled());
+		
+		//Only once
+		assertFalse(cancelled.cancel());
+		
+		assertTrue(proc.waitFor(1, 5000));
+		Thread.sleep(100);
+		
+		synchronized (proc) {
+			assertEquals(Collections.singletonList("FIRED"), proc.mReceived);
+		}
+		
+		//Too late to cancel
+		assertTrue(fired.isFired());
+		assertFalse(fired.cancel());
+		
+		proc.stopMessageProcessor();
+	}
+	
+	@Test
+	public void testPastWheelSize() throws Exception {
+		TimedProcessor proc = new TimedProcessor();
+		
+		//Same slot as a timer one turn of the wheel later
+		proc.PostTimerMessage(new TimerMessage(4096 + 100, "LATER"));
+		proc.PostTimerMessage(new TimerMessage(100, "SOONER"));
+		
+		assertTrue(proc.waitFor(1, 2000));
+		synchronized (proc) {
+			assertEquals(1, proc.mReceived.size());
+			assertEquals("SOONER", proc.mReceived.get(0));
+		}
+		
+		assertTrue(proc.waitFor(2, 10000));
+		synchronized (proc) {
+			assertEquals("LATER", proc.mReceived.get(1));
+			assertTrue(proc.mLate.get(1) >= 0);
+		}
+		
+		proc.stopMessageProcessor();
+	}
+	
+	@Test
+	public void testManyTimers() throws Exception {
+		TimedProcessor proc = new TimedProcessor();
+		
+		//Lots - some cancelled
+		int total 		= 5000;
+		int cancelled 	= 0;
+		for(int i=0;i<total;i++) {
+			TimerHandle handle = proc.PostTimerMessage(new TimerMessage(i % 500, "TIMER"));
+			//A timer with no delay may already have fired
+			if(i % 5 == 0 && handle.cancel()) {
+				cancelled++;
+			}
+		}
+		
+		assertTrue(proc.waitFor(total - cancelled, 10000));
+		Thread.sleep(50);
+		
+		synchronized (proc) {
+			assertEquals(total - cancelled, proc.mReceived.size());
+		}
+		
+		proc.stopMessageProcessor();
+	}
+}